@@ -0,0 +1,137 @@
+package org.jacob.obio.bench;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compares a JMH JSON result file ({@code -rf json}) against a baseline result file and reports every
+ * benchmark whose score got worse by more than a tolerance.
+ * <p>
+ * Benchmarks are matched by name and parameters. For throughput a lower score is worse, for all time based
+ * modes a higher score is worse. The JSON is read with SnakeYAML, which the project already depends on.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+public final class BaselineComparator {
+
+    private final double tolerance;
+
+    /**
+     * @param tolerance The accepted relative slowdown, e.g. {@code 0.10} for 10%.
+     */
+    public BaselineComparator(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * A benchmark present in both files.
+     *
+     * @param id       Benchmark name and parameters.
+     * @param mode     The JMH mode, e.g. {@code avgt}.
+     * @param unit     The score unit.
+     * @param baseline The baseline score.
+     * @param current  The current score.
+     * @param change   The relative slowdown, positive when worse.
+     */
+    public record Comparison(String id, String mode, String unit, double baseline, double current, double change) {
+    }
+
+    /**
+     * @param baseline The baseline JMH JSON file.
+     * @param current  The current JMH JSON file.
+     * @return One comparison per benchmark present in both files, sorted by id.
+     * @throws IOException if a file cannot be read.
+     */
+    public List<Comparison> compare(Path baseline, Path current) throws IOException {
+        var before = read(baseline);
+        var after = read(current);
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : after.entrySet()) {
+            var old = before.get(entry.getKey());
+            if (old == null) {
+                continue;
+            }
+            var now = entry.getValue();
+            var relative = old.score() == 0 ? 0 : (now.score() - old.score()) / old.score();
+            var change = "thrpt".equals(now.mode()) ? -relative : relative;
+            comparisons.add(new Comparison(entry.getKey(), now.mode(), now.unit(), old.score(), now.score(), change));
+        }
+        comparisons.sort(Comparator.comparing(Comparison::id));
+        return comparisons;
+    }
+
+    /**
+     * @return Whether the comparison is slower than the tolerance allows.
+     */
+    public boolean isRegression(Comparison comparison) {
+        return comparison.change() > tolerance;
+    }
+
+    /**
+     * Prints the comparison table.
+     *
+     * @return The number of regressions.
+     */
+    public int report(List<Comparison> comparisons) {
+        var regressions = 0;
+        for (Comparison c : comparisons) {
+            var regression = isRegression(c);
+            if (regression) {
+                ++regressions;
+            }
+            System.out.printf("%-9s %-80s %12.3f -> %12.3f %-8s %+7.1f%%%n", regression ? "REGRESSED" : "ok",
+                    c.id(), c.baseline(), c.current(), c.unit(), c.change() * 100);
+        }
+        System.out.printf("%d benchmark(s) compared, %d regression(s) beyond %.0f%%%n",
+                comparisons.size(), regressions, tolerance * 100);
+        return regressions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Score> read(Path file) throws IOException {
+        List<Map<String, Object>> results;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            results = new Yaml().load(reader);
+        }
+        Map<String, Score> scores = new HashMap<>();
+        if (results == null) {
+            return scores;
+        }
+        for (Map<String, Object> result : results) {
+            var id = new StringBuilder(String.valueOf(result.get("benchmark")));
+            var params = (Map<String, Object>) result.get("params");
+            if (params != null) {
+                new TreeMap<>(params).forEach((k, v) -> id.append(' ').append(k).append('=').append(v));
+            }
+            var metric = (Map<String, Object>) result.get("primaryMetric");
+            scores.put(id.toString(), new Score(String.valueOf(result.get("mode")),
+                    String.valueOf(metric.get("scoreUnit")), Double.parseDouble(String.valueOf(metric.get("score")))));
+        }
+        return scores;
+    }
+
+    private record Score(String mode, String unit, double score) {
+    }
+
+    /**
+     * Command line: {@code BaselineComparator <baseline.json> <current.json> [tolerance]}.
+     * Exits with status 1 if there is any regression.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [tolerance, default 0.10]");
+            System.exit(2);
+        }
+        var comparator = new BaselineComparator(args.length > 2 ? Double.parseDouble(args[2]) : 0.10);
+        var regressions = comparator.report(comparator.compare(Paths.get(args[0]), Paths.get(args[1])));
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,65 @@
+package org.jacob.obio.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks, keeps the JSON result and compares it with the committed baseline.
+ * <p>
+ * Run from the repository root, e.g. {@code java -jar obio-bench/target/benchmarks.jar [JMH options]}.
+ * Results are written to {@value #RESULTS_DIR}; if {@value #BASELINE_FILE} exists every benchmark is
+ * compared against it and the exit status is {@code 1} on a regression. {@code -Dobio.bench.updateBaseline=true}
+ * replaces the baseline with the new result instead, and {@code -Dobio.bench.tolerance} sets the accepted
+ * slowdown (default {@code 0.10}). Any standard JMH option, such as a benchmark name filter, is passed through.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+public final class BenchmarkRunner {
+
+    public static final String RESULTS_DIR = "obio-bench/results";
+
+    public static final String BASELINE_FILE = "obio-bench/baselines/baseline.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        var resultsDir = Files.createDirectories(Paths.get(RESULTS_DIR));
+        var result = resultsDir.resolve(
+                "result-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+
+        var baseline = Paths.get(BASELINE_FILE);
+        if (Boolean.getBoolean("obio.bench.updateBaseline")) {
+            Files.createDirectories(baseline.getParent());
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + baseline);
+        } else if (Files.isRegularFile(baseline)) {
+            var comparator = new BaselineComparator(
+                    Double.parseDouble(System.getProperty("obio.bench.tolerance", "0.10")));
+            if (comparator.report(comparator.compare(baseline, result)) > 0) {
+                System.exit(1);
+            }
+        } else {
+            System.out.println("No baseline at " + baseline + ", record one with -Dobio.bench.updateBaseline=true");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.jacob.obio.bench;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+import org.jacob.obio.common.helper.ObioCommonHelper;
+import org.jacob.obio.common.response.ResManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message and path mapping lookups as done on every command: {@link ResManager#loadResString} and
+ * {@link ObioCommonHelper#getIllustrationsPathMap()}.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigLookupBenchmark {
+
+    @Setup
+    public void setUp() throws IOException {
+        // Load both files before measuring
+        ResManager.loadResString("ReadAndMoveController_0");
+        ObioCommonHelper.getIllustrationsPathMap();
+    }
+
+    @Benchmark
+    public String loadResStringWithoutArgs() {
+        return ResManager.loadResString("ReadAndMoveController_0");
+    }
+
+    @Benchmark
+    public String loadResStringWithArgs() {
+        return ResManager.loadResString("ReadAndMoveService_10", "42", "50", "1234");
+    }
+
+    @Benchmark
+    public Map<String, String> getIllustrationsPathMap() throws IOException {
+        return ObioCommonHelper.getIllustrationsPathMap();
+    }
+
+    @Benchmark
+    public String defaultSourcePathLookup() throws IOException {
+        return ObioCommonHelper.getIllustrationsPathMap().get(ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY);
+    }
+}
@@ -0,0 +1,63 @@
+package org.jacob.obio.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The file names that have really arrived in the buffer folder, taken from the archived
+ * {@code unclassified-remaining-images-*.log} files.
+ * <p>
+ * Every {@code New files added: <name>; Remaining ...} line contributes its name, without extension,
+ * in the order the files arrived. Paths are relative to the repository root, so benchmarks have to be
+ * started from there.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+public final class FilenameCorpus {
+
+    public static final String ARCHIVES_PATH = "obio-core/src/main/resources/logs-data/archives";
+
+    private static final String PREFIX = "New files added: ";
+
+    private FilenameCorpus() {
+    }
+
+    /**
+     * @return The names of all archived arrivals, without extension.
+     * @throws UncheckedIOException if the archives cannot be read or contain no names.
+     */
+    public static List<String> load() {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(ARCHIVES_PATH), "*.log")) {
+            List<Path> logs = new ArrayList<>();
+            stream.forEach(logs::add);
+            logs.sort(null);
+            for (Path log : logs) {
+                for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+                    var start = line.indexOf(PREFIX);
+                    var end = line.indexOf(';', start + PREFIX.length());
+                    if (start >= 0 && end > 0) {
+                        var name = line.substring(start + PREFIX.length(), end);
+                        var dot = name.lastIndexOf('.');
+                        names.add(dot > 0 && name.length() - dot <= 5 ? name.substring(0, dot) : name);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the corpus from " + ARCHIVES_PATH
+                    + ", run the benchmarks from the repository root", e);
+        }
+        if (names.isEmpty()) {
+            throw new UncheckedIOException(new IOException("No file names found in " + ARCHIVES_PATH));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,58 @@
+package org.jacob.obio.bench;
+
+import org.jacob.obio.ifp.service.FilenameParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cost of one {@link FilenameParser} call per site, with a typical file name of that site.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilenameParserBenchmark {
+
+    private static final FilenameParser PARSER = new FilenameParser();
+
+    private static final Map<String, Sample> SAMPLES = Map.of(
+            "pixiv", new Sample(PARSER::pixivIllustrationsOrIllustratorIdParser, "123456789_p0"),
+            "twitter", new Sample(PARSER::twitterParser, "httpstwitter.comYui__84status1824831878609940892photo1"),
+            "x", new Sample(PARSER::twitterParser, "httpsx.comnevercrymoonstatus1824191246140907753photo1"),
+            "danbooru", new Sample(PARSER::danbooruParser, "httpsdanbooru.donmai.usposts7843521"),
+            "bilibiliOpus", new Sample(PARSER::bilibiliIllustrationsParser,
+                    "httpswww.bilibili.comopus956735342946615305"),
+            "bilibiliVideo", new Sample(PARSER::bilibiliVideosParser, "httpswww.bilibili.comvideoBV1Gx4y1E7Tk"),
+            "miyoushe", new Sample(PARSER::miyousheParser, "httpswww.miyoushe.comysarticle54026347"),
+            "deviantart", new Sample(PARSER::deviantartParser,
+                    "httpswww.deviantart.comsevenicsartRaiden-Shogun-1012345678"),
+            "facebook", new Sample(PARSER::facebookParser, "httpswww.facebook.comphotofbid=1234567890"),
+            "youtube", new Sample(PARSER::youtubeParser, "httpswww.youtube.comwatchv=dQw4w9WgXcQ"));
+
+    @Param({"pixiv", "twitter", "x", "danbooru", "bilibiliOpus", "bilibiliVideo", "miyoushe", "deviantart",
+            "facebook", "youtube"})
+    public String site;
+
+    private Sample sample;
+
+    @Setup
+    public void setUp() {
+        sample = SAMPLES.get(site);
+    }
+
+    @Benchmark
+    public String parse() {
+        return sample.parser().apply(sample.fileName());
+    }
+
+    private record Sample(UnaryOperator<String> parser, String fileName) {
+    }
+}
@@ -0,0 +1,113 @@
+package org.jacob.obio.bench;
+
+import org.jacob.obfo.core.service.move.FileStoreThrottle;
+import org.jacob.obfo.core.service.move.MoveExecutor;
+import org.jacob.obfo.core.service.move.MovePlanner;
+import org.jacob.obfo.core.service.move.MoveReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.FileVisitResult;
+import java.nio.file.SimpleFileVisitor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The plan and execute phases of a move, as run by {@code ReadAndMoveService}, on a temporary directory.
+ * <p>
+ * {@code ReadAndMoveService} itself is not called because it appends to the backlog log file of the
+ * repository; the benchmark drives the same {@link MovePlanner} and {@link MoveExecutor} instead.
+ * Every invocation moves a freshly created buffer of {@link #files} files of {@link #fileSize} bytes
+ * within one file store.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoveBenchmark {
+
+    @Param({"50", "500"})
+    public int files;
+
+    @Param({"4096", "1048576"})
+    public int fileSize;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private Path root;
+
+    private Path source;
+
+    private Path target;
+
+    private ExecutorService executorService;
+
+    private MoveExecutor moveExecutor;
+
+    private final MovePlanner movePlanner = new MovePlanner();
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        root = Files.createTempDirectory("obio-bench-move");
+        executorService = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(3);
+        moveExecutor = new MoveExecutor(executorService, new FileStoreThrottle(16, 2));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        source = Files.createDirectories(root.resolve("source"));
+        target = root.resolve("target");
+        var content = new byte[fileSize];
+        for (var i = 0; i < files; ++i) {
+            Files.write(source.resolve("httpsx.combenchstatus" + i + "photo1.jpg"), content);
+        }
+    }
+
+    @Benchmark
+    public MoveReport planAndExecute() throws IOException, InterruptedException {
+        return moveExecutor.execute(movePlanner.plan(source, target));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() throws IOException {
+        delete(root);
+        Files.createDirectories(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        executorService.shutdown();
+        delete(root);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException e) throws IOException {
+                Files.delete(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package org.jacob.obio.bench;
+
+import org.jacob.obio.ifp.api.IFPBatchParsingApi;
+import org.jacob.obio.ifp.controller.FileNameParserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch plus parsing of {@link FileNameParserService#parseFileName(String)} over the real arrivals of
+ * the {@link FilenameCorpus}, one operation being one pass over the whole corpus.
+ *
+ * @author Kotohiko
+ * @since 08:19 Oct 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseFileNameBenchmark {
+
+    private FileNameParserService service;
+
+    private List<String> corpus;
+
+    @Setup
+    public void setUp() {
+        service = new FileNameParserService();
+        corpus = FilenameCorpus.load();
+    }
+
+    @Benchmark
+    public void parseFileName(Blackhole blackhole) {
+        for (String name : corpus) {
+            try {
+                blackhole.consume(service.parseFileName(name));
+            } catch (RuntimeException e) {
+                // Some archived names are not valid for their site's parser
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String name : corpus) {
+            blackhole.consume(service.parse(name));
+        }
+    }
+
+    @Benchmark
+    public Object parseAllBatch() throws InterruptedException {
+        return new IFPBatchParsingApi(service, Runtime.getRuntime().availableProcessors()).parseAll(corpus);
+    }
+}
@@ -9,6 +9,11 @@ public class ObioCommonConstants {
     public static final String MESSAGES_YAML_PATH
             = "obio-common/src/main/resources/conf/messages.yaml";
 
+    /**
+     * System property holding the language tag of the message bundle to use, e.g. {@code zh} or {@code ja}.
+     */
+    public static final String MESSAGES_LOCALE_PROPERTY = "obio.locale";
+
     public static final String SEPARATOR_LINE = "-----------------------------------------------------------";
 
     public static final String SUCCESS_SEPARATOR_LINE
@@ -20,6 +25,11 @@ public class ObioCommonConstants {
     public static final String ILLUSTRATIONS_CONF_YML_PATH
             = "obio-core/src/main/resources/conf/illustration-classification-path-mapping-conf.yaml";
 
+    /**
+     * Key of the buffer folder entry in the path mapping YAML.
+     */
+    public static final String DEFAULT_SOURCE_PATH_KEY = "Default source path";
+
     private ObioCommonConstants() {
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.jacob.obio.common.enums;
+
+/**
+ * The problems {@code AliasTable.validate} reports in the path mapping YAML.
+ *
+ * @author Kotohiko
+ * @since 08:44 Oct 18, 2026
+ */
+public enum AliasIssueEnums {
+    /**
+     * The same path code is written on several lines with different targets. Only the last line is used, the
+     * others are unreachable.
+     */
+    CONFLICT,
+    /**
+     * The same path code is written on several lines with the same target.
+     */
+    DUPLICATE,
+    /**
+     * Path codes of different targets differ only in case, width or kana, so only their exact spelling
+     * resolves them.
+     */
+    AMBIGUOUS,
+}
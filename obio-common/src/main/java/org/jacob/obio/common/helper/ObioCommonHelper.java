@@ -1,11 +1,16 @@
 package org.jacob.obio.common.helper;
 
-import org.jacob.obio.common.constants.ObioCommonConstants;
-import org.yaml.snakeyaml.Yaml;
+import org.jacob.obio.common.mapping.PathMappingService;
+import org.jacob.obio.common.mapping.PathMappingSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -17,6 +22,8 @@ import java.util.Map;
  */
 public class ObioCommonHelper {
 
+    private static final Logger logger = LoggerFactory.getLogger(ObioCommonHelper.class);
+
     /**
      * Just one simple line of code is needed to obtain real-time time in standard format.
      */
@@ -24,6 +31,30 @@ public class ObioCommonHelper {
         return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
+    /**
+     * Reads an enum-valued system property, ignoring case and surrounding blanks. A value that names no constant
+     * is logged and replaced by the default, so a typo in a {@code -D} option never keeps the application from
+     * starting.
+     *
+     * @param key          The system property.
+     * @param type         The enum class.
+     * @param defaultValue The value if the property is missing or invalid.
+     * @param <E>          The enum type.
+     * @return The configured constant, or the default.
+     */
+    public static <E extends Enum<E>> E enumProperty(String key, Class<E> type, E defaultValue) {
+        var value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException _) {
+            logger.warn("Unknown value \"{}\" of -D{}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Common console reader.
      *
@@ -33,15 +64,31 @@ public class ObioCommonHelper {
         return new BufferedReader(new InputStreamReader(System.in));
     }
 
+    /**
+     * Returns the classification path mapping.
+     * <p>
+     * The map comes from the current {@link PathMappingService} snapshot: it is parsed once, reloaded in the
+     * background when the YAML file changes and is unmodifiable.
+     *
+     * @return Path code to target directory map.
+     * @throws IOException if the YAML file has never been loaded successfully.
+     */
     public static Map<String, String> getIllustrationsPathMap() throws IOException {
-        FileInputStream ymlFileStream;
+        return getPathMappingSnapshot().aliases();
+    }
 
-        try {
-            ymlFileStream = new FileInputStream(ObioCommonConstants.ILLUSTRATIONS_CONF_YML_PATH);
-        } catch (FileNotFoundException e) {
+    /**
+     * Returns the current path mapping snapshot, for a command that needs its map and its path code index to
+     * agree.
+     *
+     * @return The current {@link PathMappingService} snapshot.
+     * @throws IOException if the YAML file has never been loaded successfully.
+     */
+    public static PathMappingSnapshot getPathMappingSnapshot() throws IOException {
+        var service = PathMappingService.getInstance();
+        if (!service.snapshot().isLoaded() && !service.reload()) {
             throw new IOException("ReadAndMoveService_1");
         }
-        return new Yaml().load(ymlFileStream);
-
+        return service.snapshot();
     }
 }
\ No newline at end of file
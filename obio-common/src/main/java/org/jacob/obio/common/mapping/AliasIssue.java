@@ -0,0 +1,18 @@
+package org.jacob.obio.common.mapping;
+
+import org.jacob.obio.common.enums.AliasIssueEnums;
+
+import java.util.List;
+
+/**
+ * A problem found by {@link AliasTable#validate(PathMappingOutline)}.
+ *
+ * @param kind    The kind of problem.
+ * @param aliases The path codes involved.
+ * @param lines   The one-based lines they are written on.
+ * @param targets The distinct targets involved.
+ * @author Kotohiko
+ * @since 08:44 Oct 18, 2026
+ */
+public record AliasIssue(AliasIssueEnums kind, List<String> aliases, List<Integer> lines, List<String> targets) {
+}
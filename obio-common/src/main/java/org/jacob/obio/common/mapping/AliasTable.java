@@ -0,0 +1,395 @@
+package org.jacob.obio.common.mapping;
+
+import org.jacob.obio.common.enums.AliasIssueEnums;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The path mapping as two tables: the distinct target directories, and the path codes pointing at them.
+ * <p>
+ * Every path code of the YAML file repeats the full target path, and the targets of one franchise repeat the
+ * same parent folders, the way the {@code #} and {@code ##} headings nest. Here every target is stored once,
+ * as a node of a trie of folder names: a node is its parent node and one name from a pool of distinct names,
+ * so {@code S:\NewGallery\二次元世界\Genshin Impact／原神／げんしん} is stored once for all Genshin targets.
+ * The path codes are a sorted array with the target id of each, looked up by binary search. The aliases of a
+ * target are found by walking the trie to its node, which maps directly to the target id, and a reverse index
+ * of the ids.
+ * <p>
+ * The table is immutable. {@link #asMap()} is an unmodifiable {@code Map} view over it that builds the target
+ * string of an entry when it is read.
+ *
+ * @author Kotohiko
+ * @since 08:44 Oct 18, 2026
+ */
+public final class AliasTable {
+
+    /**
+     * The table without any path code.
+     */
+    public static final AliasTable EMPTY = of(Map.of());
+
+    /**
+     * Distinct folder names.
+     */
+    private final String[] names;
+
+    /**
+     * Per trie node: the index of its name in {@link #names}.
+     */
+    private final int[] nameOf;
+
+    /**
+     * Per trie node: its parent node, {@code -1} for the first folder of a path.
+     */
+    private final int[] parentOf;
+
+    /**
+     * (parent node + 1, name index) packed into a long, to the child node.
+     */
+    private final Map<Long, Integer> childOf;
+
+    /**
+     * Per target id: the trie node of the target directory.
+     */
+    private final int[] targetNode;
+
+    /**
+     * Per target id: the separator the target was written with.
+     */
+    private final char[] separatorOf;
+
+    /**
+     * Per trie node and separator, at {@code node * 2 + (separator == '\\' ? 1 : 0)}: the target id of that
+     * directory, {@code -1} if the node is only a folder on the way to targets.
+     */
+    private final int[] nodeTarget;
+
+    /**
+     * Path codes, sorted.
+     */
+    private final String[] aliases;
+
+    /**
+     * Per path code, in the order of {@link #aliases}: its target id.
+     */
+    private final int[] aliasTarget;
+
+    /**
+     * The path codes of target id {@code t} are {@code aliases[reverse[reverseStart[t]]]} up to
+     * {@code reverseStart[t + 1]}.
+     */
+    private final int[] reverseStart;
+
+    private final int[] reverse;
+
+    private final Map<String, String> view = new View();
+
+    private AliasTable(String[] names, int[] nameOf, int[] parentOf, Map<Long, Integer> childOf, int[] targetNode,
+                       char[] separatorOf, String[] aliases, int[] aliasTarget) {
+        this.names = names;
+        this.nameOf = nameOf;
+        this.parentOf = parentOf;
+        this.childOf = childOf;
+        this.targetNode = targetNode;
+        this.separatorOf = separatorOf;
+        this.aliases = aliases;
+        this.aliasTarget = aliasTarget;
+
+        this.nodeTarget = new int[nameOf.length * 2];
+        Arrays.fill(nodeTarget, -1);
+        for (var id = 0; id < targetNode.length; ++id) {
+            nodeTarget[slot(targetNode[id], separatorOf[id])] = id;
+        }
+
+        this.reverseStart = new int[targetNode.length + 1];
+        for (int target : aliasTarget) {
+            ++reverseStart[target + 1];
+        }
+        for (var t = 0; t < targetNode.length; ++t) {
+            reverseStart[t + 1] += reverseStart[t];
+        }
+        this.reverse = new int[aliases.length];
+        var next = Arrays.copyOf(reverseStart, targetNode.length);
+        for (var i = 0; i < aliases.length; ++i) {
+            reverse[next[aliasTarget[i]]++] = i;
+        }
+    }
+
+    /**
+     * Builds the table of a path code map.
+     *
+     * @param aliasMap Path code to target directory.
+     * @return The table.
+     */
+    public static AliasTable of(Map<String, String> aliasMap) {
+        var builder = new Builder();
+        var sorted = aliasMap.keySet().toArray(String[]::new);
+        Arrays.sort(sorted);
+        var aliasTarget = new int[sorted.length];
+        for (var i = 0; i < sorted.length; ++i) {
+            aliasTarget[i] = builder.target(aliasMap.get(sorted[i]));
+        }
+        return builder.build(sorted, aliasTarget);
+    }
+
+    /**
+     * @param alias The path code.
+     * @return The target directory, or {@code null} if the path code is unknown.
+     */
+    public String target(String alias) {
+        var index = Arrays.binarySearch(aliases, alias);
+        return index < 0 ? null : targetPath(aliasTarget[index]);
+    }
+
+    /**
+     * @param target The target directory, as written in the YAML file.
+     * @return The path codes of the target, sorted; empty if no path code points at it.
+     */
+    public List<String> aliasesOf(String target) {
+        var id = targetId(target);
+        if (id < 0) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(reverseStart[id + 1] - reverseStart[id]);
+        for (var i = reverseStart[id]; i < reverseStart[id + 1]; ++i) {
+            result.add(aliases[reverse[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of path codes.
+     */
+    public int size() {
+        return aliases.length;
+    }
+
+    /**
+     * @return The number of distinct target directories.
+     */
+    public int targetCount() {
+        return targetNode.length;
+    }
+
+    /**
+     * @return The number of trie nodes, i.e. distinct folders on the paths of the targets.
+     */
+    public int folderCount() {
+        return nameOf.length;
+    }
+
+    /**
+     * @return An unmodifiable map view of path code to target directory, sorted by path code.
+     */
+    public Map<String, String> asMap() {
+        return view;
+    }
+
+    /**
+     * Checks the lines of the YAML file for path codes that are not used the way they are written.
+     * <p>
+     * A YAML parser keeps only the last of several lines with the same key, so repeated path codes are only
+     * visible in the lines themselves. Path codes that differ only in case, width or kana are compared with
+     * {@link PathCodeIndex#normalize(String)}.
+     *
+     * @param outline The lines of the YAML file.
+     * @return The problems, in the order of their first line.
+     */
+    public static List<AliasIssue> validate(PathMappingOutline outline) {
+        Map<String, List<PathMappingEntry>> byAlias = new LinkedHashMap<>();
+        for (PathMappingEntry entry : outline.entries()) {
+            byAlias.computeIfAbsent(entry.alias(), a -> new ArrayList<>()).add(entry);
+        }
+
+        List<AliasIssue> issues = new ArrayList<>();
+        Map<String, List<PathMappingEntry>> byKey = new LinkedHashMap<>();
+        for (Map.Entry<String, List<PathMappingEntry>> entry : byAlias.entrySet()) {
+            var lines = entry.getValue();
+            // The entry the parser keeps
+            var used = lines.getLast();
+            byKey.computeIfAbsent(PathCodeIndex.normalize(entry.getKey()), k -> new ArrayList<>()).add(used);
+            if (lines.size() == 1) {
+                continue;
+            }
+            var targets = lines.stream().map(PathMappingEntry::target).distinct().toList();
+            issues.add(new AliasIssue(targets.size() > 1 ? AliasIssueEnums.CONFLICT : AliasIssueEnums.DUPLICATE,
+                    List.of(entry.getKey()), lines.stream().map(PathMappingEntry::line).toList(), targets));
+        }
+        for (List<PathMappingEntry> variants : byKey.values()) {
+            var targets = variants.stream().map(PathMappingEntry::target).distinct().toList();
+            if (targets.size() > 1) {
+                issues.add(new AliasIssue(AliasIssueEnums.AMBIGUOUS,
+                        variants.stream().map(PathMappingEntry::alias).toList(),
+                        variants.stream().map(PathMappingEntry::line).toList(), targets));
+            }
+        }
+        issues.sort(Comparator.comparingInt(issue -> issue.lines().getFirst()));
+        return issues;
+    }
+
+    private String targetPath(int id) {
+        var node = targetNode[id];
+        Deque<String> parts = new ArrayDeque<>();
+        while (node >= 0) {
+            parts.push(names[nameOf[node]]);
+            node = parentOf[node];
+        }
+        return String.join(String.valueOf(separatorOf[id]), parts);
+    }
+
+    private int targetId(String target) {
+        var node = -1;
+        for (String part : split(target)) {
+            var name = Arrays.binarySearch(names, part);
+            if (name < 0) {
+                return -1;
+            }
+            var child = childOf.get(pack(node, name));
+            if (child == null) {
+                return -1;
+            }
+            node = child;
+        }
+        return node < 0 ? -1 : nodeTarget[slot(node, separator(target))];
+    }
+
+    private static int slot(int node, char separator) {
+        return node * 2 + (separator == '\\' ? 1 : 0);
+    }
+
+    private static char separator(String path) {
+        return path.indexOf('\\') >= 0 ? '\\' : '/';
+    }
+
+    private static String[] split(String path) {
+        return path.split(Pattern.quote(String.valueOf(separator(path))), -1);
+    }
+
+    private static long pack(int parent, int name) {
+        return (long) (parent + 1) << 32 | name;
+    }
+
+    /**
+     * Interns the folder names and nodes while the targets are added.
+     */
+    private static final class Builder {
+
+        private final Map<String, Integer> nameIds = new HashMap<>();
+
+        private final List<String> names = new ArrayList<>();
+
+        private final List<int[]> nodes = new ArrayList<>();
+
+        private final Map<Long, Integer> childOf = new HashMap<>();
+
+        private final Map<String, Integer> targetIds = new HashMap<>();
+
+        private final List<Integer> targetNodes = new ArrayList<>();
+
+        private final List<Character> separators = new ArrayList<>();
+
+        private int target(String path) {
+            var known = targetIds.get(path);
+            if (known != null) {
+                return known;
+            }
+            var node = -1;
+            for (String part : split(path)) {
+                var name = nameIds.computeIfAbsent(part, p -> {
+                    names.add(p);
+                    return names.size() - 1;
+                });
+                var parent = node;
+                node = childOf.computeIfAbsent(pack(parent, name), k -> {
+                    nodes.add(new int[]{name, parent});
+                    return nodes.size() - 1;
+                });
+            }
+            var id = targetNodes.size();
+            targetNodes.add(node);
+            separators.add(separator(path));
+            targetIds.put(path, id);
+            return id;
+        }
+
+        private AliasTable build(String[] aliases, int[] aliasTarget) {
+            // Sort the names so that a lookup by target can binary search them, and renumber the nodes
+            var sortedNames = names.toArray(String[]::new);
+            Arrays.sort(sortedNames);
+            var rename = new int[sortedNames.length];
+            for (var i = 0; i < sortedNames.length; ++i) {
+                rename[nameIds.get(sortedNames[i])] = i;
+            }
+            var nameOf = new int[nodes.size()];
+            var parentOf = new int[nodes.size()];
+            Map<Long, Integer> children = new HashMap<>(nodes.size() * 2);
+            for (var i = 0; i < nodes.size(); ++i) {
+                nameOf[i] = rename[nodes.get(i)[0]];
+                parentOf[i] = nodes.get(i)[1];
+                children.put(pack(parentOf[i], nameOf[i]), i);
+            }
+            var targetNode = targetNodes.stream().mapToInt(Integer::intValue).toArray();
+            var separatorOf = new char[separators.size()];
+            for (var i = 0; i < separatorOf.length; ++i) {
+                separatorOf[i] = separators.get(i);
+            }
+            return new AliasTable(sortedNames, nameOf, parentOf, children, targetNode, separatorOf, aliases,
+                    aliasTarget);
+        }
+    }
+
+    /**
+     * The {@code Map} view of the table.
+     */
+    private final class View extends AbstractMap<String, String> {
+
+        private final Set<Entry<String, String>> entries = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < aliases.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= aliases.length) {
+                            throw new NoSuchElementException();
+                        }
+                        var i = next++;
+                        return new SimpleImmutableEntry<>(aliases[i], targetPath(aliasTarget[i]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return aliases.length;
+            }
+        };
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String alias ? target(alias) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String alias && Arrays.binarySearch(aliases, alias) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return aliases.length;
+        }
+    }
+}
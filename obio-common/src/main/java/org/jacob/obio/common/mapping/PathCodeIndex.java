@@ -0,0 +1,232 @@
+package org.jacob.obio.common.mapping;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * An in-memory index of the path codes of one {@link PathMappingSnapshot}, for input that is not exactly a
+ * path code.
+ * <p>
+ * Every path code is normalized by {@link #normalize(String)}, so {@code Klee}, {@code klee} and
+ * {@code ｋｌｅｅ}, or {@code Hu Tao} and {@code hutao}, or {@code クレー} and {@code くれー} are the same key.
+ * A lookup tries, in order:
+ * <ol>
+ *   <li>the input as written;</li>
+ *   <li>the normalized input;</li>
+ *   <li>the path codes that start with the normalized input (a binary search over the sorted keys);</li>
+ *   <li>the path codes that share the most character bigrams with the input (an inverted bigram index,
+ *   ranked by the Dice coefficient). Bigrams work the same way for Latin, CJK and kana text.</li>
+ * </ol>
+ * Only the first two resolve the input, and only if they lead to one target directory. Prefix and bigram hits
+ * are suggestions, ranked in that order; a typo or a half-typed path code never moves files.
+ *
+ * @author Kotohiko
+ * @since 08:42 Oct 18, 2026
+ */
+public final class PathCodeIndex {
+
+    /**
+     * The lowest bigram similarity suggested.
+     */
+    private static final double MIN_SCORE = 0.3;
+
+    /**
+     * Pads the keys, so that the first and the last characters get a bigram of their own.
+     */
+    private static final char START = '\u0002';
+
+    private static final char END = '\u0003';
+
+    private final long version;
+
+    /**
+     * Path codes as written, in the order of the snapshot map.
+     */
+    private final Map<String, String> targets;
+
+    /**
+     * Distinct normalized keys, sorted.
+     */
+    private final String[] keys;
+
+    /**
+     * The path codes of every key.
+     */
+    private final String[][] aliasesByKey;
+
+    /**
+     * The number of distinct bigrams of every key.
+     */
+    private final int[] gramCounts;
+
+    /**
+     * Bigram, two chars packed into an int, to the indices of the keys containing it.
+     */
+    private final Map<Integer, int[]> postings;
+
+    private PathCodeIndex(long version, Map<String, String> targets) {
+        this.version = version;
+        this.targets = targets;
+
+        Map<String, List<String>> byKey = new TreeMap<>();
+        for (String alias : targets.keySet()) {
+            var key = normalize(alias);
+            if (!key.isEmpty()) {
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(alias);
+            }
+        }
+        this.keys = byKey.keySet().toArray(String[]::new);
+        this.aliasesByKey = new String[keys.length][];
+        this.gramCounts = new int[keys.length];
+        Map<Integer, List<Integer>> lists = new HashMap<>();
+        for (var i = 0; i < keys.length; ++i) {
+            aliasesByKey[i] = byKey.get(keys[i]).toArray(String[]::new);
+            var grams = grams(keys[i]);
+            gramCounts[i] = grams.size();
+            for (int gram : grams) {
+                lists.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<Integer, int[]> packed = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Integer, List<Integer>> entry : lists.entrySet()) {
+            packed.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.postings = packed;
+    }
+
+    /**
+     * Indexes the path codes of a snapshot. The buffer folder entry is not a path code and is left out.
+     *
+     * @param snapshot The snapshot.
+     * @return The index.
+     */
+    public static PathCodeIndex of(PathMappingSnapshot snapshot) {
+        Map<String, String> targets = new LinkedHashMap<>(snapshot.aliases());
+        targets.remove(ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY);
+        return new PathCodeIndex(snapshot.version(), Collections.unmodifiableMap(targets));
+    }
+
+    /**
+     * @return The version of the snapshot this index was built from.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Resolves an input to a target directory, or suggests path codes.
+     *
+     * @param input The input, e.g. {@code Klee}, {@code KLEE}, {@code furi} or {@code kele}.
+     * @param limit The maximum number of suggestions.
+     * @return The resolved target, or the suggestions.
+     */
+    public PathCodeLookup lookup(String input, int limit) {
+        var target = targets.get(input);
+        if (target != null) {
+            return PathCodeLookup.resolved(input, target);
+        }
+        var key = normalize(input);
+        if (key.isEmpty()) {
+            return PathCodeLookup.suggest(List.of());
+        }
+
+        Map<String, PathCodeMatch> byTarget = new LinkedHashMap<>();
+        var exact = Arrays.binarySearch(keys, key);
+        if (exact >= 0) {
+            addAll(byTarget, exact, 1.0);
+            if (byTarget.size() == 1) {
+                var match = byTarget.values().iterator().next();
+                return PathCodeLookup.resolved(match.alias(), match.target());
+            }
+        }
+
+        // Every key with the prefix sorts in one run starting at the insertion point, shortest keys first
+        List<Integer> prefixed = new ArrayList<>();
+        for (var i = exact >= 0 ? exact + 1 : -exact - 1; i < keys.length && keys[i].startsWith(key); ++i) {
+            prefixed.add(i);
+        }
+        prefixed.sort(Comparator.comparingInt((Integer i) -> keys[i].length()).thenComparing(i -> keys[i]));
+        for (int i : prefixed) {
+            addAll(byTarget, i, 1.0);
+        }
+
+        for (Map.Entry<Integer, Double> candidate : similar(key)) {
+            if (byTarget.size() >= limit) {
+                break;
+            }
+            addAll(byTarget, candidate.getKey(), candidate.getValue());
+        }
+        var suggestions = new ArrayList<>(byTarget.values());
+        return PathCodeLookup.suggest(suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions);
+    }
+
+    /**
+     * Folds the differences that should not matter when typing a path code: Unicode compatibility forms
+     * (full-width letters, half-width kana) by NFKC, case, katakana against hiragana, and whitespace and
+     * separators such as {@code ・}, {@code ·}, {@code -} and {@code _}.
+     *
+     * @param s The text.
+     * @return The normalized text.
+     */
+    public static String normalize(String s) {
+        var folded = Normalizer.normalize(s, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        var sb = new StringBuilder(folded.length());
+        for (var i = 0; i < folded.length(); ++i) {
+            var c = folded.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)
+                    || c == '・' || c == '·' || c == '-' || c == '_') {
+                continue;
+            }
+            // Katakana ァ..ヶ to hiragana ぁ..ゖ
+            sb.append(c >= 'ァ' && c <= 'ヶ' ? (char) (c - 0x60) : c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return The indices of the keys sharing bigrams with the key, with their Dice coefficient, best first.
+     */
+    private List<Map.Entry<Integer, Double>> similar(String key) {
+        var grams = grams(key);
+        Map<Integer, Integer> common = new HashMap<>();
+        for (int gram : grams) {
+            var keyIndices = postings.get(gram);
+            if (keyIndices != null) {
+                for (int i : keyIndices) {
+                    common.merge(i, 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<Integer, Double>> scored = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : common.entrySet()) {
+            var score = 2.0 * entry.getValue() / (grams.size() + gramCounts[entry.getKey()]);
+            if (score >= MIN_SCORE) {
+                scored.add(Map.entry(entry.getKey(), score));
+            }
+        }
+        scored.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(entry -> keys[entry.getKey()]));
+        return scored;
+    }
+
+    private void addAll(Map<String, PathCodeMatch> byTarget, int keyIndex, double score) {
+        for (String alias : aliasesByKey[keyIndex]) {
+            var target = targets.get(alias);
+            byTarget.putIfAbsent(target, new PathCodeMatch(alias, target, score));
+        }
+    }
+
+    private static Set<Integer> grams(String key) {
+        Set<Integer> grams = new HashSet<>();
+        var previous = START;
+        for (var i = 0; i < key.length(); ++i) {
+            var c = key.charAt(i);
+            grams.add(previous << 16 | c);
+            previous = c;
+        }
+        grams.add(previous << 16 | END);
+        return grams;
+    }
+}
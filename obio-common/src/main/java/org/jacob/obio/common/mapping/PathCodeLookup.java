@@ -0,0 +1,30 @@
+package org.jacob.obio.common.mapping;
+
+import java.util.List;
+
+/**
+ * The result of {@link PathCodeIndex#lookup(String, int)}: either one target directory, or suggestions.
+ *
+ * @param alias       The path code the input resolved to, {@code null} if it did not resolve to one target.
+ * @param target      The target directory, {@code null} if the input did not resolve to one target.
+ * @param suggestions The closest path codes, one per target directory, best first. Empty when resolved.
+ * @author Kotohiko
+ * @since 08:42 Oct 18, 2026
+ */
+public record PathCodeLookup(String alias, String target, List<PathCodeMatch> suggestions) {
+
+    static PathCodeLookup resolved(String alias, String target) {
+        return new PathCodeLookup(alias, target, List.of());
+    }
+
+    static PathCodeLookup suggest(List<PathCodeMatch> suggestions) {
+        return new PathCodeLookup(null, null, List.copyOf(suggestions));
+    }
+
+    /**
+     * @return Whether the input resolved to exactly one target directory.
+     */
+    public boolean isResolved() {
+        return target != null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.jacob.obio.common.mapping;
+
+/**
+ * A path code suggested by {@link PathCodeIndex}.
+ *
+ * @param alias  The path code as written in the mapping YAML.
+ * @param target The target directory.
+ * @param score  {@code 1} for an exact or prefix match, otherwise the n-gram similarity in {@code (0, 1)}.
+ * @author Kotohiko
+ * @since 08:42 Oct 18, 2026
+ */
+public record PathCodeMatch(String alias, String target, double score) {
+}
@@ -0,0 +1,18 @@
+package org.jacob.obio.common.mapping;
+
+import java.util.List;
+
+/**
+ * One {@code alias: target} line of the path mapping YAML, together with the headings it is written under.
+ *
+ * @param alias  The path code.
+ * @param target The target directory.
+ * @param groups The headings above the line, outermost first: the franchise of the
+ *               {@code ##### name #####} banner, then the {@code #} and {@code ##} headings. Empty for lines
+ *               above the first banner.
+ * @param line   The one-based line number.
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public record PathMappingEntry(String alias, String target, List<String> groups, int line) {
+}
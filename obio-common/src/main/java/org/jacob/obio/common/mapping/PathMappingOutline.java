@@ -0,0 +1,134 @@
+package org.jacob.obio.common.mapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The path mapping YAML read line by line, keeping the grouping that only exists in its comments.
+ * <p>
+ * The file groups its aliases under banner comments such as {@code ##### 原神 #####} (the franchise), then
+ * {@code # 蒙德} (the region) and {@code ## 珊瑚宫} (a group inside the region). A YAML parser drops comments,
+ * so this reads the flat {@code alias: target} lines itself and records the headings above every line.
+ * A banner clears the headings below it and a {@code #} heading clears the {@code ##} heading.
+ *
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public final class PathMappingOutline {
+
+    private final List<PathMappingEntry> entries;
+
+    private PathMappingOutline(List<PathMappingEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param yamlPath The path mapping YAML file.
+     * @return The outline of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static PathMappingOutline read(Path yamlPath) throws IOException {
+        return parse(Files.readAllLines(yamlPath, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param lines The lines of the path mapping YAML.
+     * @return The outline of the lines. Lines that are neither a heading nor an {@code alias: target} pair
+     * are ignored.
+     */
+    public static PathMappingOutline parse(List<String> lines) {
+        List<PathMappingEntry> entries = new ArrayList<>();
+        String franchise = null;
+        String region = null;
+        String group = null;
+        for (var i = 0; i < lines.size(); ++i) {
+            var line = lines.get(i).strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("###")) {
+                var title = stripHashes(line);
+                if (!title.isEmpty()) {
+                    franchise = title;
+                    region = null;
+                    group = null;
+                }
+                continue;
+            }
+            if (line.startsWith("##")) {
+                group = nullIfEmpty(stripHashes(line));
+                continue;
+            }
+            if (line.startsWith("#")) {
+                region = nullIfEmpty(stripHashes(line));
+                group = null;
+                continue;
+            }
+
+            var colon = line.indexOf(": ");
+            if (colon <= 0) {
+                continue;
+            }
+            var alias = unquote(line.substring(0, colon).strip());
+            var target = unquote(line.substring(colon + 2).strip());
+            if (alias.isEmpty() || target.isEmpty()) {
+                continue;
+            }
+            List<String> groups = new ArrayList<>(3);
+            for (String heading : new String[]{franchise, region, group}) {
+                if (heading != null) {
+                    groups.add(heading);
+                }
+            }
+            entries.add(new PathMappingEntry(alias, target, List.copyOf(groups), i + 1));
+        }
+        return new PathMappingOutline(List.copyOf(entries));
+    }
+
+    /**
+     * @return Every {@code alias: target} line in file order.
+     */
+    public List<PathMappingEntry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return The headings of every target directory, taken from its first alias, in file order.
+     */
+    public Map<String, List<String>> groupsByTarget() {
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (PathMappingEntry entry : entries) {
+            groups.putIfAbsent(entry.target(), entry.groups());
+        }
+        return Collections.unmodifiableMap(groups);
+    }
+
+    private static String stripHashes(String line) {
+        var start = 0;
+        var end = line.length();
+        while (start < end && line.charAt(start) == '#') {
+            ++start;
+        }
+        while (end > start && line.charAt(end - 1) == '#') {
+            --end;
+        }
+        return line.substring(start, end).strip();
+    }
+
+    private static String nullIfEmpty(String s) {
+        return s.isEmpty() ? null : s;
+    }
+
+    private static String unquote(String s) {
+        if (s.length() >= 2) {
+            var first = s.charAt(0);
+            if ((first == '"' || first == '\'') && s.charAt(s.length() - 1) == first) {
+                return s.substring(1, s.length() - 1);
+            }
+        }
+        return s;
+    }
+}
@@ -0,0 +1,232 @@
+package org.jacob.obio.common.mapping;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the classification path mapping YAML as an immutable {@link PathMappingSnapshot}.
+ * <p>
+ * The YAML file is parsed once. A daemon thread watches its folder and, when the file is modified, parses it
+ * again and publishes the new snapshot through a single volatile write. Readers never take a lock: they read
+ * the current snapshot reference and look up a plain immutable map. If a reload fails (e.g. the editor has only
+ * written half of the file) the previous snapshot stays in place until the next change.
+ * <p>
+ * The parsed mapping is held as an {@link AliasTable}. Every reload also checks the lines of the file with
+ * {@link AliasTable#validate(PathMappingOutline)} and logs repeated, conflicting and ambiguous path codes.
+ *
+ * @author Kotohiko
+ * @since 08:05 Oct 18, 2026
+ */
+public final class PathMappingService implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PathMappingService.class);
+
+    /**
+     * Editors tend to save a file in several writes, changes within this window cause a single reload.
+     */
+    private static final long RELOAD_SETTLE_MILLIS = 150L;
+
+    private final Path yamlPath;
+
+    /**
+     * The current snapshot. Only {@link #reload()} writes it.
+     */
+    private volatile PathMappingSnapshot snapshot = PathMappingSnapshot.EMPTY;
+
+    /**
+     * The path code index of the latest snapshot it was asked for, rebuilt on first use after a reload.
+     */
+    private volatile PathCodeIndex pathCodeIndex;
+
+    private WatchService watchService;
+
+    /**
+     * Creates a service for the given YAML file and parses it once. No watcher is started.
+     *
+     * @param yamlPath The path mapping YAML file.
+     */
+    public PathMappingService(Path yamlPath) {
+        this.yamlPath = yamlPath.toAbsolutePath();
+        reload();
+    }
+
+    /**
+     * @return The process-wide service for {@link ObioCommonConstants#ILLUSTRATIONS_CONF_YML_PATH},
+     * with hot reloading enabled.
+     */
+    public static PathMappingService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The current snapshot. Hold on to it for the duration of one command to get a consistent view.
+     */
+    public PathMappingSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @param alias The path code.
+     * @return The target directory in the current snapshot, or {@code null} if the path code is unknown.
+     */
+    public String lookup(String alias) {
+        return snapshot.lookup(alias);
+    }
+
+    /**
+     * @return The alias map of the current snapshot, as previously returned by
+     * {@code ObioCommonHelper.getIllustrationsPathMap()}. The map is unmodifiable.
+     */
+    public Map<String, String> asMap() {
+        return snapshot.aliases();
+    }
+
+    /**
+     * @return The path code index of the current snapshot, for input that is not exactly a path code.
+     */
+    public PathCodeIndex pathCodeIndex() {
+        return pathCodeIndex(snapshot);
+    }
+
+    /**
+     * @param snapshot A snapshot taken from this service.
+     * @return The path code index of the snapshot, shared while the snapshot is the current one.
+     */
+    public PathCodeIndex pathCodeIndex(PathMappingSnapshot snapshot) {
+        var index = pathCodeIndex;
+        if (index == null || index.version() != snapshot.version()) {
+            // Two threads may both build it after a reload, either result is the same
+            index = PathCodeIndex.of(snapshot);
+            if (snapshot == this.snapshot) {
+                pathCodeIndex = index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Parses the YAML file and publishes the result as the new snapshot.
+     *
+     * @return Whether the file was parsed successfully.
+     */
+    public synchronized boolean reload() {
+        if (!Files.isRegularFile(yamlPath)) {
+            logger.error("The path mapping file does not exist: {}", yamlPath);
+            return false;
+        }
+
+        try {
+            var text = Files.readString(yamlPath, StandardCharsets.UTF_8);
+            Map<String, Object> data = new Yaml().load(text);
+            Map<String, String> aliases = new HashMap<>();
+            if (data != null) {
+                for (Map.Entry<String, Object> entry : data.entrySet()) {
+                    if (entry.getKey() != null && entry.getValue() != null) {
+                        aliases.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+                    }
+                }
+            }
+            var table = AliasTable.of(aliases);
+            for (AliasIssue issue : AliasTable.validate(PathMappingOutline.parse(text.lines().toList()))) {
+                logger.warn("Path mapping {}: {} on line(s) {} -> {}", issue.kind(), issue.aliases(), issue.lines(),
+                        issue.targets());
+            }
+            var previous = snapshot;
+            snapshot = new PathMappingSnapshot(table, previous.version() + 1, Instant.now());
+            logger.info("Path mapping loaded: {} aliases of {} targets (version {})", table.size(),
+                    table.targetCount(), snapshot.version());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // SnakeYAML reports syntax errors as runtime exceptions, keep serving the previous snapshot
+            logger.error("Failed to load the path mapping file {}, keeping version {}",
+                    yamlPath, snapshot.version(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon thread that reloads the snapshot whenever the YAML file changes.
+     * Calling this more than once has no effect.
+     *
+     * @throws IOException if the folder of the YAML file cannot be watched.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        var dir = yamlPath.getParent();
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        var ws = watchService;
+        new CustomThreadFactory("PathMappingWatcher", true).newThread(() -> watch(ws)).start();
+    }
+
+    private void watch(WatchService ws) {
+        var fileName = yamlPath.getFileName();
+        try {
+            while (true) {
+                var key = ws.take();
+                var changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (!key.reset()) {
+                    break;
+                }
+                if (changed) {
+                    // Swallow the follow-up events of the same save before parsing
+                    WatchKey next;
+                    while ((next = ws.poll(RELOAD_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        next.pollEvents();
+                        next.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException _) {
+            // Closed by close()
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /**
+     * Lazy holder, the mapping is parsed on first use.
+     */
+    private static final class Holder {
+        private static final PathMappingService INSTANCE = create();
+
+        private static PathMappingService create() {
+            var service = new PathMappingService(Paths.get(ObioCommonConstants.ILLUSTRATIONS_CONF_YML_PATH));
+            try {
+                service.startWatching();
+            } catch (IOException e) {
+                logger.warn("Cannot watch the path mapping file, changes require a restart", e);
+            }
+            return service;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.jacob.obio.common.mapping;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * An immutable view of the classification path mapping YAML at one point in time.
+ * <p>
+ * A snapshot is never modified after it has been published by {@link PathMappingService}; a changed
+ * YAML file produces a new snapshot that replaces the old one as a whole.
+ *
+ * @param table    Path code (alias) to target directory, with every target stored once.
+ * @param version  Increases by one with every successful reload, {@code 0} means nothing was loaded.
+ * @param loadedAt The time this snapshot was parsed.
+ * @author Kotohiko
+ * @since 08:05 Oct 18, 2026
+ */
+public record PathMappingSnapshot(AliasTable table, long version, Instant loadedAt) {
+
+    /**
+     * The snapshot published before the YAML file could be read for the first time.
+     */
+    public static final PathMappingSnapshot EMPTY = new PathMappingSnapshot(AliasTable.EMPTY, 0L, Instant.EPOCH);
+
+    /**
+     * @return Path code (alias) to target directory, an unmodifiable view of {@link #table()}.
+     */
+    public Map<String, String> aliases() {
+        return table.asMap();
+    }
+
+    /**
+     * @param alias The path code.
+     * @return The target directory, or {@code null} if the path code is unknown.
+     */
+    public String lookup(String alias) {
+        return table.target(alias);
+    }
+
+    /**
+     * @return The buffer folder the files are moved out of, or {@code null} if it is not configured.
+     */
+    public String defaultSourcePath() {
+        return table.target(ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY);
+    }
+
+    /**
+     * @return Whether this snapshot was parsed from the YAML file.
+     */
+    public boolean isLoaded() {
+        return version > 0;
+    }
+}
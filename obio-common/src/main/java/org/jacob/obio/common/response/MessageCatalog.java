@@ -0,0 +1,206 @@
+package org.jacob.obio.common.response;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, locale-keyed catalog of {@link MessageTemplate}s, loaded once per JVM.
+ * <p>
+ * The root bundle is {@code messages.yaml}. Sibling files named {@code messages_<language tag>.yaml}
+ * (e.g. {@code messages_zh.yaml}, {@code messages_ja.yaml}, {@code messages_ko.yaml}, the languages kept in
+ * {@code i18n.xlsx}) are picked up as locale bundles. A bundle only needs the keys it translates,
+ * everything else falls back to the language bundle and then to the root bundle.
+ * <p>
+ * The locale used by {@link ResManager#loadResString(String, String...)} comes from the
+ * {@value ObioCommonConstants#MESSAGES_LOCALE_PROPERTY} system property, or the JVM default locale if unset.
+ *
+ * @author Kotohiko
+ * @since 08:04 Oct 18, 2026
+ */
+public final class MessageCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageCatalog.class);
+
+    /**
+     * Bundles keyed by language tag, the root bundle is stored under {@link Locale#ROOT}'s empty tag.
+     * Every bundle already contains the root and language fallbacks merged in.
+     */
+    private final Map<String, Map<String, MessageTemplate>> bundles;
+
+    /**
+     * Resolved bundle per requested locale, so the fallback chain is only walked once per locale.
+     */
+    private final Map<Locale, Map<String, MessageTemplate>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Bundle of the configured default locale, used by the hot path.
+     */
+    private final Map<String, MessageTemplate> defaultBundle;
+
+    private MessageCatalog(Map<String, Map<String, MessageTemplate>> bundles, Locale defaultLocale) {
+        this.bundles = bundles;
+        this.defaultBundle = bundleFor(defaultLocale);
+    }
+
+    /**
+     * @return The process-wide catalog, loaded from {@link ObioCommonConstants#MESSAGES_YAML_PATH} on first use.
+     */
+    public static MessageCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads all bundles next to the given root YAML file.
+     *
+     * @param rootYaml      The root {@code messages.yaml} file.
+     * @param defaultLocale The locale used when none is given explicitly.
+     * @return The loaded catalog. If the root file is missing the catalog is empty and every lookup
+     * returns its key.
+     */
+    public static MessageCatalog load(Path rootYaml, Locale defaultLocale) {
+        Map<String, Map<String, MessageTemplate>> raw = new HashMap<>();
+        raw.put("", readBundle(rootYaml));
+
+        var dir = rootYaml.toAbsolutePath().getParent();
+        var fileName = rootYaml.getFileName().toString();
+        var baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        if (dir != null && Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, baseName + "_*.yaml")) {
+                for (Path bundle : stream) {
+                    var name = bundle.getFileName().toString();
+                    var tag = name.substring(baseName.length() + 1, name.length() - ".yaml".length())
+                            .replace('_', '-');
+                    raw.put(Locale.forLanguageTag(tag).toLanguageTag(), readBundle(bundle));
+                }
+            } catch (IOException e) {
+                logger.error("Failed to list message bundles in {}", dir, e);
+            }
+        }
+
+        // Merge the fallback chain into every bundle up front, lookups then never need to fall back
+        Map<String, Map<String, MessageTemplate>> merged = new HashMap<>();
+        var root = raw.get("");
+        for (Map.Entry<String, Map<String, MessageTemplate>> entry : raw.entrySet()) {
+            Map<String, MessageTemplate> bundle = new HashMap<>(root);
+            var tag = entry.getKey();
+            if (!tag.isEmpty()) {
+                var language = Locale.forLanguageTag(tag).getLanguage();
+                if (!language.equals(tag) && raw.containsKey(language)) {
+                    bundle.putAll(raw.get(language));
+                }
+            }
+            bundle.putAll(entry.getValue());
+            merged.put(tag, Map.copyOf(bundle));
+        }
+        return new MessageCatalog(Map.copyOf(merged), defaultLocale);
+    }
+
+    private static Map<String, MessageTemplate> readBundle(Path yamlFile) {
+        if (!Files.isRegularFile(yamlFile)) {
+            // The message for this cannot come from the file that is missing
+            logger.error("The message file does not exist: {}", yamlFile.toAbsolutePath());
+            return Map.of();
+        }
+
+        try (Reader reader = Files.newBufferedReader(yamlFile, StandardCharsets.UTF_8)) {
+            Map<String, Object> data = new Yaml().load(reader);
+            if (data == null) {
+                return Map.of();
+            }
+            Map<String, MessageTemplate> templates = new HashMap<>(data.size() * 2);
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                if (entry.getValue() != null) {
+                    templates.put(entry.getKey(), MessageTemplate.compile(String.valueOf(entry.getValue())));
+                }
+            }
+            return templates;
+        } catch (IOException e) {
+            logger.error("Failed to read the message file: {}", yamlFile.toAbsolutePath(), e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Formats a message of the default locale.
+     *
+     * @param msgKey The message key.
+     * @param args   The placeholder values.
+     * @return The formatted message, or the key itself if no bundle defines it.
+     */
+    public String format(String msgKey, String... args) {
+        return format(defaultBundle, msgKey, args);
+    }
+
+    /**
+     * Formats a message of the given locale.
+     *
+     * @param locale The locale to look up.
+     * @param msgKey The message key.
+     * @param args   The placeholder values.
+     * @return The formatted message, or the key itself if no bundle defines it.
+     */
+    public String format(Locale locale, String msgKey, String... args) {
+        return format(bundleFor(locale), msgKey, args);
+    }
+
+    /**
+     * @param msgKey The message key.
+     * @return The compiled template of the default locale, or {@code null} if the key is unknown.
+     */
+    public MessageTemplate template(String msgKey) {
+        return defaultBundle.get(msgKey);
+    }
+
+    /**
+     * @return The language tags of all loaded bundles, the root bundle is the empty tag.
+     */
+    public Set<String> languageTags() {
+        return bundles.keySet();
+    }
+
+    private static String format(Map<String, MessageTemplate> bundle, String msgKey, String... args) {
+        var template = bundle.get(msgKey);
+        return template == null ? msgKey : template.format(args);
+    }
+
+    private Map<String, MessageTemplate> bundleFor(Locale locale) {
+        return resolved.computeIfAbsent(locale, l -> {
+            var bundle = bundles.get(l.toLanguageTag());
+            if (bundle == null) {
+                bundle = bundles.get(l.getLanguage());
+            }
+            if (bundle == null) {
+                bundle = bundles.getOrDefault("", Map.of());
+            }
+            return bundle;
+        });
+    }
+
+    /**
+     * Lazy holder, the catalog is loaded on the first message lookup.
+     */
+    private static final class Holder {
+        private static final MessageCatalog INSTANCE = load(
+                Paths.get(ObioCommonConstants.MESSAGES_YAML_PATH), configuredLocale());
+
+        private static Locale configuredLocale() {
+            var tag = System.getProperty(ObioCommonConstants.MESSAGES_LOCALE_PROPERTY);
+            return tag == null || tag.isBlank() ? Locale.getDefault() : Locale.forLanguageTag(tag.trim());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.jacob.obio.common.response;
+
+import java.util.Arrays;
+
+/**
+ * A message string from {@code messages.yaml} that has been split once into literal and placeholder segments.
+ * <p>
+ * Formatting walks the segments and writes into a {@link StringBuilder} sized up front, so a call allocates
+ * nothing but the result. Templates without placeholders hand back the original string as is.
+ *
+ * @author Kotohiko
+ * @since 08:04 Oct 18, 2026
+ */
+public final class MessageTemplate {
+
+    /**
+     * The unprocessed message string, as read from the YAML file.
+     */
+    private final String raw;
+
+    /**
+     * Literal segments. There is always one more literal than there are placeholders.
+     */
+    private final String[] literals;
+
+    /**
+     * Placeholder indexes, {@code placeholders[i]} sits between {@code literals[i]} and {@code literals[i + 1]}.
+     */
+    private final int[] placeholders;
+
+    /**
+     * Total length of all literal segments.
+     */
+    private final int literalLength;
+
+    private MessageTemplate(String raw, String[] literals, int[] placeholders) {
+        this.raw = raw;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        var length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Splits a message string into its segments. Only {@code {n}} with a non-negative decimal index is treated
+     * as a placeholder; everything else (including unmatched braces) stays literal text.
+     *
+     * @param raw The message string.
+     * @return The compiled template.
+     */
+    public static MessageTemplate compile(String raw) {
+        var literals = new String[4];
+        var placeholders = new int[3];
+        var count = 0;
+        var literalStart = 0;
+        var i = 0;
+
+        while (i < raw.length()) {
+            var open = raw.indexOf('{', i);
+            if (open < 0) {
+                break;
+            }
+            var close = open + 1;
+            var index = 0;
+            while (close < raw.length() && raw.charAt(close) >= '0' && raw.charAt(close) <= '9') {
+                index = index * 10 + (raw.charAt(close) - '0');
+                ++close;
+            }
+            if (close == open + 1 || close >= raw.length() || raw.charAt(close) != '}') {
+                i = open + 1;
+                continue;
+            }
+            if (count + 1 >= literals.length) {
+                literals = Arrays.copyOf(literals, literals.length * 2);
+                placeholders = Arrays.copyOf(placeholders, placeholders.length * 2);
+            }
+            literals[count] = raw.substring(literalStart, open);
+            placeholders[count] = index;
+            ++count;
+            literalStart = close + 1;
+            i = literalStart;
+        }
+        literals[count] = raw.substring(literalStart);
+
+        return new MessageTemplate(raw,
+                Arrays.copyOf(literals, count + 1),
+                Arrays.copyOf(placeholders, count));
+    }
+
+    /**
+     * Replaces the placeholders with the given arguments. A placeholder without a matching argument is kept
+     * verbatim, the same as the previous {@code String.replace} chain did.
+     *
+     * @param args The placeholder values, {@code args[n]} replaces {@code {n}}.
+     * @return The formatted message.
+     */
+    public String format(String... args) {
+        if (placeholders.length == 0) {
+            return raw;
+        }
+
+        var length = literalLength;
+        for (int index : placeholders) {
+            length += index < args.length ? String.valueOf(args[index]).length() : 3;
+        }
+
+        var sb = new StringBuilder(length);
+        for (var i = 0; i < placeholders.length; ++i) {
+            sb.append(literals[i]);
+            var index = placeholders[i];
+            if (index < args.length) {
+                sb.append(args[index]);
+            } else {
+                sb.append('{').append(index).append('}');
+            }
+        }
+        return sb.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * @return The number of placeholder segments in this template.
+     */
+    public int placeholderCount() {
+        return placeholders.length;
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+}
@@ -25,13 +25,30 @@ public class CustomThreadFactory implements ThreadFactory {
      */
     private final AtomicInteger threadCount = new AtomicInteger(1);
 
+    /**
+     * Whether the created threads are daemon threads
+     */
+    private final boolean daemon;
+
     /**
      * Constructs a CustomThreadFactory with a specified base name for threads.
      *
      * @param baseName the base name for threads created by this factory
      */
     public CustomThreadFactory(String baseName) {
+        this(baseName, false);
+    }
+
+    /**
+     * Constructs a CustomThreadFactory with a specified base name for threads.
+     *
+     * @param baseName the base name for threads created by this factory
+     * @param daemon   whether the created threads should be daemon threads, so that they
+     *                 do not keep the JVM alive on exit
+     */
+    public CustomThreadFactory(String baseName, boolean daemon) {
         this.baseName = baseName;
+        this.daemon = daemon;
     }
 
     /**
@@ -45,6 +62,7 @@ public class CustomThreadFactory implements ThreadFactory {
         Thread thread = new Thread(r);
         // Set custom thread name with incrementing thread count
         thread.setName(baseName + "-thread-" + threadCount.getAndIncrement());
+        thread.setDaemon(daemon);
         return thread;
     }
 }
@@ -0,0 +1,83 @@
+package org.jacob.obio.common.mapping;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the input folding of {@link PathCodeIndex#normalize(String)} and which lookups resolve.
+ *
+ * @author Kotohiko
+ * @since 09:20 Oct 18, 2026
+ */
+class PathCodeIndexTest {
+
+    @Test
+    void caseAndFullWidthFormsFold() {
+        assertEquals("klee", PathCodeIndex.normalize("Klee"));
+        assertEquals("klee", PathCodeIndex.normalize("KLEE"));
+        assertEquals("klee", PathCodeIndex.normalize("ｋｌｅｅ"));
+        assertEquals("klee", PathCodeIndex.normalize("ＫＬＥＥ"));
+        assertEquals("v2", PathCodeIndex.normalize("Ｖ２"));
+    }
+
+    @Test
+    void whitespaceAndSeparatorsAreDropped() {
+        assertEquals("hutao", PathCodeIndex.normalize("Hu Tao"));
+        assertEquals("hutao", PathCodeIndex.normalize(" hu\tTao "));
+        assertEquals("hutao", PathCodeIndex.normalize("hu-tao"));
+        assertEquals("hutao", PathCodeIndex.normalize("hu_tao"));
+        assertEquals("hutao", PathCodeIndex.normalize("Hu　Tao"));
+        assertEquals("hutao", PathCodeIndex.normalize("Hu·Tao"));
+        assertEquals("くれー", PathCodeIndex.normalize("ク・レー"));
+        assertEquals("", PathCodeIndex.normalize(" - _ "));
+    }
+
+    @Test
+    void katakanaFoldsToHiragana() {
+        assertEquals("くれー", PathCodeIndex.normalize("クレー"));
+        assertEquals("くれー", PathCodeIndex.normalize("くれー"));
+        // Half-width katakana is widened by NFKC first
+        assertEquals("くれー", PathCodeIndex.normalize("ｸﾚｰ"));
+        assertEquals("ゔぁ", PathCodeIndex.normalize("ヴァ"));
+        // Kanji and other scripts are left alone
+        assertEquals("刻晴", PathCodeIndex.normalize("刻晴"));
+    }
+
+    @Test
+    void exactAndNormalizedInputResolve() {
+        var index = index();
+        assertEquals("/gallery/Klee", index.lookup("klee", 5).target());
+        assertEquals("/gallery/Klee", index.lookup("KLEE", 5).target());
+        assertEquals("/gallery/Klee", index.lookup("ｋｌｅｅ", 5).target());
+        assertEquals("/gallery/Hu Tao", index.lookup("hu tao", 5).target());
+        assertEquals("/gallery/Klee", index.lookup("クレー", 5).target());
+    }
+
+    @Test
+    void prefixesAndTyposOnlySuggest() {
+        var index = index();
+        var prefix = index.lookup("kl", 5);
+        assertFalse(prefix.isResolved());
+        assertEquals("/gallery/Klee", prefix.suggestions().getFirst().target());
+
+        var typo = index.lookup("kele", 5);
+        assertFalse(typo.isResolved());
+        assertFalse(typo.suggestions().isEmpty());
+
+        assertFalse(index.lookup("zzzz", 5).isResolved());
+    }
+
+    private static PathCodeIndex index() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put("klee", "/gallery/Klee");
+        aliases.put("クレー", "/gallery/Klee");
+        aliases.put("hutao", "/gallery/Hu Tao");
+        aliases.put("furina", "/gallery/Furina");
+        return PathCodeIndex.of(new PathMappingSnapshot(AliasTable.of(aliases), 1L, Instant.EPOCH));
+    }
+}
@@ -0,0 +1,20 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "hash" command (fills the content hash cache from the gallery).
+ */
+public record HashCmd(ReadAndMoveController controller) implements UserCmd {
+
+    @Override
+    public boolean matches(String input) {
+        return "hash".equals(input);
+    }
+
+    @Override
+    public void execute(String input) {
+        controller.hashGallery();
+    }
+}
@@ -0,0 +1,20 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "index" command (updates the provenance index of the gallery).
+ */
+public record IndexCmd(ReadAndMoveController controller) implements UserCmd {
+
+    @Override
+    public boolean matches(String input) {
+        return "index".equals(input);
+    }
+
+    @Override
+    public void execute(String input) {
+        controller.rebuildProvenanceIndex();
+    }
+}
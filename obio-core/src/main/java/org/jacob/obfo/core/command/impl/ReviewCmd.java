@@ -0,0 +1,25 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "review" command (lists the arrivals that were not routed automatically) and
+ * "review learn" command (rebuilds the learned routes from the gallery).
+ */
+public record ReviewCmd(ReadAndMoveController controller) implements UserCmd {
+
+    @Override
+    public boolean matches(String input) {
+        return "review".equals(input) || "review learn".equals(input);
+    }
+
+    @Override
+    public void execute(String input) {
+        if ("review learn".equals(input)) {
+            controller.learnRoutesFromGallery();
+        } else {
+            controller.printReviewQueue();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "similar" command (lists near-duplicates of gallery images in the buffer).
+ */
+public record SimilarCmd(ReadAndMoveController controller) implements UserCmd {
+
+    @Override
+    public boolean matches(String input) {
+        return "similar".equals(input);
+    }
+
+    @Override
+    public void execute(String input) {
+        controller.printSimilar();
+    }
+}
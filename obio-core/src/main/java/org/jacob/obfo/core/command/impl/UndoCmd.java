@@ -0,0 +1,20 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "undo [n]" command (reverts the last n move batches, one by default).
+ */
+public record UndoCmd(ReadAndMoveController controller) implements UserCmd {
+
+    @Override
+    public boolean matches(String input) {
+        return "undo".equals(input) || input.matches("undo \\d{1,4}");
+    }
+
+    @Override
+    public void execute(String input) {
+        controller.undo("undo".equals(input) ? 1 : Integer.parseInt(input.substring("undo ".length())));
+    }
+}
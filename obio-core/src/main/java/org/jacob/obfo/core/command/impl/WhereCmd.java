@@ -0,0 +1,25 @@
+package org.jacob.obfo.core.command.impl;
+
+import org.jacob.obfo.core.command.UserCmd;
+import org.jacob.obfo.core.controller.ReadAndMoveController;
+
+/**
+ * Handles "where &lt;file name | site id&gt;" command (looks a post up in the provenance index).
+ */
+public record WhereCmd(ReadAndMoveController controller) implements UserCmd {
+
+    /**
+     * The command word, checked before the input is tried as a file name.
+     */
+    public static final String PREFIX = "where ";
+
+    @Override
+    public boolean matches(String input) {
+        return input.startsWith(PREFIX);
+    }
+
+    @Override
+    public void execute(String input) {
+        controller.where(input.substring(PREFIX.length()));
+    }
+}
@@ -10,14 +10,224 @@ public class ObioConstants {
 
     public static final String MY_GALLERY_PATH = "S:\\Gallery";
 
+    public static final String NEW_GALLERY_PATH = "S:\\NewGallery";
+
     public static final String PATH_OF_UNCLASSIFIED_REMAINING_IMAGES = "S:\\NewGallery\\Unclassified";
 
+    /**
+     * Minutes between two reconcile scans of the unclassified backlog counter.
+     */
+    public static final long BACKLOG_RECONCILE_INTERVAL_MINUTES = 10L;
+
+    /**
+     * Quiet time that closes a batch of watcher events, overridden by {@code -Dobio.watcher.debounceMillis}.
+     */
+    public static final long WATCHER_DEBOUNCE_MILLIS = 200L;
+
+    /**
+     * Longest time a batch of watcher events stays open, overridden by {@code -Dobio.watcher.maxBatchMillis}.
+     */
+    public static final long WATCHER_MAX_BATCH_MILLIS = 2000L;
+
+    /**
+     * Threads that process watcher batches, overridden by {@code -Dobio.watcher.workers}.
+     */
+    public static final int WATCHER_WORKERS = 2;
+
+    /**
+     * Watcher batches that may wait for a worker before the dispatch thread processes them itself,
+     * overridden by {@code -Dobio.watcher.queueCapacity}.
+     */
+    public static final int WATCHER_QUEUE_CAPACITY = 64;
+
+    /**
+     * Learned author to path code routes, overridden by {@code -Dobio.autoroute.index}.
+     */
+    public static final String ROUTE_INDEX_PATH = "obio-core/src/main/resources/logs-data/route-index.bin";
+
+    /**
+     * Whether confidently routed arrivals are moved without a prompt, overridden by
+     * {@code -Dobio.autoroute.enabled}.
+     */
+    public static final boolean AUTOROUTE_ENABLED = true;
+
+    /**
+     * Share of an author's files that must have gone to one path code before new files of the author are moved
+     * there automatically, overridden by {@code -Dobio.autoroute.confidence}.
+     */
+    public static final double AUTOROUTE_CONFIDENCE = 0.9;
+
+    /**
+     * Files of an author that must have been classified before the author is routed automatically,
+     * overridden by {@code -Dobio.autoroute.minSamples}.
+     */
+    public static final int AUTOROUTE_MIN_SAMPLES = 3;
+
+    /**
+     * The (site, post id) index of the gallery, overridden by {@code -Dobio.provenance.index}. Every rebuild
+     * writes a new generation next to it ({@code provenance-index.bin.<n>}), the mapped one is never replaced.
+     */
+    public static final String PROVENANCE_INDEX_PATH = "obio-core/src/main/resources/logs-data/provenance-index.bin";
+
+    /**
+     * Directories listed at the same time while indexing the gallery, overridden by
+     * {@code -Dobio.provenance.parallelism}.
+     */
+    public static final int PROVENANCE_PARALLELISM = 8;
+
+    /**
+     * Whether moves skip files whose content the target directory already has and rename name collisions,
+     * overridden by {@code -Dobio.dedupe.enabled}.
+     */
+    public static final boolean DEDUPE_ENABLED = true;
+
+    /**
+     * Content hashes keyed on (path, size, mtime), overridden by {@code -Dobio.dedupe.cache}.
+     */
+    public static final String HASH_CACHE_PATH = "obio-core/src/main/resources/logs-data/hash-cache.bin";
+
+    /**
+     * Files hashed at the same time by the {@code hash} command, overridden by {@code -Dobio.dedupe.parallelism}.
+     */
+    public static final int HASH_PARALLELISM = 4;
+
+    /**
+     * {@code PHASH} or {@code DHASH}, overridden by {@code -Dobio.similar.algorithm}.
+     */
+    public static final String SIMILAR_ALGORITHM = "PHASH";
+
+    /**
+     * Perceptual hashes keyed on (path, size, mtime), overridden by {@code -Dobio.similar.cache}. The algorithm is
+     * appended to the file name.
+     */
+    public static final String PERCEPTUAL_HASH_CACHE_PATH
+            = "obio-core/src/main/resources/logs-data/perceptual-hash-cache.bin";
+
+    /**
+     * Images decoded at the same time, overridden by {@code -Dobio.similar.parallelism}.
+     */
+    public static final int SIMILAR_PARALLELISM = 4;
+
+    /**
+     * Largest Hamming distance between two perceptual hashes of the same picture, overridden by
+     * {@code -Dobio.similar.maxDistance}.
+     */
+    public static final int SIMILAR_MAX_DISTANCE = 8;
+
+    /**
+     * The write-ahead journal of file moves, overridden by {@code -Dobio.journal.path}.
+     */
+    public static final String MOVE_JOURNAL_PATH = "obio-core/src/main/resources/logs-data/move-journal.bin";
+
+    /**
+     * Longest time a completed move waits before it is written to the journal, overridden by
+     * {@code -Dobio.journal.flushIntervalMillis}.
+     */
+    public static final long JOURNAL_FLUSH_INTERVAL_MILLIS = 200L;
+
+    /**
+     * {@code RESUME} or {@code ROLLBACK} for batches interrupted by a crash, overridden by
+     * {@code -Dobio.journal.recovery}.
+     */
+    public static final String JOURNAL_RECOVERY = "RESUME";
+
+    /**
+     * Finished batches kept in the journal for {@code undo}, overridden by {@code -Dobio.journal.keepBatches}.
+     */
+    public static final int JOURNAL_KEEP_BATCHES = 100;
+
+    /**
+     * Path codes suggested when the input does not resolve to one target directory.
+     */
+    public static final int PATH_CODE_SUGGESTIONS = 5;
+
     public static final String PATH_OF_UNCLASSIFIED_REMAINING_IMAGES_LOG
             = "obio-core/src/main/resources/logs-data/unclassified-remaining-images.log";
 
+    /**
+     * Maximum number of lines waiting for the log file writer, overridden by {@code -Dobio.log.queueCapacity}.
+     */
+    public static final int LOG_QUEUE_CAPACITY = 8192;
+
+    /**
+     * Queued lines that trigger an early log file write, overridden by {@code -Dobio.log.batchSize}.
+     */
+    public static final int LOG_BATCH_SIZE = 128;
+
+    /**
+     * Maximum time a line waits for the log file write, overridden by {@code -Dobio.log.flushIntervalMillis}.
+     */
+    public static final long LOG_FLUSH_INTERVAL_MILLIS = 200L;
+
+    /**
+     * {@code BLOCK} or {@code DROP} when the log queue is full, overridden by {@code -Dobio.log.overflowPolicy}.
+     */
+    public static final String LOG_OVERFLOW_POLICY = "BLOCK";
+
+    /**
+     * {@code VIRTUAL_THREADS} or {@code PLATFORM_POOL}, overridden by {@code -Dobio.move.executionMode}.
+     */
+    public static final String MOVE_EXECUTION_MODE = "VIRTUAL_THREADS";
+
+    /**
+     * Threads of the move pool in {@code PLATFORM_POOL} mode, overridden by {@code -Dobio.move.poolSize}.
+     */
+    public static final int MOVE_POOL_SIZE = 3;
+
+    /**
+     * Concurrent moves per local file store, overridden by {@code -Dobio.move.localPermits}.
+     */
+    public static final int MOVE_LOCAL_PERMITS = 16;
+
+    /**
+     * Concurrent moves per network file store, overridden by {@code -Dobio.move.networkPermits}.
+     */
+    public static final int MOVE_NETWORK_PERMITS = 2;
+
+    /**
+     * Directories listed at the same time by {@code DirectoryPrinter}, overridden by
+     * {@code -Dobio.printer.parallelism}.
+     */
+    public static final int PRINTER_PARALLELISM = 8;
+
+    /**
+     * Sibling directories listed ahead of the writing thread by {@code DirectoryPrinter}, overridden by
+     * {@code -Dobio.printer.prefetch}.
+     */
+    public static final int PRINTER_PREFETCH = 16;
+
+    /**
+     * Directories listed at the same time by {@code DirectoryFilePrinter --stats}, overridden by
+     * {@code -Dobio.stats.parallelism}.
+     */
+    public static final int STATS_PARALLELISM = 8;
+
+    /**
+     * Group levels shown by {@code DirectoryFilePrinter --stats}: franchise, region, then the ## group or the
+     * character. Overridden by {@code --depth}.
+     */
+    public static final int STATS_DEPTH = 3;
+
+    /**
+     * Extensions listed in the histogram of {@code DirectoryFilePrinter --stats}.
+     */
+    public static final int STATS_TOP_EXTENSIONS = 8;
+
+    /**
+     * Directories created at the same time by {@code DirectoryStructureCreator}, overridden by
+     * {@code -Dobio.creator.parallelism}.
+     */
+    public static final int CREATOR_PARALLELISM = 8;
+
     public static final String PATH_COLLECTION_TXT
             = "obio-core/src/main/resources/path-collection.txt";
 
+    /**
+     * The folders of the last {@code DirectoryPrinter} scan, overridden by {@code -Dobio.printer.snapshot}.
+     */
+    public static final String DIRECTORY_SNAPSHOT_PATH
+            = "obio-core/src/main/resources/logs-data/directory-snapshot.bin";
+
     public static final String MMD_CONF_YML_PATH
             = "obio-core/src/main/resources/conf/mmd-paths-conf.yaml";
 
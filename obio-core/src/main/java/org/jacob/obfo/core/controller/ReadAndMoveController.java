@@ -3,10 +3,22 @@ package org.jacob.obfo.core.controller;
 import org.jacob.obfo.core.command.UserCmd;
 import org.jacob.obfo.core.command.impl.*;
 import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.monitor.core.BacklogTracker;
 import org.jacob.obfo.core.service.ReadAndMoveService;
+import org.jacob.obfo.core.service.dedupe.ContentHasher;
+import org.jacob.obfo.core.service.journal.JournalBatch;
+import org.jacob.obfo.core.service.journal.JournalService;
+import org.jacob.obfo.core.service.provenance.ProvenanceService;
+import org.jacob.obfo.core.service.route.AutoRouter;
+import org.jacob.obfo.core.service.route.ReviewEntry;
+import org.jacob.obfo.core.service.similar.SimilarMatch;
+import org.jacob.obfo.core.service.similar.SimilarityService;
 import org.jacob.obio.common.constants.ObioCommonConstants;
 import org.jacob.obio.common.controller.BaseController;
 import org.jacob.obio.common.helper.ObioCommonHelper;
+import org.jacob.obio.common.mapping.PathCodeIndex;
+import org.jacob.obio.common.mapping.PathCodeMatch;
+import org.jacob.obio.common.mapping.PathMappingService;
 import org.jacob.obio.common.response.ResManager;
 import org.jacob.obio.ifp.api.IFPParsingApi;
 import org.jacob.obio.ifp.controller.FileNameParserService;
@@ -16,9 +28,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The ReadAndMoveController class handles user commands related to reading configuration files,
@@ -31,6 +45,13 @@ import java.util.Map;
  *   <li>Empty command: Executes the default command handler.</li>
  *   <li>{@code check}: Verifies and displays the status of a specified directory path.</li>
  *   <li>{@code open [path]}: Opens a folder at the specified path.</li>
+ *   <li>{@code review}: Lists the arrivals that were not routed automatically, {@code review learn} learns
+ *   the routes from the gallery.</li>
+ *   <li>{@code where <file name | site id>}: Looks a post up in the gallery, {@code index} updates the
+ *   provenance index.</li>
+ *   <li>{@code hash}: Hashes the gallery into the content hash cache and counts its duplicates.</li>
+ *   <li>{@code similar}: Lists the buffer images that look like gallery images.</li>
+ *   <li>{@code undo [n]}: Moves the files of the last n move batches back into the buffer.</li>
  *   <li>Other commands: Reads YAML files and processes file operations.</li>
  * </ul>
  *
@@ -56,6 +77,12 @@ public class ReadAndMoveController extends BaseController {
                 new CheckCmd(this),
                 new OpenFolderCmd(this),
                 new ShortOpenFolderCmd(this),
+                new ReviewCmd(this),
+                new WhereCmd(this),
+                new IndexCmd(this),
+                new HashCmd(this),
+                new SimilarCmd(this),
+                new UndoCmd(this),
                 new ReadYamlCmd(this)
         );
     }
@@ -84,7 +111,8 @@ public class ReadAndMoveController extends BaseController {
                 }
 
                 boolean handled = false;
-                boolean switchToIFP = ifpParsingApi.getAndParse(cmd);
+                // A "where" query usually is a file name, which must not be opened in the browser
+                boolean switchToIFP = !cmd.startsWith(WhereCmd.PREFIX) && ifpParsingApi.getAndParse(cmd);
                 if (switchToIFP) {
                     System.out.println(ObioCommonConstants.SUCCESS_SEPARATOR_LINE);
                     continue;
@@ -115,7 +143,7 @@ public class ReadAndMoveController extends BaseController {
     public void checkPathStatus() {
         try {
             Map<String, String> illustrationsPathMap = ObioCommonHelper.getIllustrationsPathMap();
-            String defaultSourcePath = illustrationsPathMap.get("Default source path");
+            String defaultSourcePath = illustrationsPathMap.get(ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY);
             File directory = new File(defaultSourcePath);
 
             if (directory.exists() && directory.isDirectory()) {
@@ -136,6 +164,114 @@ public class ReadAndMoveController extends BaseController {
         }
     }
 
+    /**
+     * Prints the arrivals waiting for a manual path code, with the best suggestion of the auto-router.
+     */
+    public void printReviewQueue() {
+        var pending = AutoRouter.getInstance().pendingReview();
+        if (pending.isEmpty()) {
+            System.out.println("Nothing to review.");
+            return;
+        }
+        for (ReviewEntry entry : pending) {
+            System.out.println(entry.file().getFileName() + "  ->  "
+                    + (entry.suggestion() == null ? "? (" + entry.key() + ")" : entry.suggestion()));
+        }
+    }
+
+    /**
+     * Rebuilds the auto-router's routes from the files already classified in the gallery.
+     */
+    public void learnRoutesFromGallery() {
+        var learned = AutoRouter.getInstance().learnFromGallery();
+        System.out.println("Learned " + learned + " file(s), "
+                + AutoRouter.getInstance().index().size() + " author(s) known.");
+    }
+
+    /**
+     * Prints the gallery files of the post named by a query.
+     *
+     * @param query A file name, or {@code <site> <id>} such as {@code pixiv 123456789}.
+     */
+    public void where(String query) {
+        var service = ProvenanceService.getInstance();
+        var post = service.resolve(query);
+        if (post == null) {
+            System.out.println("Not a file name or \"<site> <id>\": " + query);
+            return;
+        }
+        var start = System.nanoTime();
+        var files = service.locate(post);
+        var micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (files.isEmpty()) {
+            System.out.println("Not in the gallery (" + service.index().size() + " files indexed, "
+                    + micros + " µs).");
+            return;
+        }
+        for (Path file : files) {
+            System.out.println(file);
+        }
+        System.out.println(files.size() + " file(s), " + micros + " µs.");
+    }
+
+    /**
+     * Updates the provenance index from the gallery directories that changed since the last update.
+     */
+    public void rebuildProvenanceIndex() {
+        try {
+            var stats = ProvenanceService.getInstance().rebuild();
+            System.out.println("Indexed " + stats.files() + " file(s) in " + stats.directories()
+                    + " director(ies), " + stats.listed() + " changed.");
+        } catch (IOException e) {
+            logger.error("Failed to update the provenance index", e);
+        }
+    }
+
+    /**
+     * Hashes every gallery file the content hash cache does not know yet, so that later moves only hash the
+     * arriving files.
+     */
+    public void hashGallery() {
+        var start = System.nanoTime();
+        var stats = ContentHasher.getInstance().hashTree(ProvenanceService.getInstance().roots());
+        System.out.println("Hashed " + stats.hashed() + " of " + stats.files() + " file(s) in "
+                + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s, " + stats.duplicates()
+                + " duplicate(s), " + stats.failed() + " unreadable.");
+    }
+
+    /**
+     * Prints the buffer images whose perceptual hash is close to that of a gallery image.
+     */
+    public void printSimilar() {
+        var matches = SimilarityService.getInstance().findSimilar(BacklogTracker.getInstance().dir(),
+                ProvenanceService.getInstance().roots());
+        if (matches.isEmpty()) {
+            System.out.println("No near-duplicates in the buffer.");
+            return;
+        }
+        for (SimilarMatch match : matches) {
+            System.out.println(match.file().getFileName() + "  ~  " + match.match()
+                    + " (distance " + match.distance() + ")");
+        }
+    }
+
+    /**
+     * Reverts the last move batches recorded in the move journal.
+     *
+     * @param count The number of batches to undo.
+     */
+    public void undo(int count) {
+        var undone = JournalService.getInstance().undo(count);
+        if (undone.isEmpty()) {
+            System.out.println("Nothing to undo.");
+            return;
+        }
+        for (JournalBatch batch : undone) {
+            System.out.println("Undone batch " + batch.id() + ": " + batch.entries().size() + " file(s) from "
+                    + batch.target());
+        }
+    }
+
     /**
      * Opens a folder using the explorer.exe command.
      */
@@ -152,20 +288,43 @@ public class ReadAndMoveController extends BaseController {
 
     /**
      * Reads a YAML configuration file and performs file operations based on the provided target path key.
+     * <p>
+     * A key that is not exactly a path code is looked up in the {@link PathCodeIndex}: a case, width or kana
+     * variant of a path code is used as that path code. Otherwise the path codes the key starts, then the
+     * closest ones, are suggested and nothing is moved.
      *
      * @param targetPathKey The key used to identify the target path in the YAML configuration.
      */
     public void readYamlAndMoveFiles(String targetPathKey) {
         try {
-            Map<String, String> illustrationsPathMap = ObioCommonHelper.getIllustrationsPathMap();
-            String defaultSourcePath = illustrationsPathMap.get("Default source path");
+            // One snapshot for the lookup and the move, a reload in between must not mix two mappings
+            var snapshot = ObioCommonHelper.getPathMappingSnapshot();
+            Map<String, String> illustrationsPathMap = snapshot.aliases();
+            String defaultSourcePath = snapshot.defaultSourcePath();
 
             if (defaultSourcePath == null || defaultSourcePath.isEmpty()) {
                 logger.error(ResManager.loadResString("ReadAndMoveController_1"));
-            } else {
-                new ReadAndMoveService()
-                        .defineSourcePathAndTargetPath(defaultSourcePath, illustrationsPathMap, targetPathKey);
+                return;
+            }
+            var lookup = PathMappingService.getInstance().pathCodeIndex(snapshot)
+                    .lookup(targetPathKey, ObioConstants.PATH_CODE_SUGGESTIONS);
+            if (!lookup.isResolved()) {
+                System.out.println(ResManager.loadResString("ReadAndMoveService_0"));
+                if (!lookup.suggestions().isEmpty()) {
+                    System.out.println(ResManager.loadResString("ReadAndMoveController_5"));
+                    for (PathCodeMatch match : lookup.suggestions()) {
+                        System.out.println("  " + match.alias() + " -> " + match.target());
+                    }
+                }
+                System.out.println(ObioCommonConstants.EXCEPTIONAL_SEPARATOR_LINE);
+                return;
+            }
+            if (!lookup.alias().equals(targetPathKey)) {
+                System.out.println(ResManager.loadResString("ReadAndMoveController_6", targetPathKey,
+                        lookup.alias()));
             }
+            new ReadAndMoveService()
+                    .defineSourcePathAndTargetPath(defaultSourcePath, illustrationsPathMap, lookup.alias());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
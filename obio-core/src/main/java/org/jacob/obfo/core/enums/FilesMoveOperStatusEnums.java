@@ -10,4 +10,5 @@ public enum FilesMoveOperStatusEnums {
     HAS_FILES,
     NO_FILES,
     TARGET_PATH_INVALID,
+    DUPLICATE,
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package org.jacob.obfo.core.enums;
+
+/**
+ * What happens on start to a move batch that the journal shows as interrupted.
+ *
+ * @author Kotohiko
+ * @since 08:32 Oct 18, 2026
+ */
+public enum JournalRecoveryEnums {
+    /**
+     * The files that were not moved yet are moved, the batch is committed.
+     */
+    RESUME,
+    /**
+     * The files that were moved already are moved back to the buffer, the batch is undone.
+     */
+    ROLLBACK,
+}
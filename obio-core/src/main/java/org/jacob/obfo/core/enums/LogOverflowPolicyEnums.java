@@ -0,0 +1,18 @@
+package org.jacob.obfo.core.enums;
+
+/**
+ * What the asynchronous log writer does with a line when its queue is full.
+ *
+ * @author Kotohiko
+ * @since 08:09 Oct 18, 2026
+ */
+public enum LogOverflowPolicyEnums {
+    /**
+     * The producing thread waits until the writer has made room.
+     */
+    BLOCK,
+    /**
+     * The line is discarded and counted as dropped.
+     */
+    DROP,
+}
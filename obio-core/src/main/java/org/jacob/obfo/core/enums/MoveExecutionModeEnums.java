@@ -0,0 +1,18 @@
+package org.jacob.obfo.core.enums;
+
+/**
+ * How the execute phase of a move runs its tasks.
+ *
+ * @author Kotohiko
+ * @since 08:10 Oct 18, 2026
+ */
+public enum MoveExecutionModeEnums {
+    /**
+     * A fixed pool of platform threads.
+     */
+    PLATFORM_POOL,
+    /**
+     * One virtual thread per move, concurrency is bounded per file store only.
+     */
+    VIRTUAL_THREADS,
+}
@@ -0,0 +1,18 @@
+package org.jacob.obfo.core.enums;
+
+/**
+ * The perceptual hash used to find re-encoded copies of an image.
+ *
+ * @author Kotohiko
+ * @since 08:30 Oct 18, 2026
+ */
+public enum PerceptualHashEnums {
+    /**
+     * Difference hash: the sign of the horizontal gradient on a 9x8 thumbnail. Cheap, sensitive to crops.
+     */
+    DHASH,
+    /**
+     * DCT hash: the low 8x8 frequencies of a 32x32 thumbnail against their median. Robust to re-encoding.
+     */
+    PHASH,
+}
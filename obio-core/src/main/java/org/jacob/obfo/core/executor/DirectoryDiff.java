@@ -0,0 +1,111 @@
+package org.jacob.obfo.core.executor;
+
+import java.util.*;
+
+/**
+ * The folders added, removed and renamed between two {@link DirectorySnapshot}s of the same root.
+ * <p>
+ * Only the topmost folder of a change is reported: a removed folder stands for everything inside it. A removed
+ * and an added folder with the same digest, i.e. the same folder structure inside them, are reported as one
+ * rename (or move). Folders without subfolders all have the same digest, so those are only paired when they
+ * are in the same parent folder.
+ *
+ * @param added   The added folders, in pre-order.
+ * @param removed The removed folders, in pre-order.
+ * @param renamed The renamed or moved folders.
+ * @author Kotohiko
+ * @since 08:39 Oct 18, 2026
+ */
+public record DirectoryDiff(List<String> added, List<String> removed, List<Rename> renamed) {
+
+    /**
+     * @param before The previous snapshot, may be empty.
+     * @param after  The current snapshot.
+     * @return The changes from the previous snapshot to the current one.
+     */
+    public static DirectoryDiff between(DirectorySnapshot before, DirectorySnapshot after) {
+        var removed = topmost(before, after);
+        var added = topmost(after, before);
+
+        List<Rename> renamed = new ArrayList<>();
+        Map<Long, List<Integer>> addedByDigest = new HashMap<>();
+        for (int index : added) {
+            addedByDigest.computeIfAbsent(after.digest(index), d -> new ArrayList<>()).add(index);
+        }
+        Set<Integer> pairedAdded = new HashSet<>();
+        Set<Integer> pairedRemoved = new HashSet<>();
+        for (int from : removed) {
+            var candidates = addedByDigest.get(before.digest(from));
+            if (candidates == null) {
+                continue;
+            }
+            var parent = DirectorySnapshot.parentOf(before.path(from));
+            Integer match = null;
+            for (int to : candidates) {
+                if (pairedAdded.contains(to)) {
+                    continue;
+                }
+                var sameParent = Objects.equals(parent, DirectorySnapshot.parentOf(after.path(to)));
+                if (sameParent) {
+                    match = to;
+                    break;
+                }
+                if (match == null && before.childCount(from) > 0) {
+                    match = to;
+                }
+            }
+            if (match != null) {
+                pairedAdded.add(match);
+                pairedRemoved.add(from);
+                renamed.add(new Rename(before.path(from), after.path(match)));
+            }
+        }
+
+        return new DirectoryDiff(paths(after, added, pairedAdded), paths(before, removed, pairedRemoved),
+                List.copyOf(renamed));
+    }
+
+    /**
+     * @return Whether the two snapshots have the same folders.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && renamed.isEmpty();
+    }
+
+    /**
+     * @return The indices of the folders of the snapshot that the other one lacks, without those inside
+     * another such folder.
+     */
+    private static List<Integer> topmost(DirectorySnapshot snapshot, DirectorySnapshot other) {
+        List<Integer> topmost = new ArrayList<>();
+        Set<String> missing = new HashSet<>();
+        for (var i = 1; i < snapshot.size(); ++i) {
+            var path = snapshot.path(i);
+            if (other.indexOf(path) >= 0) {
+                continue;
+            }
+            missing.add(path);
+            if (!missing.contains(DirectorySnapshot.parentOf(path))) {
+                topmost.add(i);
+            }
+        }
+        return topmost;
+    }
+
+    private static List<String> paths(DirectorySnapshot snapshot, List<Integer> indices, Set<Integer> excluded) {
+        List<String> paths = new ArrayList<>();
+        for (int index : indices) {
+            if (!excluded.contains(index)) {
+                paths.add(snapshot.path(index));
+            }
+        }
+        return List.copyOf(paths);
+    }
+
+    /**
+     * @param from The old path of the folder.
+     * @param to   The new path of the folder.
+     */
+    public record Rename(String from, String to) {
+    }
+}
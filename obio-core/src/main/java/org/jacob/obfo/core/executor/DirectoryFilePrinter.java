@@ -1,15 +1,28 @@
 package org.jacob.obfo.core.executor;
 
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.service.stats.GalleryStatistics;
+import org.jacob.obio.common.constants.ObioCommonConstants;
 import org.jacob.obio.common.helper.ObioCommonHelper;
+import org.jacob.obio.common.mapping.PathMappingOutline;
 import org.jacob.obio.common.response.ResManager;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Although Windows allows user to view the number of files in a folder directly through its properties,
  * this class clearly lists all filenames, so it cannot be replaced.
+ * <p>
+ * With {@code --stats [root] [--depth n]} it prints a compact report instead: file counts, sizes and the
+ * extension and size histograms of the tree, rolled up along the groups of the path mapping YAML. The root is
+ * {@link ObioConstants#NEW_GALLERY_PATH} by default.
  *
  * @author Kotohiko
  * @apiNote Please note that this class runs independently in this project.
@@ -18,6 +31,10 @@ import java.io.IOException;
 public class DirectoryFilePrinter {
 
     public static void main(String[] args) {
+        if (args.length > 0 && "--stats".equals(args[0])) {
+            printStats(args);
+            return;
+        }
         System.out.print(ResManager.loadResString("DirectoryFilePrinter_1"));
         // Input your path here
         try (BufferedReader in = ObioCommonHelper.consoleReader()) {
@@ -33,6 +50,37 @@ public class DirectoryFilePrinter {
         }
     }
 
+    private static void printStats(String[] args) {
+        var root = ObioConstants.NEW_GALLERY_PATH;
+        var depth = ObioConstants.STATS_DEPTH;
+        for (var i = 1; i < args.length; ++i) {
+            if ("--depth".equals(args[i]) && i + 1 < args.length) {
+                depth = Integer.parseInt(args[++i]);
+            } else {
+                root = args[i];
+            }
+        }
+        Path rootPath = Paths.get(root);
+        if (!Files.isDirectory(rootPath)) {
+            System.out.println(ResManager.loadResString("DirectoryFilePrinter_0"));
+            return;
+        }
+
+        Map<String, List<String>> groups;
+        try {
+            groups = PathMappingOutline.read(Paths.get(ObioCommonConstants.ILLUSTRATIONS_CONF_YML_PATH))
+                    .groupsByTarget();
+        } catch (IOException e) {
+            // Without the mapping every file is reported as unmapped
+            System.out.println(ResManager.loadResString("DirectoryFilePrinter_2"));
+            groups = Map.of();
+        }
+        var statistics = new GalleryStatistics(groups,
+                Integer.getInteger("obio.stats.parallelism", ObioConstants.STATS_PARALLELISM));
+        statistics.collect(rootPath).lines(depth, ObioConstants.STATS_TOP_EXTENSIONS)
+                .forEach(System.out::println);
+    }
+
     private static int listAllFiles(File directory) {
         var fileCount = 0;
         var files = directory.listFiles();
@@ -48,4 +96,4 @@ public class DirectoryFilePrinter {
         }
         return fileCount;
     }
-}
\ No newline at end of file
+}
@@ -3,88 +3,95 @@ package org.jacob.obfo.core.executor;
 import org.jacob.obfo.core.constants.ObioConstants;
 import org.jacob.obio.common.response.ResManager;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Please note that this class runs independently in this project.
+ * <p>
+ * Writes every directory below the gallery to {@link ObioConstants#PATH_COLLECTION_TXT}, one absolute path per
+ * line, in pre-order with the children sorted by name. The tree is listed in parallel by a
+ * {@link ParallelDirectoryScanner}, with the {@link DirectorySnapshot} of the previous run as its listing cache:
+ * only the directories that changed since then are listed again. The folders added, removed and renamed since
+ * the previous run are printed, and the collection file is only replaced when there are any. Every path is
+ * written to a file next to the target as soon as it is visited, nothing but the snapshot is collected; the
+ * file replaces the target once the scan is complete and has found changes, and is discarded otherwise.
+ * <p>
+ * The root is the first argument, {@link ObioConstants#MY_GALLERY_PATH} by default.
  *
  * @author Kotohiko
  * @since 12:49 Aug 24, 2024
  */
 public class DirectoryPrinter {
 
-    /**
-     * A boolean type global class variable to detect whether an exception has occurred.
-     */
-    private static Boolean EXCEPTION_FLAG = Boolean.TRUE;
-
     public static void main(String[] args) {
-        List<String> subdirectories = new ArrayList<>();
-        printSubdirectories(subdirectories);
-        // Write the results into a file
-        writeToFile(subdirectories);
-        if (EXCEPTION_FLAG != Boolean.FALSE) {
+        var root = Paths.get(args.length > 0 ? args[0] : ObioConstants.MY_GALLERY_PATH);
+        if (!Files.isDirectory(root)) {
+            System.out.println(ResManager.loadResString("DirectoryPrinter_2", root.toString()));
+            return;
+        }
+        try {
+            var diff = refresh(root, Paths.get(ObioConstants.PATH_COLLECTION_TXT),
+                    Paths.get(System.getProperty("obio.printer.snapshot", ObioConstants.DIRECTORY_SNAPSHOT_PATH)));
+            if (diff.isEmpty()) {
+                System.out.println(ResManager.loadResString("DirectoryPrinter_4"));
+                return;
+            }
+            diff.added().forEach(dir -> System.out.println("+ " + dir));
+            diff.removed().forEach(dir -> System.out.println("- " + dir));
+            diff.renamed().forEach(rename -> System.out.println("~ " + rename.from() + " -> " + rename.to()));
+            System.out.println(ResManager.loadResString("DirectoryPrinter_5", String.valueOf(diff.added().size()),
+                    String.valueOf(diff.removed().size()), String.valueOf(diff.renamed().size())));
             System.out.println(ResManager.loadResString("DirectoryPrinter_0"));
-        } else {
+        } catch (IOException e) {
+            System.out.println(ResManager.loadResString("DirectoryPrinter_3"));
             System.out.println(ResManager.loadResString("DirectoryPrinter_1"));
         }
     }
 
     /**
-     * Print the subdirectories.
+     * Scans the tree, rewrites the collection file if the folders have changed and saves the new snapshot.
      *
-     * @param subdirectories subdirectories list object
+     * @param root         The root directory.
+     * @param outputPath   The collection file.
+     * @param snapshotFile The snapshot of the previous run, replaced by the one of this run.
+     * @return The folders changed since the previous run, every top-level folder is added on the first run.
+     * @throws IOException if the tree cannot be scanned or a file cannot be written. The previous files are
+     *                     kept in that case.
      */
-    private static void printSubdirectories(List<String> subdirectories) {
-        var rootDir = new File(ObioConstants.MY_GALLERY_PATH);
-        if (!rootDir.exists() || !rootDir.isDirectory()) {
-            System.out.println(ResManager.loadResString("DirectoryPrinter_2", ObioConstants.MY_GALLERY_PATH));
-            return;
+    public static DirectoryDiff refresh(Path root, Path outputPath, Path snapshotFile) throws IOException {
+        var previous = DirectorySnapshot.load(snapshotFile, root);
+        var builder = new DirectorySnapshot.Builder(root, Files.getLastModifiedTime(root).toMillis());
+        var temp = outputPath.resolveSibling(outputPath.getFileName() + ".tmp");
+        DirectorySnapshot current;
+        try (var scanner = new ParallelDirectoryScanner(
+                Integer.getInteger("obio.printer.parallelism", ObioConstants.PRINTER_PARALLELISM),
+                Integer.getInteger("obio.printer.prefetch", ObioConstants.PRINTER_PREFETCH));
+             BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            scanner.scan(root, (dir, attributes) -> {
+                builder.add(dir, attributes.lastModifiedTime().toMillis());
+                writer.write(DirectorySnapshot.key(dir));
+                writer.write('\n');
+            }, previous);
+            current = builder.build();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
-        traverseDirectory(rootDir, subdirectories);
-    }
 
-    /**
-     * Traverse the directory recursively.
-     *
-     * @param directory      The specified directory
-     * @param subdirectories subdirectories list object
-     */
-    private static void traverseDirectory(File directory, List<String> subdirectories) {
-        // Get all files and subdirectories in the directory
-        var files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    subdirectories.add(file.getAbsolutePath());
-                    traverseDirectory(file, subdirectories);
-                }
-            }
-        }
-    }
-
-    /**
-     * Write the results into a file.
-     *
-     * @param subdirectories subdirectories collection
-     */
-    private static void writeToFile(List<String> subdirectories) {
-        var outputPath = Paths.get(ObioConstants.PATH_COLLECTION_TXT);
-        try (PrintWriter writer = new PrintWriter(new FileWriter(outputPath.toFile()))) {
-            for (String subdirectory : subdirectories) {
-                writer.println(subdirectory);
-            }
-        } catch (IOException e) {
-            // This exception description comes from the JavaDoc for the
-            // java.io.FileWriter constructor FileWriter(java.io.File)
-            System.out.println(ResManager.loadResString("DirectoryPrinter_3"));
-            EXCEPTION_FLAG = Boolean.TRUE;
+        var diff = DirectoryDiff.between(previous, current);
+        if (!diff.isEmpty() || previous.isEmpty() || !Files.isRegularFile(outputPath)) {
+            Files.move(temp, outputPath, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(temp);
         }
+        // Saved even without changes, the modification times of the directories may still have moved on
+        current.save(snapshotFile);
+        return diff;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,286 @@
+package org.jacob.obfo.core.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The directories of a tree as of one scan, with their modification times and subtree digests, persisted next
+ * to {@code path-collection.txt}.
+ * <p>
+ * A directory's modification time changes when an entry is added to, removed from or renamed in it, so a
+ * directory that still has its recorded time still has the recorded subdirectories. Given to
+ * {@link ParallelDirectoryScanner#scan(Path, ParallelDirectoryScanner.DirectoryVisitor,
+ * ParallelDirectoryScanner.ListingCache)} as the listing cache, only the directories that changed are listed
+ * again; the others are only stat'ed.
+ * <p>
+ * The digest of a directory is computed from the names and digests of its subdirectories, so two directories
+ * with the same digest contain the same folder structure. {@link DirectoryDiff} uses it to recognise a
+ * renamed or moved folder. File layout (big endian): {@code int magic, UTF root, int count}, then per directory
+ * in pre-order, the root first, {@code UTF path, long mtime, long digest}.
+ *
+ * @author Kotohiko
+ * @since 08:39 Oct 18, 2026
+ */
+public final class DirectorySnapshot implements ParallelDirectoryScanner.ListingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectorySnapshot.class);
+
+    private static final int MAGIC = 0x4F424453;
+
+    private final String root;
+
+    /**
+     * Absolute paths in pre-order, children sorted by {@link ParallelDirectoryScanner#NAME_ORDER}. The root is
+     * at index 0.
+     */
+    private final List<String> paths;
+
+    private final long[] mtimes;
+
+    private final long[] digests;
+
+    private final Map<String, Integer> indexByPath;
+
+    /**
+     * Indices of the subdirectories of every directory, in order.
+     */
+    private final int[][] children;
+
+    private DirectorySnapshot(String root, List<String> paths, long[] mtimes, long[] digests) {
+        this.root = root;
+        this.paths = paths;
+        this.mtimes = mtimes;
+        this.digests = digests;
+        this.indexByPath = new HashMap<>(paths.size() * 2);
+        for (var i = 0; i < paths.size(); ++i) {
+            indexByPath.put(paths.get(i), i);
+        }
+        this.children = childrenOf(paths, indexByPath);
+    }
+
+    /**
+     * An empty snapshot of the root, every directory is listed when it is used as the cache.
+     *
+     * @param root The root directory.
+     * @return The snapshot.
+     */
+    public static DirectorySnapshot empty(Path root) {
+        return new DirectorySnapshot(key(root), List.of(), new long[0], new long[0]);
+    }
+
+    /**
+     * Reads a snapshot file. A missing or unreadable file, or one of another root, gives an empty snapshot.
+     *
+     * @param file The snapshot file.
+     * @param root The root directory the snapshot is expected to be of.
+     * @return The snapshot.
+     */
+    public static DirectorySnapshot load(Path file, Path root) {
+        if (!Files.isRegularFile(file)) {
+            return empty(root);
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a directory snapshot file");
+            }
+            var snapshotRoot = in.readUTF();
+            if (!snapshotRoot.equals(key(root))) {
+                logger.info("The snapshot {} is of {}, scanning {} from scratch", file, snapshotRoot, root);
+                return empty(root);
+            }
+            var count = in.readInt();
+            List<String> paths = new ArrayList<>(count);
+            var mtimes = new long[count];
+            var digests = new long[count];
+            for (var i = 0; i < count; ++i) {
+                paths.add(in.readUTF());
+                mtimes[i] = in.readLong();
+                digests[i] = in.readLong();
+            }
+            return new DirectorySnapshot(snapshotRoot, paths, mtimes, digests);
+        } catch (IOException e) {
+            logger.warn("Cannot read the directory snapshot {}, scanning from scratch", file, e);
+            return empty(root);
+        }
+    }
+
+    /**
+     * Writes the snapshot next to the file and then replaces it.
+     *
+     * @param file The snapshot file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(root);
+            out.writeInt(paths.size());
+            for (var i = 0; i < paths.size(); ++i) {
+                out.writeUTF(paths.get(i));
+                out.writeLong(mtimes[i]);
+                out.writeLong(digests[i]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public List<String> subdirectories(Path dir, long mtime) {
+        var index = indexByPath.get(key(dir));
+        if (index == null || mtimes[index] != mtime) {
+            return null;
+        }
+        var childIndices = children[index];
+        List<String> names = new ArrayList<>(childIndices.length);
+        for (int child : childIndices) {
+            names.add(fileName(paths.get(child)));
+        }
+        return names;
+    }
+
+    /**
+     * @return The absolute paths of the directories below the root, in pre-order.
+     */
+    public List<String> directories() {
+        return paths.isEmpty() ? List.of() : paths.subList(1, paths.size());
+    }
+
+    /**
+     * @return Whether the snapshot holds a scan, as opposed to {@link #empty(Path)}.
+     */
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    /**
+     * @return The index of the directory, or {@code -1} if it is not in the snapshot.
+     */
+    int indexOf(String path) {
+        return indexByPath.getOrDefault(path, -1);
+    }
+
+    String path(int index) {
+        return paths.get(index);
+    }
+
+    long digest(int index) {
+        return digests[index];
+    }
+
+    int childCount(int index) {
+        return children[index].length;
+    }
+
+    int size() {
+        return paths.size();
+    }
+
+    static String key(Path dir) {
+        return dir.toAbsolutePath().normalize().toString();
+    }
+
+    static String parentOf(String path) {
+        var parent = Path.of(path).getParent();
+        return parent == null ? null : parent.toString();
+    }
+
+    private static String fileName(String path) {
+        var name = Path.of(path).getFileName();
+        return name == null ? path : name.toString();
+    }
+
+    private static int[][] childrenOf(List<String> paths, Map<String, Integer> indexByPath) {
+        List<List<Integer>> lists = new ArrayList<>(paths.size());
+        for (var i = 0; i < paths.size(); ++i) {
+            lists.add(new ArrayList<>());
+        }
+        for (var i = 1; i < paths.size(); ++i) {
+            var parent = indexByPath.get(parentOf(paths.get(i)));
+            if (parent != null) {
+                lists.get(parent).add(i);
+            }
+        }
+        var children = new int[paths.size()][];
+        for (var i = 0; i < paths.size(); ++i) {
+            children[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return children;
+    }
+
+    /**
+     * Collects the directories of a scan in the order they are visited and computes their digests at the end.
+     */
+    public static final class Builder {
+
+        private final String root;
+
+        private final List<String> paths = new ArrayList<>();
+
+        private long[] mtimes = new long[256];
+
+        /**
+         * @param root      The root directory.
+         * @param rootMtime Its modification time, in milliseconds.
+         */
+        public Builder(Path root, long rootMtime) {
+            this.root = key(root);
+            add(this.root, rootMtime);
+        }
+
+        /**
+         * @param dir   The visited directory.
+         * @param mtime Its modification time, in milliseconds.
+         */
+        public void add(Path dir, long mtime) {
+            add(key(dir), mtime);
+        }
+
+        private void add(String path, long mtime) {
+            if (paths.size() == mtimes.length) {
+                mtimes = Arrays.copyOf(mtimes, mtimes.length * 2);
+            }
+            mtimes[paths.size()] = mtime;
+            paths.add(path);
+        }
+
+        /**
+         * @return The snapshot of the visited directories.
+         */
+        public DirectorySnapshot build() {
+            var snapshot = new DirectorySnapshot(root, List.copyOf(paths), Arrays.copyOf(mtimes, paths.size()),
+                    new long[paths.size()]);
+            // Pre-order puts every child after its parent, so walking backwards sees the children first
+            for (var i = paths.size() - 1; i >= 0; --i) {
+                var digest = 0x9E3779B97F4A7C15L;
+                for (int child : snapshot.children[i]) {
+                    digest = mix(digest ^ nameHash(fileName(paths.get(child))));
+                    digest = mix(digest ^ snapshot.digests[child]);
+                }
+                snapshot.digests[i] = digest;
+            }
+            return snapshot;
+        }
+
+        private static long nameHash(String name) {
+            var hash = 0xCBF29CE484222325L;
+            for (var i = 0; i < name.length(); ++i) {
+                hash = (hash ^ name.charAt(i)) * 0x100000001B3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -1,50 +1,380 @@
 package org.jacob.obfo.core.executor;
 
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obio.common.response.ResManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Please note that this class runs independently in this project.
+ * <p>
+ * Recreates the folder skeleton listed in a collection file (e.g. {@code path-collection.txt}) below another
+ * root, to mirror the gallery onto a new disk.
+ * <p>
+ * The lines are split on both {@code \} and {@code /} and merged into a trie, so every directory is created
+ * exactly once however many lines share it, and no ancestor is looked up again for every line the way
+ * {@link Files#createDirectories} does. The trie is created parent before child with one fork/join task per
+ * subtree; a directory that does not exist yet costs a single {@link Files#createDirectory}.
+ * <p>
+ * Usage: {@code --target <dir> [--source <file>] [--strip <prefix>] [--dry-run] [--diff]}. The source is
+ * {@link ObioConstants#PATH_COLLECTION_TXT} by default. {@code --strip} removes a leading prefix such as
+ * {@code S:\Gallery} from every line, otherwise only the drive or root is removed. {@code --dry-run} prints the
+ * directories that would be created, {@code --diff} also prints the directories below the target that the
+ * source does not list.
+ *
  * @author Kotohiko
  * @since 13:00 10月 02, 2024
  */
 public class DirectoryStructureCreator {
 
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryStructureCreator.class);
+
     public static void main(String[] args) {
-        // 源文件路径
-        Path sourceFilePath = Paths.get("C:\\Users\\tachi\\Desktop\\path-collection.txt"); // 替换为你的文件路径
-        // 目标根目录
-        Path targetRootDir = Paths.get("S:"); // 替换为你希望创建目录结构的目标根目录
+        Path source = Paths.get(ObioConstants.PATH_COLLECTION_TXT);
+        Path target = null;
+        String strip = null;
+        var dryRun = false;
+        var diff = false;
+        for (var i = 0; i < args.length; ++i) {
+            var option = args[i];
+            if (("--source".equals(option) || "--target".equals(option) || "--strip".equals(option))
+                    && i + 1 >= args.length) {
+                // The option is the last argument and has no value
+                System.out.println(ResManager.loadResString("DirectoryStructureCreator_0"));
+                return;
+            }
+            switch (option) {
+                case "--source" -> source = Paths.get(args[++i]);
+                case "--target" -> target = Paths.get(args[++i]);
+                case "--strip" -> strip = args[++i];
+                case "--dry-run" -> dryRun = true;
+                case "--diff" -> diff = true;
+                default -> {
+                    System.out.println(ResManager.loadResString("DirectoryStructureCreator_0"));
+                    return;
+                }
+            }
+        }
+        if (target == null) {
+            System.out.println(ResManager.loadResString("DirectoryStructureCreator_0"));
+            return;
+        }
 
         try {
-            createDirectoryStructureFromFilePaths(sourceFilePath, targetRootDir);
-            System.out.println("Directory structure created successfully.");
+            var trie = read(source, strip);
+            var creator = new DirectoryStructureCreator(
+                    Integer.getInteger("obio.creator.parallelism", ObioConstants.CREATOR_PARALLELISM));
+            if (dryRun || diff) {
+                var plan = creator.check(trie, target, diff);
+                plan.missing().forEach(dir -> System.out.println("+ " + dir));
+                plan.extra().forEach(dir -> System.out.println("- " + dir));
+                System.out.println(ResManager.loadResString("DirectoryStructureCreator_1",
+                        String.valueOf(plan.missing().size()), String.valueOf(plan.existing()),
+                        String.valueOf(plan.extra().size())));
+            }
+            if (!dryRun) {
+                var result = creator.create(trie, target);
+                System.out.println(ResManager.loadResString("DirectoryStructureCreator_2",
+                        String.valueOf(result.created()), String.valueOf(result.existing()),
+                        String.valueOf(result.failed())));
+            }
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Failed to create the directory structure from {}", source, e);
+            System.out.println(ResManager.loadResString("DirectoryStructureCreator_3", source.toString()));
         }
     }
 
+    private final int parallelism;
+
     /**
-     * 从文件中读取路径并在目标位置创建相应的目录结构。
+     * @param parallelism The number of directories created or checked at the same time.
+     */
+    public DirectoryStructureCreator(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads a collection file into a trie of relative directory names.
      *
-     * @param sourceFilePath 包含路径的源文件
-     * @param targetRootDir  目标根目录
-     * @throws IOException 如果在读取文件或创建目录过程中发生I/O错误
+     * @param source The collection file, one directory per line.
+     * @param strip  A prefix removed from the lines that start with it, compared case-insensitively segment by
+     *               segment; {@code null} to remove only the drive or root of absolute lines.
+     * @return The root of the trie.
+     * @throws IOException if the file cannot be read.
      */
-    private static void createDirectoryStructureFromFilePaths(Path sourceFilePath, Path targetRootDir)
-            throws IOException {
-        try (BufferedReader reader = Files.newBufferedReader(sourceFilePath)) {
+    public static Node read(Path source, String strip) throws IOException {
+        var prefix = strip == null ? List.<String>of() : segments(strip);
+        var root = new Node();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
             String line;
             while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    Path relativePath = Paths.get(line);
-                    Path targetPath = targetRootDir.resolve(relativePath);
-                    Files.createDirectories(targetPath);
-                    System.out.println("Created: " + targetPath);
+                var segments = segments(line);
+                if (startsWith(segments, prefix)) {
+                    segments = segments.subList(prefix.size(), segments.size());
+                } else if (!segments.isEmpty() && segments.getFirst().endsWith(":")) {
+                    // A drive, e.g. "S:"
+                    segments = segments.subList(1, segments.size());
+                }
+                var node = root;
+                for (String segment : segments) {
+                    node = node.child(segment);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Creates the directories of the trie below the target, parents first.
+     *
+     * @param trie   The trie from {@link #read}.
+     * @param target The target root, created if it does not exist.
+     * @return The counts of the run.
+     * @throws IOException if the target root cannot be created.
+     */
+    public Result create(Node trie, Path target) throws IOException {
+        Files.createDirectories(target);
+        var created = new AtomicInteger();
+        var existing = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Create(trie, target, created, existing, failed));
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(created.get(), existing.get(), failed.get());
+    }
+
+    /**
+     * Compares the trie with the target without creating anything.
+     *
+     * @param trie   The trie from {@link #read}.
+     * @param target The target root.
+     * @param extra  Whether to list the directories below the target that the trie does not have.
+     * @return The directories that would be created and, if asked for, those the trie does not have, both in
+     * pre-order.
+     */
+    public Plan check(Node trie, Path target, boolean extra) {
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Check(trie, target, Files.isDirectory(target), extra));
+        } finally {
+            pool.shutdown();
+        }
+        List<String> missing = new ArrayList<>();
+        List<String> extras = new ArrayList<>();
+        var existing = new int[1];
+        collect(trie, target, missing, extras, existing);
+        return new Plan(missing, existing[0], extras);
+    }
+
+    private static void collect(Node node, Path dir, List<String> missing, List<String> extras, int[] existing) {
+        for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+            var child = entry.getValue();
+            var path = dir.resolve(entry.getKey());
+            if (child.existed) {
+                ++existing[0];
+            } else {
+                missing.add(path.toString());
+            }
+            collect(child, path, missing, extras, existing);
+        }
+        if (node.extra != null) {
+            node.extra.stream().sorted(ParallelDirectoryScanner.NAME_ORDER)
+                    .forEach(name -> extras.add(dir.resolve(name).toString()));
+        }
+    }
+
+    /**
+     * @return The non-empty segments of a path, split on both separators.
+     */
+    static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.strip().split("[\\\\/]+")) {
+            if (!segment.isBlank()) {
+                segments.add(segment.strip());
+            }
+        }
+        return segments;
+    }
+
+    private static boolean startsWith(List<String> segments, List<String> prefix) {
+        if (prefix.isEmpty() || segments.size() < prefix.size()) {
+            return false;
+        }
+        for (var i = 0; i < prefix.size(); ++i) {
+            if (!segments.get(i).equalsIgnoreCase(prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A directory of the trie. The children are sorted by {@link ParallelDirectoryScanner#NAME_ORDER}.
+     */
+    public static final class Node {
+
+        private final Map<String, Node> children = new TreeMap<>(ParallelDirectoryScanner.NAME_ORDER);
+
+        /**
+         * Set by {@link #check}: whether the directory already existed below the target.
+         */
+        private volatile boolean existed;
+
+        /**
+         * Set by {@link #check}: the subdirectories below the target that the trie does not have.
+         */
+        private volatile List<String> extra;
+
+        private Node child(String name) {
+            return children.computeIfAbsent(name, n -> new Node());
+        }
+    }
+
+    /**
+     * @param created  The directories created.
+     * @param existing The directories that already existed.
+     * @param failed   The directories that could not be created, their subtrees are skipped.
+     */
+    public record Result(int created, int existing, int failed) {
+    }
+
+    /**
+     * @param missing  The directories that would be created.
+     * @param existing The number of directories that already exist.
+     * @param extra    The directories below the target that the source does not list.
+     */
+    public record Plan(List<String> missing, int existing, List<String> extra) {
+    }
+
+    /**
+     * Creates the children of one directory, then forks a task for each child.
+     */
+    private static final class Create extends RecursiveAction {
+
+        private final Node node;
+
+        private final Path dir;
+
+        private final AtomicInteger created;
+
+        private final AtomicInteger existing;
+
+        private final AtomicInteger failed;
+
+        private Create(Node node, Path dir, AtomicInteger created, AtomicInteger existing, AtomicInteger failed) {
+            this.node = node;
+            this.dir = dir;
+            this.created = created;
+            this.existing = existing;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            List<Create> subtasks = new ArrayList<>(node.children.size());
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                var path = dir.resolve(entry.getKey());
+                try {
+                    Files.createDirectory(path);
+                    created.incrementAndGet();
+                } catch (FileAlreadyExistsException e) {
+                    if (!Files.isDirectory(path)) {
+                        logger.warn("Not a directory: {}", path);
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    existing.incrementAndGet();
+                } catch (IOException e) {
+                    logger.warn("Cannot create {}", path, e);
+                    failed.incrementAndGet();
+                    continue;
                 }
+                if (!entry.getValue().children.isEmpty()) {
+                    subtasks.add(new Create(entry.getValue(), path, created, existing, failed));
+                }
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    /**
+     * Records which children of one directory exist, then forks a task for each existing child. Below a
+     * directory that does not exist nothing is looked up.
+     */
+    private static final class Check extends RecursiveAction {
+
+        private final Node node;
+
+        private final Path dir;
+
+        private final boolean exists;
+
+        private final boolean listExtra;
+
+        private Check(Node node, Path dir, boolean exists, boolean listExtra) {
+            this.node = node;
+            this.dir = dir;
+            this.exists = exists;
+            this.listExtra = listExtra;
+        }
+
+        @Override
+        protected void compute() {
+            if (!exists) {
+                // Every node below is missing, which is the default state
+                return;
+            }
+            // Names are compared the way Windows does, ignoring case
+            Set<String> listed = new HashSet<>();
+            for (String name : node.children.keySet()) {
+                listed.add(name.toUpperCase(Locale.ROOT));
+            }
+            Set<String> present = new HashSet<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    if (Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+                            .isDirectory()) {
+                        var name = child.getFileName().toString();
+                        present.add(name.toUpperCase(Locale.ROOT));
+                        if (listExtra && !listed.contains(name.toUpperCase(Locale.ROOT))) {
+                            addExtra(name);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot list {}", dir, e);
+                return;
+            }
+
+            List<Check> subtasks = new ArrayList<>();
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                var child = entry.getValue();
+                child.existed = present.contains(entry.getKey().toUpperCase(Locale.ROOT));
+                if (child.existed && (listExtra || !child.children.isEmpty())) {
+                    subtasks.add(new Check(child, dir.resolve(entry.getKey()), true, listExtra));
+                }
+            }
+            invokeAll(subtasks);
+        }
+
+        private void addExtra(String name) {
+            if (node.extra == null) {
+                node.extra = new ArrayList<>();
             }
+            node.extra.add(name);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package org.jacob.obfo.core.executor;
+
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Walks the directories of a tree in a deterministic pre-order, listing them on a pool of threads.
+ * <p>
+ * The visiting thread walks the tree depth-first, children sorted by name the way Explorer sorts them
+ * ({@link #NAME_ORDER}). Every directory it enters has its next {@code prefetch} subdirectories listed in the
+ * background, so while one subtree is being visited the listings of the following ones are already under way
+ * on all pool threads. At most {@code prefetch} listings per level of the current path are held, which bounds
+ * the memory by the depth of the tree rather than by its size.
+ * <p>
+ * Each directory is listed with {@link Files#walkFileTree} limited to depth 1: on Windows the attributes come
+ * with the directory listing itself instead of one stat per entry. A {@link ListingCache} can supply the
+ * subdirectories of a directory that has not changed since a previous scan, which are then only stat'ed.
+ *
+ * @author Kotohiko
+ * @since 08:35 Oct 18, 2026
+ */
+public final class ParallelDirectoryScanner implements Closeable {
+
+    /**
+     * Ordinal on the upper-cased characters, as NTFS sorts a directory, then ordinal so that the order is total.
+     */
+    public static final Comparator<String> NAME_ORDER = ParallelDirectoryScanner::compareUpperCase;
+
+    private final ExecutorService pool;
+
+    private final int prefetch;
+
+    /**
+     * @param parallelism The number of directories listed at the same time.
+     * @param prefetch    The number of sibling directories listed ahead of the visiting thread.
+     */
+    public ParallelDirectoryScanner(int parallelism, int prefetch) {
+        this.pool = Executors.newFixedThreadPool(parallelism, new CustomThreadFactory("DirectoryScanner", true));
+        this.prefetch = Math.max(1, prefetch);
+    }
+
+    /**
+     * Visits every directory below the root, not the root itself, in pre-order.
+     *
+     * @param root    The root directory.
+     * @param visitor Receives the directories, on the calling thread.
+     * @return The number of visited directories.
+     * @throws IOException if the root cannot be listed or the visitor fails. Subdirectories that cannot be
+     *                     listed are visited but not descended into.
+     */
+    public long scan(Path root, DirectoryVisitor visitor) throws IOException {
+        return scan(root, visitor, null);
+    }
+
+    /**
+     * Visits every directory below the root, not the root itself, in pre-order, listing only the directories
+     * the cache does not know.
+     *
+     * @param root    The root directory.
+     * @param visitor Receives the directories, on the calling thread.
+     * @param cache   The subdirectories of unchanged directories, {@code null} to list every directory.
+     * @return The number of visited directories.
+     * @throws IOException if the root cannot be listed or the visitor fails. Subdirectories that cannot be
+     *                     listed are visited but not descended into.
+     */
+    public long scan(Path root, DirectoryVisitor visitor, ListingCache cache) throws IOException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        var rootAttributes = Files.readAttributes(root, BasicFileAttributes.class);
+        stack.push(new Frame(list(root, rootAttributes, cache), cache));
+        var visited = 0L;
+        try {
+            while (!stack.isEmpty()) {
+                var frame = stack.peek();
+                if (!frame.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                var child = frame.next();
+                visitor.visit(child.path(), child.attributes());
+                ++visited;
+                stack.push(new Frame(child.listing().get(), cache));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning " + root, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to scan " + root, e.getCause());
+        } finally {
+            for (Frame frame : stack) {
+                frame.cancel();
+            }
+        }
+        return visited;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static int compareUpperCase(String a, String b) {
+        var length = Math.min(a.length(), b.length());
+        for (var i = 0; i < length; ++i) {
+            var x = Character.toUpperCase(a.charAt(i));
+            var y = Character.toUpperCase(b.charAt(i));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length() != b.length() ? a.length() - b.length() : a.compareTo(b);
+    }
+
+    /**
+     * @return The subdirectories of the directory, sorted by {@link #NAME_ORDER}: those recorded by the cache if
+     * it knows the directory and they all still exist, otherwise a fresh listing.
+     */
+    private static List<Entry> list(Path dir, BasicFileAttributes attributes, ListingCache cache)
+            throws IOException {
+        if (cache != null) {
+            var names = cache.subdirectories(dir, attributes.lastModifiedTime().toMillis());
+            if (names != null) {
+                var known = stat(dir, names);
+                if (known != null) {
+                    return known;
+                }
+            }
+        }
+        return list(dir);
+    }
+
+    private static List<Entry> stat(Path dir, List<String> names) {
+        List<Entry> entries = new ArrayList<>(names.size());
+        for (String name : names) {
+            var child = dir.resolve(name);
+            try {
+                var attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attributes.isDirectory()) {
+                    return null;
+                }
+                entries.add(new Entry(child, attributes));
+            } catch (IOException _) {
+                return null;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return The subdirectories of the directory, sorted by {@link #NAME_ORDER}.
+     */
+    private static List<Entry> list(Path dir) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // At the depth limit directories are reported through visitFile
+                if (attrs.isDirectory()) {
+                    entries.add(new Entry(file, attrs));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        entries.sort((a, b) -> NAME_ORDER.compare(a.path().getFileName().toString(),
+                b.path().getFileName().toString()));
+        return entries;
+    }
+
+    /**
+     * Receives the directories of a scan in order.
+     */
+    @FunctionalInterface
+    public interface DirectoryVisitor {
+        void visit(Path dir, BasicFileAttributes attributes) throws IOException;
+    }
+
+    /**
+     * The subdirectories of the directories of a previous scan.
+     */
+    @FunctionalInterface
+    public interface ListingCache {
+
+        /**
+         * Called on the pool threads.
+         *
+         * @param dir   The directory about to be listed.
+         * @param mtime Its current modification time, in milliseconds.
+         * @return The names of its subdirectories sorted by {@link #NAME_ORDER} if it had this modification time
+         * when they were recorded, otherwise {@code null}.
+         */
+        List<String> subdirectories(Path dir, long mtime);
+    }
+
+    private record Entry(Path path, BasicFileAttributes attributes) {
+    }
+
+    private record Child(Path path, BasicFileAttributes attributes, Future<List<Entry>> listing) {
+    }
+
+    /**
+     * The sorted subdirectories of one directory on the current path, with the listings ahead of the cursor.
+     */
+    private final class Frame {
+
+        private final List<Entry> children;
+
+        private final ListingCache cache;
+
+        private final Queue<Future<List<Entry>>> ahead = new ArrayDeque<>();
+
+        private int next;
+
+        private int submitted;
+
+        private Frame(List<Entry> children, ListingCache cache) {
+            this.children = children;
+            this.cache = cache;
+        }
+
+        boolean hasNext() {
+            return next < children.size();
+        }
+
+        Child next() {
+            while (submitted < children.size() && submitted < next + prefetch) {
+                var entry = children.get(submitted++);
+                ahead.add(pool.submit(() -> {
+                    try {
+                        return list(entry.path(), entry.attributes(), cache);
+                    } catch (IOException | UncheckedIOException _) {
+                        // Visited, but not descended into
+                        return List.of();
+                    }
+                }));
+            }
+            var entry = children.get(next++);
+            return new Child(entry.path(), entry.attributes(), ahead.remove());
+        }
+
+        void cancel() {
+            ahead.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.jacob.obfo.core.logger;
+
+import org.jacob.obfo.core.enums.LogOverflowPolicyEnums;
+import org.jacob.obio.common.response.ResManager;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends lines to a log file from a single background thread.
+ * <p>
+ * Producers put complete lines into a bounded lock-free queue and return immediately. The writer thread keeps
+ * one {@link FileChannel} open and group-commits everything that is queued in a single write, either when the
+ * flush interval has passed or as soon as a full batch is waiting. When the queue is full the
+ * {@link LogOverflowPolicyEnums} decides whether the producer waits or the line is dropped. On
+ * {@link #close()} everything still queued is written before the channel is closed.
+ *
+ * @author Kotohiko
+ * @since 08:09 Oct 18, 2026
+ */
+public final class AsyncLogWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLogWriter.class);
+
+    /**
+     * How long a blocked producer parks before checking the queue again.
+     */
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final Path logFile;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final LogOverflowPolicyEnums overflowPolicy;
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of reserved queue slots; bounds {@link #queue}, whose own size() is not constant time.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+
+    private FileChannel channel;
+
+    /**
+     * Creates the writer and starts its thread.
+     *
+     * @param logFile             The file to append to, created if missing.
+     * @param capacity            Maximum number of queued lines.
+     * @param batchSize           Number of queued lines that triggers a write before the flush interval has passed.
+     * @param flushIntervalMillis Maximum time a line waits in the queue.
+     * @param overflowPolicy      What to do with a line when the queue is full.
+     */
+    public AsyncLogWriter(Path logFile, int capacity, int batchSize, long flushIntervalMillis,
+                          LogOverflowPolicyEnums overflowPolicy) {
+        this.logFile = logFile;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, flushIntervalMillis));
+        this.overflowPolicy = overflowPolicy;
+        this.writerThread = new CustomThreadFactory("AsyncLogWriter", true).newThread(this::writeLoop);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a line. The line separator is appended by the caller.
+     *
+     * @param line The complete line.
+     * @return Whether the line was queued; {@code false} if it was dropped.
+     */
+    public boolean submit(String line) {
+        while (true) {
+            var current = size.get();
+            if (!running) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (current >= capacity) {
+                if (overflowPolicy == LogOverflowPolicyEnums.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.unpark(writerThread);
+                LockSupport.parkNanos(this, BACKPRESSURE_PARK_NANOS);
+                continue;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                queue.offer(line);
+                enqueued.incrementAndGet();
+                if (current + 1 >= batchSize) {
+                    LockSupport.unpark(writerThread);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The current counters.
+     */
+    public LogWriterMetrics metrics() {
+        return new LogWriterMetrics(enqueued.get(), written.get(), dropped.get(), batches.get(), size.get());
+    }
+
+    /**
+     * Stops accepting lines, writes everything still queued and closes the log file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        var sb = new StringBuilder(4096);
+        while (true) {
+            if (running && size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+
+            // Group commit: everything queued right now goes out in one write
+            String line;
+            var lines = 0;
+            while ((line = queue.poll()) != null) {
+                sb.append(line);
+                ++lines;
+            }
+            if (lines > 0) {
+                size.addAndGet(-lines);
+                commit(sb, lines);
+                sb.setLength(0);
+            }
+
+            // A reserved slot means a producer is about to offer its line, wait for it
+            if (!running && size.get() == 0) {
+                break;
+            }
+        }
+        closeChannel();
+    }
+
+    private void commit(StringBuilder sb, int lines) {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            var buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written.addAndGet(lines);
+            batches.incrementAndGet();
+        } catch (IOException e) {
+            logger.error(ResManager.loadResString("OBFOLogger_0"));
+            dropped.addAndGet(lines);
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException _) {
+                // Nothing left to do with it
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.jacob.obfo.core.logger;
+
+/**
+ * A point-in-time view of the counters of an {@link AsyncLogWriter}.
+ *
+ * @param enqueued Lines accepted into the queue.
+ * @param written  Lines written to the log file.
+ * @param dropped  Lines discarded because the queue was full or the file could not be written.
+ * @param batches  Group commits, i.e. writes to the log file.
+ * @param queued   Lines currently waiting in the queue.
+ * @author Kotohiko
+ * @since 08:09 Oct 18, 2026
+ */
+public record LogWriterMetrics(long enqueued, long written, long dropped, long batches, int queued) {
+}
@@ -1,15 +1,13 @@
 package org.jacob.obfo.core.logger;
 
 import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.enums.LogOverflowPolicyEnums;
 import org.jacob.obio.common.helper.ObioCommonHelper;
-import org.jacob.obio.common.response.ResManager;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.StringJoiner;
 
 /**
  * This class is responsible for writing log messages to a file.
@@ -20,54 +18,86 @@ import java.nio.file.Path;
 public class OBFOLogFilesWriter {
 
     /**
-     * The logger instance used for logging messages related to the{@link OBFOLogFilesWriter}class.
-     * This logger is configured to log messages at various levels (e.g., debug, info, error) and can be
-     * used throughout the class to provide detailed information about the watcher's operations.
+     * The single background writer of {@link ObioConstants#PATH_OF_UNCLASSIFIED_REMAINING_IMAGES_LOG}.
+     * It is flushed and closed by a shutdown hook.
      */
-    private static final Logger logger = LoggerFactory.getLogger(OBFOLogFilesWriter.class);
+    private static final AsyncLogWriter WRITER = createWriter();
 
     private OBFOLogFilesWriter() {
     }
 
+    private static AsyncLogWriter createWriter() {
+        var policy = ObioCommonHelper.enumProperty("obio.log.overflowPolicy", LogOverflowPolicyEnums.class,
+                LogOverflowPolicyEnums.valueOf(ObioConstants.LOG_OVERFLOW_POLICY));
+        var writer = new AsyncLogWriter(Paths.get(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES_LOG),
+                Integer.getInteger("obio.log.queueCapacity", ObioConstants.LOG_QUEUE_CAPACITY),
+                Integer.getInteger("obio.log.batchSize", ObioConstants.LOG_BATCH_SIZE),
+                Long.getLong("obio.log.flushIntervalMillis", ObioConstants.LOG_FLUSH_INTERVAL_MILLIS),
+                policy);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "AsyncLogWriter-shutdown"));
+        return writer;
+    }
+
+    /**
+     * @return The queue and write counters of the log file writer.
+     */
+    public static LogWriterMetrics metrics() {
+        return WRITER.metrics();
+    }
 
     /**
      * Writes a log entry to the specified log file indicating the number of new files added and the
-     * remaining unclassified images.
+     * remaining unclassified images. The line is queued and written by the background writer.
      *
      * @param fileWithAbsPath The path of the newly added file with absolute path.
      * @param fileCount       The number of remaining unclassified images.
      */
     public static void filesAddedLogWriter(Path fileWithAbsPath, int fileCount) {
-        Thread currentThread = Thread.currentThread();
-        String threadInfo = " Thread: [" + currentThread.getName() + "] (ID: " + currentThread.threadId() + ")";
         // Write the number of files and date to log file.
-        try (BufferedWriter bw = new BufferedWriter(
-                new FileWriter(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES_LOG, Boolean.TRUE))) {
-            bw.write(ObioCommonHelper.getRealTime()
-                    + threadInfo + " INFO - New files added: " + fileWithAbsPath.getFileName()
-                    + "; Remaining unclassified images: " + fileCount + "\n");
-        } catch (IOException e) {
-            logger.error(ResManager.loadResString("OBFOLogger_0"));
+        WRITER.submit(ObioCommonHelper.getRealTime()
+                + threadInfo() + " INFO - New files added: " + fileWithAbsPath.getFileName()
+                + "; Remaining unclassified images: " + fileCount + "\n");
+    }
+
+    /**
+     * Writes one log entry for a batch of new files. A batch of one file produces the same line as
+     * {@link #filesAddedLogWriter(Path, int)}.
+     *
+     * @param filesWithAbsPath The newly added files with absolute path, in arrival order.
+     * @param fileCount        The number of remaining unclassified images after the batch.
+     */
+    public static void filesAddedLogWriter(List<Path> filesWithAbsPath, int fileCount) {
+        if (filesWithAbsPath.size() == 1) {
+            filesAddedLogWriter(filesWithAbsPath.getFirst(), fileCount);
+            return;
+        }
+        var names = new StringJoiner(", ");
+        for (Path path : filesWithAbsPath) {
+            names.add(path.getFileName().toString());
         }
+        WRITER.submit(ObioCommonHelper.getRealTime()
+                + threadInfo() + " INFO - New files added (" + filesWithAbsPath.size() + "): " + names
+                + "; Remaining unclassified images: " + fileCount + "\n");
     }
 
     /**
      * Writes a log entry to the specified log file indicating that files have been moved and the
-     * remaining unclassified images.
+     * remaining unclassified images. The line is queued and written by the background writer.
      *
      * @param fileCount The number of remaining unclassified images.
      */
     public static void filesMoveLogWriter(int fileCount) {
-        Thread currentThread = Thread.currentThread();
-        String threadInfo = " Thread: [" + currentThread.getName() + "] (ID: " + currentThread.threadId() + ")";
         // Record the file count and date in the log file.
-        try (BufferedWriter bw = new BufferedWriter(
-                new FileWriter(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES_LOG, Boolean.TRUE))) {
-            bw.write(ObioCommonHelper.getRealTime()
-                    + threadInfo + " INFO - File(s) has/have been moved; "
-                    + "Remaining unclassified images: " + fileCount + "\n");
-        } catch (IOException e) {
-            logger.error(ResManager.loadResString("OBFOLogger_0"));
-        }
+        WRITER.submit(ObioCommonHelper.getRealTime()
+                + threadInfo() + " INFO - File(s) has/have been moved; "
+                + "Remaining unclassified images: " + fileCount + "\n");
+    }
+
+    /**
+     * The producing thread is captured here, the line is written from the writer thread.
+     */
+    private static String threadInfo() {
+        Thread currentThread = Thread.currentThread();
+        return " Thread: [" + currentThread.getName() + "] (ID: " + currentThread.threadId() + ")";
     }
-}
\ No newline at end of file
+}
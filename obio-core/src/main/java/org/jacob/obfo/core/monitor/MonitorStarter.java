@@ -1,28 +1,96 @@
 package org.jacob.obfo.core.monitor;
 
 import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.monitor.core.DirectoryWatchService;
 import org.jacob.obfo.core.monitor.core.NewFilesAddedWatcher;
+import org.jacob.obfo.core.monitor.core.WatchBatchListener;
+import org.jacob.obfo.core.service.provenance.ProvenanceService;
+import org.jacob.obfo.core.service.route.AutoRouter;
+import org.jacob.obio.common.response.ResManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * This class provides a static method to start monitoring a specified directory for new files.
- * It initializes an instance of{@link NewFilesAddedWatcher}with the given directory path and
- * a specified interval for checking new files.
+ * This class provides a static method to start monitoring the configured directories for new files.
+ * It starts a {@link DirectoryWatchService} over the roots and registers a {@link NewFilesAddedWatcher}
+ * for each of them.
+ * <p>
+ * The roots come from {@code -Dobio.watcher.roots}, separated by {@link File#pathSeparator}, and default to
+ * {@link ObioConstants#PATH_OF_UNCLASSIFIED_REMAINING_IMAGES}. Subdirectories are watched unless
+ * {@code -Dobio.watcher.recursive=false} is given. The {@link ProvenanceService} flags arrivals that are already
+ * in the gallery and the {@link AutoRouter} receives every batch after that. The provenance index is updated in
+ * the background on start.
  *
  * @author Kotohiko
  * @since 10:16 Sep 03, 2024
  */
 public class MonitorStarter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorStarter.class);
+
     /**
-     * Starts monitoring the specified directory for new files and returns a string representation
-     * of the initialized{@link NewFilesAddedWatcher}.
+     * Starts monitoring the configured directories for new files and returns a string representation
+     * of the initialized {@link DirectoryWatchService}.
      *
-     * @return A string representation of the initialized{@link NewFilesAddedWatcher}.
+     * @return A string representation of the initialized {@link DirectoryWatchService}.
      */
     public static String monitorStarter() {
-        var addFileMonitor = new NewFilesAddedWatcher(Paths
-                .get(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES));
-        return addFileMonitor.toString();
+        return monitorStarter(configuredRoots(),
+                Boolean.parseBoolean(System.getProperty("obio.watcher.recursive", "true")));
+    }
+
+    /**
+     * Starts monitoring the given directories for new files.
+     *
+     * @param roots     The directories to watch.
+     * @param recursive Whether subdirectories are watched as well.
+     * @return A string representation of the initialized {@link DirectoryWatchService}.
+     */
+    public static String monitorStarter(List<Path> roots, boolean recursive) {
+        try {
+            var watchService = new DirectoryWatchService(
+                    Long.getLong("obio.watcher.debounceMillis", ObioConstants.WATCHER_DEBOUNCE_MILLIS),
+                    Long.getLong("obio.watcher.maxBatchMillis", ObioConstants.WATCHER_MAX_BATCH_MILLIS),
+                    Integer.getInteger("obio.watcher.workers", ObioConstants.WATCHER_WORKERS),
+                    Integer.getInteger("obio.watcher.queueCapacity", ObioConstants.WATCHER_QUEUE_CAPACITY));
+            var watcher = new NewFilesAddedWatcher();
+            var provenance = ProvenanceService.getInstance();
+            var autoRouter = AutoRouter.getInstance();
+            WatchBatchListener listener = (root, batch) -> {
+                watcher.onBatch(root, batch);
+                provenance.onBatch(root, batch);
+                autoRouter.onBatch(root, batch);
+            };
+            for (Path root : roots) {
+                watchService.addRoot(root, recursive, listener);
+            }
+            watchService.start();
+            provenance.rebuildInBackground();
+            return watchService.toString();
+        } catch (IOException e) {
+            logger.error(ResManager.loadResString("NewFilesAddedWatcher_1"));
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<Path> configuredRoots() {
+        var property = System.getProperty("obio.watcher.roots");
+        if (property == null || property.isBlank()) {
+            return List.of(Paths.get(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES));
+        }
+        List<Path> roots = new ArrayList<>();
+        for (String root : property.split(File.pathSeparator)) {
+            if (!root.isBlank()) {
+                roots.add(Paths.get(root.trim()));
+            }
+        }
+        return roots;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+package org.jacob.obfo.core.monitor.core;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obio.common.response.ResManager;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the number of unclassified images without listing the buffer folder on every event.
+ * <p>
+ * The folder is counted once when the tracker starts. After that the watcher reports created and deleted
+ * files, and the move engine reports the files it has moved out. The tracker remembers the names of the
+ * files it counted, so a file that is reported twice (moved by the engine <em>and</em> seen deleted by the
+ * watcher) is only subtracted once. A periodic reconcile scan corrects anything the events missed.
+ *
+ * @author Kotohiko
+ * @since 08:08 Oct 18, 2026
+ */
+public final class BacklogTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacklogTracker.class);
+
+    private static final BacklogTracker INSTANCE = new BacklogTracker(
+            Paths.get(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES));
+
+    /**
+     * The tracked folder. Only regular files directly inside it are counted.
+     */
+    private final Path dir;
+
+    /**
+     * Names of the counted files.
+     */
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of counted files, kept in step with {@link #names}.
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Events share the read lock, a reconcile scan takes the write lock so that it swaps in a consistent view.
+     */
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    /**
+     * While a reconcile scan lists the folder: the last event per file name, {@code true} for created, applied on
+     * top of the listing. {@code null} otherwise. Replaced under the write lock, read under the read lock.
+     */
+    private Map<String, Boolean> eventsDuringScan;
+
+    private volatile boolean initialized;
+
+    private ScheduledExecutorService reconcileScheduler;
+
+    /**
+     * @param dir The folder to track.
+     */
+    public BacklogTracker(Path dir) {
+        this.dir = dir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return The tracker of {@link ObioConstants#PATH_OF_UNCLASSIFIED_REMAINING_IMAGES}.
+     */
+    public static BacklogTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return The tracked folder, absolute and normalized.
+     */
+    public Path dir() {
+        return dir;
+    }
+
+    /**
+     * Counts the folder and schedules the periodic reconcile scan. Calling this more than once has no effect.
+     *
+     * @param intervalMinutes Minutes between two reconcile scans.
+     */
+    public synchronized void start(long intervalMinutes) {
+        if (reconcileScheduler != null) {
+            return;
+        }
+        reconcile();
+        reconcileScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomThreadFactory("BacklogReconciler", true));
+        reconcileScheduler.scheduleWithFixedDelay(this::reconcile, intervalMinutes, intervalMinutes,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reports a file that has appeared in the folder.
+     *
+     * @param file The new file.
+     * @return The number of unclassified images afterwards.
+     */
+    public int onCreated(Path file) {
+        ensureInitialized();
+        if (isTracked(file) && Files.isRegularFile(file)) {
+            update(file, true);
+        }
+        return count.get();
+    }
+
+    /**
+     * Reports a file that has disappeared from the folder.
+     *
+     * @param file The deleted file.
+     * @return The number of unclassified images afterwards.
+     */
+    public int onDeleted(Path file) {
+        ensureInitialized();
+        if (isTracked(file)) {
+            update(file, false);
+        }
+        return count.get();
+    }
+
+    /**
+     * Reports a file that has been moved out of the folder by the move engine.
+     *
+     * @param source The original path of the moved file.
+     * @return The number of unclassified images afterwards.
+     */
+    public int onMovedOut(Path source) {
+        return onDeleted(source);
+    }
+
+    /**
+     * @return The number of unclassified images.
+     */
+    public int remaining() {
+        ensureInitialized();
+        return count.get();
+    }
+
+    /**
+     * @return An immutable copy of the names of the counted files.
+     */
+    public Set<String> knownNames() {
+        ensureInitialized();
+        return Set.copyOf(names);
+    }
+
+    /**
+     * Lists the folder and replaces the tracked state with what is actually there. Events reported while the
+     * folder is listed are not blocked; they are recorded and applied on top of the listing, which may or may
+     * not have seen their file.
+     *
+     * @return The number of unclassified images after the scan, or the previous number if the folder
+     * cannot be listed.
+     */
+    public synchronized int reconcile() {
+        Map<String, Boolean> events = new ConcurrentHashMap<>();
+        reconcileLock.writeLock().lock();
+        try {
+            eventsDuringScan = events;
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+        try {
+            return scan(events);
+        } finally {
+            reconcileLock.writeLock().lock();
+            try {
+                eventsDuringScan = null;
+            } finally {
+                reconcileLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private int scan(Map<String, Boolean> events) {
+        Set<String> current = new HashSet<>();
+        if (!Files.isDirectory(dir)) {
+            logger.error(ResManager.loadResString("NewFilesAddedWatcher_3", dir.toString()));
+            // Do not rescan on every event, the scheduled reconcile tries again
+            initialized = true;
+            return count.get();
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                try {
+                    if (Files.readAttributes(entry, BasicFileAttributes.class).isRegularFile()) {
+                        current.add(entry.getFileName().toString());
+                    }
+                } catch (NoSuchFileException _) {
+                    // Deleted while listing, its event is recorded
+                }
+            }
+        } catch (IOException e) {
+            logger.error(ResManager.loadResString("NewFilesAddedWatcher_4", dir.toString()));
+            initialized = true;
+            return count.get();
+        }
+
+        reconcileLock.writeLock().lock();
+        try {
+            var before = count.get();
+            for (Map.Entry<String, Boolean> event : events.entrySet()) {
+                if (event.getValue()) {
+                    current.add(event.getKey());
+                } else {
+                    current.remove(event.getKey());
+                }
+            }
+            names.retainAll(current);
+            names.addAll(current);
+            count.set(names.size());
+            if (initialized && before != current.size()) {
+                logger.info("Backlog count corrected from {} to {}", before, current.size());
+            }
+            initialized = true;
+            return current.size();
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+
+    private void update(Path file, boolean added) {
+        var name = file.getFileName().toString();
+        reconcileLock.readLock().lock();
+        try {
+            if (eventsDuringScan != null) {
+                eventsDuringScan.put(name, added);
+            }
+            if (added ? names.add(name) : names.remove(name)) {
+                if (added) {
+                    count.incrementAndGet();
+                } else {
+                    count.decrementAndGet();
+                }
+            }
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    private boolean isTracked(Path file) {
+        var parent = file.toAbsolutePath().normalize().getParent();
+        return dir.equals(parent);
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconcile();
+                }
+            }
+        }
+    }
+}
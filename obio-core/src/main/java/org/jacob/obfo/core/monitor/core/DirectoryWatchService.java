@@ -0,0 +1,252 @@
+package org.jacob.obfo.core.monitor.core;
+
+import org.jacob.obio.common.response.ResManager;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Watches any number of root directories, optionally including all their subdirectories, with a single
+ * {@link WatchService}.
+ * <p>
+ * All {@link WatchKey}s are multiplexed onto one dispatch thread. It coalesces the events of each root into
+ * a {@link WatchBatch} until the roots have been quiet for the debounce window, then hands every batch to
+ * its {@link WatchBatchListener} on a bounded worker pool. When the pool is saturated the dispatch thread
+ * processes the batch itself, which slows down event collection instead of queueing without limit.
+ * Directories created below a recursive root are registered as soon as their creation is seen, and the
+ * files already inside them are reported as created. When events have been lost, the batch marks the whole
+ * root as overflowed and a recursive root is walked again to register what was missed.
+ *
+ * @author Kotohiko
+ * @since 08:13 Oct 18, 2026
+ */
+public class DirectoryWatchService implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatchService.class);
+
+    private final WatchService watchService;
+
+    private final long debounceMillis;
+
+    private final long maxBatchMillis;
+
+    private final ExecutorService workers;
+
+    /**
+     * Watched directory per key. Only the dispatch thread and {@link #addRoot} touch it.
+     */
+    private final Map<WatchKey, WatchedDir> keys = new ConcurrentHashMap<>();
+
+    /**
+     * The last delivery per root, new batches of the same root are chained behind it.
+     */
+    private final Map<Path, CompletableFuture<Void>> deliveries = new ConcurrentHashMap<>();
+
+    private final Map<Path, Root> roots = new ConcurrentHashMap<>();
+
+    private final Thread dispatchThread;
+
+    /**
+     * @param debounceMillis Quiet time that closes a batch.
+     * @param maxBatchMillis Longest time a batch stays open.
+     * @param workerThreads  Threads of the worker pool.
+     * @param queueCapacity  Batches that may wait for a worker.
+     * @throws IOException if the watch service cannot be created.
+     */
+    public DirectoryWatchService(long debounceMillis, long maxBatchMillis, int workerThreads, int queueCapacity)
+            throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+        this.maxBatchMillis = maxBatchMillis;
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomThreadFactory("WatchWorker", true),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.dispatchThread = new CustomThreadFactory("WatchDispatcher", true).newThread(this::dispatch);
+    }
+
+    /**
+     * Starts watching a root directory.
+     *
+     * @param root      The directory to watch.
+     * @param recursive Whether subdirectories, including ones created later, are watched as well.
+     * @param listener  Receives the batches of this root.
+     * @throws IOException if the directory cannot be registered.
+     */
+    public void addRoot(Path root, boolean recursive, WatchBatchListener listener) throws IOException {
+        var normalized = root.toAbsolutePath().normalize();
+        if (!Files.isDirectory(normalized)) {
+            throw new NotDirectoryException(normalized.toString());
+        }
+        var watchedRoot = new Root(normalized, recursive, listener);
+        roots.put(normalized, watchedRoot);
+        if (recursive) {
+            registerTree(watchedRoot, normalized, null);
+        } else {
+            register(watchedRoot, normalized);
+        }
+        logger.info("Watching {}{} ({} directories registered)", normalized,
+                recursive ? " recursively" : "", keys.size());
+    }
+
+    /**
+     * Starts the dispatch thread. Roots can still be added afterwards.
+     */
+    public void start() {
+        dispatchThread.start();
+    }
+
+    /**
+     * @return The watched roots.
+     */
+    public Set<Path> roots() {
+        return Set.copyOf(roots.keySet());
+    }
+
+    private void register(Root root, Path dir) throws IOException {
+        var key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        keys.put(key, new WatchedDir(root, dir));
+    }
+
+    /**
+     * Registers a directory and everything below it. If a batch is given, the files found are added to it
+     * as created, because their events happened before the directory was registered.
+     */
+    private void registerTree(Root root, Path start, WatchBatch batch) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(root, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (batch != null && attrs.isRegularFile()) {
+                    batch.created(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Cannot watch {}: {}", file, e.toString());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void dispatch() {
+        try {
+            while (true) {
+                var key = watchService.take();
+                Map<Root, WatchBatch> batches = new LinkedHashMap<>();
+                collect(key, batches);
+
+                // Coalesce everything that follows within the debounce window
+                var batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchMillis);
+                while (System.nanoTime() < batchDeadline
+                        && (key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, batches);
+                }
+
+                batches.forEach(this::deliver);
+            }
+        } catch (InterruptedException _) {
+            logger.error(ResManager.loadResString("NewFilesAddedWatcher_0"));
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException _) {
+            // Closed by close()
+        }
+    }
+
+    private void collect(WatchKey key, Map<Root, WatchBatch> batches) {
+        var watched = keys.get(key);
+        if (watched == null) {
+            key.cancel();
+            return;
+        }
+        var batch = batches.computeIfAbsent(watched.root(), r -> new WatchBatch());
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                // Directories created while events were lost are not registered yet, walk the whole root
+                // again; the listeners rescan it the same way
+                var root = watched.root();
+                if (batch.overflow(root.path(), root.recursive()) && root.recursive()) {
+                    try {
+                        registerTree(root, root.path(), null);
+                    } catch (IOException e) {
+                        logger.error(ResManager.loadResString("NewFilesAddedWatcher_1"), e);
+                    }
+                }
+                continue;
+            }
+
+            @SuppressWarnings("unchecked")
+            WatchEvent<Path> ev = (WatchEvent<Path>) event;
+            Path path = watched.dir().resolve(ev.context());
+
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                batch.deleted(path);
+            } else if (watched.root().recursive() && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerTree(watched.root(), path, batch);
+                } catch (IOException e) {
+                    logger.error(ResManager.loadResString("NewFilesAddedWatcher_1"), e);
+                }
+            } else {
+                batch.created(path);
+            }
+        }
+
+        if (!key.reset()) {
+            // The directory is gone
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Hands a batch to the worker pool, behind any earlier batch of the same root.
+     */
+    private void deliver(Root root, WatchBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Runnable task = () -> {
+            try {
+                root.listener().onBatch(root.path(), batch);
+            } catch (RuntimeException e) {
+                logger.error("Failed to process a batch of {}", root.path(), e);
+            }
+        };
+        deliveries.compute(root.path(), (path, previous) -> previous == null || previous.isDone()
+                ? CompletableFuture.runAsync(task, workers)
+                : previous.thenRunAsync(task, workers));
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        workers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "DirectoryWatchService" + roots.keySet();
+    }
+
+    private record Root(Path path, boolean recursive, WatchBatchListener listener) {
+    }
+
+    private record WatchedDir(Root root, Path dir) {
+    }
+}
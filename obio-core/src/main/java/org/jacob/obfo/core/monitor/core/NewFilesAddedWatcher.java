@@ -6,21 +6,25 @@ import org.jacob.obio.common.response.ResManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
-import java.nio.file.*;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A monitor that watches for changes and events related to files.
+ * <p>
+ * The watching itself is done by the {@link DirectoryWatchService}, which hands the coalesced events of
+ * each root to this listener. Files may arrive anywhere below a root; only the files directly inside the
+ * buffer folder are counted by the {@link BacklogTracker}.
  *
  * @author Kotohiko
  * @since 16:29 Aug 18, 2024
  */
-public class NewFilesAddedWatcher {
+public class NewFilesAddedWatcher implements WatchBatchListener {
 
     /**
      * The logger instance used for logging messages related to the {@link NewFilesAddedWatcher} class.
@@ -30,124 +34,91 @@ public class NewFilesAddedWatcher {
     private final Logger logger = LoggerFactory.getLogger(NewFilesAddedWatcher.class);
 
     /**
-     * A watch service that <em>watches</em> registered objects for changes and events.
-     */
-    private final WatchService watcher;
-
-    /**
-     * An object that may be used to locate a file in a file system.
-     * It will typically represent a system dependent file path.
-     */
-    private final Path dir;
-
-    /**
-     * Constructs a new {@link NewFilesAddedWatcher} instance that monitors a specified directory
-     * for newly created files. This class uses a {@link WatchService} to track file creation events
-     * and a single-threaded {@link ThreadPoolExecutor} to handle the event processing.
+     * Constructs a new {@link NewFilesAddedWatcher} instance.
      *
-     * @param dir the directory {@link Path} to be monitored for newly added files
-     * @throws RuntimeException if an {@link IOException} occurs during the initialization of the WatchService
-     *
-     *                          <p>
-     *                          The constructor performs the following actions:
-     *                          <ul>
-     *                              <li>Initializes a WatchService to monitor the specified directory for {@link StandardWatchEventKinds#ENTRY_CREATE} events.</li>
-     *                              <li>Creates a single-threaded {@link ThreadPoolExecutor} with a bounded queue to handle file system events.</li>
-     *                              <li>Submits a task to the executor service to start watching the directory for file creation events.</li>
-     *                              <li>Prints memory and thread information for debugging and monitoring purposes.</li>
-     *                          </ul>
-     *                          If an error occurs while initializing the WatchService, a {@code RuntimeException} is thrown.
+     * <p>
+     * The constructor performs the following actions:
+     * <ul>
+     *     <li>Counts the unclassified backlog once through the {@link BacklogTracker}.</li>
+     *     <li>Prints memory and thread information for debugging and monitoring purposes.</li>
+     * </ul>
+     * Register the instance with {@link DirectoryWatchService#addRoot} to receive events.
      */
-    public NewFilesAddedWatcher(Path dir) {
-        try {
-            this.watcher = FileSystems.getDefault().newWatchService();
-            this.dir = dir;
+    public NewFilesAddedWatcher() {
+        // Count the backlog once, afterwards it is kept up to date from the events
+        BacklogTracker.getInstance().start(ObioConstants.BACKLOG_RECONCILE_INTERVAL_MINUTES);
 
-            // Register the directory for the ENTRY_CREATE event
-            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE);
-
-            // Start a dedicated thread to monitor the directory
-            Thread watcherThread = new Thread(this::startWatching);
-            // Set as a daemon thread to terminate with the program
-            watcherThread.setDaemon(true);
-            watcherThread.start();
+        printMemoryInfo();
+        printThreadsInfo();
+    }
 
-            printMemoryInfo();
-            printThreadsInfo();
-        } catch (IOException e) {
-            logger.error(ResManager.loadResString("NewFilesAddedWatcher_1"));
-            throw new RuntimeException(e);
-        }
+    @Override
+    public void onBatch(Path root, WatchBatch batch) {
+        processBatch(root, batch);
     }
 
     /**
-     * Starts watching the directory for new file events. This method runs an infinite loop,
-     * blocking and waiting for events to occur. When an event is detected, it processes each event
-     * directly in the current thread by resolving the file path and invoking the {@code processFile} method.
+     * Applies a batch to the {@link BacklogTracker} and writes one log record for all files it added.
      * <p>
-     * If an {@link InterruptedException} is caught, it indicates that the thread has been
-     * interrupted, typically as a result of a request to stop watching. In this case, an error
-     * message is logged, and the thread pool is gracefully shut down.
+     * After an {@code OVERFLOW} of a root that contains the buffer folder the individual events cannot be
+     * trusted, so the buffer folder is rescanned and diffed against the last known snapshot of the tracker
+     * instead. Overflows of other roots do not touch the backlog.
+     *
+     * @param root  The watched root the events belong to.
+     * @param batch The coalesced events of one debounce window.
      */
-    private void startWatching() {
-        try {
-            while (true) {
-                // Block and wait for event occurs
-                var key = watcher.take();
-
-                // Process events directly in the current thread
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-                    if (kind == StandardWatchEventKinds.OVERFLOW) {
-                        continue;
-                    }
-
-                    @SuppressWarnings("unchecked")
-                    WatchEvent<Path> ev = (WatchEvent<Path>) event;
-                    Path filename = dir.resolve(ev.context());
-
-                    // Validate the file path before processing
-                    if (Files.exists(filename)) {
-                        processFile(filename);
-                    }
+    private void processBatch(Path root, WatchBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        var tracker = BacklogTracker.getInstance();
+        List<Path> added = new ArrayList<>();
+
+        var buffer = tracker.dir().toAbsolutePath().normalize();
+        if (batch.overflowed().stream().anyMatch(buffer::startsWith)) {
+            var known = tracker.knownNames();
+            tracker.reconcile();
+            for (String name : tracker.knownNames()) {
+                if (!known.contains(name)) {
+                    added.add(tracker.dir().resolve(name));
                 }
-
-                // Reset the key
-                boolean valid = key.reset();
-                if (!valid) {
-                    break;
+            }
+            logger.warn("Watch events of {} overflowed in {}, rescanned {}: {} new file(s)",
+                    root, batch.overflowed(), tracker.dir(), added.size());
+        } else {
+            for (Path deleted : batch.deleted()) {
+                tracker.onDeleted(deleted);
+            }
+            for (Path created : batch.created()) {
+                // Validate the file path before processing
+                if (Files.isRegularFile(created)) {
+                    tracker.onCreated(created);
+                    added.add(created);
                 }
             }
-        } catch (InterruptedException e) {
-            logger.error(ResManager.loadResString("NewFilesAddedWatcher_0"));
         }
+
+        if (!added.isEmpty()) {
+            processFiles(added, tracker.remaining());
+        }
+        logger.debug("Processed {} event(s) as one batch", batch.eventCount());
     }
 
     /**
      * Record the total of files.
+     * <p>
+     * The total comes from the {@link BacklogTracker}, the folder is not listed again. All files of a batch
+     * share one log record.
      *
-     * @param fileWithAbsPath Files with absolute path
+     * @param filesWithAbsPath Files with absolute path
+     * @param fileCount        The number of remaining unclassified images.
      */
-    private void processFile(Path fileWithAbsPath) {
-        var folder = new File(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES);
-        int fileCount;
-
-        // Check if the folder exists and is a directory
-        if (!folder.exists() || !folder.isDirectory()) {
-            logger.error(ResManager.loadResString("NewFilesAddedWatcher_3",
-                    ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES));
-            return;
-        }
-
-        try (var stream = Files.list(folder.toPath())) {
-            fileCount = (int) stream.filter(Files::isRegularFile).count();
-        } catch (IOException e) {
-            logger.error(ResManager.loadResString("NewFilesAddedWatcher_4",
-                    ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES));
-            return;
-        }
-
-        OBFOLogFilesWriter.filesAddedLogWriter(fileWithAbsPath, fileCount);
+    private void processFiles(List<Path> filesWithAbsPath, int fileCount) {
+        OBFOLogFilesWriter.filesAddedLogWriter(filesWithAbsPath, fileCount);
+        logger.info(ResManager.loadResString("NewFilesAddedWatcher_2",
+                filesWithAbsPath.size() == 1 ? filesWithAbsPath.getFirst().getFileName().toString()
+                        : "(" + filesWithAbsPath.size() + ")",
+                String.valueOf(fileCount)));
     }
 
     /**
@@ -0,0 +1,135 @@
+package org.jacob.obfo.core.monitor.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The file events of one debounce window, coalesced per path.
+ * <p>
+ * Only the last event of each path is kept: a file that is deleted and created again counts as created, a
+ * file that is created and deleted again counts as deleted, however often it changed in between. Consumers
+ * ignore the deletion of a file they have never seen. Once an {@code OVERFLOW} has been seen the individual events
+ * are incomplete and the batch has to be resolved by rescanning the watched root, see {@link #rescan()}.
+ *
+ * @author Kotohiko
+ * @since 08:11 Oct 18, 2026
+ */
+public final class WatchBatch {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchBatch.class);
+
+    private final Set<Path> created = new LinkedHashSet<>();
+
+    private final Set<Path> deleted = new LinkedHashSet<>();
+
+    /**
+     * Overflowed roots, mapped to whether their subdirectories are watched as well.
+     */
+    private final Map<Path, Boolean> overflowed = new LinkedHashMap<>();
+
+    private int eventCount;
+
+    /**
+     * @param path A file that has been created.
+     */
+    public void created(Path path) {
+        ++eventCount;
+        deleted.remove(path);
+        created.remove(path);
+        created.add(path);
+    }
+
+    /**
+     * @param path A file that has been deleted.
+     */
+    public void deleted(Path path) {
+        ++eventCount;
+        created.remove(path);
+        deleted.remove(path);
+        deleted.add(path);
+    }
+
+    /**
+     * Marks the batch as incomplete because the watch service has lost events below a root.
+     *
+     * @param root      The watched root whose events have been lost.
+     * @param recursive Whether the subdirectories of the root are watched as well.
+     * @return Whether this is the first overflow of the root in this batch.
+     */
+    public boolean overflow(Path root, boolean recursive) {
+        ++eventCount;
+        return overflowed.putIfAbsent(root, recursive) == null;
+    }
+
+    /**
+     * @return The files whose last event in this window is a creation, in event order.
+     */
+    public Set<Path> created() {
+        return created;
+    }
+
+    /**
+     * @return The files whose last event in this window is a deletion, in event order.
+     */
+    public Set<Path> deleted() {
+        return deleted;
+    }
+
+    /**
+     * @return Whether events have been lost.
+     */
+    public boolean isOverflow() {
+        return !overflowed.isEmpty();
+    }
+
+    /**
+     * @return The roots whose events have been lost and which have to be rescanned.
+     */
+    public Set<Path> overflowed() {
+        return overflowed.keySet();
+    }
+
+    /**
+     * Lists the regular files that are currently below the overflowed roots, as deep as the roots are
+     * watched. A root that cannot be listed is logged and skipped.
+     *
+     * @return The files found, empty if nothing has overflowed.
+     */
+    public List<Path> rescan() {
+        List<Path> files = new ArrayList<>();
+        overflowed.forEach((root, recursive) -> {
+            try (Stream<Path> stream = recursive ? Files.walk(root) : Files.list(root)) {
+                stream.filter(Files::isRegularFile).forEach(files::add);
+            } catch (IOException | UncheckedIOException e) {
+                logger.warn("Cannot rescan {}: {}", root, e.toString());
+            }
+        });
+        return files;
+    }
+
+    /**
+     * @return The number of raw events folded into this batch.
+     */
+    public int eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return Whether the batch holds nothing to process.
+     */
+    public boolean isEmpty() {
+        return created.isEmpty() && deleted.isEmpty() && overflowed.isEmpty();
+    }
+}
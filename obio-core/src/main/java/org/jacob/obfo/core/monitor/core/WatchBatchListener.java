@@ -0,0 +1,22 @@
+package org.jacob.obfo.core.monitor.core;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the coalesced file events of one watched root from the {@link DirectoryWatchService}.
+ * <p>
+ * Batches of the same root are delivered one after another, never concurrently; batches of different
+ * roots may be delivered in parallel on the worker pool.
+ *
+ * @author Kotohiko
+ * @since 08:13 Oct 18, 2026
+ */
+@FunctionalInterface
+public interface WatchBatchListener {
+
+    /**
+     * @param root  The watched root the events belong to.
+     * @param batch The coalesced events, with paths anywhere below the root.
+     */
+    void onBatch(Path root, WatchBatch batch);
+}
@@ -1,27 +1,37 @@
 package org.jacob.obfo.core.service;
 
 import org.jacob.obfo.core.constants.ObioConstants;
-import org.jacob.obfo.core.enums.FilesMoveOperStatusEnums;
+import org.jacob.obfo.core.enums.MoveExecutionModeEnums;
 import org.jacob.obfo.core.enums.ThreadPoolSituationStatusEnums;
 import org.jacob.obfo.core.logger.OBFOLogFilesWriter;
+import org.jacob.obfo.core.monitor.core.BacklogTracker;
+import org.jacob.obfo.core.service.dedupe.ContentHasher;
+import org.jacob.obfo.core.service.dedupe.Deduplicator;
+import org.jacob.obfo.core.service.journal.JournalService;
+import org.jacob.obfo.core.service.move.FileStoreThrottle;
+import org.jacob.obfo.core.service.move.FileTransfer;
+import org.jacob.obfo.core.service.move.MoveExecutor;
+import org.jacob.obfo.core.service.move.MovePlan;
+import org.jacob.obfo.core.service.move.MovePlanner;
+import org.jacob.obfo.core.service.move.MoveReport;
+import org.jacob.obfo.core.service.move.MoveResult;
+import org.jacob.obfo.core.service.route.AutoRouter;
 import org.jacob.obio.common.constants.ObioCommonConstants;
+import org.jacob.obio.common.helper.ObioCommonHelper;
 import org.jacob.obio.common.response.ResManager;
 import org.jacob.obio.common.utils.factory.CustomThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.*;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Provides functionality for reading and moving files between specified paths.
@@ -40,18 +50,52 @@ public class ReadAndMoveService {
     private static final Logger logger = LoggerFactory.getLogger(ReadAndMoveService.class);
 
     /**
-     * A fixed-size thread pool executor service used for processing file read and move operations.
+     * The executor service used for the execute phase of file moves, shared by all instances.
      *
-     * <p>This thread pool is created with a core and maximum pool size of 3, ensuring that up to 3
-     * threads can be active at any given time. The threads in this pool are created using a custom
-     * {@link CustomThreadFactory} with the name prefix "ReadAndMovePool" to provide meaningful names
-     * for easier identification and debugging.
+     * <p>In {@link MoveExecutionModeEnums#PLATFORM_POOL} mode this is a fixed-size thread pool whose threads
+     * are created using a custom {@link CustomThreadFactory} with the name prefix "ReadAndMovePool" to provide
+     * meaningful names for easier identification and debugging. In {@link MoveExecutionModeEnums#VIRTUAL_THREADS}
+     * mode every move gets its own virtual thread and only the {@link FileStoreThrottle} limits concurrency.
      *
-     * <p>The thread pool is designed to handle tasks related to reading from and moving files, providing
-     * a controlled and efficient way to manage these I/O-bound operations.
+     * <p>The mode is read from {@code -Dobio.move.executionMode}, defaulting to
+     * {@link ObioConstants#MOVE_EXECUTION_MODE}.
      */
-    private final ExecutorService executorService
-            = Executors.newFixedThreadPool(3, new CustomThreadFactory("ReadAndMovePool"));
+    private static final ExecutorService executorService = createExecutorService();
+
+    /**
+     * Bounds the concurrent moves per file store, shared by all instances.
+     */
+    private static final FileStoreThrottle fileStoreThrottle = new FileStoreThrottle(
+            Integer.getInteger("obio.move.localPermits", ObioConstants.MOVE_LOCAL_PERMITS),
+            Integer.getInteger("obio.move.networkPermits", ObioConstants.MOVE_NETWORK_PERMITS));
+
+    /**
+     * Plan phase of a move: a single scan of the source directory.
+     */
+    private final MovePlanner movePlanner = new MovePlanner();
+
+    /**
+     * Execute phase of a move: every planned entry is moved once on {@link #executorService}. Unless
+     * {@code -Dobio.dedupe.enabled=false} is given, files whose content the target directory already has are
+     * deleted instead of moved and name collisions get a {@code (n)} suffix. Every batch is written to the move
+     * journal of the {@link JournalService}.
+     */
+    private final MoveExecutor moveExecutor = new MoveExecutor(executorService, new FileTransfer(),
+            fileStoreThrottle, Boolean.parseBoolean(System.getProperty("obio.dedupe.enabled",
+            String.valueOf(ObioConstants.DEDUPE_ENABLED))) ? new Deduplicator(ContentHasher.getInstance()) : null,
+            JournalService.getInstance().journal());
+
+    private static ExecutorService createExecutorService() {
+        var mode = ObioCommonHelper.enumProperty("obio.move.executionMode", MoveExecutionModeEnums.class,
+                MoveExecutionModeEnums.valueOf(ObioConstants.MOVE_EXECUTION_MODE));
+        return switch (mode) {
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(
+                    Integer.getInteger("obio.move.poolSize", ObioConstants.MOVE_POOL_SIZE),
+                    new CustomThreadFactory("ReadAndMovePool"));
+            case VIRTUAL_THREADS -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("ReadAndMove-vthread-", 1).factory());
+        };
+    }
 
     /**
      * Moves files from a default source path to a target path specified by a target path code.
@@ -59,7 +103,7 @@ public class ReadAndMoveService {
      * <p>This method first defines the source path using the provided default source path. It then
      * retrieves the target path string from the provided map of paths data using the target path code.
      * If the target path string is null, an error message is logged. Otherwise, it calls the
-     * {@link #checkBeforeMove(Path, String)} method to perform any necessary checks before moving
+     * {@link #checkBeforeMove(Path, String, String)} method to perform any necessary checks before moving
      * the files.
      *
      * @param defaultSourcePath The default source path from which files will be moved.
@@ -71,13 +115,9 @@ public class ReadAndMoveService {
     public void defineSourcePathAndTargetPath(String defaultSourcePath,
                                               Map<String, String> pathsData, String targetPathCode) {
         var sourcePath = Paths.get(defaultSourcePath);
-        try (var stream = Files.list(sourcePath)) {
-            if (!Files.exists(sourcePath) || !Files.isDirectory(sourcePath) || stream.findAny().isEmpty()) {
-                System.out.println("No files in source directory " + sourcePath + ", returning directly");
-                return;
-            }
-        } catch (IOException e) {
-            logger.error("Failed to check source directory: {}", e.getMessage());
+        // Emptiness is checked by the plan phase, which lists the source directory anyway
+        if (!Files.isDirectory(sourcePath)) {
+            System.out.println("No files in source directory " + sourcePath + ", returning directly");
             return;
         }
 
@@ -86,116 +126,106 @@ public class ReadAndMoveService {
             System.out.println(ResManager.loadResString("ReadAndMoveService_0"));
             System.out.println(ObioCommonConstants.EXCEPTIONAL_SEPARATOR_LINE);
         } else {
-            checkBeforeMove(sourcePath, targetPathStr);
+            checkBeforeMove(sourcePath, targetPathStr, targetPathCode);
             System.out.println(ObioCommonConstants.SUCCESS_SEPARATOR_LINE);
         }
     }
 
     /**
-     * Checks the source directory for files and moves them to the target directory if found.
+     * Moves every entry of the source directory into the target directory.
      *
-     * <p>This method iterates through all the files in the specified source directory,
-     * and moves each file to the specified target directory. It ignores any subdirectories
-     * and processes only regular files. If no files are found in the source directory,
-     * it logs an error message indicating that no files were found. If an IOException
-     * occurs during file traversal, it logs an error message for the exception.</p>
+     * <p>The move runs in two phases. The plan phase scans the source directory once and builds an immutable
+     * {@link MovePlan}. The execute phase moves each planned entry exactly once on the executor pool and
+     * returns a {@link MoveReport} with the outcome and timing of every entry.</p>
      *
      * @param sourcePath    the path of the source directory to check for files.
-     * @param targetPathStr the string representation of the target directory path
-     *                      where the files will be moved.
+     * @param targetPathStr  the string representation of the target directory path
+     *                       where the files will be moved.
+     * @param targetPathCode the path code typed by the user, the {@link AutoRouter} learns from it.
      */
-    private void checkBeforeMove(Path sourcePath, String targetPathStr) {
+    private void checkBeforeMove(Path sourcePath, String targetPathStr, String targetPathCode) {
         var targetPath = Paths.get(targetPathStr);
-        AtomicBoolean foundFiles = new AtomicBoolean(false);
-        List<Path> filePaths = new ArrayList<>();
 
         try {
-            processDirectory(sourcePath, targetPath, filePaths);
-            submitToExecutorPool(filePaths, targetPath, foundFiles, sourcePath);
-        } catch (IOException | InterruptedException e) {
+            var plan = movePlanner.plan(sourcePath, targetPath);
+            if (plan.isEmpty()) {
+                System.out.println("No files in source directory " + sourcePath + ", returning directly");
+                return;
+            }
+
+            var report = executeAndLog(plan);
+            AutoRouter.getInstance().learn(report, targetPathCode);
+        } catch (IOException e) {
+            logger.error(ResManager.loadResString("ReadAndMoveService_2"), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             logger.error(ResManager.loadResString("ReadAndMoveService_2"), e);
         }
     }
 
     /**
-     * Moves the contents of a source directory to a target directory, including both files and subdirectories.
-     * <p>
-     * If the source path contains regular files, each file is moved to the corresponding location
-     * in the target directory.
-     * If the source path contains subdirectories, the entire subdirectory is moved to the target location
-     * without further recursive processing of its contents.
-     * <p>
-     * If the source path itself is a regular file, the file is moved directly to the target directory.
+     * Moves the given files into the target directory. Used for files that have been routed automatically,
+     * so nothing is learned from the move.
      *
-     * @param sourcePath the source directory or file to process
-     * @param targetPath the target directory where files and subdirectories should be moved
-     * @param filePaths  the list to store the paths of regular files that are moved
-     * @throws IOException if an I/O error occurs while accessing the file system
+     * @param files         The files to move.
+     * @param targetPathStr The target directory.
      */
-    private void processDirectory(Path sourcePath, Path targetPath, List<Path> filePaths) throws IOException {
-        if (Files.isDirectory(sourcePath)) {
-            Files.createDirectories(targetPath);
-
-            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(sourcePath)) {
-                for (Path filePath : directoryStream) {
-                    Path newTargetPath = targetPath.resolve(filePath.getFileName());
-
-                    if (Files.isDirectory(filePath)) {
-                        Files.move(filePath, newTargetPath, StandardCopyOption.REPLACE_EXISTING);
-                    } else if (Files.isRegularFile(filePath)) {
-                        Files.move(filePath, newTargetPath, StandardCopyOption.REPLACE_EXISTING);
-                        filePaths.add(newTargetPath);
-                    }
-
-                }
-            }
-        } else if (Files.isRegularFile(sourcePath)) {
-            Files.move(sourcePath, targetPath.resolve(sourcePath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
-            filePaths.add(targetPath.resolve(sourcePath.getFileName()));
+    public void moveFiles(List<Path> files, String targetPathStr) {
+        if (files.isEmpty()) {
+            return;
+        }
+        var plan = movePlanner.plan(files.getFirst().getParent(), files, Paths.get(targetPathStr));
+        if (plan.isEmpty()) {
+            return;
+        }
+        try {
+            executeAndLog(plan);
+        } catch (IOException e) {
+            logger.error(ResManager.loadResString("ReadAndMoveService_2"), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(ResManager.loadResString("ReadAndMoveService_2"), e);
         }
     }
 
+    private MoveReport executeAndLog(MovePlan plan) throws IOException, InterruptedException {
+        printThreadPoolInfo(ThreadPoolSituationStatusEnums.BEFORE_SUBMITTED);
+        var report = moveExecutor.execute(plan);
+        printThreadPoolInfo(ThreadPoolSituationStatusEnums.TASK_FINISHED);
+
+        logReport(report);
+        countTheNumberOfFiles();
+        return report;
+    }
 
     /**
-     * Submits tasks to the executor pool for moving files to the target path.
-     * <p>
-     * This method takes a list of file paths and submits each file moving task to an executor service.
-     * It uses a {@link CountDownLatch} to ensure that all tasks complete before proceeding.
-     * If no files are successfully moved, it logs an error message indicating that no files were found.
+     * Logs the outcome of every entry of an executed plan, followed by a one-line summary.
      *
-     * @param filePaths  the list of file paths to be moved
-     * @param targetPath the target path where the files will be moved
-     * @param foundFiles an {@link AtomicBoolean} flag indicating if any files were successfully moved
-     * @param sourcePath the source path from which the files are being moved (for logging purposes)
-     * @throws InterruptedException if the current thread is interrupted while waiting for tasks to complete
+     * @param report The report returned by the execute phase.
      */
-    private void submitToExecutorPool(List<Path> filePaths, Path targetPath,
-                                      AtomicBoolean foundFiles, Path sourcePath) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(filePaths.size());
-        printThreadPoolInfo(ThreadPoolSituationStatusEnums.BEFORE_SUBMITTED);
-
-        for (Path filePath : filePaths) {
-            executorService.submit(() -> {
-
-                try {
-                    FilesMoveOperStatusEnums status = moveTheFiles(targetPath, filePath);
-                    if (status != FilesMoveOperStatusEnums.NO_FILES) {
-                        foundFiles.set(true);
-                    }
-                } finally {
-                    latch.countDown();
-                }
-            });
+    private void logReport(MoveReport report) {
+        var backlogTracker = BacklogTracker.getInstance();
+        for (MoveResult result : report.results()) {
+            if (result.isMoved()) {
+                backlogTracker.onMovedOut(result.operation().source());
+                logger.info(ResManager.loadResString("ReadAndMoveService_4", result.operation().target().toString()));
+                logger.debug("Moved {} in {} us", result.operation().source().getFileName(),
+                        result.elapsedNanos() / 1_000L);
+            } else if (result.isDuplicate()) {
+                backlogTracker.onMovedOut(result.operation().source());
+                logger.info("Skipped {}, same content as {}", result.operation().source().getFileName(),
+                        result.operation().target());
+            } else {
+                logger.error("{} {}", ResManager.loadResString("ReadAndMoveService_5"), result.failure());
+            }
         }
-
-        // Wait for all submitted tasks to complete before proceeding.
-        latch.await();
-
-        printThreadPoolInfo(ThreadPoolSituationStatusEnums.TASK_FINISHED);
-
-        // If no files were successfully moved, log an error with the source path.
-        if (!foundFiles.get()) {
-            logger.error(ResManager.loadResString("ReadAndMoveService_3", sourcePath.toString()));
+        logger.info(ResManager.loadResString("ReadAndMoveService_10", String.valueOf(report.movedCount()),
+                String.valueOf(report.plan().size()), String.valueOf(report.elapsedMillis())));
+        if (report.duplicateCount() > 0) {
+            logger.info("{} duplicate(s) deleted from the buffer", report.duplicateCount());
+        }
+        if (report.movedCount() == 0 && report.duplicateCount() == 0) {
+            logger.error(ResManager.loadResString("ReadAndMoveService_3", report.plan().sourcePath().toString()));
         }
     }
 
@@ -203,9 +233,10 @@ public class ReadAndMoveService {
      * Prints the current status and configuration information of the thread pool.
      *
      * <p>This method logs the active thread count, current pool size, core pool size,
-     * and maximum pool size of the {@link ThreadPoolExecutor} instance. The information
-     * is logged with a specific status enum and resource strings for better readability
-     * and context.
+     * and maximum pool size of the {@link ThreadPoolExecutor} instance. In virtual thread mode there is
+     * no pool, so the number of moves in flight is logged instead. In both modes the available permits
+     * of every file store are logged. The information is logged with a specific status enum and resource
+     * strings for better readability and context.
      *
      * @param enums The status enum to be included in the log messages, providing
      *              context about the situation when the information is being printed.
@@ -221,64 +252,21 @@ public class ReadAndMoveService {
             logger.info("[{}] {}{}", enums, ResManager.loadResString("ReadAndMoveService_7"), poolSize);
             logger.info("[{}] {}{}", enums, ResManager.loadResString("ReadAndMoveService_8"), corePoolSize);
             logger.info("[{}] {}{}", enums, ResManager.loadResString("ReadAndMoveService_9"), maximumPoolSize);
+        } else {
+            logger.info("[{}] {}{}", enums, ResManager.loadResString("ReadAndMoveService_6"), moveExecutor.inFlight());
         }
+        fileStoreThrottle.describe().forEach((store, permits) ->
+                logger.info("[{}] {}{} ({})", enums, ResManager.loadResString("ReadAndMoveService_11"), permits, store));
     }
 
     /**
-     * Moves a file from its current location to a specified target directory.
-     * <p>
-     * This method constructs the target file path by resolving the given file name with the target directory path.
-     * It then attempts to move the file to the new location, replacing any existing file with the same name
-     * in the target directory.
-     * <p>
-     * If the move operation is successful, the method logs an info message and increments the count of
-     * files moved (assuming {@link ReadAndMoveService#countTheNumberOfFiles()} updates a count).
-     * In case of an error, such as if the target path is invalid or the file cannot be moved for any reason,
-     * it logs an error message and returns an error status.
-     *
-     * @param targetPath The target directory where the file should be moved to.
-     * @param filePath   The path of the file to be moved.
-     * @return A {@link FilesMoveOperStatusEnums} enum indicating the status of the operation.
-     * - {@link FilesMoveOperStatusEnums#HAS_FILES} if the file was successfully moved.
-     * - {@link FilesMoveOperStatusEnums#TARGET_PATH_INVALID} if the target path is invalid or the move failed
-     * for any other reason.
-     * @see Files#move(Path, Path, CopyOption...)
-     * @see StandardCopyOption#REPLACE_EXISTING
-     */
-    private FilesMoveOperStatusEnums moveTheFiles(Path targetPath, Path filePath) {
-        // Construct the target path
-        var targetFilePath = targetPath.resolve(filePath.getFileName());
-
-        try {
-            Files.move(filePath, targetFilePath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info(ResManager.loadResString("ReadAndMoveService_4", targetFilePath.toString()));
-            countTheNumberOfFiles();
-
-            // Signal that the files have been found
-            return FilesMoveOperStatusEnums.HAS_FILES;
-        } catch (IOException e) {
-            logger.error(ResManager.loadResString("ReadAndMoveService_5"));
-            return FilesMoveOperStatusEnums.TARGET_PATH_INVALID;
-        }
-    }
-
-    /**
-     * Counts the number of files in the specified directory and writes the count to a log file.
-     * This method traverses all the files under the directory specified by
-     * {@code OBFOConstants.UNCLASSIFIED_REMAINING_IMAGES_FOLDER_PATH}, counts the number of files,
-     * and then calls {@code OBFOLogFilesWriter.filesMoveLogWriter} to write the count to a log file.
+     * Writes the number of remaining unclassified images to the log file.
+     * This runs once per batch, after all moves of the batch have finished. The number comes from the
+     * {@link BacklogTracker}, which has already been told about every moved file, so the folder under
+     * {@code ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES} is not listed again.
      */
     private void countTheNumberOfFiles() {
-        var folder = new File(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES);
-        int fileCount = 0;
-
-        // Traverse all the files under the specified directory.
-        for (File file : Objects.requireNonNull(folder.listFiles())) {
-            if (file.isFile()) {
-                ++fileCount;
-            }
-        }
-        OBFOLogFilesWriter.filesMoveLogWriter(fileCount);
+        OBFOLogFilesWriter.filesMoveLogWriter(BacklogTracker.getInstance().remaining());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package org.jacob.obfo.core.service.dedupe;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Hashes file contents with {@link Xxh64}, reading each file only if the {@link HashCache} has no hash for its
+ * current size and modification time.
+ *
+ * @author Kotohiko
+ * @since 08:28 Oct 18, 2026
+ */
+public final class ContentHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentHasher.class);
+
+    private final HashCache cache;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param cache       The persistent hash cache.
+     * @param parallelism The number of files read at the same time by {@link #hashTree(List)}.
+     */
+    public ContentHasher(HashCache cache, int parallelism) {
+        this.cache = cache;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return The process-wide hasher, configured by {@code -Dobio.dedupe.*}.
+     */
+    public static ContentHasher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param file A regular file.
+     * @return The content hash of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public long hash(Path file) throws IOException {
+        return hash(file, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    /**
+     * @param file       A regular file.
+     * @param attributes The attributes of the file, as just read.
+     * @return The content hash of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public long hash(Path file, BasicFileAttributes attributes) throws IOException {
+        var key = file.toAbsolutePath().normalize().toString();
+        var size = attributes.size();
+        var mtime = attributes.lastModifiedTime().toMillis();
+        var cached = cache.get(key, size, mtime);
+        if (cached != null) {
+            return cached;
+        }
+        var hash = Xxh64.hash(file);
+        cache.put(key, size, mtime, hash);
+        return hash;
+    }
+
+    /**
+     * Tells the cache that a file has been deleted or replaced.
+     *
+     * @param file The file.
+     */
+    public void forget(Path file) {
+        cache.remove(file.toAbsolutePath().normalize().toString());
+    }
+
+    /**
+     * Tells the cache that a file has been moved; a move keeps the content and the modification time.
+     *
+     * @param source The old path.
+     * @param target The new path.
+     */
+    public void moved(Path source, Path target) {
+        cache.rename(source.toAbsolutePath().normalize().toString(), target.toAbsolutePath().normalize().toString());
+    }
+
+    /**
+     * Hashes every regular file below the given roots in parallel and saves the cache. Files the cache already
+     * knows are not read, so a repeated run only costs a walk of the trees. Cached files below the roots that the
+     * walk no longer finds are dropped from the cache.
+     *
+     * @param roots The directories to hash.
+     * @return The statistics of the run.
+     */
+    public TreeStats hashTree(List<Path> roots) {
+        List<Path> files = new ArrayList<>();
+        List<BasicFileAttributes> attributes = new ArrayList<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()) {
+                            files.add(file);
+                            attributes.add(attrs);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        logger.warn("Cannot read {}", file, exc);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Cannot walk {}", root, e);
+            }
+        }
+
+        Set<String> found = new HashSet<>(files.size() * 2);
+        for (Path file : files) {
+            found.add(file.toAbsolutePath().normalize().toString());
+        }
+        List<Path> walked = roots.stream().filter(Files::isDirectory)
+                .map(root -> root.toAbsolutePath().normalize()).toList();
+        var pruned = cache.removeIf(key -> !found.contains(key)
+                && walked.stream().anyMatch(Paths.get(key)::startsWith));
+        if (pruned > 0) {
+            logger.info("Dropped {} file(s) that no longer exist from the hash cache", pruned);
+        }
+
+        var hashed = new AtomicInteger();
+        var failed = new AtomicInteger();
+        Map<Long, List<Path>> bySize = new ConcurrentHashMap<>();
+        Map<String, List<Path>> byContent = new ConcurrentHashMap<>();
+        for (var i = 0; i < files.size(); ++i) {
+            bySize.computeIfAbsent(attributes.get(i).size(), s -> new ArrayList<>()).add(files.get(i));
+        }
+        try {
+            pool.submit(() -> IntStream.range(0, files.size()).parallel().forEach(i -> {
+                var file = files.get(i);
+                var attrs = attributes.get(i);
+                try {
+                    if (cache.get(file.toAbsolutePath().normalize().toString(), attrs.size(),
+                            attrs.lastModifiedTime().toMillis()) == null) {
+                        hashed.incrementAndGet();
+                    }
+                    var hash = hash(file, attrs);
+                    if (bySize.get(attrs.size()).size() > 1) {
+                        byContent.computeIfAbsent(attrs.size() + ":" + hash,
+                                k -> Collections.synchronizedList(new ArrayList<>())).add(file);
+                    }
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    logger.warn("Cannot hash {}", file, e);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+        save();
+
+        var duplicates = 0;
+        for (List<Path> group : byContent.values()) {
+            if (group.size() > 1) {
+                duplicates += group.size() - 1;
+            }
+        }
+        return new TreeStats(files.size(), hashed.get(), failed.get(), duplicates);
+    }
+
+    /**
+     * Saves the cache, logging a failure; the hashes are only lost, not wrong.
+     */
+    public void save() {
+        try {
+            cache.save();
+        } catch (IOException e) {
+            logger.error("Failed to save the hash cache", e);
+        }
+    }
+
+    /**
+     * The statistics of {@link #hashTree(List)}.
+     *
+     * @param files      The number of regular files found.
+     * @param hashed     The number of files that had to be read.
+     * @param failed     The number of files that could not be read.
+     * @param duplicates The number of files whose content another file already has.
+     */
+    public record TreeStats(int files, int hashed, int failed, int duplicates) {
+    }
+
+    /**
+     * Lazy holder, the cache file is read on first use.
+     */
+    private static final class Holder {
+        private static final ContentHasher INSTANCE = new ContentHasher(
+                HashCache.load(Paths.get(System.getProperty("obio.dedupe.cache", ObioConstants.HASH_CACHE_PATH))),
+                Integer.getInteger("obio.dedupe.parallelism", ObioConstants.HASH_PARALLELISM));
+    }
+}
@@ -0,0 +1,194 @@
+package org.jacob.obfo.core.service.dedupe;
+
+import org.jacob.obfo.core.service.move.MoveOperation;
+import org.jacob.obfo.core.service.move.MovePlan;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dedupe stage of a move: decides, per planned file, whether the target directory already has its content and
+ * whether its name is taken by a different file.
+ * <p>
+ * Only files of equal size can have equal content, so the target directory is listed once per plan and grouped
+ * by size, and a file is hashed only if some file in the target directory has its size. Gallery files are
+ * hashed once and then answered from the {@link HashCache}. A file is only declared a duplicate after equal
+ * hashes are confirmed by comparing the bytes, because the source is deleted on that verdict; a hash collision
+ * is moved under a new name like any other file whose name is taken.
+ *
+ * @author Kotohiko
+ * @since 08:28 Oct 18, 2026
+ */
+public final class Deduplicator {
+
+    private final ContentHasher hasher;
+
+    /**
+     * @param hasher Hashes the files, with a persistent cache.
+     */
+    public Deduplicator(ContentHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Lists the target directory of a plan.
+     *
+     * @param plan The plan about to be executed.
+     * @return The session resolving the operations of the plan.
+     * @throws IOException if the target directory cannot be listed.
+     */
+    public Session open(MovePlan plan) throws IOException {
+        var session = new Session();
+        var targetPath = plan.targetPath();
+        if (Files.isDirectory(targetPath)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(targetPath)) {
+                for (Path entry : stream) {
+                    var name = key(entry.getFileName().toString());
+                    session.existing.add(name);
+                    session.claimed.add(name);
+                    var attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        session.add(attributes.size(), entry);
+                    }
+                }
+            }
+        }
+        for (MoveOperation operation : plan.operations()) {
+            session.claimed.add(key(operation.target().getFileName().toString()));
+        }
+        return session;
+    }
+
+    /**
+     * @return The hasher of this stage.
+     */
+    public ContentHasher hasher() {
+        return hasher;
+    }
+
+    /**
+     * Names are compared case-insensitively, the gallery lives on a Windows file system.
+     */
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param name  A file name.
+     * @param index The collision index, starting at 1.
+     * @return {@code name (index).ext}.
+     */
+    public static String numbered(String name, int index) {
+        var dot = name.lastIndexOf('.');
+        return dot > 0
+                ? name.substring(0, dot) + " (" + index + ")" + name.substring(dot)
+                : name + " (" + index + ")";
+    }
+
+    /**
+     * How one operation is to be carried out.
+     *
+     * @param operation   The operation to execute, with a new target name if the original one was taken by a
+     *                    different file.
+     * @param duplicateOf The file in the target directory that already has the content, {@code null} if the file
+     *                    has to be moved.
+     */
+    public record Resolution(MoveOperation operation, Path duplicateOf) {
+
+        /**
+         * @return Whether the target directory already has the content of the file.
+         */
+        public boolean isDuplicate() {
+            return duplicateOf != null;
+        }
+    }
+
+    /**
+     * The target directory of one plan, shared by the concurrent operations of the plan.
+     */
+    public final class Session {
+
+        /**
+         * Names in the target directory before the move.
+         */
+        private final Set<String> existing = new HashSet<>();
+
+        /**
+         * Names that are taken or are going to be: existing names, planned targets and renamed targets.
+         */
+        private final Set<String> claimed = new HashSet<>();
+
+        /**
+         * Files in the target directory by size, including the ones moved in by this plan.
+         */
+        private final Map<Long, List<Path>> bySize = new ConcurrentHashMap<>();
+
+        private Session() {
+        }
+
+        /**
+         * @param operation A planned operation.
+         * @return The operation to carry out, or the duplicate that makes it unnecessary.
+         * @throws IOException if a file cannot be hashed.
+         */
+        public Resolution resolve(MoveOperation operation) throws IOException {
+            if (operation.directory()) {
+                return new Resolution(operation, null);
+            }
+            var candidates = bySize.get(operation.size());
+            if (candidates != null) {
+                var hash = hasher.hash(operation.source());
+                List<Path> snapshot;
+                synchronized (candidates) {
+                    snapshot = List.copyOf(candidates);
+                }
+                for (Path candidate : snapshot) {
+                    if (Files.isRegularFile(candidate) && hasher.hash(candidate) == hash
+                            && Files.mismatch(operation.source(), candidate) == -1L) {
+                        return new Resolution(operation, candidate);
+                    }
+                }
+            }
+
+            var name = operation.source().getFileName().toString();
+            synchronized (claimed) {
+                if (!existing.contains(key(name))) {
+                    return new Resolution(operation, null);
+                }
+                var index = 1;
+                while (claimed.contains(key(numbered(name, index)))) {
+                    ++index;
+                }
+                var renamed = numbered(name, index);
+                claimed.add(key(renamed));
+                return new Resolution(new MoveOperation(operation.source(),
+                        operation.target().resolveSibling(renamed), false, operation.size()), null);
+            }
+        }
+
+        /**
+         * Reports a file that has been moved into the target directory, so that later files of the plan are
+         * compared with it as well.
+         *
+         * @param operation The executed operation.
+         */
+        public void moved(MoveOperation operation) {
+            if (!operation.directory()) {
+                hasher.moved(operation.source(), operation.target());
+                add(operation.size(), operation.target());
+            }
+        }
+
+        private void add(long size, Path file) {
+            var files = bySize.computeIfAbsent(size, s -> new ArrayList<>());
+            synchronized (files) {
+                files.add(file);
+            }
+        }
+    }
+}
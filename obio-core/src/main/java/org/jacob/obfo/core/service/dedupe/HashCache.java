@@ -0,0 +1,176 @@
+package org.jacob.obfo.core.service.dedupe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * File hashes keyed on (path, size, mtime), persisted in a compact binary file. The content hashes of the dedupe
+ * stage and the perceptual hashes of the similarity search are kept in separate caches.
+ * <p>
+ * A cached hash is only returned while the file still has the size and modification time it had when it was
+ * hashed, so an unchanged gallery file is never read again. File layout (big endian): {@code int magic,
+ * int count}, then per file {@code UTF path, long size, long mtime, long hash}. Files that no longer exist are
+ * dropped by {@link #removeIf(Predicate)} when a tree is hashed again.
+ *
+ * @author Kotohiko
+ * @since 08:28 Oct 18, 2026
+ */
+public final class HashCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashCache.class);
+
+    private static final int MAGIC = 0x4F424843;
+
+    private final Path file;
+
+    private final Map<String, Entry> entries;
+
+    private volatile boolean dirty;
+
+    private HashCache(Path file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the cache file. A missing or unreadable file gives an empty cache.
+     *
+     * @param file The cache file.
+     * @return The cache.
+     */
+    public static HashCache load(Path file) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a hash cache file");
+                }
+                var count = in.readInt();
+                for (var i = 0; i < count; ++i) {
+                    entries.put(in.readUTF(), new Entry(in.readLong(), in.readLong(), in.readLong()));
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot read the hash cache {}, hashing from scratch", file, e);
+                entries.clear();
+            }
+        }
+        return new HashCache(file, entries);
+    }
+
+    /**
+     * @param path  The absolute, normalized path of the file.
+     * @param size  The current size of the file.
+     * @param mtime The current modification time of the file, in milliseconds.
+     * @return The cached hash, or {@code null} if the file is unknown or has changed since it was hashed.
+     */
+    public Long get(String path, long size, long mtime) {
+        var entry = entries.get(path);
+        return entry != null && entry.size() == size && entry.mtime() == mtime ? entry.hash() : null;
+    }
+
+    /**
+     * Records the hash of a file.
+     *
+     * @param path  The absolute, normalized path of the file.
+     * @param size  The size of the file when it was hashed.
+     * @param mtime The modification time of the file when it was hashed, in milliseconds.
+     * @param hash  The content hash.
+     */
+    public void put(String path, long size, long mtime, long hash) {
+        entries.put(path, new Entry(size, mtime, hash));
+        dirty = true;
+    }
+
+    /**
+     * Forgets a file, e.g. one that has been deleted.
+     *
+     * @param path The absolute, normalized path of the file.
+     */
+    public void remove(String path) {
+        if (entries.remove(path) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Forgets every file whose path matches.
+     *
+     * @param path Tests the absolute, normalized path of a cached file.
+     * @return The number of forgotten files.
+     */
+    public int removeIf(Predicate<String> path) {
+        var removed = 0;
+        for (String key : entries.keySet()) {
+            if (path.test(key) && entries.remove(key) != null) {
+                ++removed;
+            }
+        }
+        if (removed > 0) {
+            dirty = true;
+        }
+        return removed;
+    }
+
+    /**
+     * Moves the hash of a file that has been renamed or moved without changing its content.
+     *
+     * @param from The absolute, normalized old path.
+     * @param to   The absolute, normalized new path.
+     */
+    public void rename(String from, String to) {
+        var entry = entries.remove(from);
+        if (entry != null) {
+            entries.put(to, entry);
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return The number of cached hashes.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the cache if it has changed since it was loaded or last saved.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Entry> copy = Map.copyOf(entries);
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, Entry> entry : copy.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().size());
+                out.writeLong(entry.getValue().mtime());
+                out.writeLong(entry.getValue().hash());
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Hash cache saved: {} files ({} bytes)", copy.size(),
+                Files.size(file));
+    }
+
+    private record Entry(long size, long mtime, long hash) {
+    }
+}
@@ -0,0 +1,148 @@
+package org.jacob.obfo.core.service.dedupe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming XXH64 (seed 0) of a file, read through a direct buffer.
+ * <p>
+ * XXH64 is a non-cryptographic hash that runs at memory speed, so hashing is bound by the disk. It is only used
+ * to tell files apart; two files are never treated as duplicates without equal sizes as well.
+ *
+ * @author Kotohiko
+ * @since 08:28 Oct 18, 2026
+ */
+public final class Xxh64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Most direct read buffers ever allocated. Files are hashed on virtual threads of the move executor as well
+     * as on pool threads, so the buffers are shared through a bounded pool instead of kept per thread; a hash
+     * waits for a buffer once all of them are in use.
+     */
+    private static final int MAX_BUFFERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(MAX_BUFFERS);
+
+    private static final AtomicInteger ALLOCATED = new AtomicInteger();
+
+    private Xxh64() {
+    }
+
+    /**
+     * @param file The file to hash.
+     * @return The XXH64 of the file content.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long hash(Path file) throws IOException {
+        var buffer = acquire();
+        try {
+            return hash(file, buffer);
+        } finally {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    private static ByteBuffer acquire() throws IOException {
+        var buffer = BUFFERS.poll();
+        if (buffer == null) {
+            if (ALLOCATED.incrementAndGet() <= MAX_BUFFERS) {
+                return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            ALLOCATED.decrementAndGet();
+            try {
+                buffer = BUFFERS.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a hash buffer");
+            }
+        }
+        return buffer.clear();
+    }
+
+    private static long hash(Path file, ByteBuffer buffer) throws IOException {
+        long v1 = PRIME1 + PRIME2;
+        long v2 = PRIME2;
+        long v3 = 0;
+        long v4 = -PRIME1;
+        long total = 0;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= 32) {
+                    v1 = round(v1, buffer.getLong());
+                    v2 = round(v2, buffer.getLong());
+                    v3 = round(v3, buffer.getLong());
+                    v4 = round(v4, buffer.getLong());
+                    total += 32;
+                }
+                // Keep the partial stripe for the next read
+                buffer.compact();
+            }
+        }
+        buffer.flip();
+        total += buffer.remaining();
+
+        long h;
+        if (total >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = PRIME5;
+        }
+        h += total;
+
+        while (buffer.remaining() >= 8) {
+            h ^= round(0, buffer.getLong());
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+        }
+        if (buffer.remaining() >= 4) {
+            h ^= (buffer.getInt() & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+        }
+        while (buffer.hasRemaining()) {
+            h ^= (buffer.get() & 0xFFL) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long merge(long h, long v) {
+        h ^= round(0, v);
+        return h * PRIME1 + PRIME4;
+    }
+}
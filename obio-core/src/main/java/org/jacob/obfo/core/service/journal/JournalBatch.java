@@ -0,0 +1,28 @@
+package org.jacob.obfo.core.service.journal;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A move batch replayed from the journal.
+ *
+ * @param id        The batch id, increasing.
+ * @param startedAt When the batch was planned.
+ * @param target    The target directory.
+ * @param entries   The planned moves, in plan order.
+ * @param committed Whether every move of the batch finished.
+ * @param undone    Whether the batch has been rolled back or undone.
+ * @author Kotohiko
+ * @since 08:32 Oct 18, 2026
+ */
+public record JournalBatch(long id, Instant startedAt, Path target, List<JournalEntry> entries,
+                           boolean committed, boolean undone) {
+
+    /**
+     * @return Whether the batch was neither committed nor undone, i.e. the process died during it.
+     */
+    public boolean isInterrupted() {
+        return !committed && !undone;
+    }
+}
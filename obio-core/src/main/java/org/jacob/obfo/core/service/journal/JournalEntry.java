@@ -0,0 +1,45 @@
+package org.jacob.obfo.core.service.journal;
+
+import java.nio.file.Path;
+
+/**
+ * One planned file move of a {@link JournalBatch}, as far as the journal knows it.
+ *
+ * @param source    The file in the buffer.
+ * @param planned   The planned target.
+ * @param resolved  The target the dedupe stage chose instead of the planned one (a renamed target, or for a
+ *                  duplicate the gallery file that has its content); {@code null} if the planned target was
+ *                  used or no decision was recorded.
+ * @param target    Where the file ended up (the planned target or a renamed one), or, for a duplicate, the
+ *                  gallery file that has its content; {@code null} if no completion was recorded.
+ * @param duplicate Whether the file was deleted, or is to be deleted, as a duplicate.
+ * @param directory Whether the entry is a directory moved as a whole.
+ * @author Kotohiko
+ * @since 08:32 Oct 18, 2026
+ */
+public record JournalEntry(Path source, Path planned, Path resolved, Path target, boolean duplicate,
+                           boolean directory) {
+
+    /**
+     * @return Whether the journal recorded the completion of this move.
+     */
+    public boolean isDone() {
+        return target != null;
+    }
+
+    /**
+     * @return Where the file is if the move has happened: the recorded target, else the resolved one, else the
+     * planned one.
+     */
+    public Path location() {
+        return target != null ? target : resolved != null ? resolved : planned;
+    }
+
+    JournalEntry resolve(Path resolvedTarget, boolean isDuplicate) {
+        return new JournalEntry(source, planned, resolvedTarget, target, isDuplicate, directory);
+    }
+
+    JournalEntry done(Path finalTarget, boolean isDuplicate) {
+        return new JournalEntry(source, planned, resolved, finalTarget, isDuplicate, directory);
+    }
+}
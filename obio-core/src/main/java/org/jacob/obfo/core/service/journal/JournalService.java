@@ -0,0 +1,236 @@
+package org.jacob.obfo.core.service.journal;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.enums.JournalRecoveryEnums;
+import org.jacob.obfo.core.service.dedupe.Deduplicator;
+import org.jacob.obfo.core.service.move.FileTransfer;
+import org.jacob.obfo.core.service.route.AutoRouter;
+import org.jacob.obio.common.helper.ObioCommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recovers interrupted move batches on start and undoes finished ones, using only the {@link MoveJournal} and
+ * the file system.
+ * <p>
+ * A lost {@code DONE} record is made up for by {@link JournalEntry#location()}: the planned target, or the
+ * renamed target or duplicate the {@code RESOLVED} record names, which is on disk before the file is touched.
+ * A file at the planned target therefore only counts as moved when the planned name was free, an existing
+ * gallery file is never taken for a moved one. Leftover {@link FileTransfer#PART_SUFFIX} files of an interrupted
+ * cross-store copy are deleted, their source is still in place.
+ *
+ * @author Kotohiko
+ * @since 08:32 Oct 18, 2026
+ */
+public final class JournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalService.class);
+
+    private final MoveJournal journal;
+
+    /**
+     * @param journal The open journal, {@code null} if it could not be opened; moves are not journaled then.
+     */
+    public JournalService(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return The process-wide service of {@link ObioConstants#MOVE_JOURNAL_PATH}.
+     */
+    public static JournalService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The journal, {@code null} if it could not be opened.
+     */
+    public MoveJournal journal() {
+        return journal;
+    }
+
+    /**
+     * Resumes or rolls back every interrupted batch, as {@code -Dobio.journal.recovery} says, and drops old
+     * batches from the journal.
+     *
+     * @return The number of recovered batches.
+     */
+    public int recover() {
+        if (journal == null) {
+            return 0;
+        }
+        var policy = ObioCommonHelper.enumProperty("obio.journal.recovery", JournalRecoveryEnums.class,
+                JournalRecoveryEnums.valueOf(ObioConstants.JOURNAL_RECOVERY));
+        var recovered = 0;
+        for (JournalBatch batch : journal.batches()) {
+            if (!batch.isInterrupted()) {
+                continue;
+            }
+            logger.warn("Move batch {} to {} was interrupted, {}", batch.id(), batch.target(), policy);
+            try {
+                switch (policy) {
+                    case RESUME -> resume(batch);
+                    case ROLLBACK -> rollBack(batch);
+                }
+                ++recovered;
+            } catch (IOException e) {
+                logger.error("Failed to recover move batch {}, it is retried on the next start", batch.id(), e);
+            }
+        }
+        try {
+            journal.compact(Integer.getInteger("obio.journal.keepBatches", ObioConstants.JOURNAL_KEEP_BATCHES));
+        } catch (IOException e) {
+            logger.warn("Cannot compact the move journal", e);
+        }
+        return recovered;
+    }
+
+    /**
+     * Moves the files of the last finished batches back to where they came from, newest batch first.
+     *
+     * @param count The number of batches to undo.
+     * @return The undone batches.
+     */
+    public List<JournalBatch> undo(int count) {
+        List<JournalBatch> undone = new ArrayList<>();
+        if (journal == null) {
+            return undone;
+        }
+        var batches = journal.batches();
+        for (var i = batches.size() - 1; i >= 0 && undone.size() < count; --i) {
+            var batch = batches.get(i);
+            if (!batch.committed() || batch.undone()) {
+                continue;
+            }
+            try {
+                rollBack(batch);
+                undone.add(batch);
+            } catch (IOException e) {
+                logger.error("Failed to undo move batch {}", batch.id(), e);
+                break;
+            }
+        }
+        return undone;
+    }
+
+    private void resume(JournalBatch batch) throws IOException {
+        var entries = batch.entries();
+        for (var seq = 0; seq < entries.size(); ++seq) {
+            var entry = entries.get(seq);
+            var location = entry.location();
+            deletePartFile(entry.planned());
+            if (!entry.duplicate()) {
+                deletePartFile(location);
+            }
+            if (entry.isDone()) {
+                continue;
+            }
+            if (Files.exists(entry.source())) {
+                if (isSameContent(entry.source(), location)) {
+                    // The copy or the duplicate is in place, only the source had not been deleted yet
+                    Files.delete(entry.source());
+                    journal.done(batch.id(), seq, location, entry.duplicate());
+                } else {
+                    var target = free(entry.duplicate() ? entry.planned() : location);
+                    Files.move(entry.source(), target);
+                    journal.done(batch.id(), seq, target, false);
+                }
+            } else if (Files.exists(location)) {
+                journal.done(batch.id(), seq, location, entry.duplicate());
+            } else {
+                logger.warn("{} is neither in the buffer nor at {}", entry.source(), location);
+            }
+        }
+        journal.commit(batch.id());
+    }
+
+    /**
+     * Moves every file of the batch that is in the gallery back into the buffer, last move first.
+     */
+    private void rollBack(JournalBatch batch) throws IOException {
+        List<Path> restored = new ArrayList<>();
+        var entries = batch.entries();
+        for (var seq = entries.size() - 1; seq >= 0; --seq) {
+            var entry = entries.get(seq);
+            var location = entry.location();
+            deletePartFile(entry.planned());
+            if (!entry.duplicate()) {
+                deletePartFile(location);
+            }
+            if (Files.exists(entry.source())) {
+                continue;
+            }
+            if (!Files.exists(location)) {
+                logger.warn("{} is neither in the buffer nor at {}", entry.source(), location);
+                continue;
+            }
+            Files.createDirectories(entry.source().getParent());
+            if (entry.duplicate()) {
+                // The duplicate was deleted, its content is still in the gallery
+                Files.copy(location, entry.source(), StandardCopyOption.COPY_ATTRIBUTES);
+            } else {
+                Files.move(location, entry.source());
+            }
+            restored.add(entry.source());
+        }
+        // Keep the auto-router from moving the restored files straight back
+        AutoRouter.getInstance().hold(restored);
+        journal.undone(batch.id());
+        logger.info("Move batch {}: {} file(s) moved back", batch.id(), restored.size());
+    }
+
+    /**
+     * @return The target, or {@code name (n).ext} if something else took the name in the meantime.
+     */
+    private static Path free(Path target) {
+        var name = target.getFileName().toString();
+        var candidate = target;
+        for (var index = 1; Files.exists(candidate); ++index) {
+            candidate = target.resolveSibling(Deduplicator.numbered(name, index));
+        }
+        return candidate;
+    }
+
+    private static boolean isSameContent(Path source, Path location) throws IOException {
+        return Files.isRegularFile(source) && Files.isRegularFile(location)
+                && Files.mismatch(source, location) == -1L;
+    }
+
+    private static void deletePartFile(Path target) throws IOException {
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + FileTransfer.PART_SUFFIX));
+    }
+
+    /**
+     * Lazy holder, the journal is opened and replayed on first use.
+     */
+    private static final class Holder {
+        private static final JournalService INSTANCE = create();
+
+        private static JournalService create() {
+            var path = Paths.get(System.getProperty("obio.journal.path", ObioConstants.MOVE_JOURNAL_PATH));
+            try {
+                var journal = MoveJournal.open(path, Long.getLong("obio.journal.flushIntervalMillis",
+                        ObioConstants.JOURNAL_FLUSH_INTERVAL_MILLIS));
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        logger.warn("Cannot close the move journal", e);
+                    }
+                }, "MoveJournal-shutdown"));
+                return new JournalService(journal);
+            } catch (IOException e) {
+                logger.error("Cannot open the move journal {}, moves are not journaled", path, e);
+                return new JournalService(null);
+            }
+        }
+    }
+}
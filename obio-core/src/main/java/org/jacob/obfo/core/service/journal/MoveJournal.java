@@ -0,0 +1,535 @@
+package org.jacob.obfo.core.service.journal;
+
+import org.jacob.obfo.core.service.move.MoveOperation;
+import org.jacob.obfo.core.service.move.MovePlan;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only, write-ahead journal of file moves.
+ * <p>
+ * Every record is {@code int length, payload, int CRC32C}; the payload starts with the record type and the
+ * batch id. A batch is journaled as
+ * <pre>
+ *   BEGIN   time, target directory
+ *   PLANNED  seq, source, planned target, directory flag    (one per file)
+ *   RESOLVED seq, resolved target, duplicate flag           (one per file the dedupe stage renamed or dropped)
+ *   DONE     seq, final target, duplicate flag              (one per completed move)
+ *   COMMIT | UNDONE
+ * </pre>
+ * Group commit keeps the journal cheap: {@code BEGIN} and all {@code PLANNED} records of a batch are written
+ * with a single {@code fsync} before the first file moves, and {@code COMMIT} costs one more. {@code DONE}
+ * records are buffered and written by a background flush every few hundred milliseconds, so one can be lost
+ * in a crash. That is only safe because the journal knows where the file would be: a file that is not moved
+ * to its planned target gets a {@code RESOLVED} record, forced to disk before the file is touched. Without
+ * one, the planned name was free when the dedupe stage ran, and a file there is the moved one.
+ * <p>
+ * A torn record at the end of the file (the process died while writing it) fails its checksum and is cut off
+ * when the journal is opened.
+ *
+ * @author Kotohiko
+ * @since 08:32 Oct 18, 2026
+ */
+public final class MoveJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoveJournal.class);
+
+    private static final byte BEGIN = 1;
+
+    private static final byte PLANNED = 2;
+
+    private static final byte DONE = 3;
+
+    private static final byte COMMIT = 4;
+
+    private static final byte UNDONE = 5;
+
+    private static final byte RESOLVED = 6;
+
+    /**
+     * Buffered {@code DONE} bytes that trigger a write before the next background flush.
+     */
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final Path file;
+
+    /**
+     * The append channel, reopened by {@link #compact(int)}; guarded by {@code this}.
+     */
+    private FileChannel channel;
+
+    /**
+     * Records appended but not yet written, guarded by {@code this}.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Batches replayed from the file and started since, by id.
+     */
+    private final SortedMap<Long, JournalBatch> batches;
+
+    private long nextBatchId;
+
+    private MoveJournal(Path file, FileChannel channel, SortedMap<Long, JournalBatch> batches,
+                        long flushIntervalMillis) {
+        this.file = file;
+        this.channel = channel;
+        this.batches = batches;
+        this.nextBatchId = batches.isEmpty() ? 1L : batches.lastKey() + 1;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("JournalFlusher", true));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a journal, replaying its batches and cutting off a torn record at the end.
+     *
+     * @param file                The journal file, created if missing.
+     * @param flushIntervalMillis Longest time a {@code DONE} record waits in memory.
+     * @return The open journal.
+     * @throws IOException if the file cannot be read or opened for appending.
+     */
+    public static MoveJournal open(Path file, long flushIntervalMillis) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        SortedMap<Long, JournalBatch> batches = new TreeMap<>();
+        var valid = replay(file, batches);
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            logger.warn("Move journal {}: cutting off a torn record ({} bytes)", file, channel.size() - valid);
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        channel.position(valid);
+        return new MoveJournal(file, channel, batches, flushIntervalMillis);
+    }
+
+    /**
+     * @return Every known batch, oldest first.
+     */
+    public synchronized List<JournalBatch> batches() {
+        List<JournalBatch> copies = new ArrayList<>(batches.size());
+        for (JournalBatch batch : batches.values()) {
+            copies.add(new JournalBatch(batch.id(), batch.startedAt(), batch.target(), List.copyOf(batch.entries()),
+                    batch.committed(), batch.undone()));
+        }
+        return copies;
+    }
+
+    /**
+     * Journals a plan before it is executed, with one {@code fsync}.
+     *
+     * @param plan The plan about to be executed.
+     * @return The handle that records the completed moves of the plan.
+     * @throws IOException if the journal cannot be written; the plan must not be executed then.
+     */
+    public synchronized Batch begin(MovePlan plan) throws IOException {
+        var id = nextBatchId++;
+        var now = Instant.now();
+        append(record(BEGIN, id, out -> {
+            out.writeLong(now.toEpochMilli());
+            out.writeUTF(plan.targetPath().toString());
+        }));
+        List<JournalEntry> entries = new ArrayList<>(plan.size());
+        for (var i = 0; i < plan.size(); ++i) {
+            var seq = i;
+            var operation = plan.operations().get(i);
+            append(record(PLANNED, id, out -> {
+                out.writeInt(seq);
+                out.writeUTF(operation.source().toString());
+                out.writeUTF(operation.target().toString());
+                out.writeBoolean(operation.directory());
+            }));
+            entries.add(new JournalEntry(operation.source(), operation.target(), null, null, false,
+                    operation.directory()));
+        }
+        sync();
+        batches.put(id, new JournalBatch(id, now, plan.targetPath(), entries, false, false));
+        return new Batch(id);
+    }
+
+    /**
+     * Marks a batch as rolled back or undone, with one {@code fsync}.
+     *
+     * @param id The batch id.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void undone(long id) throws IOException {
+        append(record(UNDONE, id, out -> {
+        }));
+        sync();
+        var batch = batches.get(id);
+        if (batch != null) {
+            batches.put(id, new JournalBatch(id, batch.startedAt(), batch.target(), batch.entries(),
+                    batch.committed(), true));
+        }
+    }
+
+    /**
+     * Marks a batch as complete, with one {@code fsync}.
+     *
+     * @param id The batch id.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void commit(long id) throws IOException {
+        append(record(COMMIT, id, out -> {
+        }));
+        sync();
+        var batch = batches.get(id);
+        if (batch != null) {
+            batches.put(id, new JournalBatch(id, batch.startedAt(), batch.target(), batch.entries(), true,
+                    batch.undone()));
+        }
+    }
+
+    /**
+     * Records that a file goes somewhere else than planned, with one {@code fsync}. Must be called before the
+     * file is moved or deleted.
+     *
+     * @param id        The batch id.
+     * @param seq       The position of the move in the plan.
+     * @param target    The renamed target, or the existing file of a duplicate.
+     * @param duplicate Whether the source is going to be deleted as a duplicate.
+     * @throws IOException if the journal cannot be written; the file must not be touched then.
+     */
+    public synchronized void resolved(long id, int seq, Path target, boolean duplicate) throws IOException {
+        append(record(RESOLVED, id, out -> {
+            out.writeInt(seq);
+            out.writeUTF(target.toString());
+            out.writeBoolean(duplicate);
+        }));
+        sync();
+        var batch = batches.get(id);
+        if (batch != null) {
+            batch.entries().set(seq, batch.entries().get(seq).resolve(target, duplicate));
+        }
+    }
+
+    /**
+     * Records a completed move; buffered until the next flush.
+     *
+     * @param id        The batch id.
+     * @param seq       The position of the move in the plan.
+     * @param target    The final target, or the existing file of a duplicate.
+     * @param duplicate Whether the source was deleted as a duplicate.
+     */
+    public synchronized void done(long id, int seq, Path target, boolean duplicate) {
+        try {
+            append(record(DONE, id, out -> {
+                out.writeInt(seq);
+                out.writeUTF(target.toString());
+                out.writeBoolean(duplicate);
+            }));
+            var batch = batches.get(id);
+            if (batch != null) {
+                // The entry lists of the open batches are mutable, batches() hands out copies
+                batch.entries().set(seq, batch.entries().get(seq).done(target, duplicate));
+            }
+            if (pending.size() >= FLUSH_THRESHOLD) {
+                flush(false);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot journal the move of {}", target, e);
+        }
+    }
+
+    /**
+     * Keeps the last batches and drops older closed ones by rewriting the file. Interrupted batches are always
+     * kept. The records are written to a temporary file that atomically replaces the journal, so a crash leaves
+     * either the old or the new journal, never a partly written one.
+     *
+     * @param keep The number of closed batches to keep for {@code undo}.
+     * @throws IOException if the file cannot be rewritten.
+     */
+    public synchronized void compact(int keep) throws IOException {
+        List<JournalBatch> closed = batches.values().stream().filter(b -> !b.isInterrupted()).toList();
+        if (closed.size() <= keep) {
+            return;
+        }
+        flush(true);
+        for (JournalBatch batch : closed.subList(0, closed.size() - keep)) {
+            batches.remove(batch.id());
+        }
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var bytes = new ByteArrayOutputStream();
+            for (JournalBatch batch : batches.values()) {
+                bytes.write(serialize(batch));
+            }
+            var buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        // Windows cannot replace a file that is open
+        channel.close();
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Writes the buffered records and forces them to disk.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void sync() throws IOException {
+        flush(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdownNow();
+        synchronized (this) {
+            flush(true);
+            channel.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            synchronized (this) {
+                flush(true);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot flush the move journal", e);
+        }
+    }
+
+    private void flush(boolean force) throws IOException {
+        if (pending.size() > 0) {
+            var buffer = ByteBuffer.wrap(pending.toByteArray());
+            pending.reset();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private void append(byte[] record) {
+        pending.writeBytes(record);
+    }
+
+    private static byte[] record(byte type, long batchId, RecordBody body) throws IOException {
+        var payload = new ByteArrayOutputStream();
+        var out = new DataOutputStream(payload);
+        out.writeByte(type);
+        out.writeLong(batchId);
+        body.write(out);
+        out.flush();
+        var bytes = payload.toByteArray();
+        var crc = new CRC32C();
+        crc.update(bytes);
+        var framed = ByteBuffer.allocate(Integer.BYTES + bytes.length + Integer.BYTES);
+        framed.putInt(bytes.length).put(bytes).putInt((int) crc.getValue());
+        return framed.array();
+    }
+
+    /**
+     * The records that reproduce a batch, used by {@link #compact(int)}.
+     */
+    private static byte[] serialize(JournalBatch batch) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        bytes.write(record(BEGIN, batch.id(), out -> {
+            out.writeLong(batch.startedAt().toEpochMilli());
+            out.writeUTF(batch.target().toString());
+        }));
+        for (var i = 0; i < batch.entries().size(); ++i) {
+            var seq = i;
+            var entry = batch.entries().get(i);
+            bytes.write(record(PLANNED, batch.id(), out -> {
+                out.writeInt(seq);
+                out.writeUTF(entry.source().toString());
+                out.writeUTF(entry.planned().toString());
+                out.writeBoolean(entry.directory());
+            }));
+            if (entry.resolved() != null) {
+                bytes.write(record(RESOLVED, batch.id(), out -> {
+                    out.writeInt(seq);
+                    out.writeUTF(entry.resolved().toString());
+                    out.writeBoolean(entry.duplicate());
+                }));
+            }
+            if (entry.isDone()) {
+                bytes.write(record(DONE, batch.id(), out -> {
+                    out.writeInt(seq);
+                    out.writeUTF(entry.target().toString());
+                    out.writeBoolean(entry.duplicate());
+                }));
+            }
+        }
+        if (batch.committed()) {
+            bytes.write(record(COMMIT, batch.id(), out -> {
+            }));
+        }
+        if (batch.undone()) {
+            bytes.write(record(UNDONE, batch.id(), out -> {
+            }));
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads every intact record into {@code batches}.
+     *
+     * @return The length of the intact prefix of the file.
+     */
+    private static long replay(Path file, SortedMap<Long, JournalBatch> batches) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0L;
+        }
+        Map<Long, List<JournalEntry>> entries = new HashMap<>();
+        var valid = 0L;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException _) {
+                    break;
+                }
+                if (length <= 0 || length > (1 << 20)) {
+                    break;
+                }
+                var payload = new byte[length];
+                try {
+                    in.readFully(payload);
+                    var crc = new CRC32C();
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException _) {
+                    break;
+                }
+                apply(payload, batches, entries);
+                valid += Integer.BYTES + length + Integer.BYTES;
+            }
+        }
+        return valid;
+    }
+
+    private static void apply(byte[] payload, SortedMap<Long, JournalBatch> batches,
+                              Map<Long, List<JournalEntry>> entries) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(payload));
+        var type = in.readByte();
+        var id = in.readLong();
+        if (type == BEGIN) {
+            var startedAt = Instant.ofEpochMilli(in.readLong());
+            List<JournalEntry> list = new ArrayList<>();
+            entries.put(id, list);
+            batches.put(id, new JournalBatch(id, startedAt, Paths.get(in.readUTF()), list, false, false));
+            return;
+        }
+        var batch = batches.get(id);
+        var list = entries.get(id);
+        if (batch == null || list == null) {
+            return;
+        }
+        switch (type) {
+            case PLANNED -> {
+                in.readInt();
+                list.add(new JournalEntry(Paths.get(in.readUTF()), Paths.get(in.readUTF()), null, null, false,
+                        in.readBoolean()));
+            }
+            case RESOLVED -> {
+                var seq = in.readInt();
+                if (seq >= 0 && seq < list.size()) {
+                    list.set(seq, list.get(seq).resolve(Paths.get(in.readUTF()), in.readBoolean()));
+                }
+            }
+            case DONE -> {
+                var seq = in.readInt();
+                if (seq >= 0 && seq < list.size()) {
+                    list.set(seq, list.get(seq).done(Paths.get(in.readUTF()), in.readBoolean()));
+                }
+            }
+            case COMMIT -> batches.put(id, new JournalBatch(id, batch.startedAt(), batch.target(), list, true,
+                    batch.undone()));
+            case UNDONE -> batches.put(id, new JournalBatch(id, batch.startedAt(), batch.target(), list,
+                    batch.committed(), true));
+            default -> logger.warn("Unknown move journal record type {}", type);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * The journal of one executing plan.
+     */
+    public final class Batch {
+
+        private final long id;
+
+        private Batch(long id) {
+            this.id = id;
+        }
+
+        /**
+         * @return The batch id.
+         */
+        public long id() {
+            return id;
+        }
+
+        /**
+         * Records, durably, that a file does not go to its planned target.
+         *
+         * @param seq       The position of the operation in the plan.
+         * @param target    The renamed target, or the existing file of a duplicate.
+         * @param duplicate Whether the source is going to be deleted as a duplicate.
+         * @throws IOException if the journal cannot be written; the file must not be touched then.
+         */
+        public void resolved(int seq, Path target, boolean duplicate) throws IOException {
+            MoveJournal.this.resolved(id, seq, target, duplicate);
+        }
+
+        /**
+         * Records a completed move.
+         *
+         * @param seq       The position of the operation in the plan.
+         * @param operation The executed operation, with its final target.
+         * @param duplicate Whether the source was deleted as a duplicate of the operation's target.
+         */
+        public void done(int seq, MoveOperation operation, boolean duplicate) {
+            MoveJournal.this.done(id, seq, operation.target(), duplicate);
+        }
+
+        /**
+         * Marks the batch as complete.
+         *
+         * @throws IOException if the journal cannot be written.
+         */
+        public void commit() throws IOException {
+            MoveJournal.this.commit(id);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.jacob.obfo.core.service.move;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.FileStore;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds the number of concurrent moves per {@link FileStore}.
+ * <p>
+ * Every store gets its own fair {@link Semaphore}. Local stores default to many permits, stores whose type
+ * is a known network file system default to a few. Both defaults can be changed, and any single store can be
+ * given its own limit with {@code -Dobio.move.permits.<store name>=<n>}, which is the way to hold a
+ * spinning disk to one or two concurrent moves (the JDK cannot tell an HDD from an SSD).
+ *
+ * @author Kotohiko
+ * @since 08:10 Oct 18, 2026
+ */
+public class FileStoreThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStoreThrottle.class);
+
+    /**
+     * {@link FileStore#type()} values of network file systems.
+     */
+    private static final Set<String> NETWORK_TYPES = Set.of(
+            "smbfs", "cifs", "smb2", "smb3", "nfs", "nfs4", "afpfs", "webdav", "davfs", "fuse.sshfs", "9p");
+
+    private final int localPermits;
+
+    private final int networkPermits;
+
+    private final Map<FileStore, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+    /**
+     * @param localPermits   Concurrent moves allowed on a local store.
+     * @param networkPermits Concurrent moves allowed on a network store.
+     */
+    public FileStoreThrottle(int localPermits, int networkPermits) {
+        this.localPermits = Math.max(1, localPermits);
+        this.networkPermits = Math.max(1, networkPermits);
+    }
+
+    /**
+     * Takes a permit of every given store, waiting as long as necessary. The permits are always taken in the
+     * same order, so two moves between the same pair of stores cannot deadlock.
+     *
+     * @param stores The stores a move touches, duplicates are ignored.
+     * @return The stores whose permits have been taken, to be passed to {@link #release(FileStore[])}.
+     * @throws InterruptedException if interrupted while waiting; no permit is held in that case.
+     */
+    public FileStore[] acquire(FileStore... stores) throws InterruptedException {
+        var ordered = ordered(stores);
+        var acquired = 0;
+        try {
+            for (FileStore store : ordered) {
+                semaphoreOf(store).acquire();
+                ++acquired;
+            }
+        } catch (InterruptedException e) {
+            for (var i = 0; i < acquired; ++i) {
+                semaphoreOf(ordered[i]).release();
+            }
+            throw e;
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns the permits taken by {@link #acquire(FileStore...)}.
+     *
+     * @param stores The array returned by {@link #acquire(FileStore...)}.
+     */
+    public void release(FileStore[] stores) {
+        for (FileStore store : stores) {
+            semaphoreOf(store).release();
+        }
+    }
+
+    /**
+     * @return The available permits per store seen so far, for monitoring.
+     */
+    public Map<String, String> describe() {
+        Map<String, String> result = new TreeMap<>();
+        semaphores.forEach((store, semaphore) -> result.put(store.toString(),
+                semaphore.availablePermits() + "/" + permitsFor(store)));
+        return result;
+    }
+
+    private Semaphore semaphoreOf(FileStore store) {
+        return semaphores.computeIfAbsent(store, s -> {
+            var permits = permitsFor(s);
+            logger.info("Allowing {} concurrent move(s) on {} ({})", permits, s, s.type());
+            return new Semaphore(permits, true);
+        });
+    }
+
+    private int permitsFor(FileStore store) {
+        var override = Integer.getInteger("obio.move.permits." + store.name());
+        if (override != null && override > 0) {
+            return override;
+        }
+        return NETWORK_TYPES.contains(store.type().toLowerCase(Locale.ROOT)) ? networkPermits : localPermits;
+    }
+
+    private static FileStore[] ordered(FileStore[] stores) {
+        List<FileStore> distinct = new ArrayList<>(stores.length);
+        for (FileStore store : stores) {
+            if (!distinct.contains(store)) {
+                distinct.add(store);
+            }
+        }
+        distinct.sort(Comparator.comparing((FileStore s) -> s.name() + '\u0000' + s.type() + '\u0000' + s)
+                .thenComparingInt(System::identityHashCode));
+        return distinct.toArray(new FileStore[0]);
+    }
+}
@@ -0,0 +1,328 @@
+package org.jacob.obfo.core.service.move;
+
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Carries out a single {@link MoveOperation}, choosing the cheapest safe way for the two locations involved.
+ * <ul>
+ *     <li>Source and target on the same {@link FileStore}: an atomic rename, nothing is copied.</li>
+ *     <li>Different file stores: the file is copied with {@link FileChannel#transferTo} into a temporary file
+ *     next to the target (in parallel chunks for large files), both sides are checksummed with CRC32C,
+ *     and only when they match the temporary file is renamed into place and the source is deleted.</li>
+ * </ul>
+ * Directories that have to cross file stores are left to {@link Files#move}, as before.
+ *
+ * @author Kotohiko
+ * @since 08:07 Oct 18, 2026
+ */
+public class FileTransfer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileTransfer.class);
+
+    /**
+     * Files of at least this size are copied in parallel chunks.
+     */
+    private static final long PARALLEL_THRESHOLD = 256L * 1024 * 1024;
+
+    /**
+     * Size of one parallel chunk.
+     */
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Buffer size used while checksumming.
+     */
+    private static final int CHECKSUM_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * {@link FileChannel#transferTo} calls in a row that may copy nothing before a range is copied through a
+     * buffer instead.
+     */
+    private static final int MAX_IDLE_TRANSFERS = 3;
+
+    /**
+     * Suffix of the temporary file a cross-store copy is written to.
+     */
+    public static final String PART_SUFFIX = ".obio-part";
+
+    /**
+     * Shared pool for chunk copies and checksums, separate from the move pool so that a move never waits on
+     * tasks queued behind itself.
+     */
+    private static final ExecutorService CHUNK_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            new CustomThreadFactory("ChunkTransferPool", true));
+
+    /**
+     * File store per directory; all moves of a batch share the same two directories.
+     */
+    private final Map<Path, FileStore> fileStores = new ConcurrentHashMap<>();
+
+    private final TransferProgressListener progressListener;
+
+    /**
+     * Creates a transfer that logs the progress of large cross-store copies.
+     */
+    public FileTransfer() {
+        this(new LoggingProgressListener());
+    }
+
+    /**
+     * @param progressListener Receives the progress of cross-store copies.
+     */
+    public FileTransfer(TransferProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Moves the source of the operation to its target, replacing an existing target.
+     *
+     * @param operation The operation to carry out.
+     * @throws IOException if the entry cannot be moved. The source is left in place in that case. Once a
+     *                     cross-store copy is verified and in place the move counts as done, a source that cannot
+     *                     be deleted afterwards is only logged.
+     */
+    public void move(MoveOperation operation) throws IOException {
+        var source = operation.source();
+        var target = operation.target();
+
+        if (isSameFileStore(source, target)) {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException _) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else if (operation.directory()) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            copyVerifyAndDelete(source, target);
+        }
+    }
+
+    /**
+     * Checks whether two entries live on the same file store, looking at their parent directories.
+     */
+    private boolean isSameFileStore(Path source, Path target) throws IOException {
+        return fileStoreOf(source.toAbsolutePath().getParent()).equals(fileStoreOf(target.toAbsolutePath().getParent()));
+    }
+
+    /**
+     * @param dir A directory.
+     * @return The file store of the directory, looked up once per directory.
+     * @throws IOException if the file store cannot be determined.
+     */
+    public FileStore fileStoreOf(Path dir) throws IOException {
+        var store = fileStores.get(dir);
+        if (store == null) {
+            store = Files.getFileStore(dir);
+            fileStores.put(dir, store);
+        }
+        return store;
+    }
+
+    private void copyVerifyAndDelete(Path source, Path target) throws IOException {
+        var part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        var start = System.nanoTime();
+        long size;
+
+        try {
+            try (var in = FileChannel.open(source, StandardOpenOption.READ);
+                 var out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                size = in.size();
+                if (size >= PARALLEL_THRESHOLD) {
+                    copyInChunks(source, in, part, size);
+                } else {
+                    copyRange(source, in, out, 0L, size, new AtomicLong(), size);
+                }
+                // The source is deleted below, the copy must be on disk first
+                out.force(true);
+            }
+
+            verifyChecksum(source, part);
+            try {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException _) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+
+        // The verified copy is in place, the move has happened; what follows must not report it as failed
+        try {
+            Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+        } catch (IOException e) {
+            logger.warn("Cannot carry over the modification time of {}: {}", source, e.toString());
+        }
+        try {
+            Files.delete(source);
+        } catch (IOException e) {
+            logger.warn("{} has been copied to {} but cannot be deleted, it is left for cleanup: {}", source,
+                    target, e.toString());
+        }
+
+        var elapsedNanos = Math.max(1L, System.nanoTime() - start);
+        logger.info("Copied {} across file stores: {} MB in {} ms ({} MB/s)", source.getFileName(),
+                size / (1024 * 1024), elapsedNanos / 1_000_000L,
+                String.format("%.1f", size / (1024.0 * 1024.0) / (elapsedNanos / 1e9)));
+    }
+
+    /**
+     * Copies a large file in {@link #CHUNK_SIZE} ranges. Each range writes through its own channel positioned
+     * at the range start, the shared source channel is only used with absolute positions.
+     */
+    private void copyInChunks(Path source, FileChannel in, Path part, long size) throws IOException {
+        var transferred = new AtomicLong();
+        List<Future<Void>> futures = new ArrayList<>();
+
+        for (long position = 0; position < size; position += CHUNK_SIZE) {
+            var from = position;
+            var count = Math.min(CHUNK_SIZE, size - position);
+            futures.add(CHUNK_EXECUTOR.submit(() -> {
+                try (var out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                    out.position(from);
+                    copyRange(source, in, out, from, count, transferred, size);
+                }
+                return null;
+            }));
+        }
+        awaitAll(futures);
+    }
+
+    private void copyRange(Path source, FileChannel in, FileChannel out, long from, long count,
+                           AtomicLong transferred, long total) throws IOException {
+        var done = 0L;
+        var idle = 0;
+        while (done < count) {
+            var n = in.transferTo(from + done, count - done, out);
+            if (n <= 0) {
+                if (in.size() <= from + done) {
+                    throw new IOException("Source file shrank while copying: " + source);
+                }
+                if (++idle >= MAX_IDLE_TRANSFERS) {
+                    // Some channels keep answering 0, the rest is copied through a buffer
+                    logger.debug("transferTo made no progress on {}, copying through a buffer", source);
+                    copyBuffered(source, in, out, from + done, count - done, transferred, total);
+                    return;
+                }
+                continue;
+            }
+            idle = 0;
+            done += n;
+            progressListener.onProgress(source, transferred.addAndGet(n), total);
+        }
+    }
+
+    private void copyBuffered(Path source, FileChannel in, FileChannel out, long from, long count,
+                              AtomicLong transferred, long total) throws IOException {
+        var buffer = ByteBuffer.allocateDirect((int) Math.min(CHECKSUM_BUFFER_SIZE, count));
+        var done = 0L;
+        while (done < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - done));
+            var n = in.read(buffer, from + done);
+            if (n < 0) {
+                throw new IOException("Source file shrank while copying: " + source);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            done += n;
+            progressListener.onProgress(source, transferred.addAndGet(n), total);
+        }
+    }
+
+    /**
+     * Compares the CRC32C of the source and the copy, computing both concurrently.
+     */
+    private void verifyChecksum(Path source, Path copy) throws IOException {
+        Future<Long> sourceChecksum = CHUNK_EXECUTOR.submit(() -> checksum(source));
+        var copyChecksum = checksum(copy);
+        long expected;
+        try {
+            expected = sourceChecksum.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while verifying " + source, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to checksum " + source, e.getCause());
+        }
+        if (expected != copyChecksum) {
+            throw new IOException("Checksum mismatch after copying " + source + ", the source has been kept");
+        }
+    }
+
+    private static long checksum(Path file) throws IOException {
+        var crc = new CRC32C();
+        var buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void awaitAll(List<Future<Void>> futures) throws IOException {
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while copying", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Logs the progress of copies larger than {@link #CHUNK_SIZE} in steps of 10 percent.
+     */
+    private static final class LoggingProgressListener implements TransferProgressListener {
+
+        private final Map<Path, Integer> lastStep = new ConcurrentHashMap<>();
+
+        @Override
+        public void onProgress(Path source, long transferred, long total) {
+            if (total < CHUNK_SIZE) {
+                return;
+            }
+            var step = (int) (transferred * 10 / total);
+            var advanced = new boolean[1];
+            lastStep.compute(source, (path, previous) -> {
+                advanced[0] = previous == null || previous < step;
+                return advanced[0] ? step : previous;
+            });
+            if (advanced[0]) {
+                logger.info("Copying {}: {}% ({} / {} MB)", source.getFileName(), step * 10,
+                        transferred / (1024 * 1024), total / (1024 * 1024));
+            }
+            if (transferred >= total) {
+                lastStep.remove(source);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.jacob.obfo.core.service.move;
+
+import org.jacob.obfo.core.enums.FilesMoveOperStatusEnums;
+import org.jacob.obfo.core.service.dedupe.Deduplicator;
+import org.jacob.obfo.core.service.journal.MoveJournal;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execute phase of a move: runs every {@link MoveOperation} of a {@link MovePlan} exactly once, in parallel on
+ * the given executor, and collects a {@link MoveReport}.
+ * <p>
+ * The executor decides how many moves may run at all, the {@link FileStoreThrottle} decides how many of them
+ * may touch the same file store at once. With a virtual thread executor the throttle is the only limit.
+ * <p>
+ * With a {@link Deduplicator}, a file whose content the target directory already has is deleted instead of
+ * moved, and a file whose name is taken by different content is moved under {@code name (n).ext}.
+ * <p>
+ * With a {@link MoveJournal}, the plan is journaled before the first file moves, a dedupe decision is journaled
+ * before the file it concerns is touched, every completed move is recorded and the batch is committed at the
+ * end, so that a crash in between can be recovered.
+ *
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public class MoveExecutor {
+
+    private final ExecutorService executorService;
+
+    private final FileTransfer fileTransfer;
+
+    private final FileStoreThrottle throttle;
+
+    /**
+     * The dedupe stage, {@code null} to move with {@link java.nio.file.StandardCopyOption#REPLACE_EXISTING}.
+     */
+    private final Deduplicator deduplicator;
+
+    /**
+     * The write-ahead journal, {@code null} to move without one.
+     */
+    private final MoveJournal journal;
+
+    /**
+     * Moves currently being carried out.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param executorService The executor the moves run on. It is not shut down by this class.
+     * @param throttle        Bounds the concurrent moves per file store.
+     */
+    public MoveExecutor(ExecutorService executorService, FileStoreThrottle throttle) {
+        this(executorService, new FileTransfer(), throttle);
+    }
+
+    /**
+     * @param executorService The executor the moves run on. It is not shut down by this class.
+     * @param fileTransfer    Carries out the individual moves.
+     * @param throttle        Bounds the concurrent moves per file store.
+     */
+    public MoveExecutor(ExecutorService executorService, FileTransfer fileTransfer, FileStoreThrottle throttle) {
+        this(executorService, fileTransfer, throttle, null, null);
+    }
+
+    /**
+     * @param executorService The executor the moves run on. It is not shut down by this class.
+     * @param fileTransfer    Carries out the individual moves.
+     * @param throttle        Bounds the concurrent moves per file store.
+     * @param deduplicator    Skips duplicates and renames name collisions, {@code null} for none.
+     * @param journal         Journals the moves for crash recovery and undo, {@code null} for none.
+     */
+    public MoveExecutor(ExecutorService executorService, FileTransfer fileTransfer, FileStoreThrottle throttle,
+                        Deduplicator deduplicator, MoveJournal journal) {
+        this.executorService = executorService;
+        this.fileTransfer = fileTransfer;
+        this.throttle = throttle;
+        this.deduplicator = deduplicator;
+        this.journal = journal;
+    }
+
+    /**
+     * @return The number of moves being carried out right now.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The throttle bounding the moves per file store.
+     */
+    public FileStoreThrottle throttle() {
+        return throttle;
+    }
+
+    /**
+     * Executes the plan and waits for all moves to finish.
+     *
+     * @param plan The plan to execute.
+     * @return One result per planned operation, in plan order.
+     * @throws IOException          if the target directory cannot be created or the plan cannot be journaled.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public MoveReport execute(MovePlan plan) throws IOException, InterruptedException {
+        var start = System.nanoTime();
+        if (plan.isEmpty()) {
+            return new MoveReport(plan, List.of(), 0L);
+        }
+        Files.createDirectories(plan.targetPath());
+        var session = deduplicator == null ? null : deduplicator.open(plan);
+        var batch = journal == null ? null : journal.begin(plan);
+
+        List<Callable<MoveResult>> tasks = new ArrayList<>(plan.size());
+        for (var i = 0; i < plan.size(); ++i) {
+            var seq = i;
+            tasks.add(() -> {
+                var result = move(plan.operations().get(seq), session, batch, seq);
+                if (batch != null && (result.isMoved() || result.isDuplicate())) {
+                    batch.done(seq, result.operation(), result.isDuplicate());
+                }
+                return result;
+            });
+        }
+
+        List<MoveResult> results = new ArrayList<>(plan.size());
+        var futures = executorService.invokeAll(tasks);
+        for (var i = 0; i < futures.size(); ++i) {
+            results.add(resultOf(futures.get(i), plan.operations().get(i)));
+        }
+        if (batch != null) {
+            batch.commit();
+        }
+        if (deduplicator != null) {
+            deduplicator.hasher().save();
+        }
+        return new MoveReport(plan, results, System.nanoTime() - start);
+    }
+
+    private MoveResult move(MoveOperation operation, Deduplicator.Session session, MoveJournal.Batch batch, int seq)
+            throws InterruptedException {
+        var start = System.nanoTime();
+        FileStore[] permits = null;
+        try {
+            permits = throttle.acquire(
+                    fileTransfer.fileStoreOf(operation.source().toAbsolutePath().getParent()),
+                    fileTransfer.fileStoreOf(operation.target().toAbsolutePath().getParent()));
+            inFlight.incrementAndGet();
+            try {
+                if (session != null) {
+                    // Hashing reads the files, so it runs under the same permits as the move
+                    var resolution = session.resolve(operation);
+                    if (batch != null && (resolution.isDuplicate() || resolution.operation() != operation)) {
+                        // Recovery must know the file does not go to the planned target before it is touched
+                        batch.resolved(seq, resolution.isDuplicate() ? resolution.duplicateOf()
+                                : resolution.operation().target(), resolution.isDuplicate());
+                    }
+                    if (resolution.isDuplicate()) {
+                        Files.delete(operation.source());
+                        deduplicator.hasher().forget(operation.source());
+                        return new MoveResult(new MoveOperation(operation.source(), resolution.duplicateOf(),
+                                false, operation.size()), FilesMoveOperStatusEnums.DUPLICATE,
+                                System.nanoTime() - start, null);
+                    }
+                    operation = resolution.operation();
+                }
+                fileTransfer.move(operation);
+                if (session != null) {
+                    session.moved(operation);
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new MoveResult(operation, FilesMoveOperStatusEnums.HAS_FILES, System.nanoTime() - start, null);
+        } catch (IOException e) {
+            return new MoveResult(operation, FilesMoveOperStatusEnums.TARGET_PATH_INVALID,
+                    System.nanoTime() - start, e.toString());
+        } finally {
+            if (permits != null) {
+                throttle.release(permits);
+            }
+        }
+    }
+
+    private MoveResult resultOf(Future<MoveResult> future, MoveOperation operation) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new MoveResult(operation, FilesMoveOperStatusEnums.TARGET_PATH_INVALID, 0L,
+                    String.valueOf(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.jacob.obfo.core.service.move;
+
+import java.nio.file.Path;
+
+/**
+ * A single planned move from the buffer into a target directory.
+ *
+ * @param source    The file or directory to move.
+ * @param target    The final path of the moved entry.
+ * @param directory Whether the entry is a directory, which is moved as a whole.
+ * @param size      The size in bytes as seen while planning, {@code 0} for directories.
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public record MoveOperation(Path source, Path target, boolean directory, long size) {
+}
@@ -0,0 +1,34 @@
+package org.jacob.obfo.core.service.move;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The immutable result of the plan phase: every entry of the source that is going to be moved.
+ *
+ * @param sourcePath The buffer directory (or single file) that was scanned.
+ * @param targetPath The target directory.
+ * @param operations The planned moves, in directory listing order.
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public record MovePlan(Path sourcePath, Path targetPath, List<MoveOperation> operations) {
+
+    public MovePlan {
+        operations = List.copyOf(operations);
+    }
+
+    /**
+     * @return Whether there is nothing to move.
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * @return The number of planned moves.
+     */
+    public int size() {
+        return operations.size();
+    }
+}
@@ -0,0 +1,89 @@
+package org.jacob.obfo.core.service.move;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan phase of a move: scans the source once and turns every entry into a {@link MoveOperation}.
+ * Nothing is touched on disk while planning.
+ *
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public class MovePlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovePlanner.class);
+
+    /**
+     * Builds the plan for moving the contents of a source directory (or a single source file) into
+     * a target directory.
+     * <p>
+     * Regular files and subdirectories directly inside the source are planned; subdirectories are moved as a
+     * whole without looking into them. Each entry is stat'ed exactly once; an entry that disappears between the
+     * listing and its stat is left out.
+     *
+     * @param sourcePath The buffer directory, or a single file.
+     * @param targetPath The target directory.
+     * @return The immutable plan, empty if the source has no entries.
+     * @throws IOException if the source directory cannot be listed.
+     */
+    public MovePlan plan(Path sourcePath, Path targetPath) throws IOException {
+        List<MoveOperation> operations = new ArrayList<>();
+
+        if (Files.isDirectory(sourcePath)) {
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(sourcePath)) {
+                for (Path entry : directoryStream) {
+                    addOperation(entry, targetPath, operations);
+                }
+            }
+        } else if (Files.isRegularFile(sourcePath)) {
+            addOperation(sourcePath, targetPath, operations);
+        }
+        return new MovePlan(sourcePath, targetPath, operations);
+    }
+
+    /**
+     * Builds the plan for moving the given files into a target directory.
+     *
+     * @param sourcePath The directory the files are in, for reporting.
+     * @param files      The files to move. Files that no longer exist are left out.
+     * @param targetPath The target directory.
+     * @return The immutable plan.
+     */
+    public MovePlan plan(Path sourcePath, List<Path> files, Path targetPath) {
+        List<MoveOperation> operations = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                addOperation(file, targetPath, operations);
+            } catch (IOException _) {
+                // Moved or deleted in the meantime
+            }
+        }
+        return new MovePlan(sourcePath, targetPath, operations);
+    }
+
+    private void addOperation(Path entry, Path targetPath, List<MoveOperation> operations) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException _) {
+            logger.info("{} disappeared while planning the move, skipped", entry);
+            return;
+        }
+        var target = targetPath.resolve(entry.getFileName());
+        if (attrs.isDirectory()) {
+            operations.add(new MoveOperation(entry, target, true, 0L));
+        } else if (attrs.isRegularFile()) {
+            operations.add(new MoveOperation(entry, target, false, attrs.size()));
+        }
+    }
+}
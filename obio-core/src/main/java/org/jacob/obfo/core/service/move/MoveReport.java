@@ -0,0 +1,59 @@
+package org.jacob.obfo.core.service.move;
+
+import java.util.List;
+
+/**
+ * Per-entry results of an executed {@link MovePlan}, in plan order.
+ *
+ * @param plan         The executed plan.
+ * @param results      One result per planned operation.
+ * @param elapsedNanos Wall time of the whole execute phase.
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public record MoveReport(MovePlan plan, List<MoveResult> results, long elapsedNanos) {
+
+    public MoveReport {
+        results = List.copyOf(results);
+    }
+
+    /**
+     * @return The number of entries that have been moved.
+     */
+    public int movedCount() {
+        var count = 0;
+        for (MoveResult result : results) {
+            if (result.isMoved()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of entries that were duplicates of files in the target directory.
+     */
+    public int duplicateCount() {
+        var count = 0;
+        for (MoveResult result : results) {
+            if (result.isDuplicate()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of entries that could not be moved.
+     */
+    public int failedCount() {
+        return results.size() - movedCount() - duplicateCount();
+    }
+
+    /**
+     * @return The elapsed wall time of the execute phase in milliseconds.
+     */
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+}
@@ -0,0 +1,34 @@
+package org.jacob.obfo.core.service.move;
+
+import org.jacob.obfo.core.enums.FilesMoveOperStatusEnums;
+
+/**
+ * The outcome of one {@link MoveOperation}.
+ *
+ * @param operation    The executed operation.
+ * @param status       {@link FilesMoveOperStatusEnums#HAS_FILES} if the entry was moved,
+ *                     {@link FilesMoveOperStatusEnums#TARGET_PATH_INVALID} if the move failed,
+ *                     {@link FilesMoveOperStatusEnums#DUPLICATE} if the target directory already had the content
+ *                     (the operation's target is then the existing file and the source has been deleted).
+ * @param elapsedNanos Wall time spent on this move.
+ * @param failure      The failure description, {@code null} on success.
+ * @author Kotohiko
+ * @since 08:06 Oct 18, 2026
+ */
+public record MoveResult(MoveOperation operation, FilesMoveOperStatusEnums status,
+                         long elapsedNanos, String failure) {
+
+    /**
+     * @return Whether the entry has been moved.
+     */
+    public boolean isMoved() {
+        return status == FilesMoveOperStatusEnums.HAS_FILES;
+    }
+
+    /**
+     * @return Whether the entry was a duplicate of a file in the target directory and has been deleted.
+     */
+    public boolean isDuplicate() {
+        return status == FilesMoveOperStatusEnums.DUPLICATE;
+    }
+}
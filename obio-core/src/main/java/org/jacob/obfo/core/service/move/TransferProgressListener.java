@@ -0,0 +1,27 @@
+package org.jacob.obfo.core.service.move;
+
+import java.nio.file.Path;
+
+/**
+ * Receives progress updates while a file is copied across file stores by {@link FileTransfer}.
+ * Updates can arrive from several threads at once when a large file is copied in parallel chunks.
+ *
+ * @author Kotohiko
+ * @since 08:07 Oct 18, 2026
+ */
+@FunctionalInterface
+public interface TransferProgressListener {
+
+    /**
+     * A listener that ignores all updates.
+     */
+    TransferProgressListener NONE = (source, transferred, total) -> {
+    };
+
+    /**
+     * @param source      The file being copied.
+     * @param transferred The number of bytes copied so far.
+     * @param total       The size of the file.
+     */
+    void onProgress(Path source, long transferred, long total);
+}
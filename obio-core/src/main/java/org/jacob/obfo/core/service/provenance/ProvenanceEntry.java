@@ -0,0 +1,16 @@
+package org.jacob.obfo.core.service.provenance;
+
+import org.jacob.obio.ifp.enums.SourceSiteEnums;
+
+/**
+ * A gallery file whose name identifies its source post.
+ *
+ * @param site     The site of the post.
+ * @param id       The numeric post id.
+ * @param dir      Index of the directory in the directory table of the index.
+ * @param fileName The file name.
+ * @author Kotohiko
+ * @since 08:26 Oct 18, 2026
+ */
+public record ProvenanceEntry(SourceSiteEnums site, long id, int dir, String fileName) {
+}
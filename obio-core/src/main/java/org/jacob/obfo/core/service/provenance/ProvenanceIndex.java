@@ -0,0 +1,345 @@
+package org.jacob.obfo.core.service.provenance;
+
+import org.jacob.obio.ifp.enums.SourceSiteEnums;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A read-only, memory-mapped index from (site, post id) to the gallery files of that post.
+ * <p>
+ * File layout (big endian):
+ * <pre>
+ *   header     int magic, int version, int dirCount, int entryCount, int bloomWords, int bloomHashes,
+ *              long dirTableOffset, long namePoolOffset, long bloomOffset, long entriesOffset
+ *   dir table  dirCount x (long mtime, int length, UTF-8 path)
+ *   name pool  UTF-8 file names
+ *   bloom      bloomWords x long
+ *   entries    entryCount x (int site, long id, int dir, int nameOffset, int nameLength), sorted by (site, id)
+ * </pre>
+ * The directory table is decoded on open, everything else is read from the mapping: a lookup checks the Bloom
+ * filter and then binary searches the fixed-size entries, so a miss costs a few memory reads and a hit
+ * touches only the entries of that post.
+ * <p>
+ * The site is stored as its stable {@link SourceSiteEnums#code()}, not its ordinal, and entries of a code that
+ * no longer exists are skipped. Bump the version whenever the layout changes; files of another version are
+ * rejected and rebuilt.
+ *
+ * @author Kotohiko
+ * @since 08:26 Oct 18, 2026
+ */
+public final class ProvenanceIndex {
+
+    private static final int MAGIC = 0x4F425049;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + 4 * Long.BYTES;
+
+    private static final int ENTRY_SIZE = Integer.BYTES + Long.BYTES + 3 * Integer.BYTES;
+
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+
+    private static final int BLOOM_HASHES = 7;
+
+    /**
+     * The index of a gallery that has not been indexed yet.
+     */
+    public static final ProvenanceIndex EMPTY = new ProvenanceIndex(null, new String[0], new long[0],
+            ByteBuffer.allocate(0), 0, 0, 0, 0, 0, 0);
+
+    private final Path file;
+
+    private final String[] dirs;
+
+    private final long[] mtimes;
+
+    private final ByteBuffer mapped;
+
+    private final int entryCount;
+
+    private final int bloomWords;
+
+    private final int bloomHashes;
+
+    private final long namePoolOffset;
+
+    private final long bloomOffset;
+
+    private final long entriesOffset;
+
+    private ProvenanceIndex(Path file, String[] dirs, long[] mtimes, ByteBuffer mapped, int entryCount,
+                            int bloomWords, int bloomHashes, long namePoolOffset, long bloomOffset,
+                            long entriesOffset) {
+        this.file = file;
+        this.dirs = dirs;
+        this.mtimes = mtimes;
+        this.mapped = mapped;
+        this.entryCount = entryCount;
+        this.bloomWords = bloomWords;
+        this.bloomHashes = bloomHashes;
+        this.namePoolOffset = namePoolOffset;
+        this.bloomOffset = bloomOffset;
+        this.entriesOffset = entriesOffset;
+    }
+
+    /**
+     * Maps an index file.
+     *
+     * @param file The index file.
+     * @return The mapped index.
+     * @throws IOException if the file cannot be mapped or is not an index file.
+     */
+    public static ProvenanceIndex open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.capacity() < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IOException("Not a provenance index: " + file);
+        }
+        var dirCount = mapped.getInt(8);
+        var entryCount = mapped.getInt(12);
+        var bloomWords = mapped.getInt(16);
+        var bloomHashes = mapped.getInt(20);
+        var dirTableOffset = mapped.getLong(24);
+        var namePoolOffset = mapped.getLong(32);
+        var bloomOffset = mapped.getLong(40);
+        var entriesOffset = mapped.getLong(48);
+
+        var dirs = new String[dirCount];
+        var mtimes = new long[dirCount];
+        var at = (int) dirTableOffset;
+        for (var i = 0; i < dirCount; ++i) {
+            mtimes[i] = mapped.getLong(at);
+            var length = mapped.getInt(at + Long.BYTES);
+            var bytes = new byte[length];
+            mapped.get(at + Long.BYTES + Integer.BYTES, bytes);
+            dirs[i] = new String(bytes, StandardCharsets.UTF_8);
+            at += Long.BYTES + Integer.BYTES + length;
+        }
+        return new ProvenanceIndex(file, dirs, mtimes, mapped, entryCount, bloomWords, bloomHashes,
+                namePoolOffset, bloomOffset, entriesOffset);
+    }
+
+    /**
+     * Writes an index file.
+     *
+     * @param file    The file to write.
+     * @param dirs    The directory table.
+     * @param mtimes  The modification time of every directory, in milliseconds.
+     * @param entries The entries, in any order; {@link ProvenanceEntry#dir()} indexes {@code dirs}.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file, List<String> dirs, long[] mtimes, List<ProvenanceEntry> entries)
+            throws IOException {
+        List<ProvenanceEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingInt((ProvenanceEntry e) -> e.site().code())
+                .thenComparingLong(ProvenanceEntry::id));
+
+        List<byte[]> dirBytes = new ArrayList<>(dirs.size());
+        long dirTableSize = 0;
+        for (String dir : dirs) {
+            var bytes = dir.getBytes(StandardCharsets.UTF_8);
+            dirBytes.add(bytes);
+            dirTableSize += Long.BYTES + Integer.BYTES + bytes.length;
+        }
+        var nameOffsets = new int[sorted.size()];
+        List<byte[]> nameBytes = new ArrayList<>(sorted.size());
+        var namePoolSize = 0;
+        for (var i = 0; i < sorted.size(); ++i) {
+            var bytes = sorted.get(i).fileName().getBytes(StandardCharsets.UTF_8);
+            nameBytes.add(bytes);
+            nameOffsets[i] = namePoolSize;
+            namePoolSize += bytes.length;
+        }
+        var bloomWords = Math.max(1, (sorted.size() * BLOOM_BITS_PER_ENTRY + 63) / 64);
+        var bloom = new long[bloomWords];
+        for (ProvenanceEntry entry : sorted) {
+            var h = hash(entry.site().code(), entry.id());
+            for (var k = 0; k < BLOOM_HASHES; ++k) {
+                var bit = Math.floorMod(h[0] + k * h[1], (long) bloomWords * 64);
+                bloom[(int) (bit >>> 6)] |= 1L << (bit & 63);
+            }
+        }
+
+        long dirTableOffset = HEADER_SIZE;
+        var namePoolOffset = dirTableOffset + dirTableSize;
+        var bloomOffset = namePoolOffset + namePoolSize;
+        var entriesOffset = bloomOffset + (long) bloomWords * Long.BYTES;
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dirs.size());
+            out.writeInt(sorted.size());
+            out.writeInt(bloomWords);
+            out.writeInt(BLOOM_HASHES);
+            out.writeLong(dirTableOffset);
+            out.writeLong(namePoolOffset);
+            out.writeLong(bloomOffset);
+            out.writeLong(entriesOffset);
+            for (var i = 0; i < dirBytes.size(); ++i) {
+                out.writeLong(mtimes[i]);
+                out.writeInt(dirBytes.get(i).length);
+                out.write(dirBytes.get(i));
+            }
+            for (byte[] bytes : nameBytes) {
+                out.write(bytes);
+            }
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            for (var i = 0; i < sorted.size(); ++i) {
+                var entry = sorted.get(i);
+                out.writeInt(entry.site().code());
+                out.writeLong(entry.id());
+                out.writeInt(entry.dir());
+                out.writeInt(nameOffsets[i]);
+                out.writeInt(nameBytes.get(i).length);
+            }
+        }
+    }
+
+    /**
+     * @param site The site.
+     * @param id   The post id.
+     * @return Whether the post may be in the gallery; {@code false} is definite.
+     */
+    public boolean mightContain(SourceSiteEnums site, long id) {
+        if (entryCount == 0) {
+            return false;
+        }
+        var h = hash(site.code(), id);
+        for (var k = 0; k < bloomHashes; ++k) {
+            var bit = Math.floorMod(h[0] + k * h[1], (long) bloomWords * 64);
+            var word = mapped.getLong((int) (bloomOffset + (bit >>> 6) * Long.BYTES));
+            if ((word & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param site The site.
+     * @param id   The post id.
+     * @return The gallery files of the post, empty if it has none.
+     */
+    public List<Path> locate(SourceSiteEnums site, long id) {
+        if (!mightContain(site, id)) {
+            return List.of();
+        }
+        // Lower bound of (site, id)
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (compare(mid, site.code(), id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<Path> files = new ArrayList<>();
+        for (var i = low; i < entryCount && compare(i, site.code(), id) == 0; ++i) {
+            files.add(Paths.get(dirs[entryDir(i)], entryName(i)));
+        }
+        return files;
+    }
+
+    /**
+     * @return The number of indexed files.
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * @return The number of indexed directories.
+     */
+    public int directoryCount() {
+        return dirs.length;
+    }
+
+    /**
+     * @return The mapped file, {@code null} for {@link #EMPTY}.
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return The modification time of every indexed directory, for an incremental rebuild.
+     */
+    Map<String, Long> directoryMtimes() {
+        Map<String, Long> result = new HashMap<>(dirs.length * 2);
+        for (var i = 0; i < dirs.length; ++i) {
+            result.put(dirs[i], mtimes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return The entries of every directory, keyed by directory path, for an incremental rebuild.
+     */
+    Map<String, List<ProvenanceEntry>> entriesByDirectory() {
+        Map<String, List<ProvenanceEntry>> result = new HashMap<>();
+        for (var i = 0; i < entryCount; ++i) {
+            var at = (int) (entriesOffset + (long) i * ENTRY_SIZE);
+            var site = SourceSiteEnums.ofCode(mapped.getInt(at));
+            if (site == null) {
+                continue;
+            }
+            var dir = entryDir(i);
+            result.computeIfAbsent(dirs[dir], d -> new ArrayList<>())
+                    .add(new ProvenanceEntry(site, mapped.getLong(at + Integer.BYTES), dir, entryName(i)));
+        }
+        return result;
+    }
+
+    private int compare(int entry, int site, long id) {
+        var at = (int) (entriesOffset + (long) entry * ENTRY_SIZE);
+        var entrySite = mapped.getInt(at);
+        if (entrySite != site) {
+            return Integer.compare(entrySite, site);
+        }
+        return Long.compare(mapped.getLong(at + Integer.BYTES), id);
+    }
+
+    private int entryDir(int entry) {
+        return mapped.getInt((int) (entriesOffset + (long) entry * ENTRY_SIZE) + Integer.BYTES + Long.BYTES);
+    }
+
+    private String entryName(int entry) {
+        var at = (int) (entriesOffset + (long) entry * ENTRY_SIZE) + 2 * Integer.BYTES + Long.BYTES;
+        var bytes = new byte[mapped.getInt(at + Integer.BYTES)];
+        mapped.get((int) (namePoolOffset + mapped.getInt(at)), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Two independent 64-bit hashes of a key for double hashing, from the SplitMix64 finalizer.
+     */
+    private static long[] hash(int site, long id) {
+        var h1 = mix(id * 31 + site);
+        var h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        return new long[]{h1, h2};
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
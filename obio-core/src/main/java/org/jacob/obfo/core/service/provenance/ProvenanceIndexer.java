@@ -0,0 +1,285 @@
+package org.jacob.obfo.core.service.provenance;
+
+import org.jacob.obio.ifp.service.SourceRef;
+import org.jacob.obio.ifp.service.SourceRefParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks the gallery roots in parallel and writes a {@link ProvenanceIndex} of every file whose name
+ * identifies its source post.
+ * <p>
+ * A directory's modification time changes when a file or subdirectory is added to, removed from or renamed
+ * in it, so a directory whose time is the one recorded in the previous index still has the same files and
+ * subdirectories. Such a directory is not listed again: its entries are copied from the previous index and
+ * its subdirectories are taken from the previous directory table. Only the directories that changed are
+ * listed and their file names parsed.
+ * <p>
+ * A directory that cannot be read, or has an entry that cannot be read, keeps what the previous index knew of
+ * it and is recorded with the time {@link #UNREAD_MTIME}, so that the next build lists it again.
+ *
+ * @author Kotohiko
+ * @since 08:26 Oct 18, 2026
+ */
+public final class ProvenanceIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceIndexer.class);
+
+    private static final SourceRefParser PARSER = new SourceRefParser();
+
+    /**
+     * The recorded time of a directory that was not read completely; it never matches a real one.
+     */
+    private static final long UNREAD_MTIME = -1L;
+
+    private final List<Path> roots;
+
+    private final Set<Path> excluded;
+
+    private final int parallelism;
+
+    /**
+     * @param roots       The gallery roots.
+     * @param excluded    Directories below the roots that are skipped with everything inside them,
+     *                    e.g. the buffer folder.
+     * @param parallelism The number of directories listed at the same time.
+     */
+    public ProvenanceIndexer(List<Path> roots, Set<Path> excluded, int parallelism) {
+        this.roots = roots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+        Set<Path> normalized = new HashSet<>();
+        for (Path dir : excluded) {
+            normalized.add(dir.toAbsolutePath().normalize());
+        }
+        this.excluded = Set.copyOf(normalized);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return The gallery roots, absolute and normalized.
+     */
+    public List<Path> roots() {
+        return roots;
+    }
+
+    /**
+     * Indexes the roots and writes the index file.
+     *
+     * @param file     The index file to write.
+     * @param previous The previous index, {@link ProvenanceIndex#EMPTY} for a full rebuild.
+     * @return The statistics of the walk.
+     * @throws IOException if the index file cannot be written.
+     */
+    public Stats build(Path file, ProvenanceIndex previous) throws IOException {
+        var walk = new Walk(previous.directoryMtimes(), previous.entriesByDirectory());
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            for (Path root : roots) {
+                if (Files.isDirectory(root)) {
+                    pool.invoke(walk.new Visit(root));
+                } else {
+                    logger.warn("Gallery root does not exist: {}", root);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> dirs = new ArrayList<>(walk.visited.size());
+        var mtimes = new long[walk.visited.size()];
+        List<ProvenanceEntry> entries = new ArrayList<>();
+        for (Visited visited : walk.visited) {
+            var dir = dirs.size();
+            mtimes[dir] = visited.mtime();
+            dirs.add(visited.path());
+            for (ProvenanceEntry entry : visited.entries()) {
+                entries.add(new ProvenanceEntry(entry.site(), entry.id(), dir, entry.fileName()));
+            }
+        }
+        ProvenanceIndex.write(file, dirs, mtimes, entries);
+        return new Stats(dirs.size(), walk.listed.get(), entries.size());
+    }
+
+    /**
+     * @param fileName The file name, with or without extension.
+     * @return The source reference of the name, {@code null} if the name does not identify a post.
+     */
+    static SourceRef parse(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        return PARSER.parse(dot > 0 && fileName.length() - dot <= 5 ? fileName.substring(0, dot) : fileName);
+    }
+
+    /**
+     * The index key of a reference: its numeric id, or a hash of its token for sites whose posts are named by
+     * a token (e.g. YouTube videos).
+     *
+     * @param ref The reference.
+     * @return The key, or {@code -1} if the reference names no post.
+     */
+    static long keyOf(SourceRef ref) {
+        if (ref.id() >= 0) {
+            return ref.id();
+        }
+        var token = ref.token();
+        if (token == null || token.isEmpty()) {
+            return -1L;
+        }
+        // FNV-1a, cleared sign bit so that it never collides with the "no post" marker
+        var hash = 0xCBF29CE484222325L;
+        for (var i = 0; i < token.length(); ++i) {
+            hash = (hash ^ token.charAt(i)) * 0x100000001B3L;
+        }
+        return hash & Long.MAX_VALUE;
+    }
+
+    /**
+     * The statistics of one build.
+     *
+     * @param directories The number of directories in the index.
+     * @param listed      The number of directories that had changed and were listed.
+     * @param files       The number of indexed files.
+     */
+    public record Stats(int directories, int listed, int files) {
+    }
+
+    private record Visited(String path, long mtime, List<ProvenanceEntry> entries) {
+    }
+
+    /**
+     * The state of one build, shared by its directory tasks.
+     */
+    private final class Walk {
+
+        private final Map<String, Long> previousMtimes;
+
+        private final Map<String, List<ProvenanceEntry>> previousEntries;
+
+        /**
+         * Subdirectories of every directory of the previous index.
+         */
+        private final Map<String, List<String>> previousChildren = new HashMap<>();
+
+        private final Queue<Visited> visited = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger listed = new AtomicInteger();
+
+        private Walk(Map<String, Long> previousMtimes, Map<String, List<ProvenanceEntry>> previousEntries) {
+            this.previousMtimes = previousMtimes;
+            this.previousEntries = previousEntries;
+            for (String dir : previousMtimes.keySet()) {
+                var parent = Paths.get(dir).getParent();
+                if (parent != null) {
+                    previousChildren.computeIfAbsent(parent.toString(), p -> new ArrayList<>()).add(dir);
+                }
+            }
+        }
+
+        /**
+         * Indexes one directory and forks a task for each of its subdirectories.
+         */
+        private final class Visit extends RecursiveAction {
+
+            private final Path dir;
+
+            /**
+             * Whether every entry of the listing could be read.
+             */
+            private boolean complete = true;
+
+            private Visit(Path dir) {
+                this.dir = dir;
+            }
+
+            @Override
+            protected void compute() {
+                long mtime;
+                try {
+                    mtime = Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).toMillis();
+                } catch (NoSuchFileException _) {
+                    // Removed during the build, together with everything inside it
+                    return;
+                } catch (IOException e) {
+                    logger.warn("Cannot read {}, keeping its previous entries", dir, e);
+                    mtime = UNREAD_MTIME;
+                }
+
+                var key = dir.toString();
+                List<Visit> subtasks = new ArrayList<>();
+                List<ProvenanceEntry> entries;
+                var previousMtime = previousMtimes.get(key);
+                if (mtime != UNREAD_MTIME && previousMtime != null && previousMtime == mtime) {
+                    entries = previousEntries.getOrDefault(key, List.of());
+                    addPreviousChildren(key, subtasks);
+                } else {
+                    entries = new ArrayList<>();
+                    if (mtime != UNREAD_MTIME && list(entries, subtasks)) {
+                        listed.incrementAndGet();
+                        if (!complete) {
+                            mtime = UNREAD_MTIME;
+                        }
+                    } else {
+                        mtime = UNREAD_MTIME;
+                        entries = previousEntries.getOrDefault(key, List.of());
+                        subtasks.clear();
+                        addPreviousChildren(key, subtasks);
+                    }
+                }
+                visited.add(new Visited(key, mtime, entries));
+                invokeAll(subtasks);
+            }
+
+            private void addPreviousChildren(String key, List<Visit> subtasks) {
+                for (String child : previousChildren.getOrDefault(key, List.of())) {
+                    subtasks.add(new Visit(Paths.get(child)));
+                }
+            }
+
+            /**
+             * @return Whether the directory could be listed; entries that cannot be read are skipped and clear
+             * {@link #complete}.
+             */
+            private boolean list(List<ProvenanceEntry> entries, List<Visit> subtasks) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                    for (Path child : stream) {
+                        BasicFileAttributes attributes;
+                        try {
+                            attributes = Files.readAttributes(child, BasicFileAttributes.class,
+                                    LinkOption.NOFOLLOW_LINKS);
+                        } catch (NoSuchFileException _) {
+                            // Moved or deleted while listing
+                            continue;
+                        } catch (IOException e) {
+                            logger.warn("Cannot read {}", child, e);
+                            complete = false;
+                            continue;
+                        }
+                        if (attributes.isDirectory()) {
+                            if (!excluded.contains(child)) {
+                                subtasks.add(new Visit(child));
+                            }
+                            continue;
+                        }
+                        var name = child.getFileName().toString();
+                        var ref = parse(name);
+                        var id = ref == null ? -1L : keyOf(ref);
+                        if (id >= 0) {
+                            entries.add(new ProvenanceEntry(ref.site(), id, -1, name));
+                        }
+                    }
+                    return true;
+                } catch (IOException | DirectoryIteratorException e) {
+                    logger.warn("Cannot list {}, keeping its previous entries", dir, e);
+                    return false;
+                }
+            }
+        }
+    }
+}
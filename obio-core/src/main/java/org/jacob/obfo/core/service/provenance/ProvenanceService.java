@@ -0,0 +1,280 @@
+package org.jacob.obfo.core.service.provenance;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.monitor.core.WatchBatch;
+import org.jacob.obfo.core.monitor.core.WatchBatchListener;
+import org.jacob.obio.common.utils.factory.CustomThreadFactory;
+import org.jacob.obio.ifp.enums.SourceSiteEnums;
+import org.jacob.obio.ifp.service.SourceRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Answers "do I already have this post, and where is it?" from the {@link ProvenanceIndex} of the gallery.
+ * <p>
+ * The current index is a memory-mapped file that is never modified. A rebuild writes the next generation
+ * ({@code <index>.<n>}) next to it, maps it and publishes it through a single volatile write; older generations
+ * are deleted once nothing maps them any more (Windows refuses to delete a mapped file, such a generation is
+ * deleted by a later rebuild). As a {@link WatchBatchListener} the service flags arrivals whose post is already
+ * in the gallery.
+ * <p>
+ * The gallery roots come from {@code -Dobio.provenance.roots}, separated by {@link File#pathSeparator}, and
+ * default to {@link ObioConstants#MY_GALLERY_PATH} and {@link ObioConstants#NEW_GALLERY_PATH}. The buffer
+ * folder {@link ObioConstants#PATH_OF_UNCLASSIFIED_REMAINING_IMAGES} is never indexed.
+ *
+ * @author Kotohiko
+ * @since 08:26 Oct 18, 2026
+ */
+public final class ProvenanceService implements WatchBatchListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceService.class);
+
+    private final Path indexPath;
+
+    private final ProvenanceIndexer indexer;
+
+    private volatile ProvenanceIndex index = ProvenanceIndex.EMPTY;
+
+    /**
+     * Opens the latest generation of the index, if there is one.
+     *
+     * @param indexPath The base path of the index generations.
+     * @param indexer   The indexer of the gallery.
+     */
+    public ProvenanceService(Path indexPath, ProvenanceIndexer indexer) {
+        this.indexPath = indexPath.toAbsolutePath();
+        this.indexer = indexer;
+        var latest = latestGeneration();
+        if (latest != null) {
+            try {
+                index = ProvenanceIndex.open(latest);
+            } catch (IOException e) {
+                logger.warn("Cannot open the provenance index {}, it will be rebuilt", latest, e);
+            }
+        }
+    }
+
+    /**
+     * @return The process-wide service, configured by {@code -Dobio.provenance.*}.
+     */
+    public static ProvenanceService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The gallery roots.
+     */
+    public List<Path> roots() {
+        return indexer.roots();
+    }
+
+    /**
+     * @return The current index.
+     */
+    public ProvenanceIndex index() {
+        return index;
+    }
+
+    /**
+     * Updates the index from the directories that changed since the last build and publishes it.
+     *
+     * @return The statistics of the build.
+     * @throws IOException if the new generation cannot be written or mapped.
+     */
+    public synchronized ProvenanceIndexer.Stats rebuild() throws IOException {
+        var previous = index;
+        var next = indexPath.resolveSibling(indexPath.getFileName() + "." + (generationOf(previous.file()) + 1));
+        Files.createDirectories(next.getParent());
+        ProvenanceIndexer.Stats stats;
+        try {
+            stats = indexer.build(next, previous);
+            index = ProvenanceIndex.open(next);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(next);
+            throw e;
+        }
+        deleteOldGenerations(next);
+        logger.info("Provenance index: {} file(s) in {} director(ies), {} listed", stats.files(),
+                stats.directories(), stats.listed());
+        return stats;
+    }
+
+    /**
+     * Runs {@link #rebuild()} on a daemon thread.
+     */
+    public void rebuildInBackground() {
+        new CustomThreadFactory("ProvenanceIndexer", true).newThread(() -> {
+            try {
+                rebuild();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to rebuild the provenance index", e);
+            }
+        }).start();
+    }
+
+    /**
+     * Resolves a query of the {@code where} command: a file name (or a URL of a file name's form), or
+     * {@code <site> <id>} such as {@code pixiv 123456789}.
+     *
+     * @param query The query.
+     * @return The post, or {@code null} if the query names none.
+     */
+    public PostKey resolve(String query) {
+        var trimmed = query.trim();
+        var space = trimmed.indexOf(' ');
+        if (space > 0) {
+            var site = site(trimmed.substring(0, space));
+            var id = trimmed.substring(space + 1).trim();
+            if (site != null && !id.isEmpty()) {
+                try {
+                    return new PostKey(site, Long.parseLong(id));
+                } catch (NumberFormatException _) {
+                    var ref = ProvenanceIndexer.parse(trimmed.substring(space + 1).trim());
+                    return ref == null || ref.site() != site ? null : toKey(ref);
+                }
+            }
+        }
+        // File names are the URL with ':', '/' and '?' removed
+        var ref = ProvenanceIndexer.parse(trimmed.replaceAll("[:/?]", ""));
+        return ref == null ? null : toKey(ref);
+    }
+
+    /**
+     * @param post The post.
+     * @return The gallery files of the post, empty if it has none.
+     */
+    public List<Path> locate(PostKey post) {
+        return index.locate(post.site(), post.id());
+    }
+
+    @Override
+    public void onBatch(Path root, WatchBatch batch) {
+        var current = index;
+        for (Path created : batch.created()) {
+            var ref = ProvenanceIndexer.parse(created.getFileName().toString());
+            if (ref == null) {
+                continue;
+            }
+            var id = ProvenanceIndexer.keyOf(ref);
+            if (id < 0 || !current.mightContain(ref.site(), id)) {
+                continue;
+            }
+            var existing = current.locate(ref.site(), id);
+            if (!existing.isEmpty()) {
+                logger.warn("{} is already in the gallery: {}", created.getFileName(), existing);
+            }
+        }
+    }
+
+    private static PostKey toKey(SourceRef ref) {
+        var id = ProvenanceIndexer.keyOf(ref);
+        return id < 0 ? null : new PostKey(ref.site(), id);
+    }
+
+    private static SourceSiteEnums site(String name) {
+        for (SourceSiteEnums site : SourceSiteEnums.values()) {
+            if (site.name().equalsIgnoreCase(name) || site.siteName().equalsIgnoreCase(name)) {
+                return site;
+            }
+        }
+        return "twitter".equalsIgnoreCase(name) ? SourceSiteEnums.X : null;
+    }
+
+    private Path latestGeneration() {
+        Path latest = null;
+        for (Path generation : generations()) {
+            if (latest == null || generationOf(generation) > generationOf(latest)) {
+                latest = generation;
+            }
+        }
+        return latest;
+    }
+
+    private List<Path> generations() {
+        var dir = indexPath.getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Path> generations = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, indexPath.getFileName() + ".*")) {
+            for (Path file : stream) {
+                if (generationOf(file) > 0) {
+                    generations.add(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot list the provenance index generations in {}", dir, e);
+        }
+        return generations;
+    }
+
+    private long generationOf(Path file) {
+        if (file == null) {
+            return 0L;
+        }
+        var name = file.getFileName().toString();
+        var prefix = indexPath.getFileName() + ".";
+        if (!name.startsWith(prefix)) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException _) {
+            return 0L;
+        }
+    }
+
+    private void deleteOldGenerations(Path keep) {
+        for (Path generation : generations()) {
+            if (!generation.equals(keep)) {
+                try {
+                    Files.deleteIfExists(generation);
+                } catch (IOException _) {
+                    // Still mapped, a later rebuild deletes it
+                }
+            }
+        }
+    }
+
+    /**
+     * A post, as stored in the index.
+     *
+     * @param site The site.
+     * @param id   The numeric id, or the token hash of a token-named post.
+     */
+    public record PostKey(SourceSiteEnums site, long id) {
+    }
+
+    /**
+     * Lazy holder, the index is mapped on first use.
+     */
+    private static final class Holder {
+        private static final ProvenanceService INSTANCE = new ProvenanceService(
+                Paths.get(System.getProperty("obio.provenance.index", ObioConstants.PROVENANCE_INDEX_PATH)),
+                new ProvenanceIndexer(configuredRoots(),
+                        Set.of(Paths.get(ObioConstants.PATH_OF_UNCLASSIFIED_REMAINING_IMAGES)),
+                        Integer.getInteger("obio.provenance.parallelism", ObioConstants.PROVENANCE_PARALLELISM)));
+
+        private static List<Path> configuredRoots() {
+            var property = System.getProperty("obio.provenance.roots");
+            if (property == null || property.isBlank()) {
+                return List.of(Paths.get(ObioConstants.MY_GALLERY_PATH), Paths.get(ObioConstants.NEW_GALLERY_PATH));
+            }
+            List<Path> roots = new ArrayList<>();
+            for (String root : property.split(File.pathSeparator)) {
+                if (!root.isBlank()) {
+                    roots.add(Paths.get(root.trim()));
+                }
+            }
+            return roots;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.jacob.obfo.core.service.route;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.monitor.core.WatchBatch;
+import org.jacob.obfo.core.monitor.core.WatchBatchListener;
+import org.jacob.obfo.core.service.ReadAndMoveService;
+import org.jacob.obfo.core.service.move.MoveOperation;
+import org.jacob.obfo.core.service.move.MoveReport;
+import org.jacob.obfo.core.service.move.MoveResult;
+import org.jacob.obio.common.mapping.PathMappingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves arriving files to the path code their author has always been classified to, without a prompt.
+ * <p>
+ * Every manual move teaches the {@link RouteIndex} which path code the routing key of each moved file went to.
+ * When a file with a known key arrives and the key went to one path code in at least
+ * {@link ObioConstants#AUTOROUTE_CONFIDENCE} of at least {@link ObioConstants#AUTOROUTE_MIN_SAMPLES} samples,
+ * the file is moved there. Other files with a key are kept in a review queue with the best suggestion;
+ * files without a key (e.g. Pixiv) are left to the manual commands.
+ *
+ * @author Kotohiko
+ * @since 08:15 Oct 18, 2026
+ */
+public final class AutoRouter implements WatchBatchListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoRouter.class);
+
+    private final RouteIndex index;
+
+    private final boolean enabled;
+
+    private final double threshold;
+
+    private final int minSamples;
+
+    private final Map<Path, ReviewEntry> reviewQueue = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Files put back into the buffer by an undo, queued for review instead of being routed again.
+     */
+    private final Set<Path> held = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param index      The learned routes.
+     * @param enabled    Whether arrivals are moved automatically; learning happens either way.
+     * @param threshold  The minimum confidence of an automatic move.
+     * @param minSamples The minimum number of samples of an automatic move.
+     */
+    public AutoRouter(RouteIndex index, boolean enabled, double threshold, int minSamples) {
+        this.index = index;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * @return The process-wide router, configured by {@code -Dobio.autoroute.*}.
+     */
+    public static AutoRouter getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public void onBatch(Path root, WatchBatch batch) {
+        for (Path deleted : batch.deleted()) {
+            reviewQueue.remove(deleted);
+        }
+
+        Collection<Path> arrivals = batch.created();
+        if (batch.isOverflow()) {
+            // Events have been lost, every file below the root that is not waiting for review yet is new
+            Set<Path> rescanned = new LinkedHashSet<>(arrivals);
+            for (Path file : batch.rescan()) {
+                if (!reviewQueue.containsKey(file)) {
+                    rescanned.add(file);
+                }
+            }
+            arrivals = rescanned;
+        }
+
+        Map<String, List<Path>> routed = new LinkedHashMap<>();
+        for (Path created : arrivals) {
+            var key = RouteKeys.of(created.getFileName().toString());
+            if (key == null || !Files.isRegularFile(created)) {
+                continue;
+            }
+            var decision = index.decide(key);
+            if (held.remove(created.toAbsolutePath().normalize())) {
+                reviewQueue.put(created, new ReviewEntry(created, key, decision));
+                continue;
+            }
+            if (enabled && decision != null && decision.isConfident(threshold, minSamples)) {
+                routed.computeIfAbsent(decision.pathCode(), c -> new ArrayList<>()).add(created);
+            } else {
+                reviewQueue.put(created, new ReviewEntry(created, key, decision));
+            }
+        }
+
+        for (Map.Entry<String, List<Path>> entry : routed.entrySet()) {
+            var targetPathStr = PathMappingService.getInstance().lookup(entry.getKey());
+            if (targetPathStr == null) {
+                // The path code has been removed from the mapping since it was learned
+                for (Path file : entry.getValue()) {
+                    var key = RouteKeys.of(file.getFileName().toString());
+                    reviewQueue.put(file, new ReviewEntry(file, key, index.decide(key)));
+                }
+                continue;
+            }
+            logger.info("Auto-routing {} file(s) to {}", entry.getValue().size(), entry.getKey());
+            new ReadAndMoveService().moveFiles(entry.getValue(), targetPathStr);
+        }
+    }
+
+    /**
+     * Keeps files that an undo has put back into the buffer from being routed when they arrive; they go to
+     * the review queue instead.
+     *
+     * @param files The restored files.
+     */
+    public void hold(List<Path> files) {
+        for (Path file : files) {
+            held.add(file.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Teaches the index the path code of every file moved by a manual command and saves it. The moves are
+     * tallied under the canonical path code of the target directory, the one {@link #learnFromGallery()} uses,
+     * whichever alias was typed.
+     *
+     * @param report   The report of the manual move.
+     * @param pathCode The path code typed by the user.
+     */
+    public void learn(MoveReport report, String pathCode) {
+        var snapshot = PathMappingService.getInstance().snapshot();
+        var target = snapshot.lookup(pathCode);
+        var canonical = target == null ? null : RouteIndex.canonicalCode(snapshot.table().aliasesOf(target));
+        var code = canonical == null ? pathCode : canonical;
+        var learned = 0;
+        for (MoveResult result : report.results()) {
+            MoveOperation operation = result.operation();
+            reviewQueue.remove(operation.source());
+            if (!result.isMoved() || operation.directory()) {
+                continue;
+            }
+            var key = RouteKeys.of(operation.source().getFileName().toString());
+            if (key != null) {
+                index.record(key, code);
+                ++learned;
+            }
+        }
+        if (learned > 0) {
+            save();
+        }
+    }
+
+    /**
+     * Rebuilds the gallery tallies of the index from the gallery directories of the current path mapping and
+     * saves it. The moves learned from manual commands are kept.
+     *
+     * @return The number of files that had a routing key.
+     */
+    public int learnFromGallery() {
+        var learned = index.learnFromGallery(PathMappingService.getInstance().asMap());
+        save();
+        return learned;
+    }
+
+    /**
+     * @return The queued arrivals that are still in place, oldest first.
+     */
+    public List<ReviewEntry> pendingReview() {
+        synchronized (reviewQueue) {
+            reviewQueue.keySet().removeIf(file -> !Files.exists(file));
+            return List.copyOf(reviewQueue.values());
+        }
+    }
+
+    /**
+     * @return The learned routes.
+     */
+    public RouteIndex index() {
+        return index;
+    }
+
+    private void save() {
+        try {
+            index.save();
+        } catch (IOException e) {
+            logger.error("Failed to save the route index", e);
+        }
+    }
+
+    /**
+     * Lazy holder, the index file is read on first use.
+     */
+    private static final class Holder {
+        private static final AutoRouter INSTANCE = new AutoRouter(
+                RouteIndex.load(Paths.get(System.getProperty("obio.autoroute.index", ObioConstants.ROUTE_INDEX_PATH))),
+                Boolean.parseBoolean(System.getProperty("obio.autoroute.enabled",
+                        String.valueOf(ObioConstants.AUTOROUTE_ENABLED))),
+                Double.parseDouble(System.getProperty("obio.autoroute.confidence",
+                        String.valueOf(ObioConstants.AUTOROUTE_CONFIDENCE))),
+                Integer.getInteger("obio.autoroute.minSamples", ObioConstants.AUTOROUTE_MIN_SAMPLES));
+    }
+}
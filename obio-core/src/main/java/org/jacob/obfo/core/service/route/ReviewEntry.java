@@ -0,0 +1,15 @@
+package org.jacob.obfo.core.service.route;
+
+import java.nio.file.Path;
+
+/**
+ * An arrival the {@link AutoRouter} did not move because its routing confidence was too low.
+ *
+ * @param file       The arrived file.
+ * @param key        Its routing key.
+ * @param suggestion The best path code known for the key, or {@code null} if the key is new.
+ * @author Kotohiko
+ * @since 08:15 Oct 18, 2026
+ */
+public record ReviewEntry(Path file, String key, RouteDecision suggestion) {
+}
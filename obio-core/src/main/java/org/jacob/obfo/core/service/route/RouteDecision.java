@@ -0,0 +1,35 @@
+package org.jacob.obfo.core.service.route;
+
+/**
+ * The path code the {@link RouteIndex} suggests for a routing key.
+ *
+ * @param key        The routing key, see {@link RouteKeys}.
+ * @param pathCode   The most frequent path code of the key.
+ * @param hits       How many samples went to {@code pathCode}.
+ * @param samples    How many samples the key has in total.
+ * @author Kotohiko
+ * @since 08:15 Oct 18, 2026
+ */
+public record RouteDecision(String key, String pathCode, int hits, int samples) {
+
+    /**
+     * @return The share of samples that went to {@link #pathCode}.
+     */
+    public double confidence() {
+        return samples == 0 ? 0.0 : (double) hits / samples;
+    }
+
+    /**
+     * @param threshold  The minimum confidence.
+     * @param minSamples The minimum number of samples.
+     * @return Whether the file can be moved without asking.
+     */
+    public boolean isConfident(double threshold, int minSamples) {
+        return samples >= minSamples && confidence() >= threshold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.0f%%, %d/%d)", pathCode, confidence() * 100, hits, samples);
+    }
+}
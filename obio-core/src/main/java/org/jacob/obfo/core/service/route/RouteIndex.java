@@ -0,0 +1,306 @@
+package org.jacob.obfo.core.service.route;
+
+import org.jacob.obio.common.constants.ObioCommonConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Counts, per routing key, how many files went to which path code.
+ * <p>
+ * The tallies are kept as a table of path codes plus one small {@code int[]} per key holding
+ * {@code (code id, count)} pairs, in two separate sets: the gallery tallies, which a scan of the gallery
+ * ({@link #learnFromGallery}) replaces as a whole, and the manual tallies, which every recorded move adds to and
+ * no scan resets. A decision sums both, so a manual move keeps counting after the gallery has been scanned again
+ * and then weighs twice, once as the file in the gallery and once as the choice the user typed. They are
+ * persisted in the same shape as a small binary file:
+ * <pre>
+ *   int magic, int version
+ *   int codeCount, codeCount x UTF code
+ *   tallies gallery, tallies manual
+ *
+ *   tallies: int keyCount, keyCount x (UTF key, int pairs, pairs x (int codeId, int count))
+ * </pre>
+ * A file of version 1 held a single set of tallies; it is loaded as the gallery tallies.
+ *
+ * @author Kotohiko
+ * @since 08:15 Oct 18, 2026
+ */
+public final class RouteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteIndex.class);
+
+    private static final int MAGIC = 0x4F425249;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Orders the path codes of one target directory, the first one is the canonical path code.
+     */
+    private static final Comparator<String> CANONICAL_ORDER
+            = Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private final Path file;
+
+    private final List<String> codes = new ArrayList<>();
+
+    private final Map<String, Integer> codeIds = new HashMap<>();
+
+    /**
+     * Routing key to {@code (code id, count)} pairs, as found by the last gallery scan.
+     */
+    private final Map<String, int[]> galleryTallies = new HashMap<>();
+
+    /**
+     * Routing key to {@code (code id, count)} pairs of the recorded manual moves.
+     */
+    private final Map<String, int[]> manualTallies = new HashMap<>();
+
+    private boolean dirty;
+
+    private RouteIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the index file. A missing or unreadable file gives an empty index.
+     *
+     * @param file The index file.
+     * @return The loaded index.
+     */
+    public static RouteIndex load(Path file) {
+        var index = new RouteIndex(file);
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            var version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != 1 && version != VERSION) {
+                logger.warn("Ignoring route index {} with an unknown format", file);
+                return index;
+            }
+            var codeCount = in.readInt();
+            for (var i = 0; i < codeCount; ++i) {
+                index.codeId(in.readUTF());
+            }
+            readTallies(in, index.galleryTallies);
+            if (version == VERSION) {
+                readTallies(in, index.manualTallies);
+            }
+            logger.info("Route index loaded: {} keys, {} path codes", index.size(), codeCount);
+        } catch (IOException e) {
+            logger.error("Failed to read the route index {}, starting empty", file, e);
+            index.codes.clear();
+            index.codeIds.clear();
+            index.galleryTallies.clear();
+            index.manualTallies.clear();
+        }
+        return index;
+    }
+
+    /**
+     * Counts one file of the given key as moved to the given path code.
+     *
+     * @param key      The routing key.
+     * @param pathCode The path code the file went to.
+     */
+    public synchronized void record(String key, String pathCode) {
+        add(manualTallies, key, codeId(pathCode), 1);
+        dirty = true;
+    }
+
+    /**
+     * @param key The routing key.
+     * @return The most frequent path code of the key, or {@code null} if the key has never been seen.
+     */
+    public synchronized RouteDecision decide(String key) {
+        var gallery = galleryTallies.get(key);
+        var manual = manualTallies.get(key);
+        if (gallery == null && manual == null) {
+            return null;
+        }
+        var counts = new int[codes.size()];
+        var samples = count(gallery, counts) + count(manual, counts);
+        var best = -1;
+        var bestCount = 0;
+        for (var codeId = 0; codeId < counts.length; ++codeId) {
+            if (counts[codeId] > bestCount) {
+                best = codeId;
+                bestCount = counts[codeId];
+            }
+        }
+        return best < 0 ? null : new RouteDecision(key, codes.get(best), bestCount, samples);
+    }
+
+    /**
+     * Every target directory is tallied under one path code, so that moves typed with different aliases of the
+     * same directory add up, and add up with {@link #learnFromGallery}.
+     *
+     * @param aliases The path codes of one target directory.
+     * @return The canonical path code of the directory: the shortest one, then the first in order; {@code null}
+     * if there is none.
+     */
+    public static String canonicalCode(Collection<String> aliases) {
+        return aliases.stream()
+                .filter(alias -> !ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY.equals(alias))
+                .min(CANONICAL_ORDER)
+                .orElse(null);
+    }
+
+    /**
+     * Rebuilds the gallery tallies from the files already classified in the gallery. The manual tallies are
+     * kept.
+     * <p>
+     * Every target directory of the path mapping is listed (without descending), each directory counting
+     * towards one canonical path code: the shortest of its aliases.
+     *
+     * @param aliases Path code to target directory, as in the path mapping YAML.
+     * @return The number of files that had a routing key.
+     */
+    public synchronized int learnFromGallery(Map<String, String> aliases) {
+        Map<String, String> canonical = new HashMap<>();
+        for (Map.Entry<String, String> entry : aliases.entrySet()) {
+            if (ObioCommonConstants.DEFAULT_SOURCE_PATH_KEY.equals(entry.getKey())) {
+                continue;
+            }
+            canonical.merge(entry.getValue(), entry.getKey(), (a, b) -> CANONICAL_ORDER.compare(a, b) <= 0 ? a : b);
+        }
+
+        galleryTallies.clear();
+        var learned = 0;
+        for (Map.Entry<String, String> entry : canonical.entrySet()) {
+            var dir = Paths.get(entry.getKey());
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            var codeId = codeId(entry.getValue());
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    var key = RouteKeys.of(child.getFileName().toString());
+                    if (key != null && Files.readAttributes(child, BasicFileAttributes.class).isRegularFile()) {
+                        add(galleryTallies, key, codeId, 1);
+                        ++learned;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot list {} while learning routes: {}", dir, e.toString());
+            }
+        }
+        dirty = true;
+        logger.info("Learned {} routed file(s) from {} gallery directories, {} keys",
+                learned, canonical.size(), galleryTallies.size());
+        return learned;
+    }
+
+    /**
+     * Writes the index file if anything has changed since it was loaded or last saved.
+     * The file is written next to its final location and then renamed over it.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        var parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        var tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(codes.size());
+            for (String code : codes) {
+                out.writeUTF(code);
+            }
+            writeTallies(out, galleryTallies);
+            writeTallies(out, manualTallies);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * @return The number of routing keys.
+     */
+    public synchronized int size() {
+        var size = galleryTallies.size();
+        for (String key : manualTallies.keySet()) {
+            if (!galleryTallies.containsKey(key)) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    private static void readTallies(DataInputStream in, Map<String, int[]> tallies) throws IOException {
+        var keyCount = in.readInt();
+        for (var i = 0; i < keyCount; ++i) {
+            var key = in.readUTF();
+            var pairs = new int[in.readInt() * 2];
+            for (var j = 0; j < pairs.length; ++j) {
+                pairs[j] = in.readInt();
+            }
+            tallies.put(key, pairs);
+        }
+    }
+
+    private static void writeTallies(DataOutputStream out, Map<String, int[]> tallies) throws IOException {
+        out.writeInt(tallies.size());
+        for (Map.Entry<String, int[]> entry : tallies.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length / 2);
+            for (int value : entry.getValue()) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Adds the pairs to the counts per code id.
+     *
+     * @return The number of samples added.
+     */
+    private static int count(int[] pairs, int[] counts) {
+        if (pairs == null) {
+            return 0;
+        }
+        var samples = 0;
+        for (var i = 0; i < pairs.length; i += 2) {
+            counts[pairs[i]] += pairs[i + 1];
+            samples += pairs[i + 1];
+        }
+        return samples;
+    }
+
+    private int codeId(String code) {
+        return codeIds.computeIfAbsent(code, c -> {
+            codes.add(c);
+            return codes.size() - 1;
+        });
+    }
+
+    private static void add(Map<String, int[]> tallies, String key, int codeId, int count) {
+        var pairs = tallies.get(key);
+        if (pairs != null) {
+            for (var i = 0; i < pairs.length; i += 2) {
+                if (pairs[i] == codeId) {
+                    pairs[i + 1] += count;
+                    return;
+                }
+            }
+            pairs = Arrays.copyOf(pairs, pairs.length + 2);
+        } else {
+            pairs = new int[2];
+        }
+        pairs[pairs.length - 2] = codeId;
+        pairs[pairs.length - 1] = count;
+        tallies.put(key, pairs);
+    }
+}
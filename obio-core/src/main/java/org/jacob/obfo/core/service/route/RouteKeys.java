@@ -0,0 +1,39 @@
+package org.jacob.obfo.core.service.route;
+
+import org.jacob.obio.ifp.service.SourceRefParser;
+
+import java.util.Locale;
+
+/**
+ * Extracts the routing key of a file: the artist or account that the file name identifies.
+ * <p>
+ * Only sites whose file names carry the author can be routed. X/Twitter names look like
+ * {@code httpsx.com<user>status<id>photoN} and yield {@code x:<user>}, DeviantArt names yield
+ * {@code deviantart:<artist>}. Pixiv names ({@code 123456789_p0}) only carry the artwork id, so they have
+ * no key and are always classified by hand.
+ *
+ * @author Kotohiko
+ * @since 08:15 Oct 18, 2026
+ */
+public final class RouteKeys {
+
+    private static final SourceRefParser PARSER = new SourceRefParser();
+
+    private RouteKeys() {
+    }
+
+    /**
+     * @param fileName The file name, with or without extension.
+     * @return The routing key, or {@code null} if the name does not identify an author.
+     */
+    public static String of(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        var ref = PARSER.parse(dot > 0 && fileName.length() - dot <= 5 ? fileName.substring(0, dot) : fileName);
+        if (ref == null || !ref.hasAuthor()) {
+            return null;
+        }
+        // Account names are case-insensitive on both sites
+        return ref.site().name().toLowerCase(Locale.ROOT) + ':'
+                + ref.author().toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,129 @@
+package org.jacob.obfo.core.service.similar;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A BK-tree of 64-bit hashes under the Hamming distance, kept in primitive arrays.
+ * <p>
+ * Node {@code i} holds {@code hashes[i]} and the caller's {@code values[i]}. Its children are a linked list
+ * ({@code firstChild}, {@code nextSibling}) labelled with their distance to the node, so a node costs
+ * 25 bytes whatever its fan-out. Equal hashes share a node through {@code nextEqual}.
+ *
+ * @author Kotohiko
+ * @since 08:30 Oct 18, 2026
+ */
+public final class BkTree {
+
+    private static final int NONE = -1;
+
+    private long[] hashes = new long[16];
+
+    private int[] values = new int[16];
+
+    private int[] firstChild = new int[16];
+
+    private int[] nextSibling = new int[16];
+
+    /**
+     * Further nodes with the hash of this node.
+     */
+    private int[] nextEqual = new int[16];
+
+    private byte[] edge = new byte[16];
+
+    private int size;
+
+    /**
+     * Adds a hash.
+     *
+     * @param hash  The hash.
+     * @param value The value returned by queries that find the hash, e.g. the index of a file.
+     */
+    public void add(long hash, int value) {
+        var node = newNode(hash, value);
+        if (node == 0) {
+            return;
+        }
+        var current = 0;
+        while (true) {
+            var distance = Long.bitCount(hashes[current] ^ hash);
+            if (distance == 0) {
+                nextEqual[node] = nextEqual[current];
+                nextEqual[current] = node;
+                return;
+            }
+            var child = firstChild[current];
+            while (child != NONE && edge[child] != distance) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                edge[node] = (byte) distance;
+                nextSibling[node] = firstChild[current];
+                firstChild[current] = node;
+                return;
+            }
+            current = child;
+        }
+    }
+
+    /**
+     * Visits the value of every hash within a distance of the query.
+     *
+     * @param query       The hash to look for.
+     * @param maxDistance The largest Hamming distance to report.
+     * @param consumer    Receives the values.
+     */
+    public void search(long query, int maxDistance, IntConsumer consumer) {
+        if (size == 0) {
+            return;
+        }
+        var stack = new int[64];
+        var top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            var node = stack[--top];
+            var distance = Long.bitCount(hashes[node] ^ query);
+            if (distance <= maxDistance) {
+                for (var equal = node; equal != NONE; equal = nextEqual[equal]) {
+                    consumer.accept(values[equal]);
+                }
+            }
+            // Triangle inequality: only children at |d(child, node) - d(query, node)| <= maxDistance can match
+            for (var child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edge[child] - distance) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of hashes in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int newNode(long hash, int value) {
+        if (size == hashes.length) {
+            var capacity = size * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            nextEqual = Arrays.copyOf(nextEqual, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+        }
+        var node = size++;
+        hashes[node] = hash;
+        values[node] = value;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        nextEqual[node] = NONE;
+        return node;
+    }
+}
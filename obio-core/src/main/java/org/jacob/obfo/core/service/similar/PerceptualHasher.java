@@ -0,0 +1,219 @@
+package org.jacob.obfo.core.service.similar;
+
+import org.jacob.obfo.core.enums.PerceptualHashEnums;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes a 64-bit perceptual hash of an image file with {@code javax.imageio} only.
+ * <p>
+ * The image is decoded with source subsampling so that its short side is about {@link #DECODE_SIDE} pixels:
+ * a 4000x6000 illustration is decoded as a few thousand pixels instead of 24 million. The file is read through
+ * a {@link FileImageInputStream}, so ImageIO neither creates a disk cache nor needs any global setting, and no
+ * AWT toolkit is touched.
+ *
+ * @author Kotohiko
+ * @since 08:30 Oct 18, 2026
+ */
+public final class PerceptualHasher {
+
+    /**
+     * Short side of the decoded image, twice the DCT size so that every thumbnail pixel averages a few pixels.
+     */
+    private static final int DECODE_SIDE = 64;
+
+    private static final int DCT_SIZE = 32;
+
+    private static final int HASH_SIDE = 8;
+
+    /**
+     * {@code COS[u][x] = cos((2x + 1) u pi / 64)}, the first 8 frequencies of a 32 point DCT-II.
+     */
+    private static final double[][] COS = new double[HASH_SIDE][DCT_SIZE];
+
+    static {
+        for (var u = 0; u < HASH_SIDE; ++u) {
+            for (var x = 0; x < DCT_SIZE; ++x) {
+                COS[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * DCT_SIZE));
+            }
+        }
+    }
+
+    /**
+     * Whether ImageIO can read a file extension, looked up once per extension.
+     */
+    private static final Map<String, Boolean> READABLE = new ConcurrentHashMap<>();
+
+    private final PerceptualHashEnums algorithm;
+
+    /**
+     * @param algorithm The hash to compute.
+     */
+    public PerceptualHasher(PerceptualHashEnums algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * @return The hash this hasher computes.
+     */
+    public PerceptualHashEnums algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @param file A file.
+     * @return Whether ImageIO has a reader for the extension of the file.
+     */
+    public static boolean isImage(Path file) {
+        var name = file.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        return READABLE.computeIfAbsent(name.substring(dot + 1).toLowerCase(Locale.ROOT),
+                extension -> ImageIO.getImageReadersBySuffix(extension).hasNext());
+    }
+
+    /**
+     * @param file An image file.
+     * @return The perceptual hash of the first image in the file.
+     * @throws IOException if the file cannot be decoded.
+     */
+    public long hash(Path file) throws IOException {
+        var gray = decode(file);
+        return switch (algorithm) {
+            case DHASH -> dHash(gray);
+            case PHASH -> pHash(gray);
+        };
+    }
+
+    /**
+     * @param a A hash.
+     * @param b Another hash.
+     * @return The number of differing bits.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * Decodes the image subsampled and converts it to luminance.
+     */
+    private static Gray decode(Path file) throws IOException {
+        try (var input = new FileImageInputStream(file.toFile())) {
+            var readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Not a readable image: " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                var width = reader.getWidth(0);
+                var height = reader.getHeight(0);
+                var step = Math.max(1, Math.min(width, height) / DECODE_SIDE);
+                var param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                var image = reader.read(0, param);
+
+                var w = image.getWidth();
+                var h = image.getHeight();
+                var luma = new float[w * h];
+                var row = new int[w];
+                for (var y = 0; y < h; ++y) {
+                    image.getRGB(0, y, w, 1, row, 0, w);
+                    for (var x = 0; x < w; ++x) {
+                        var rgb = row[x];
+                        luma[y * w + x] = 0.299f * ((rgb >> 16) & 0xFF) + 0.587f * ((rgb >> 8) & 0xFF)
+                                + 0.114f * (rgb & 0xFF);
+                    }
+                }
+                return new Gray(luma, w, h);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static long dHash(Gray gray) {
+        var thumb = gray.resize(HASH_SIDE + 1, HASH_SIDE);
+        var hash = 0L;
+        for (var y = 0; y < HASH_SIDE; ++y) {
+            for (var x = 0; x < HASH_SIDE; ++x) {
+                var at = y * (HASH_SIDE + 1) + x;
+                hash = (hash << 1) | (thumb[at] < thumb[at + 1] ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    private static long pHash(Gray gray) {
+        var thumb = gray.resize(DCT_SIZE, DCT_SIZE);
+        // Separable DCT, rows then columns, only the 8 lowest frequencies of each
+        var rows = new double[HASH_SIDE * DCT_SIZE];
+        for (var u = 0; u < HASH_SIDE; ++u) {
+            for (var y = 0; y < DCT_SIZE; ++y) {
+                var sum = 0.0;
+                for (var x = 0; x < DCT_SIZE; ++x) {
+                    sum += COS[u][x] * thumb[y * DCT_SIZE + x];
+                }
+                rows[u * DCT_SIZE + y] = sum;
+            }
+        }
+        var coefficients = new double[HASH_SIDE * HASH_SIDE];
+        for (var v = 0; v < HASH_SIDE; ++v) {
+            for (var u = 0; u < HASH_SIDE; ++u) {
+                var sum = 0.0;
+                for (var y = 0; y < DCT_SIZE; ++y) {
+                    sum += COS[v][y] * rows[u * DCT_SIZE + y];
+                }
+                coefficients[v * HASH_SIDE + u] = sum;
+            }
+        }
+        // The DC term only carries the overall brightness, keep it out of the median
+        var sorted = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(sorted);
+        var median = sorted[sorted.length / 2];
+        var hash = 0L;
+        for (double coefficient : coefficients) {
+            hash = (hash << 1) | (coefficient > median ? 1L : 0L);
+        }
+        return hash;
+    }
+
+    /**
+     * A luminance image, row major.
+     */
+    private record Gray(float[] luma, int width, int height) {
+
+        /**
+         * Box-filters the image down (or nearest-neighbours it up) to the given size.
+         */
+        float[] resize(int outWidth, int outHeight) {
+            var out = new float[outWidth * outHeight];
+            for (var oy = 0; oy < outHeight; ++oy) {
+                var y0 = oy * height / outHeight;
+                var y1 = Math.max(y0 + 1, (oy + 1) * height / outHeight);
+                for (var ox = 0; ox < outWidth; ++ox) {
+                    var x0 = ox * width / outWidth;
+                    var x1 = Math.max(x0 + 1, (ox + 1) * width / outWidth);
+                    var sum = 0f;
+                    for (var y = y0; y < y1; ++y) {
+                        for (var x = x0; x < x1; ++x) {
+                            sum += luma[y * width + x];
+                        }
+                    }
+                    out[oy * outWidth + ox] = sum / ((y1 - y0) * (x1 - x0));
+                }
+            }
+            return out;
+        }
+    }
+}
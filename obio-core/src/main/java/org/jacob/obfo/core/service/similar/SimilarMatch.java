@@ -0,0 +1,15 @@
+package org.jacob.obfo.core.service.similar;
+
+import java.nio.file.Path;
+
+/**
+ * A buffer image that looks like a gallery image.
+ *
+ * @param file     The image in the buffer.
+ * @param match    The gallery image.
+ * @param distance The Hamming distance of their perceptual hashes, {@code 0} for the same picture.
+ * @author Kotohiko
+ * @since 08:30 Oct 18, 2026
+ */
+public record SimilarMatch(Path file, Path match, int distance) {
+}
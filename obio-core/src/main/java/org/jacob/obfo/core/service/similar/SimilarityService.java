@@ -0,0 +1,206 @@
+package org.jacob.obfo.core.service.similar;
+
+import org.jacob.obfo.core.constants.ObioConstants;
+import org.jacob.obfo.core.enums.PerceptualHashEnums;
+import org.jacob.obfo.core.service.dedupe.HashCache;
+import org.jacob.obio.common.helper.ObioCommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Finds buffer images that are re-encoded copies of gallery images (e.g. the Twitter JPEG of a Pixiv PNG),
+ * which the content hash of the dedupe stage cannot see.
+ * <p>
+ * Every gallery image gets a {@link PerceptualHasher perceptual hash}, cached on (path, size, mtime) in a
+ * {@link HashCache} of its own so that only new or changed images are decoded. The hashes go into a
+ * {@link BkTree}, and every buffer image is looked up within {@link ObioConstants#SIMILAR_MAX_DISTANCE} bits.
+ * Decoding runs on a pool of {@link ObioConstants#SIMILAR_PARALLELISM} threads, which also bounds the memory
+ * taken by decoded images.
+ *
+ * @author Kotohiko
+ * @since 08:30 Oct 18, 2026
+ */
+public final class SimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarityService.class);
+
+    private final PerceptualHasher hasher;
+
+    private final HashCache cache;
+
+    private final ForkJoinPool pool;
+
+    private final int maxDistance;
+
+    /**
+     * @param hasher      Computes the perceptual hashes.
+     * @param cache       The persistent cache of the hashes of {@code hasher}'s algorithm.
+     * @param parallelism The number of images decoded at the same time.
+     * @param maxDistance The largest Hamming distance reported as similar.
+     */
+    public SimilarityService(PerceptualHasher hasher, HashCache cache, int parallelism, int maxDistance) {
+        this.hasher = hasher;
+        this.cache = cache;
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * @return The process-wide service, configured by {@code -Dobio.similar.*}.
+     */
+    public static SimilarityService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Compares every image of the buffer with every image of the gallery.
+     *
+     * @param buffer  The buffer folder; only the images directly inside it are compared.
+     * @param gallery The gallery roots. The buffer is skipped if it lies below one of them.
+     * @return The matches, grouped by buffer image and closest first.
+     */
+    public List<SimilarMatch> findSimilar(Path buffer, List<Path> gallery) {
+        var bufferDir = buffer.toAbsolutePath().normalize();
+        List<Path> galleryImages = new ArrayList<>();
+        for (Path root : gallery) {
+            collect(root, bufferDir, galleryImages);
+        }
+        List<Path> bufferImages = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(bufferDir)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && PerceptualHasher.isImage(file)) {
+                    bufferImages.add(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Cannot list {}", bufferDir, e);
+            return List.of();
+        }
+
+        var galleryHashes = hashAll(galleryImages);
+        var bufferHashes = hashAll(bufferImages);
+        save();
+
+        var tree = new BkTree();
+        for (var i = 0; i < galleryHashes.length; ++i) {
+            if (galleryHashes[i] != null) {
+                tree.add(galleryHashes[i], i);
+            }
+        }
+        logger.info("{} gallery image(s) indexed, comparing {} buffer image(s)", tree.size(), bufferImages.size());
+
+        List<SimilarMatch> matches = new ArrayList<>();
+        for (var i = 0; i < bufferHashes.length; ++i) {
+            if (bufferHashes[i] == null) {
+                continue;
+            }
+            var query = bufferHashes[i];
+            var file = bufferImages.get(i);
+            List<SimilarMatch> found = new ArrayList<>();
+            tree.search(query, maxDistance, g -> found.add(new SimilarMatch(file, galleryImages.get(g),
+                    PerceptualHasher.distance(query, galleryHashes[g]))));
+            found.sort(Comparator.comparingInt(SimilarMatch::distance));
+            matches.addAll(found);
+        }
+        return matches;
+    }
+
+    /**
+     * Hashes the files on the pool, answering unchanged files from the cache.
+     *
+     * @return The hash of every file, {@code null} for files that cannot be decoded.
+     */
+    private Long[] hashAll(List<Path> files) {
+        var hashes = new Long[files.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, files.size()).parallel().forEach(i -> {
+                var file = files.get(i);
+                try {
+                    var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    var key = file.toAbsolutePath().normalize().toString();
+                    var mtime = attributes.lastModifiedTime().toMillis();
+                    var hash = cache.get(key, attributes.size(), mtime);
+                    if (hash == null) {
+                        hash = hasher.hash(file);
+                        cache.put(key, attributes.size(), mtime, hash);
+                    }
+                    hashes[i] = hash;
+                } catch (IOException | RuntimeException e) {
+                    // Corrupt or unsupported images (e.g. CMYK JPEGs) are only left out
+                    logger.debug("Cannot hash {}: {}", file, e.toString());
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Perceptual hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private static void collect(Path root, Path excluded, List<Path> images) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.toAbsolutePath().normalize().equals(excluded)
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && PerceptualHasher.isImage(file)) {
+                        images.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Cannot walk {}", root, e);
+        }
+    }
+
+    private void save() {
+        try {
+            cache.save();
+        } catch (IOException e) {
+            logger.error("Failed to save the perceptual hash cache", e);
+        }
+    }
+
+    /**
+     * Lazy holder, the cache of the configured algorithm is read on first use.
+     */
+    private static final class Holder {
+        private static final SimilarityService INSTANCE = create();
+
+        private static SimilarityService create() {
+            var algorithm = ObioCommonHelper.enumProperty("obio.similar.algorithm", PerceptualHashEnums.class,
+                    PerceptualHashEnums.valueOf(ObioConstants.SIMILAR_ALGORITHM));
+            var cachePath = Paths.get(System.getProperty("obio.similar.cache",
+                    ObioConstants.PERCEPTUAL_HASH_CACHE_PATH));
+            // One cache file per algorithm, the hashes are not comparable
+            var cacheFile = cachePath.resolveSibling(
+                    cachePath.getFileName() + "." + algorithm.name().toLowerCase(Locale.ROOT));
+            return new SimilarityService(new PerceptualHasher(algorithm), HashCache.load(cacheFile),
+                    Integer.getInteger("obio.similar.parallelism", ObioConstants.SIMILAR_PARALLELISM),
+                    Integer.getInteger("obio.similar.maxDistance", ObioConstants.SIMILAR_MAX_DISTANCE));
+        }
+    }
+}
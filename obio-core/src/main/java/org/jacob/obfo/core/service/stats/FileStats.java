@@ -0,0 +1,115 @@
+package org.jacob.obfo.core.service.stats;
+
+import java.util.*;
+
+/**
+ * File count, total size, extension histogram and size histogram of a set of files.
+ * <p>
+ * Instances are not thread-safe. A directory task fills its own instance and adds it to the shared one of its
+ * group under that instance's lock.
+ *
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public final class FileStats {
+
+    /**
+     * Upper bounds (exclusive) of the size histogram buckets, the last bucket holds everything larger.
+     */
+    private static final long[] SIZE_BOUNDS = {64L << 10, 256L << 10, 1L << 20, 4L << 20, 16L << 20};
+
+    private static final String[] SIZE_LABELS = {"<64K", "<256K", "<1M", "<4M", "<16M", ">=16M"};
+
+    private long files;
+
+    private long bytes;
+
+    private final long[] sizeBuckets = new long[SIZE_BOUNDS.length + 1];
+
+    /**
+     * Lower-case extension to {count, bytes}. Files without an extension use the empty string.
+     */
+    private final Map<String, long[]> extensions = new HashMap<>();
+
+    /**
+     * @param fileName The file name.
+     * @param size     The file size in bytes.
+     */
+    public void add(String fileName, long size) {
+        ++files;
+        bytes += size;
+        var bucket = 0;
+        while (bucket < SIZE_BOUNDS.length && size >= SIZE_BOUNDS[bucket]) {
+            ++bucket;
+        }
+        ++sizeBuckets[bucket];
+        var ext = extensions.computeIfAbsent(extensionOf(fileName), e -> new long[2]);
+        ++ext[0];
+        ext[1] += size;
+    }
+
+    /**
+     * @param other The statistics to add to these.
+     */
+    public void addAll(FileStats other) {
+        files += other.files;
+        bytes += other.bytes;
+        for (var i = 0; i < sizeBuckets.length; ++i) {
+            sizeBuckets[i] += other.sizeBuckets[i];
+        }
+        for (Map.Entry<String, long[]> entry : other.extensions.entrySet()) {
+            var ext = extensions.computeIfAbsent(entry.getKey(), e -> new long[2]);
+            ext[0] += entry.getValue()[0];
+            ext[1] += entry.getValue()[1];
+        }
+    }
+
+    public long files() {
+        return files;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The number of files per size bucket, labelled as in {@link #sizeLabels()}.
+     */
+    public long[] sizeBuckets() {
+        return sizeBuckets.clone();
+    }
+
+    /**
+     * @return The labels of the size histogram buckets.
+     */
+    public static List<String> sizeLabels() {
+        return List.of(SIZE_LABELS);
+    }
+
+    /**
+     * @param limit The maximum number of extensions.
+     * @return The most frequent extensions with their file count and total size, most frequent first.
+     */
+    public List<ExtensionCount> topExtensions(int limit) {
+        List<ExtensionCount> counts = new ArrayList<>(extensions.size());
+        for (Map.Entry<String, long[]> entry : extensions.entrySet()) {
+            counts.add(new ExtensionCount(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        counts.sort(Comparator.comparingLong(ExtensionCount::files).reversed()
+                .thenComparing(ExtensionCount::extension));
+        return counts.size() > limit ? List.copyOf(counts.subList(0, limit)) : counts;
+    }
+
+    private static String extensionOf(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        return dot > 0 && dot < fileName.length() - 1 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * @param extension The lower-case extension, empty for files without one.
+     * @param files     The number of files.
+     * @param bytes     Their total size.
+     */
+    public record ExtensionCount(String extension, long files, long bytes) {
+    }
+}
@@ -0,0 +1,173 @@
+package org.jacob.obfo.core.service.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the files of a gallery tree in parallel and rolls the counts up along the groups of the path mapping
+ * YAML (franchise, region, character).
+ * <p>
+ * Every directory is listed by its own fork/join task. The files of a directory are added to the statistics
+ * of the nearest mapped target directory above it (or the directory itself), files outside every target to
+ * {@link #UNMAPPED}. No path is kept once its directory has been listed, so the memory used depends on the
+ * number of mapped targets and not on the size of the tree.
+ *
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public final class GalleryStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(GalleryStatistics.class);
+
+    /**
+     * The group of the files that are not inside any mapped target directory.
+     */
+    public static final String UNMAPPED = "(unmapped)";
+
+    /**
+     * Target directory to the headings of its first alias, in the order of the path mapping YAML.
+     */
+    private final Map<Path, List<String>> targets;
+
+    private final int parallelism;
+
+    /**
+     * @param groupsByTarget Target directory to its headings, e.g. from
+     *                       {@link org.jacob.obio.common.mapping.PathMappingOutline#groupsByTarget()}.
+     * @param parallelism    The number of directories listed at the same time.
+     */
+    public GalleryStatistics(Map<String, List<String>> groupsByTarget, int parallelism) {
+        Map<Path, List<String>> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : groupsByTarget.entrySet()) {
+            try {
+                normalized.putIfAbsent(Paths.get(entry.getKey()).toAbsolutePath().normalize(), entry.getValue());
+            } catch (InvalidPathException e) {
+                logger.warn("Ignoring invalid target directory {}", entry.getKey());
+            }
+        }
+        this.targets = normalized;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Walks the tree and builds the report.
+     *
+     * @param root The root directory.
+     * @return The report, grouped as in the path mapping YAML.
+     */
+    public StatsReport collect(Path root) {
+        var start = System.nanoTime();
+        var normalizedRoot = root.toAbsolutePath().normalize();
+        Map<Path, FileStats> perTarget = new HashMap<>();
+        for (Path target : targets.keySet()) {
+            perTarget.put(target, new FileStats());
+        }
+        var unmapped = new FileStats();
+        var directories = new AtomicInteger();
+
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Visit(normalizedRoot, perTarget.getOrDefault(normalizedRoot, unmapped),
+                    perTarget, directories));
+        } finally {
+            pool.shutdown();
+        }
+
+        var tree = new StatsNode(normalizedRoot.toString());
+        for (Map.Entry<Path, List<String>> entry : targets.entrySet()) {
+            var stats = perTarget.get(entry.getKey());
+            if (stats.files() == 0L) {
+                continue;
+            }
+            var node = tree;
+            tree.stats().addAll(stats);
+            for (String group : entry.getValue()) {
+                node = node.child(group);
+                node.stats().addAll(stats);
+            }
+            node.child(label(entry.getKey())).stats().addAll(stats);
+        }
+        if (unmapped.files() > 0L) {
+            tree.stats().addAll(unmapped);
+            tree.child(UNMAPPED).stats().addAll(unmapped);
+        }
+        return new StatsReport(tree, directories.get(), (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * Gallery folders are named {@code English／中文／日本語}, the report only shows the first name.
+     */
+    private static String label(Path target) {
+        var fileName = target.getFileName();
+        var name = fileName == null ? target.toString() : fileName.toString();
+        var slash = name.indexOf('／');
+        return slash > 0 ? name.substring(0, slash).strip() : name;
+    }
+
+    /**
+     * Lists one directory, adds its files to the statistics of its group and forks a task for each subdirectory.
+     */
+    private final class Visit extends RecursiveAction {
+
+        private final Path dir;
+
+        private final FileStats owner;
+
+        private final Map<Path, FileStats> perTarget;
+
+        private final AtomicInteger directories;
+
+        private Visit(Path dir, FileStats owner, Map<Path, FileStats> perTarget, AtomicInteger directories) {
+            this.dir = dir;
+            this.owner = owner;
+            this.perTarget = perTarget;
+            this.directories = directories;
+        }
+
+        @Override
+        protected void compute() {
+            var local = new FileStats();
+            List<Visit> subtasks = new ArrayList<>();
+            try {
+                Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        // At depth 1 subdirectories are reported as files, with their attributes
+                        if (attributes.isDirectory()) {
+                            var child = dir.resolve(file.getFileName());
+                            subtasks.add(new Visit(child, perTarget.getOrDefault(child, owner), perTarget,
+                                    directories));
+                        } else if (attributes.isRegularFile()) {
+                            local.add(file.getFileName().toString(), attributes.size());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        logger.warn("Cannot read {}", file, e);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Cannot list {}", dir, e);
+                return;
+            }
+            directories.incrementAndGet();
+            if (local.files() > 0L) {
+                synchronized (owner) {
+                    owner.addAll(local);
+                }
+            }
+            invokeAll(subtasks);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.jacob.obfo.core.service.stats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One group of the statistics report: a heading of the path mapping YAML or a mapped target directory.
+ * The statistics of a node include those of all its children.
+ *
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public final class StatsNode {
+
+    private final String name;
+
+    private final FileStats stats = new FileStats();
+
+    private final Map<String, StatsNode> children = new LinkedHashMap<>();
+
+    StatsNode(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public FileStats stats() {
+        return stats;
+    }
+
+    /**
+     * @return The child groups in the order of the path mapping YAML.
+     */
+    public List<StatsNode> children() {
+        return new ArrayList<>(children.values());
+    }
+
+    StatsNode child(String childName) {
+        return children.computeIfAbsent(childName, StatsNode::new);
+    }
+}
@@ -0,0 +1,87 @@
+package org.jacob.obfo.core.service.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The result of {@link GalleryStatistics#collect}.
+ *
+ * @param tree          The root group, its statistics are those of the whole tree.
+ * @param directories   The number of listed directories.
+ * @param elapsedMillis The time the walk took.
+ * @author Kotohiko
+ * @since 08:37 Oct 18, 2026
+ */
+public record StatsReport(StatsNode tree, int directories, long elapsedMillis) {
+
+    private static final String[] UNITS = {"B", "KiB", "MiB", "GiB", "TiB"};
+
+    /**
+     * Renders the report: a summary line, one line per group down to the given depth, then the extension and
+     * size histograms of the whole tree.
+     *
+     * @param maxDepth      The deepest group level shown, {@code 1} shows the franchises only.
+     * @param topExtensions The number of extensions shown.
+     * @return The lines of the report.
+     */
+    public List<String> lines(int maxDepth, int topExtensions) {
+        List<String> lines = new ArrayList<>();
+        var total = tree.stats();
+        lines.add(String.format(Locale.ROOT, "%s: %,d files, %s in %,d directories (%,d ms)",
+                tree.name(), total.files(), formatBytes(total.bytes()), directories, elapsedMillis));
+        for (StatsNode child : tree.children()) {
+            appendNode(lines, child, 1, maxDepth);
+        }
+
+        var extensions = new StringBuilder("Extensions:");
+        for (FileStats.ExtensionCount count : total.topExtensions(topExtensions)) {
+            extensions.append(String.format(Locale.ROOT, " %s %,d (%s)",
+                    count.extension().isEmpty() ? "(none)" : count.extension(), count.files(),
+                    formatBytes(count.bytes())));
+        }
+        lines.add(extensions.toString());
+
+        var sizes = new StringBuilder("Sizes:");
+        var labels = FileStats.sizeLabels();
+        var buckets = total.sizeBuckets();
+        for (var i = 0; i < buckets.length; ++i) {
+            sizes.append(String.format(Locale.ROOT, " %s %,d", labels.get(i), buckets[i]));
+        }
+        lines.add(sizes.toString());
+        return lines;
+    }
+
+    private static void appendNode(List<String> lines, StatsNode node, int depth, int maxDepth) {
+        var stats = node.stats();
+        var top = stats.topExtensions(1);
+        var share = top.isEmpty() ? "" : String.format(Locale.ROOT, "  %s %d%%",
+                top.getFirst().extension().isEmpty() ? "(none)" : top.getFirst().extension(),
+                top.getFirst().files() * 100L / stats.files());
+        // Counts first, CJK names would break a column that follows them
+        lines.add(String.format(Locale.ROOT, "%,10d %10s  %s%s%s", stats.files(), formatBytes(stats.bytes()),
+                "  ".repeat(depth - 1), node.name(), share));
+        if (depth < maxDepth) {
+            for (StatsNode child : node.children()) {
+                appendNode(lines, child, depth + 1, maxDepth);
+            }
+        }
+    }
+
+    /**
+     * @param bytes A size in bytes.
+     * @return The size in binary units with one decimal, e.g. {@code 2.3 GiB}.
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024L) {
+            return bytes + " B";
+        }
+        var value = (double) bytes;
+        var unit = 0;
+        while (value >= 1024.0 && unit < UNITS.length - 1) {
+            value /= 1024.0;
+            ++unit;
+        }
+        return String.format(Locale.ROOT, "%.1f %s", value, UNITS[unit]);
+    }
+}
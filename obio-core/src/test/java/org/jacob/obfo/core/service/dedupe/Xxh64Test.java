@@ -0,0 +1,82 @@
+package org.jacob.obfo.core.service.dedupe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks {@link Xxh64} against the reference XXH64 (seed 0).
+ *
+ * @author Kotohiko
+ * @since 09:18 Oct 18, 2026
+ */
+class Xxh64Test {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shortInputs() throws IOException {
+        // Below one stripe: only the tail rounds run
+        assertEquals(0xEF46DB3751D8E999L, hash(new byte[0]));
+        assertEquals(0xD24EC4F1A98C6E5BL, hash("a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0x44BC2CF5AD770999L, hash("abc".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void inputsOfSeveralStripes() throws IOException {
+        assertEquals(0xFBCEA83C8A378BF1L,
+                hash("Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII)));
+        var bytes = new byte[100];
+        for (var i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) i;
+        }
+        assertEquals(0x6AC1E58032166597L, hash(bytes));
+    }
+
+    @Test
+    void partialStripeAcrossReadBuffers() throws IOException {
+        // Longer than the 1 MiB read buffer and not a multiple of 32 bytes
+        assertEquals(0x79E9071720AFF60EL, hash(pattern(1024 * 1024 + 37)));
+    }
+
+    @Test
+    void concurrentHashesShareTheBufferPool() throws Exception {
+        var file = write(pattern(1024 * 1024 + 37));
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> hashes = new ArrayList<>();
+            for (var i = 0; i < 64; ++i) {
+                hashes.add(executor.submit(() -> Xxh64.hash(file)));
+            }
+            for (Future<Long> hash : hashes) {
+                assertEquals(0x79E9071720AFF60EL, (long) hash.get());
+            }
+        }
+    }
+
+    private static byte[] pattern(int length) {
+        var bytes = new byte[length];
+        for (var i = 0; i < length; ++i) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+    private long hash(byte[] content) throws IOException {
+        return Xxh64.hash(write(content));
+    }
+
+    private Path write(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(dir, "xxh64", ".bin"), content);
+    }
+}
@@ -0,0 +1,186 @@
+package org.jacob.obfo.core.service.journal;
+
+import org.jacob.obfo.core.service.move.MoveOperation;
+import org.jacob.obfo.core.service.move.MovePlan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link MoveJournal} replays what it wrote, rejects damaged records and survives compaction.
+ *
+ * @author Kotohiko
+ * @since 09:19 Oct 18, 2026
+ */
+class MoveJournalTest {
+
+    /**
+     * Length of a {@code COMMIT} record: length, type, batch id and CRC.
+     */
+    private static final int COMMIT_RECORD_LENGTH = Integer.BYTES + 1 + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Long enough for the background flush never to run during a test.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 60_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysPlannedResolvedAndDoneMoves() throws IOException {
+        var journalFile = dir.resolve("moves.journal");
+        var plan = plan("a", "b", "c");
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batch = journal.begin(plan);
+            batch.resolved(1, target("b (1)"), false);
+            batch.done(0, plan.operations().get(0), false);
+            batch.done(1, new MoveOperation(source("b"), target("b (1)"), false, 0L), false);
+            batch.commit();
+        }
+
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batches = journal.batches();
+            assertEquals(1, batches.size());
+            var batch = batches.getFirst();
+            assertTrue(batch.committed());
+            assertFalse(batch.isInterrupted());
+            assertEquals(target(""), batch.target());
+
+            var entries = batch.entries();
+            assertEquals(3, entries.size());
+            assertEquals(new JournalEntry(source("a"), target("a"), null, target("a"), false, false),
+                    entries.get(0));
+            assertEquals(new JournalEntry(source("b"), target("b"), target("b (1)"), target("b (1)"), false, false),
+                    entries.get(1));
+            // Not recorded as done: where the file would be is still known
+            assertFalse(entries.get(2).isDone());
+            assertEquals(target("c"), entries.get(2).location());
+        }
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOff() throws IOException {
+        var journalFile = dir.resolve("moves.journal");
+        writeCommittedBatches(journalFile, 2);
+        var size = Files.size(journalFile);
+        // The process died while writing the last COMMIT
+        try (var channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batches = journal.batches();
+            assertEquals(2, batches.size());
+            assertTrue(batches.get(0).committed());
+            assertTrue(batches.get(1).isInterrupted());
+            assertEquals(size - COMMIT_RECORD_LENGTH, Files.size(journalFile));
+
+            // Appending continues right after the intact records
+            journal.begin(plan("d")).commit();
+        }
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batches = journal.batches();
+            assertEquals(3, batches.size());
+            assertTrue(batches.get(2).committed());
+            assertTrue(batches.get(2).id() > batches.get(1).id());
+        }
+    }
+
+    @Test
+    void recordWithABadChecksumIsCutOff() throws IOException {
+        var journalFile = dir.resolve("moves.journal");
+        writeCommittedBatches(journalFile, 2);
+        var size = Files.size(journalFile);
+        // Flip one bit of the batch id of the last COMMIT, its length stays intact
+        try (var channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var at = size - COMMIT_RECORD_LENGTH + Integer.BYTES + 1 + Long.BYTES - 1;
+            var oneByte = ByteBuffer.allocate(1);
+            channel.read(oneByte, at);
+            oneByte.put(0, (byte) (oneByte.get(0) ^ 0x01)).rewind();
+            channel.write(oneByte, at);
+        }
+
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batches = journal.batches();
+            assertEquals(2, batches.size());
+            assertTrue(batches.get(1).isInterrupted());
+            assertEquals(size - COMMIT_RECORD_LENGTH, Files.size(journalFile));
+        }
+    }
+
+    @Test
+    void compactionKeepsTheLastClosedAndEveryInterruptedBatch() throws IOException {
+        var journalFile = dir.resolve("moves.journal");
+        writeCommittedBatches(journalFile, 5);
+        long interruptedId;
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var undone = journal.begin(plan("u"));
+            journal.undone(undone.id());
+            var interrupted = journal.begin(plan("i"));
+            interrupted.resolved(0, target("i (1)"), false);
+            interruptedId = interrupted.id();
+        }
+
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var sizeBefore = Files.size(journalFile);
+            journal.compact(2);
+            assertTrue(Files.size(journalFile) < sizeBefore);
+            assertFalse(Files.exists(journalFile.resolveSibling(journalFile.getFileName() + ".tmp")));
+            assertEquals(List.of(5L, 6L, interruptedId), ids(journal.batches()));
+
+            // The reopened append channel still works after the file was replaced
+            journal.begin(plan("e")).commit();
+        }
+
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            var batches = journal.batches();
+            assertEquals(List.of(5L, 6L, interruptedId, interruptedId + 1), ids(batches));
+            assertTrue(batches.get(1).undone());
+            var interrupted = batches.get(2);
+            assertTrue(interrupted.isInterrupted());
+            assertEquals(target("i (1)"), interrupted.entries().getFirst().location());
+        }
+    }
+
+    private void writeCommittedBatches(Path journalFile, int count) throws IOException {
+        try (var journal = MoveJournal.open(journalFile, FLUSH_INTERVAL_MILLIS)) {
+            for (var i = 0; i < count; ++i) {
+                var plan = plan("f" + i);
+                var batch = journal.begin(plan);
+                batch.done(0, plan.operations().getFirst(), false);
+                batch.commit();
+            }
+        }
+    }
+
+    private MovePlan plan(String... names) {
+        List<MoveOperation> operations = new ArrayList<>();
+        for (String name : names) {
+            operations.add(new MoveOperation(source(name), target(name), false, 0L));
+        }
+        return new MovePlan(dir.resolve("buffer"), target(""), operations);
+    }
+
+    private Path source(String name) {
+        return dir.resolve("buffer").resolve(name);
+    }
+
+    private Path target(String name) {
+        return name.isEmpty() ? dir.resolve("gallery") : dir.resolve("gallery").resolve(name);
+    }
+
+    private static List<Long> ids(List<JournalBatch> batches) {
+        return batches.stream().map(JournalBatch::id).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package org.jacob.obfo.core.service.similar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks {@link BkTree} searches against a linear scan.
+ *
+ * @author Kotohiko
+ * @since 09:19 Oct 18, 2026
+ */
+class BkTreeTest {
+
+    @Test
+    void emptyTreeFindsNothing() {
+        var tree = new BkTree();
+        assertEquals(0, tree.size());
+        assertEquals(Set.of(), search(tree, 0L, 64));
+    }
+
+    @Test
+    void equalHashesAreAllReported() {
+        var tree = new BkTree();
+        tree.add(0xFFL, 1);
+        tree.add(0xFFL, 2);
+        tree.add(0x1FFL, 3);
+        tree.add(0xFFL, 4);
+        assertEquals(4, tree.size());
+        assertEquals(Set.of(1, 2, 4), search(tree, 0xFFL, 0));
+        assertEquals(Set.of(1, 2, 3, 4), search(tree, 0xFFL, 1));
+        assertEquals(Set.of(3), search(tree, 0x3FFL, 1));
+    }
+
+    @Test
+    void distanceIsInclusive() {
+        var tree = new BkTree();
+        tree.add(0L, 0);
+        tree.add(0b111L, 3);
+        tree.add(-1L, 64);
+        assertEquals(Set.of(0), search(tree, 0L, 2));
+        assertEquals(Set.of(0, 3), search(tree, 0L, 3));
+        assertEquals(Set.of(0, 3, 64), search(tree, 0L, 64));
+        assertEquals(Set.of(64), search(tree, -1L, 0));
+    }
+
+    @Test
+    void matchesLinearScan() {
+        var random = new Random(7);
+        // Near-duplicates of a few images, so that most distances are small like those of real perceptual hashes
+        var bases = new long[20];
+        for (var i = 0; i < bases.length; ++i) {
+            bases[i] = random.nextLong();
+        }
+        var tree = new BkTree();
+        List<Long> hashes = new ArrayList<>();
+        for (var i = 0; i < 2000; ++i) {
+            var hash = flip(random, bases[random.nextInt(bases.length)], random.nextInt(12));
+            tree.add(hash, i);
+            hashes.add(hash);
+        }
+        assertEquals(hashes.size(), tree.size());
+
+        for (var q = 0; q < 200; ++q) {
+            var query = flip(random, bases[random.nextInt(bases.length)], random.nextInt(12));
+            for (int maxDistance : new int[]{0, 1, 4, 10, 20}) {
+                Set<Integer> expected = new TreeSet<>();
+                for (var i = 0; i < hashes.size(); ++i) {
+                    if (Long.bitCount(hashes.get(i) ^ query) <= maxDistance) {
+                        expected.add(i);
+                    }
+                }
+                assertEquals(expected, search(tree, query, maxDistance), "distance " + maxDistance);
+            }
+        }
+    }
+
+    private static long flip(Random random, long hash, int bits) {
+        for (var i = 0; i < bits; ++i) {
+            hash ^= 1L << random.nextInt(64);
+        }
+        return hash;
+    }
+
+    private static Set<Integer> search(BkTree tree, long query, int maxDistance) {
+        Set<Integer> found = new TreeSet<>();
+        tree.search(query, maxDistance, value -> assertTrue(found.add(value), "reported twice: " + value));
+        return found;
+    }
+}
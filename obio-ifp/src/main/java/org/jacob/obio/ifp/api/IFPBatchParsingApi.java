@@ -0,0 +1,287 @@
+package org.jacob.obio.ifp.api;
+
+import org.jacob.obio.ifp.controller.FileNameParserService;
+import org.jacob.obio.ifp.enums.BatchOutputFormatEnums;
+import org.jacob.obio.ifp.service.ParseResult;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Parses many file names into source URLs at once, e.g. to back-fill the sources of a whole gallery.
+ * <p>
+ * Names can come from a directory tree, a file with one name per line, or standard input. They are parsed in
+ * parallel and written as JSONL or CSV in input order. Extensions are stripped before parsing, and names that
+ * resolve to a URL already seen (the {@code photo1} to {@code photo4} of one tweet) are collapsed into the
+ * first record, which counts them as duplicates.
+ * <p>
+ * Command line:
+ * <pre>
+ *   IFPBatchParsingApi (--dir &lt;path&gt; [--recursive] | --list &lt;file&gt; | --stdin)
+ *                      [--format jsonl|csv] [--out &lt;file&gt;] [--threads &lt;n&gt;]
+ * </pre>
+ *
+ * @author Kotohiko
+ * @since 08:17 Oct 18, 2026
+ */
+public class IFPBatchParsingApi {
+
+    /**
+     * Extensions that are stripped before parsing. Anything else after the last dot belongs to the name
+     * (e.g. the {@code .com...} of a URL-like name).
+     */
+    private static final Set<String> MEDIA_EXTENSIONS = Set.of("jpg", "jpeg", "jfif", "png", "gif", "webp",
+            "bmp", "avif", "heic", "mp4", "webm", "mkv", "mov", "zip");
+
+    private final FileNameParserService fileNameParserService;
+
+    private final int parallelism;
+
+    /**
+     * @param fileNameParserService The single-name parser.
+     * @param parallelism           The number of parsing threads.
+     */
+    public IFPBatchParsingApi(FileNameParserService fileNameParserService, int parallelism) {
+        this.fileNameParserService = fileNameParserService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Lists the regular files of a directory.
+     *
+     * @param dir       The directory.
+     * @param recursive Whether subdirectories are listed as well.
+     * @return The file names, in a stable (sorted by path) order.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<String> namesFromDirectory(Path dir, boolean recursive) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), recursive ? Integer.MAX_VALUE : 1,
+                new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()) {
+                            files.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        files.sort(null);
+        List<String> names = new ArrayList<>(files.size());
+        for (Path file : files) {
+            names.add(file.getFileName().toString());
+        }
+        return names;
+    }
+
+    /**
+     * Reads one name per line, ignoring blank lines. Lines holding a path keep only the last path element.
+     *
+     * @param reader The source of the names.
+     * @return The names, in input order.
+     * @throws IOException if the reader fails.
+     */
+    public static List<String> namesFromReader(Reader reader) throws IOException {
+        List<String> names = new ArrayList<>();
+        var in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        String line;
+        while ((line = in.readLine()) != null) {
+            var name = line.strip();
+            var slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+            name = name.substring(slash + 1);
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Parses all names in parallel and collapses duplicate URLs.
+     *
+     * @param names The file names, with or without extension.
+     * @return One record per distinct URL plus one per failed name, in input order.
+     * @throws InterruptedException if interrupted while waiting for the parsing threads.
+     */
+    public List<ParseResult> parseAll(List<String> names) throws InterruptedException {
+        List<ParseResult> parsed;
+        try (var pool = new ForkJoinPool(parallelism)) {
+            parsed = pool.submit(() -> names.parallelStream().map(this::parseOne).toList()).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch parsing failed", e.getCause());
+        }
+
+        // Keep the first record of every URL and count the others
+        Map<String, Integer> firstByUrl = new HashMap<>();
+        List<ParseResult> results = new ArrayList<>(parsed.size());
+        for (ParseResult result : parsed) {
+            if (!result.isParsed()) {
+                results.add(result);
+                continue;
+            }
+            var first = firstByUrl.putIfAbsent(result.url(), results.size());
+            if (first == null) {
+                results.add(result);
+            } else {
+                results.set(first, results.get(first).withDuplicates(results.get(first).duplicates() + 1));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes the records in the given format.
+     *
+     * @param results The records.
+     * @param format  The output format.
+     * @param out     The destination, not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void write(List<ParseResult> results, BatchOutputFormatEnums format, Writer out)
+            throws IOException {
+        if (format == BatchOutputFormatEnums.CSV) {
+            out.write("filename,site,url,duplicates,failure\n");
+        }
+        var sb = new StringBuilder(256);
+        for (ParseResult result : results) {
+            sb.setLength(0);
+            if (format == BatchOutputFormatEnums.CSV) {
+                csv(sb, result.fileName()).append(',');
+                csv(sb, result.site()).append(',');
+                csv(sb, result.url()).append(',');
+                sb.append(result.duplicates()).append(',');
+                csv(sb, result.failure());
+            } else {
+                sb.append("{\"filename\":");
+                json(sb, result.fileName()).append(",\"site\":");
+                json(sb, result.site()).append(",\"url\":");
+                json(sb, result.url()).append(",\"duplicates\":").append(result.duplicates()).append(",\"failure\":");
+                json(sb, result.failure()).append('}');
+            }
+            out.append(sb).append('\n');
+        }
+        out.flush();
+    }
+
+    private ParseResult parseOne(String fileName) {
+        var result = fileNameParserService.parse(stripExtension(fileName));
+        // Report the name as it was given
+        return new ParseResult(fileName, result.site(), result.url(), result.failure(), 0);
+    }
+
+    static String stripExtension(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        if (dot > 0 && MEDIA_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+            return fileName.substring(0, dot);
+        }
+        return fileName;
+    }
+
+    private static StringBuilder csv(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (var i = 0; i < value.length(); ++i) {
+            var c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static StringBuilder json(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (var i = 0; i < value.length(); ++i) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Command line entry point, see the class description for the arguments.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path dir = null;
+        Path list = null;
+        Path outFile = null;
+        var stdin = false;
+        var recursive = false;
+        var format = BatchOutputFormatEnums.JSONL;
+        var threads = Runtime.getRuntime().availableProcessors();
+
+        for (var i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "--dir" -> dir = Paths.get(args[++i]);
+                case "--list" -> list = Paths.get(args[++i]);
+                case "--stdin", "-" -> stdin = true;
+                case "--recursive", "-r" -> recursive = true;
+                case "--format" -> format = BatchOutputFormatEnums.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--out" -> outFile = Paths.get(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        List<String> names;
+        if (dir != null) {
+            names = namesFromDirectory(dir, recursive);
+        } else if (list != null) {
+            try (Reader reader = Files.newBufferedReader(list, StandardCharsets.UTF_8)) {
+                names = namesFromReader(reader);
+            }
+        } else if (stdin) {
+            names = namesFromReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        } else {
+            System.err.println("Usage: IFPBatchParsingApi (--dir <path> [--recursive] | --list <file> | --stdin)"
+                    + " [--format jsonl|csv] [--out <file>] [--threads <n>]");
+            return;
+        }
+
+        var results = new IFPBatchParsingApi(new FileNameParserService(), threads).parseAll(names);
+        if (outFile != null) {
+            try (Writer out = Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)) {
+                write(results, format, out);
+            }
+        } else {
+            write(results, format, new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        }
+        var failed = results.stream().filter(r -> !r.isParsed()).count();
+        System.err.printf("%d name(s), %d URL(s), %d failure(s)%n", names.size(), results.size() - failed, failed);
+    }
+}
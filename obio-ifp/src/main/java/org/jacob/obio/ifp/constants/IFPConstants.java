@@ -9,14 +9,9 @@ package org.jacob.obio.ifp.constants;
 public class IFPConstants {
 
     /**
-     * 9-digit PID regular expression.
+     * Site keys, priorities and filename to URL rewrites of every supported site.
      */
-    public static final String PIXIV_PATTERN = "^\\d{9}_p\\d{1,2}$";
-
-    /**
-     * 8-digit PID regular expression.
-     */
-    public static final String PIXIV_PATTERN_2 = "^\\d{8}_p\\d{1,2}$";
+    public static final String URL_REWRITE_RULES_PATH = "obio-ifp/src/main/resources/conf/url-rewrite-rules.yaml";
 
     private IFPConstants() {
     }
@@ -1,12 +1,12 @@
 package org.jacob.obio.ifp.controller;
 
-import org.jacob.obio.ifp.constants.IFPConstants;
 import org.jacob.obio.ifp.service.FilenameParser;
+import org.jacob.obio.ifp.service.ParseResult;
+import org.jacob.obio.ifp.service.SiteKeyMatcher;
+import org.jacob.obio.ifp.service.SiteRule;
+import org.jacob.obio.ifp.service.UrlRewriteRules;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.List;
 
 /**
  * Get input contents from client (console or front-end).
@@ -16,44 +16,98 @@ import java.util.regex.Pattern;
  */
 public final class FileNameParserService {
 
-    private static final Pattern PIXIV_MATCHER = Pattern.compile(IFPConstants.PIXIV_PATTERN);
+    private static final String PIXIV_SITE = "Pixiv";
 
-    private static final Pattern PIXIV_MATCHER_2 = Pattern.compile(IFPConstants.PIXIV_PATTERN_2);
-
-    private final Map<String, Function<String, String>> parserMap;
+    private final SiteKeyMatcher siteKeyMatcher;
 
     private final FilenameParser filenameParser;
 
     public FileNameParserService() {
-        this.filenameParser = new FilenameParser();
-        this.parserMap = new HashMap<>();
-
-        // Initialize the parser map with conditions and corresponding parsers
-        parserMap.put("httpstwitter", filenameParser::twitterParser);
-        parserMap.put("httpsx", filenameParser::twitterParser);
-        parserMap.put("httpsdanbooru", filenameParser::danbooruParser);
-        parserMap.put("bilibili.comopus", filenameParser::bilibiliIllustrationsParser);
-        parserMap.put("miyoushe.com", filenameParser::miyousheParser);
-        parserMap.put("deviantart", filenameParser::deviantartParser);
-        parserMap.put("facebook", filenameParser::facebookParser);
-        parserMap.put("bilibili.comvideo", filenameParser::bilibiliVideosParser);
-        parserMap.put("youtube", filenameParser::youtubeParser);
+        this(UrlRewriteRules.getInstance());
+    }
+
+    /**
+     * @param rules The URL rewrite rules, which also carry the site keys and their priorities.
+     */
+    public FileNameParserService(UrlRewriteRules rules) {
+        this.filenameParser = new FilenameParser(rules);
+        this.siteKeyMatcher = SiteKeyMatcher.compile(rules.siteRules());
     }
 
     public String parseFileName(String fileName) {
-        // Handle special cases with regex first
-        if (PIXIV_MATCHER.matcher(fileName).find() || PIXIV_MATCHER_2.matcher(fileName).find()) {
+        // Pixiv names have no key, they are recognized by their shape
+        if (isPixivName(fileName)) {
             return filenameParser.pixivIllustrationsOrIllustratorIdParser(fileName);
         }
 
-        // Use the parser map to find the correct parser
-        for (Map.Entry<String, Function<String, String>> entry : parserMap.entrySet()) {
-            if (fileName.contains(entry.getKey())) {
-                return entry.getValue().apply(fileName);
-            }
+        // One scan over the name finds the best matching site key
+        var rule = siteKeyMatcher.match(fileName);
+        if (rule != null) {
+            var url = rule.parser().apply(fileName);
+            return url == null ? "" : url;
         }
 
         // Default case if no conditions are matched
         return "";
     }
+
+    /**
+     * Parses a file name and reports the site and the outcome instead of an empty string on failure.
+     *
+     * @param fileName The file name, without extension.
+     * @return The result, with {@link ParseResult#fileName()} set to the given name.
+     */
+    public ParseResult parse(String fileName) {
+        if (isPixivName(fileName)) {
+            return ParseResult.parsed(fileName, PIXIV_SITE,
+                    filenameParser.pixivIllustrationsOrIllustratorIdParser(fileName));
+        }
+        var rule = siteKeyMatcher.match(fileName);
+        if (rule == null) {
+            return ParseResult.failed(fileName, null, "no matching site");
+        }
+        var url = rule.parser().apply(fileName);
+        return url == null || url.isBlank()
+                ? ParseResult.failed(fileName, rule.site(), "name does not fit any " + rule.site() + " rewrite")
+                : ParseResult.parsed(fileName, rule.site(), url);
+    }
+
+    /**
+     * @return The registered site rules, in registration order.
+     */
+    public List<SiteRule> siteRules() {
+        return siteKeyMatcher.rules();
+    }
+
+    /**
+     * Checks for a Pixiv file name {@code <8 or 9 digit id>_p<1 or 2 digit page>}, the same names the former
+     * {@code ^\d{9}_p\d{1,2}$} and {@code ^\d{8}_p\d{1,2}$} patterns accepted.
+     *
+     * @param name The file name.
+     * @return Whether the whole name is a Pixiv name.
+     */
+    static boolean isPixivName(CharSequence name) {
+        var length = name.length();
+        var i = 0;
+        while (i < length && isAsciiDigit(name.charAt(i))) {
+            ++i;
+        }
+        if (i < 8 || i > 9 || i + 2 >= length || name.charAt(i) != '_' || name.charAt(i + 1) != 'p') {
+            return false;
+        }
+        var pageDigits = length - i - 2;
+        if (pageDigits > 2) {
+            return false;
+        }
+        for (var j = i + 2; j < length; ++j) {
+            if (!isAsciiDigit(name.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
@@ -0,0 +1,20 @@
+package org.jacob.obio.ifp.enums;
+
+/**
+ * Record formats of the batch parsing output.
+ *
+ * @author Kotohiko
+ * @since 08:17 Oct 18, 2026
+ */
+public enum BatchOutputFormatEnums {
+
+    /**
+     * One JSON object per line.
+     */
+    JSONL,
+
+    /**
+     * Comma-separated values with a header line, quoted as in RFC 4180.
+     */
+    CSV
+}
@@ -0,0 +1,59 @@
+package org.jacob.obio.ifp.enums;
+
+/**
+ * The sites a {@link org.jacob.obio.ifp.service.SourceRef} can point to.
+ *
+ * @author Kotohiko
+ * @since 08:23 Oct 18, 2026
+ */
+public enum SourceSiteEnums {
+
+    PIXIV(1, "Pixiv"),
+    X(2, "X"),
+    DANBOORU(3, "Danbooru"),
+    BILIBILI_OPUS(4, "Bilibili"),
+    BILIBILI_DYNAMIC(5, "Bilibili"),
+    BILIBILI_VIDEO(6, "Bilibili video"),
+    MIYOUSHE(7, "Miyoushe"),
+    DEVIANTART(8, "DeviantArt"),
+    FACEBOOK(9, "Facebook"),
+    YOUTUBE(10, "YouTube"),
+    YOUTUBE_SHORTS(11, "YouTube");
+
+    /**
+     * A stable number of the site for files that outlive the program, unlike {@link #ordinal()} it does not
+     * change when sites are added or reordered. Never reuse the code of a removed site.
+     */
+    private final int code;
+
+    /**
+     * The site name used by the URL rewrite rules.
+     */
+    private final String siteName;
+
+    SourceSiteEnums(int code, String siteName) {
+        this.code = code;
+        this.siteName = siteName;
+    }
+
+    /**
+     * @param code A stable site code.
+     * @return The site with the given code, or {@code null} if there is none.
+     */
+    public static SourceSiteEnums ofCode(int code) {
+        for (SourceSiteEnums site : values()) {
+            if (site.code == code) {
+                return site;
+            }
+        }
+        return null;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public String siteName() {
+        return siteName;
+    }
+}
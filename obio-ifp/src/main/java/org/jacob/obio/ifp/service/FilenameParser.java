@@ -2,20 +2,43 @@ package org.jacob.obio.ifp.service;
 
 /**
  * Provides utilities for parsing filenames into URLs based on different platforms.
+ * <p>
+ * The per-site rewrites are declared in the URL rewrite rules file and compiled by {@link UrlRewriteRules};
+ * the methods of this class are thin wrappers that run the rule of one site. Every method returns an empty
+ * string if the name does not fit any rewrite of its site.
  *
  * @author Kotohiko
  * @since Oct 29, 2023
  */
 public final class FilenameParser {
 
+    private final UrlRewriteRules rules;
+
+    /**
+     * Uses the process-wide rules.
+     */
+    public FilenameParser() {
+        this(UrlRewriteRules.getInstance());
+    }
+
+    /**
+     * @param rules The rules to run.
+     */
+    public FilenameParser(UrlRewriteRules rules) {
+        this.rules = rules;
+    }
+
     /**
-     * Converts the specified string to a StringBuilder object.
+     * Runs the rule of a site.
      *
-     * @param string The string to be converted.
-     * @return A StringBuilder object representing the input string.
+     * @param site The site name of the rule.
+     * @param str  The file name, without extension.
+     * @return The URL, or an empty string if the site has no rule or the name does not fit it.
      */
-    private StringBuilder getStringBuilder(String string) {
-        return new StringBuilder(string);
+    public String rewrite(String site, String str) {
+        var rule = rules.bySite(site);
+        var url = rule == null ? null : rule.rewrite(str);
+        return url == null ? "" : url;
     }
 
     /**
@@ -25,7 +48,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String pixivIllustrationsOrIllustratorIdParser(String str) {
-        return String.format("https://www.pixiv.net/artworks/%s", str.substring(0, str.indexOf('_')));
+        return rewrite("Pixiv", str);
     }
 
     /**
@@ -35,25 +58,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String twitterParser(String str) {
-        var sb = getStringBuilder(str);
-        if (str.contains("httpstwitter.com")) {
-            sb.replace(0, 16, "https://x.com/");
-        } else if (str.contains("httpsx.com")) {
-            sb.replace(0, 10, "https://x.com/");
-        }
-        sb.insert(sb.indexOf("status"), "/");
-        sb.insert(sb.indexOf("status") + 6, "/");
-        if (str.endsWith("photo1")) {
-            return sb.substring(0, sb.indexOf("photo1"));
-        } else if (str.endsWith("photo2")) {
-            return sb.substring(0, sb.indexOf("photo2"));
-        } else if (str.endsWith("photo3")) {
-            return sb.substring(0, sb.indexOf("photo3"));
-        } else if (str.endsWith("photo4")) {
-            return sb.substring(0, sb.indexOf("photo4"));
-        } else {
-            return sb.toString();
-        }
+        return rewrite("X", str);
     }
 
     /**
@@ -64,12 +69,7 @@ public final class FilenameParser {
      */
     @SuppressWarnings("unused")
     public String yandeParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(16, "/");
-        sb.insert(21, "/");
-        sb.insert(26, "/");
-        return String.valueOf(sb);
+        return rewrite("Yande", str);
     }
 
     /**
@@ -79,18 +79,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String miyousheParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(24, "/");
-        if (str.contains("ys")) {
-            sb.insert(sb.indexOf("ys") + 2, "/");
-        } else if (str.contains("bh3")) {
-            sb.insert(sb.indexOf("bh3") + 3, "/");
-        } else if (str.contains("sr")) {
-            sb.insert(sb.indexOf("sr") + 2, "/");
-        }
-        sb.insert(sb.indexOf("article") + 7, "/");
-        return sb.toString();
+        return rewrite("Miyoushe", str);
     }
 
     /**
@@ -100,8 +89,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String danbooruParser(String str) {
-        var sb = getStringBuilder(str);
-        return sb.replace(0, 28, "https://danbooru.donmai.us/posts/").toString();
+        return rewrite("Danbooru", str);
     }
 
     /**
@@ -111,18 +99,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String bilibiliIllustrationsParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        if (str.contains("opus")) {
-            sb.insert(24, "/");
-            sb.insert(sb.indexOf("opus") + 4, "/");
-        } else if (str.contains("t.bilibili")) {
-            sb.insert(22, "/");
-        }
-        if (str.contains("spm_id_from")) {
-            sb.delete(sb.indexOf("spm_id_from"), sb.length());
-        }
-        return sb.toString();
+        return rewrite("Bilibili", str);
     }
 
     /**
@@ -132,16 +109,12 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String bilibiliVideosParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(sb.indexOf("video"), "/");
-        sb.insert(sb.indexOf("video") + 5, "/");
-        return sb.toString();
+        return rewrite("Bilibili video", str);
     }
 
     @SuppressWarnings("unused")
     public String baiduNetDiskParser(String str) {
-        return "pan.baidu.com/s/" + str;
+        return rewrite("Baidu Netdisk", str);
     }
 
     /**
@@ -152,7 +125,7 @@ public final class FilenameParser {
      */
     @SuppressWarnings("unused")
     public String nicoVideoParser(String str) {
-        return "https://seiga.nicovideo.jp/seiga/" + str;
+        return rewrite("Niconico", str);
     }
 
     /**
@@ -163,11 +136,7 @@ public final class FilenameParser {
      */
     @SuppressWarnings("unused")
     public String alphacodersParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(sb.indexOf("com") + 3, "/");
-        sb.insert(sb.indexOf("i="), "?");
-        return sb.toString();
+        return rewrite("Alpha Coders", str);
     }
 
     /**
@@ -177,15 +146,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String youtubeParser(String str) {
-        var sb = getStringBuilder(str);
-        if (str.contains("httpswww.youtube.comwatch")) {
-            sb.replace(0, 27, "https://www.youtube.com/watch?v=");
-        } else if (str.contains("httpsyoutu.be")) {
-            sb.replace(0, 13, "https://youtu.be/");
-        } else if (str.contains("httpswww.youtube.comshorts")) {
-            sb.replace(0, 26, "https://www.youtube.com/shorts/");
-        }
-        return sb.toString();
+        return rewrite("YouTube", str);
     }
 
     /**
@@ -196,7 +157,7 @@ public final class FilenameParser {
      */
     @SuppressWarnings("unused")
     public String wallpaperCaveParser(String str) {
-        return "https://wallpapercave.com/w/" + str;
+        return rewrite("Wallpaper Cave", str);
     }
 
     /**
@@ -206,12 +167,7 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String deviantartParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(sb.indexOf("com") + 3, "/");
-        sb.insert(sb.indexOf("sevenics") + 8, "/");
-        sb.insert(sb.lastIndexOf("art") + 3, "/");
-        return sb.toString();
+        return rewrite("DeviantArt", str);
     }
 
     /**
@@ -221,11 +177,6 @@ public final class FilenameParser {
      * @return parsed URL
      */
     public String facebookParser(String str) {
-        var sb = getStringBuilder(str);
-        sb.insert(5, "://");
-        sb.insert(sb.indexOf("com") + 3, "/");
-        sb.insert(sb.indexOf("photo") + 5, "/");
-        sb.insert(sb.indexOf("photo") + 6, "?");
-        return sb.toString();
+        return rewrite("Facebook", str);
     }
 }
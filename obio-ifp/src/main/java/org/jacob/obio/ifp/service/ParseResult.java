@@ -0,0 +1,44 @@
+package org.jacob.obio.ifp.service;
+
+/**
+ * The outcome of parsing one file name into its source URL.
+ *
+ * @param fileName   The file name as given, including any extension.
+ * @param site       The site the name belongs to, {@code null} if no site matched.
+ * @param url        The source URL, {@code null} if parsing failed.
+ * @param failure    Why parsing failed, {@code null} on success.
+ * @param duplicates How many further file names resolved to the same URL and were collapsed into this one.
+ * @author Kotohiko
+ * @since 08:17 Oct 18, 2026
+ */
+public record ParseResult(String fileName, String site, String url, String failure, int duplicates) {
+
+    /**
+     * @return A successful result.
+     */
+    public static ParseResult parsed(String fileName, String site, String url) {
+        return new ParseResult(fileName, site, url, null, 0);
+    }
+
+    /**
+     * @return A failed result.
+     */
+    public static ParseResult failed(String fileName, String site, String failure) {
+        return new ParseResult(fileName, site, null, failure, 0);
+    }
+
+    /**
+     * @return Whether a URL was produced.
+     */
+    public boolean isParsed() {
+        return url != null;
+    }
+
+    /**
+     * @param duplicates The number of collapsed file names.
+     * @return A copy with the given number of duplicates.
+     */
+    public ParseResult withDuplicates(int duplicates) {
+        return new ParseResult(fileName, site, url, failure, duplicates);
+    }
+}
@@ -0,0 +1,220 @@
+package org.jacob.obio.ifp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One {@code match}/{@code url} pair of a {@link UrlRewriteRule}, compiled into two flat instruction lists.
+ * <p>
+ * The match program is a sequence of literal and capture instructions. A literal must occur exactly at the
+ * current position; a capture extends to the next occurrence (or, for {@code {name+}}, the last occurrence) of
+ * the literal that follows it, or to the end of the name. The url program is a sequence of literal and capture
+ * reference instructions. A rewrite records the capture spans, adds up the output length and copies every
+ * segment once into a buffer of exactly that length; nothing else is allocated.
+ *
+ * @author Kotohiko
+ * @since 08:21 Oct 18, 2026
+ */
+public final class RewriteProgram {
+
+    /**
+     * Match instructions: a literal, or {@code null} for a capture.
+     */
+    private final String[] matchLiterals;
+
+    /**
+     * Per match instruction: the capture index, or {@code -1} for a literal.
+     */
+    private final int[] matchCaptures;
+
+    /**
+     * Per match instruction: whether the capture is greedy.
+     */
+    private final boolean[] greedy;
+
+    /**
+     * Url instructions: a literal, or {@code null} for a capture reference.
+     */
+    private final String[] urlLiterals;
+
+    /**
+     * Per url instruction: the referenced capture index, or {@code -1} for a literal.
+     */
+    private final int[] urlCaptures;
+
+    private final int urlLiteralLength;
+
+    private final int captureCount;
+
+    private final String source;
+
+    private RewriteProgram(String source, String[] matchLiterals, int[] matchCaptures, boolean[] greedy,
+                           String[] urlLiterals, int[] urlCaptures, int captureCount) {
+        this.source = source;
+        this.matchLiterals = matchLiterals;
+        this.matchCaptures = matchCaptures;
+        this.greedy = greedy;
+        this.urlLiterals = urlLiterals;
+        this.urlCaptures = urlCaptures;
+        this.captureCount = captureCount;
+        var length = 0;
+        for (String literal : urlLiterals) {
+            length += literal == null ? 0 : literal.length();
+        }
+        this.urlLiteralLength = length;
+    }
+
+    /**
+     * Compiles a rewrite.
+     *
+     * @param match The pattern the whole file name has to fit.
+     * @param url   The URL template.
+     * @return The compiled program.
+     * @throws IllegalArgumentException if a placeholder is malformed, two captures are adjacent, a capture
+     *                                  name repeats, or the url refers to an unknown capture.
+     */
+    public static RewriteProgram compile(String match, String url) {
+        List<String> names = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        List<Integer> captures = new ArrayList<>();
+        List<Boolean> greedyFlags = new ArrayList<>();
+
+        parse(match, (literal, name) -> {
+            if (literal != null) {
+                literals.add(literal);
+                captures.add(-1);
+                greedyFlags.add(false);
+                return;
+            }
+            var greedy = name.endsWith("+");
+            var plain = greedy ? name.substring(0, name.length() - 1) : name;
+            if (names.contains(plain)) {
+                throw new IllegalArgumentException("Capture {" + plain + "} repeats in " + match);
+            }
+            if (!captures.isEmpty() && captures.getLast() >= 0) {
+                throw new IllegalArgumentException("Adjacent captures in " + match);
+            }
+            names.add(plain);
+            literals.add(null);
+            captures.add(names.size() - 1);
+            greedyFlags.add(greedy);
+        });
+
+        List<String> urlLiterals = new ArrayList<>();
+        List<Integer> urlCaptures = new ArrayList<>();
+        parse(url, (literal, name) -> {
+            if (literal != null) {
+                urlLiterals.add(literal);
+                urlCaptures.add(-1);
+                return;
+            }
+            var index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown capture {" + name + "} in " + url);
+            }
+            urlLiterals.add(null);
+            urlCaptures.add(index);
+        });
+
+        var greedy = new boolean[greedyFlags.size()];
+        for (var i = 0; i < greedy.length; ++i) {
+            greedy[i] = greedyFlags.get(i);
+        }
+        return new RewriteProgram(match + " -> " + url,
+                literals.toArray(new String[0]), captures.stream().mapToInt(Integer::intValue).toArray(), greedy,
+                urlLiterals.toArray(new String[0]), urlCaptures.stream().mapToInt(Integer::intValue).toArray(),
+                names.size());
+    }
+
+    /**
+     * @param name The file name, without extension.
+     * @return The URL, or {@code null} if the name does not fit the match pattern.
+     */
+    public String rewrite(String name) {
+        // spans[2 * i] and spans[2 * i + 1] are start and end of capture i
+        var spans = new int[captureCount * 2];
+        var pos = 0;
+        var length = name.length();
+        for (var i = 0; i < matchLiterals.length; ++i) {
+            var literal = matchLiterals[i];
+            if (literal != null) {
+                if (!name.startsWith(literal, pos)) {
+                    return null;
+                }
+                pos += literal.length();
+                continue;
+            }
+            var capture = matchCaptures[i];
+            int end;
+            if (i + 1 == matchLiterals.length) {
+                end = length;
+            } else {
+                var next = matchLiterals[i + 1];
+                end = greedy[i] ? name.lastIndexOf(next) : name.indexOf(next, pos);
+                if (end < pos) {
+                    return null;
+                }
+            }
+            spans[2 * capture] = pos;
+            spans[2 * capture + 1] = end;
+            pos = end;
+        }
+        if (pos != length) {
+            return null;
+        }
+
+        var size = urlLiteralLength;
+        for (int capture : urlCaptures) {
+            if (capture >= 0) {
+                size += spans[2 * capture + 1] - spans[2 * capture];
+            }
+        }
+        var out = new char[size];
+        var at = 0;
+        for (var i = 0; i < urlLiterals.length; ++i) {
+            var literal = urlLiterals[i];
+            if (literal != null) {
+                literal.getChars(0, literal.length(), out, at);
+                at += literal.length();
+            } else {
+                var capture = urlCaptures[i];
+                name.getChars(spans[2 * capture], spans[2 * capture + 1], out, at);
+                at += spans[2 * capture + 1] - spans[2 * capture];
+            }
+        }
+        return new String(out);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Splits a pattern into literals and {@code {name}} placeholders.
+     */
+    private static void parse(String pattern, SegmentSink sink) {
+        var i = 0;
+        while (i < pattern.length()) {
+            var open = pattern.indexOf('{', i);
+            if (open < 0) {
+                sink.accept(pattern.substring(i), null);
+                return;
+            }
+            if (open > i) {
+                sink.accept(pattern.substring(i, open), null);
+            }
+            var close = pattern.indexOf('}', open);
+            if (close < 0 || close == open + 1) {
+                throw new IllegalArgumentException("Malformed placeholder in " + pattern);
+            }
+            sink.accept(null, pattern.substring(open + 1, close));
+            i = close + 1;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentSink {
+        void accept(String literal, String captureName);
+    }
+}
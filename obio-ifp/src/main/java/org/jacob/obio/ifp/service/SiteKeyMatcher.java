@@ -0,0 +1,180 @@
+package org.jacob.obio.ifp.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton over the site keys of {@link SiteRule}s.
+ * <p>
+ * All keys are compiled into one automaton, so a file name is scanned exactly once no matter how many
+ * sites are registered. Every state stores the best rule among all keys ending there (directly or through
+ * its failure links), which makes the scan a single table walk with one comparison per character.
+ * When several keys occur in a name the winner is deterministic: the highest
+ * {@link SiteRule#priority() priority}, then the longest key, then the rule registered first.
+ *
+ * @author Kotohiko
+ * @since 08:16 Oct 18, 2026
+ */
+public final class SiteKeyMatcher {
+
+    /**
+     * Characters of the outgoing edges per state, sorted, searched by binary search.
+     */
+    private final char[][] edgeChars;
+
+    private final int[][] edgeTargets;
+
+    private final int[] failure;
+
+    /**
+     * Index into {@link #rules} of the best rule matched when reaching a state, {@code -1} if none.
+     */
+    private final int[] best;
+
+    private final List<SiteRule> rules;
+
+    private SiteKeyMatcher(List<SiteRule> rules) {
+        this.rules = List.copyOf(rules);
+
+        // Build the trie
+        List<char[]> chars = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        chars.add(new char[0]);
+        targets.add(new int[0]);
+        terminal.add(-1);
+        for (var r = 0; r < this.rules.size(); ++r) {
+            var key = this.rules.get(r).key();
+            var state = 0;
+            for (var i = 0; i < key.length(); ++i) {
+                var c = key.charAt(i);
+                var next = find(chars.get(state), targets.get(state), c);
+                if (next < 0) {
+                    next = chars.size();
+                    chars.add(new char[0]);
+                    targets.add(new int[0]);
+                    terminal.add(-1);
+                    addEdge(chars, targets, state, c, next);
+                }
+                state = next;
+            }
+            terminal.set(state, better(terminal.get(state), r));
+        }
+
+        var size = chars.size();
+        edgeChars = chars.toArray(new char[0][]);
+        edgeTargets = targets.toArray(new int[0][]);
+        failure = new int[size];
+        best = new int[size];
+        for (var s = 0; s < size; ++s) {
+            best[s] = terminal.get(s);
+        }
+
+        // Breadth-first: a state's failure target is always shallower, so its best rule is final already
+        var queue = new ArrayDeque<Integer>();
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (var e = 0; e < edgeChars[state].length; ++e) {
+                var c = edgeChars[state][e];
+                var child = edgeTargets[state][e];
+                var f = failure[state];
+                var next = find(edgeChars[f], edgeTargets[f], c);
+                while (next < 0 && f != 0) {
+                    f = failure[f];
+                    next = find(edgeChars[f], edgeTargets[f], c);
+                }
+                failure[child] = next < 0 || next == child ? 0 : next;
+                best[child] = better(best[child], best[failure[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @param rules The rules to match, in registration order.
+     * @return The compiled matcher.
+     * @throws IllegalArgumentException if a key is empty.
+     */
+    public static SiteKeyMatcher compile(List<SiteRule> rules) {
+        for (SiteRule rule : rules) {
+            if (rule.key().isEmpty()) {
+                throw new IllegalArgumentException("Empty site key for " + rule.site());
+            }
+        }
+        return new SiteKeyMatcher(rules);
+    }
+
+    /**
+     * Scans the name once and returns the best rule whose key occurs anywhere in it.
+     *
+     * @param name The file name.
+     * @return The matched rule, or {@code null} if no key occurs in the name.
+     */
+    public SiteRule match(CharSequence name) {
+        var state = 0;
+        var winner = -1;
+        for (var i = 0; i < name.length(); ++i) {
+            var c = name.charAt(i);
+            var next = find(edgeChars[state], edgeTargets[state], c);
+            while (next < 0 && state != 0) {
+                state = failure[state];
+                next = find(edgeChars[state], edgeTargets[state], c);
+            }
+            state = Math.max(next, 0);
+            winner = better(winner, best[state]);
+        }
+        return winner < 0 ? null : rules.get(winner);
+    }
+
+    /**
+     * @return The registered rules, in registration order.
+     */
+    public List<SiteRule> rules() {
+        return rules;
+    }
+
+    /**
+     * @return The rule that wins over the other, {@code -1} standing for no rule.
+     */
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return Math.max(a, b);
+        }
+        var ra = rules.get(a);
+        var rb = rules.get(b);
+        if (ra.priority() != rb.priority()) {
+            return ra.priority() > rb.priority() ? a : b;
+        }
+        if (ra.key().length() != rb.key().length()) {
+            return ra.key().length() > rb.key().length() ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static int find(char[] chars, int[] targets, char c) {
+        var i = Arrays.binarySearch(chars, c);
+        return i < 0 ? -1 : targets[i];
+    }
+
+    private static void addEdge(List<char[]> chars, List<int[]> targets, int state, char c, int target) {
+        var oldChars = chars.get(state);
+        var oldTargets = targets.get(state);
+        var at = -Arrays.binarySearch(oldChars, c) - 1;
+        var newChars = new char[oldChars.length + 1];
+        var newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldChars, 0, newChars, 0, at);
+        System.arraycopy(oldTargets, 0, newTargets, 0, at);
+        newChars[at] = c;
+        newTargets[at] = target;
+        System.arraycopy(oldChars, at, newChars, at + 1, oldChars.length - at);
+        System.arraycopy(oldTargets, at, newTargets, at + 1, oldTargets.length - at);
+        chars.set(state, newChars);
+        targets.set(state, newTargets);
+    }
+}
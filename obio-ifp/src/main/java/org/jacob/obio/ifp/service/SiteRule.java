@@ -0,0 +1,17 @@
+package org.jacob.obio.ifp.service;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A site key of the {@link SiteKeyMatcher}: file names containing {@code key} belong to {@code site} and are
+ * turned into a URL by {@code parser}.
+ *
+ * @param key      The text that identifies the site inside a file name.
+ * @param site     A readable name of the site, for logs and reports.
+ * @param priority Keys with a higher priority win when several keys occur in one file name.
+ * @param parser   Turns the file name into a URL.
+ * @author Kotohiko
+ * @since 08:16 Oct 18, 2026
+ */
+public record SiteRule(String key, String site, int priority, UnaryOperator<String> parser) {
+}
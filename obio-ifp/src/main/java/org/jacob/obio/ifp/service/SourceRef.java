@@ -0,0 +1,62 @@
+package org.jacob.obio.ifp.service;
+
+import org.jacob.obio.ifp.enums.SourceSiteEnums;
+
+/**
+ * What a file name says about its source, as offsets into the original name instead of copied substrings.
+ * <p>
+ * Only the numbers are decoded; the author and any non-numeric token (a video id, a DeviantArt slug,
+ * a Miyoushe game) stay spans of {@link #name()} until {@link #author()} or {@link #token()} is called.
+ * Use {@link SourceRefRenderer} to turn a reference into its URL.
+ *
+ * @param name        The parsed name.
+ * @param site        The site.
+ * @param id          The numeric post, artwork or status id, {@code -1} if the site has none.
+ * @param authorStart Start of the author span, {@code -1} if the name carries no author.
+ * @param authorEnd   End (exclusive) of the author span.
+ * @param tokenStart  Start of the site specific token span, {@code -1} if there is none.
+ * @param tokenEnd    End (exclusive) of the token span.
+ * @param page        Zero-based page within the post ({@code _p0} and {@code photo1} are both {@code 0}),
+ *                    {@code -1} if the name has no page.
+ * @author Kotohiko
+ * @since 08:23 Oct 18, 2026
+ */
+public record SourceRef(CharSequence name, SourceSiteEnums site, long id, int authorStart, int authorEnd,
+                        int tokenStart, int tokenEnd, int page) {
+
+    /**
+     * @return Whether the name carries an author.
+     */
+    public boolean hasAuthor() {
+        return authorStart >= 0;
+    }
+
+    /**
+     * @return The author, a view of {@link #name()}; {@code null} if there is none.
+     */
+    public CharSequence author() {
+        return hasAuthor() ? name.subSequence(authorStart, authorEnd) : null;
+    }
+
+    /**
+     * @return The site specific token, a view of {@link #name()}; {@code null} if there is none.
+     */
+    public CharSequence token() {
+        return tokenStart >= 0 ? name.subSequence(tokenStart, tokenEnd) : null;
+    }
+
+    /**
+     * @param other Another reference.
+     * @return Whether both point to the same post, ignoring the page.
+     */
+    public boolean samePost(SourceRef other) {
+        if (site != other.site || id != other.id) {
+            return false;
+        }
+        if (tokenStart < 0 || other.tokenStart < 0) {
+            return tokenStart == other.tokenStart;
+        }
+        return CharSequence.compare(name.subSequence(tokenStart, tokenEnd),
+                other.name.subSequence(other.tokenStart, other.tokenEnd)) == 0;
+    }
+}
@@ -0,0 +1,270 @@
+package org.jacob.obio.ifp.service;
+
+import org.jacob.obio.ifp.enums.SourceSiteEnums;
+
+/**
+ * Extracts a {@link SourceRef} from a file name by index arithmetic over the name.
+ * <p>
+ * The parser never copies the name: prefixes are compared in place, numbers are accumulated digit by digit
+ * and everything else is recorded as offsets. It recognizes the same names as the URL rewrite rules of the
+ * supported sites; names of other sites, or names that only look like a site, give {@code null}.
+ * The parser is stateless and can be shared.
+ *
+ * @author Kotohiko
+ * @since 08:23 Oct 18, 2026
+ */
+public final class SourceRefParser {
+
+    private static final String HTTPS = "https";
+
+    private static final String[] X_HOSTS = {"httpsx.com", "httpstwitter.com"};
+
+    /**
+     * Longest numeric id that may still fit a {@code long}, {@link #number} rejects the ones that do not.
+     */
+    private static final int MAX_ID_DIGITS = 19;
+
+    /**
+     * @param name The file name, without extension.
+     * @return The reference, or {@code null} if the name is not recognized.
+     */
+    public SourceRef parse(CharSequence name) {
+        if (!startsWith(name, 0, HTTPS)) {
+            return parsePixiv(name);
+        }
+        for (String host : X_HOSTS) {
+            if (startsWith(name, 0, host)) {
+                return parseX(name, host.length());
+            }
+        }
+        if (startsWith(name, 0, "httpsdanbooru.donmai.usposts")) {
+            return numeric(name, SourceSiteEnums.DANBOORU, "httpsdanbooru.donmai.usposts".length());
+        }
+        if (startsWith(name, 0, "httpst.bilibili.com")) {
+            return numeric(name, SourceSiteEnums.BILIBILI_DYNAMIC, "httpst.bilibili.com".length());
+        }
+        if (startsWith(name, 0, "httpsyoutu.be")) {
+            return token(name, SourceSiteEnums.YOUTUBE, "httpsyoutu.be".length());
+        }
+        if (startsWith(name, 0, "httpswww.youtube.comwatchv")) {
+            var at = "httpswww.youtube.comwatchv".length();
+            return token(name, SourceSiteEnums.YOUTUBE, at < name.length() && name.charAt(at) == '=' ? at + 1 : at);
+        }
+        if (startsWith(name, 0, "httpswww.youtube.comshorts")) {
+            return token(name, SourceSiteEnums.YOUTUBE_SHORTS, "httpswww.youtube.comshorts".length());
+        }
+
+        var at = indexOf(name, "bilibili.comopus", HTTPS.length());
+        if (at >= 0) {
+            return numeric(name, SourceSiteEnums.BILIBILI_OPUS, at + "bilibili.comopus".length());
+        }
+        at = indexOf(name, "bilibili.comvideo", HTTPS.length());
+        if (at >= 0) {
+            return token(name, SourceSiteEnums.BILIBILI_VIDEO, at + "bilibili.comvideo".length());
+        }
+        at = indexOf(name, "miyoushe.com", HTTPS.length());
+        if (at >= 0) {
+            return parseMiyoushe(name, at + "miyoushe.com".length());
+        }
+        at = indexOf(name, "deviantart.com", HTTPS.length());
+        if (at >= 0) {
+            return parseDeviantart(name, at + "deviantart.com".length());
+        }
+        at = indexOf(name, "facebook.comphoto", HTTPS.length());
+        if (at >= 0) {
+            return parseFacebook(name, at + "facebook.comphoto".length());
+        }
+        return null;
+    }
+
+    /**
+     * {@code <8 or 9 digit id>_p<1 or 2 digit page>}.
+     */
+    private SourceRef parsePixiv(CharSequence name) {
+        var digits = digitsAt(name, 0);
+        if (digits < 8 || digits > 9 || !startsWith(name, digits, "_p")) {
+            return null;
+        }
+        var pageDigits = digitsAt(name, digits + 2);
+        if (pageDigits < 1 || pageDigits > 2 || digits + 2 + pageDigits != name.length()) {
+            return null;
+        }
+        return new SourceRef(name, SourceSiteEnums.PIXIV, number(name, 0, digits), -1, -1, -1, -1,
+                (int) number(name, digits + 2, digits + 2 + pageDigits));
+    }
+
+    /**
+     * {@code <host><author>status<id>[photo<n>|video<n>...]}, the author extending to the last {@code status}.
+     */
+    private SourceRef parseX(CharSequence name, int authorStart) {
+        var status = lastIndexOf(name, "status");
+        if (status <= authorStart) {
+            return null;
+        }
+        var idStart = status + "status".length();
+        var digits = digitsAt(name, idStart);
+        var id = digits == 0 || digits > MAX_ID_DIGITS ? -1L : number(name, idStart, idStart + digits);
+        if (id < 0) {
+            return null;
+        }
+        var page = -1;
+        var media = idStart + digits;
+        if (startsWith(name, media, "photo") || startsWith(name, media, "video")) {
+            page = pageAt(name, media + "photo".length());
+        }
+        return new SourceRef(name, SourceSiteEnums.X, id, authorStart, status, -1, -1, page);
+    }
+
+    /**
+     * {@code https<host>miyoushe.com<game>article<id>}.
+     */
+    private SourceRef parseMiyoushe(CharSequence name, int gameStart) {
+        var article = indexOf(name, "article", gameStart);
+        if (article <= gameStart) {
+            return null;
+        }
+        var idStart = article + "article".length();
+        var digits = digitsAt(name, idStart);
+        var id = digits == 0 || digits > MAX_ID_DIGITS ? -1L : number(name, idStart, idStart + digits);
+        if (id < 0 || idStart + digits != name.length()) {
+            return null;
+        }
+        return new SourceRef(name, SourceSiteEnums.MIYOUSHE, id, -1, -1, gameStart, article, -1);
+    }
+
+    /**
+     * {@code https<host>deviantart.com<author>art<slug>}, the author extending to the last {@code art}.
+     * The slug usually ends with {@code -<numeric id>}.
+     */
+    private SourceRef parseDeviantart(CharSequence name, int authorStart) {
+        var art = lastIndexOf(name, "art");
+        if (art <= authorStart || art + "art".length() >= name.length()) {
+            return null;
+        }
+        var slugStart = art + "art".length();
+        var idStart = name.length();
+        while (idStart > slugStart && isDigit(name.charAt(idStart - 1))) {
+            --idStart;
+        }
+        var digits = name.length() - idStart;
+        var id = digits > 0 && digits <= MAX_ID_DIGITS ? number(name, idStart, name.length()) : -1L;
+        return new SourceRef(name, SourceSiteEnums.DEVIANTART, id, authorStart, art, slugStart, name.length(), -1);
+    }
+
+    /**
+     * {@code https<host>facebook.comphoto<query>}, the id taken from {@code fbid=<digits>} if present.
+     */
+    private SourceRef parseFacebook(CharSequence name, int queryStart) {
+        if (queryStart >= name.length()) {
+            return null;
+        }
+        var id = -1L;
+        var fbid = indexOf(name, "fbid=", queryStart);
+        if (fbid >= 0) {
+            var digits = digitsAt(name, fbid + "fbid=".length());
+            if (digits > 0 && digits <= MAX_ID_DIGITS) {
+                id = number(name, fbid + "fbid=".length(), fbid + "fbid=".length() + digits);
+            }
+        }
+        return new SourceRef(name, SourceSiteEnums.FACEBOOK, id, -1, -1, queryStart, name.length(), -1);
+    }
+
+    /**
+     * A numeric id running from {@code start} up to the end of the name, optionally followed by a
+     * {@code #<n>} picture index or a {@code spm_id_from} tracking parameter.
+     */
+    private SourceRef numeric(CharSequence name, SourceSiteEnums site, int start) {
+        var digits = digitsAt(name, start);
+        var end = start + digits;
+        var id = digits == 0 || digits > MAX_ID_DIGITS ? -1L : number(name, start, end);
+        if (id < 0) {
+            return null;
+        }
+        var page = -1;
+        if (end < name.length() && name.charAt(end) == '#') {
+            page = pageAt(name, end + 1);
+        } else if (end != name.length() && !startsWith(name, end, "spm_id_from")) {
+            return null;
+        }
+        return new SourceRef(name, site, id, -1, -1, -1, -1, page);
+    }
+
+    /**
+     * @return The zero-based page of a one-based one or two digit picture number at {@code offset},
+     * {@code -1} if there is none.
+     */
+    private static int pageAt(CharSequence name, int offset) {
+        var digits = digitsAt(name, offset);
+        return digits > 0 && digits <= 2 ? (int) number(name, offset, offset + digits) - 1 : -1;
+    }
+
+    /**
+     * A non-numeric id running from {@code start} to the end of the name.
+     */
+    private SourceRef token(CharSequence name, SourceSiteEnums site, int start) {
+        if (start >= name.length()) {
+            return null;
+        }
+        return new SourceRef(name, site, -1L, -1, -1, start, name.length(), -1);
+    }
+
+    private static boolean startsWith(CharSequence s, int offset, String prefix) {
+        if (offset < 0 || offset + prefix.length() > s.length()) {
+            return false;
+        }
+        for (var i = 0; i < prefix.length(); ++i) {
+            if (s.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence s, String needle, int from) {
+        for (var i = Math.max(from, 0); i + needle.length() <= s.length(); ++i) {
+            if (startsWith(s, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence s, String needle) {
+        for (var i = s.length() - needle.length(); i >= 0; --i) {
+            if (startsWith(s, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The number of consecutive ASCII digits starting at {@code offset}.
+     */
+    private static int digitsAt(CharSequence s, int offset) {
+        var i = offset;
+        while (i < s.length() && isDigit(s.charAt(i))) {
+            ++i;
+        }
+        return i - offset;
+    }
+
+    /**
+     * @return The decimal value of the digits in {@code [start, end)}, {@code -1} if it does not fit a long.
+     */
+    private static long number(CharSequence s, int start, int end) {
+        var value = 0L;
+        for (var i = start; i < end; ++i) {
+            var digit = s.charAt(i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                return -1L;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,53 @@
+package org.jacob.obio.ifp.service;
+
+/**
+ * Renders a {@link SourceRef} as the URL of its post.
+ * <p>
+ * The URLs are the ones the URL rewrite rules produce for the same names; the host is always the canonical
+ * one (e.g. {@code x.com} for Twitter names). Rendering is kept apart from parsing so that grouping and
+ * indexing can work on references and only build strings for what is shown.
+ *
+ * @author Kotohiko
+ * @since 08:23 Oct 18, 2026
+ */
+public final class SourceRefRenderer {
+
+    /**
+     * @param ref The reference.
+     * @return The URL.
+     */
+    public String render(SourceRef ref) {
+        return appendTo(ref, new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Appends the URL of a reference.
+     *
+     * @param ref The reference.
+     * @param sb  The destination.
+     * @return The destination.
+     */
+    public StringBuilder appendTo(SourceRef ref, StringBuilder sb) {
+        var name = ref.name();
+        return switch (ref.site()) {
+            case PIXIV -> sb.append("https://www.pixiv.net/artworks/").append(ref.id());
+            case X -> sb.append("https://x.com/").append(name, ref.authorStart(), ref.authorEnd())
+                    .append("/status/").append(ref.id());
+            case DANBOORU -> sb.append("https://danbooru.donmai.us/posts/").append(ref.id());
+            case BILIBILI_OPUS -> sb.append("https://www.bilibili.com/opus/").append(ref.id());
+            case BILIBILI_DYNAMIC -> sb.append("https://t.bilibili.com/").append(ref.id());
+            case BILIBILI_VIDEO -> sb.append("https://www.bilibili.com/video/")
+                    .append(name, ref.tokenStart(), ref.tokenEnd());
+            case MIYOUSHE -> sb.append("https://www.miyoushe.com/").append(name, ref.tokenStart(), ref.tokenEnd())
+                    .append("/article/").append(ref.id());
+            case DEVIANTART -> sb.append("https://www.deviantart.com/")
+                    .append(name, ref.authorStart(), ref.authorEnd())
+                    .append("/art/").append(name, ref.tokenStart(), ref.tokenEnd());
+            case FACEBOOK -> sb.append("https://www.facebook.com/photo/?")
+                    .append(name, ref.tokenStart(), ref.tokenEnd());
+            case YOUTUBE -> sb.append("https://www.youtube.com/watch?v=").append(name, ref.tokenStart(), ref.tokenEnd());
+            case YOUTUBE_SHORTS -> sb.append("https://www.youtube.com/shorts/")
+                    .append(name, ref.tokenStart(), ref.tokenEnd());
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package org.jacob.obio.ifp.service;
+
+import java.util.List;
+
+/**
+ * The rewrite rule of one site, as declared in the URL rewrite rules file.
+ *
+ * @param site     A readable name of the site.
+ * @param keys     Texts that identify the site inside a file name, empty if the rule is only used explicitly.
+ * @param priority Priority of the keys, see {@link SiteRule#priority()}.
+ * @param rewrites The compiled rewrites, tried in order.
+ * @author Kotohiko
+ * @since 08:21 Oct 18, 2026
+ */
+public record UrlRewriteRule(String site, List<String> keys, int priority, List<RewriteProgram> rewrites) {
+
+    public UrlRewriteRule {
+        keys = List.copyOf(keys);
+        rewrites = List.copyOf(rewrites);
+    }
+
+    /**
+     * @param name The file name, without extension.
+     * @return The URL of the first rewrite that fits the name, or {@code null} if none does.
+     */
+    public String rewrite(String name) {
+        for (RewriteProgram program : rewrites) {
+            var url = program.rewrite(name);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package org.jacob.obio.ifp.service;
+
+import org.jacob.obio.ifp.constants.IFPConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The URL rewrite rules file, compiled once.
+ * <p>
+ * Rules are kept in file order; their keys and priorities feed the {@link SiteKeyMatcher}, their rewrites
+ * turn a file name into its URL. The format is described at the top of
+ * {@link IFPConstants#URL_REWRITE_RULES_PATH}.
+ *
+ * @author Kotohiko
+ * @since 08:21 Oct 18, 2026
+ */
+public final class UrlRewriteRules {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlRewriteRules.class);
+
+    private final List<UrlRewriteRule> rules;
+
+    private final Map<String, UrlRewriteRule> bySite;
+
+    private UrlRewriteRules(List<UrlRewriteRule> rules) {
+        this.rules = List.copyOf(rules);
+        Map<String, UrlRewriteRule> sites = new HashMap<>();
+        for (UrlRewriteRule rule : rules) {
+            sites.putIfAbsent(rule.site(), rule);
+        }
+        this.bySite = Map.copyOf(sites);
+    }
+
+    /**
+     * @return The process-wide rules, loaded from {@link IFPConstants#URL_REWRITE_RULES_PATH} on first use.
+     */
+    public static UrlRewriteRules getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads and compiles a rules file.
+     *
+     * @param yamlFile The rules file.
+     * @return The compiled rules; empty if the file is missing or unreadable, in which case no name can be parsed.
+     * @throws IllegalArgumentException if a rule is malformed, so that a broken rules file is noticed at startup.
+     */
+    @SuppressWarnings("unchecked")
+    public static UrlRewriteRules load(Path yamlFile) {
+        if (!Files.isRegularFile(yamlFile)) {
+            logger.error("The URL rewrite rules file does not exist: {}", yamlFile.toAbsolutePath());
+            return new UrlRewriteRules(List.of());
+        }
+
+        List<Map<String, Object>> data;
+        try (Reader reader = Files.newBufferedReader(yamlFile, StandardCharsets.UTF_8)) {
+            data = new Yaml().load(reader);
+        } catch (IOException e) {
+            logger.error("Failed to read the URL rewrite rules file: {}", yamlFile.toAbsolutePath(), e);
+            return new UrlRewriteRules(List.of());
+        }
+
+        List<UrlRewriteRule> rules = new ArrayList<>();
+        for (Map<String, Object> entry : data == null ? List.<Map<String, Object>>of() : data) {
+            var site = String.valueOf(entry.get("site"));
+            var keys = (List<Object>) entry.getOrDefault("keys", List.of());
+            var priority = ((Number) entry.getOrDefault("priority", 0)).intValue();
+            List<RewriteProgram> programs = new ArrayList<>();
+            for (Map<String, Object> rewrite : (List<Map<String, Object>>) entry.getOrDefault("rewrites", List.of())) {
+                programs.add(RewriteProgram.compile(String.valueOf(rewrite.get("match")),
+                        String.valueOf(rewrite.get("url"))));
+            }
+            if (programs.isEmpty()) {
+                throw new IllegalArgumentException("Rule " + site + " has no rewrites");
+            }
+            rules.add(new UrlRewriteRule(site, keys.stream().map(String::valueOf).toList(), priority, programs));
+        }
+        logger.debug("Loaded {} URL rewrite rules from {}", rules.size(), yamlFile);
+        return new UrlRewriteRules(rules);
+    }
+
+    /**
+     * @return All rules, in file order.
+     */
+    public List<UrlRewriteRule> rules() {
+        return rules;
+    }
+
+    /**
+     * @param site The site name.
+     * @return The first rule of the site, or {@code null} if there is none.
+     */
+    public UrlRewriteRule bySite(String site) {
+        return bySite.get(site);
+    }
+
+    /**
+     * @return One {@link SiteRule} per key of every rule, in file order, ready for {@link SiteKeyMatcher}.
+     */
+    public List<SiteRule> siteRules() {
+        List<SiteRule> siteRules = new ArrayList<>();
+        for (UrlRewriteRule rule : rules) {
+            for (String key : rule.keys()) {
+                siteRules.add(new SiteRule(key, rule.site(), rule.priority(), rule::rewrite));
+            }
+        }
+        return siteRules;
+    }
+
+    /**
+     * Lazy holder, the rules are compiled on first use.
+     */
+    private static final class Holder {
+        private static final UrlRewriteRules INSTANCE = load(Paths.get(IFPConstants.URL_REWRITE_RULES_PATH));
+    }
+}
@@ -0,0 +1,288 @@
+package org.jacob.obio.ifp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks {@link RewriteProgram} and the shipped rewrite rules. Every site is compared with the offset-based
+ * parser that {@link FilenameParser} used before the rules file existed, kept below as {@link OffsetParser}.
+ *
+ * @author Kotohiko
+ * @since 09:18 Oct 18, 2026
+ */
+class RewriteProgramTest {
+
+    /**
+     * Tests run from the module directory.
+     */
+    private final FilenameParser parser = new FilenameParser(
+            UrlRewriteRules.load(Paths.get("src/main/resources/conf/url-rewrite-rules.yaml")));
+
+    private final OffsetParser offset = new OffsetParser();
+
+    @Test
+    void captureStopsAtTheFirstOccurrenceOfTheNextLiteral() {
+        var program = RewriteProgram.compile("{a}-{b}", "{b}/{a}");
+        assertEquals("b-c/a", program.rewrite("a-b-c"));
+    }
+
+    @Test
+    void greedyCaptureStopsAtTheLastOccurrenceOfTheNextLiteral() {
+        var program = RewriteProgram.compile("{a+}-{b}", "{b}/{a}");
+        assertEquals("c/a-b", program.rewrite("a-b-c"));
+    }
+
+    @Test
+    void nameThatDoesNotFitGivesNull() {
+        var program = RewriteProgram.compile("post{id}.html", "https://example.com/{id}");
+        assertNull(program.rewrite("page1.html"));
+        assertNull(program.rewrite("post1.htm"));
+        assertEquals("https://example.com/1", program.rewrite("post1.html"));
+    }
+
+    @Test
+    void malformedPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RewriteProgram.compile("{a}{b}", "{a}"));
+        assertThrows(IllegalArgumentException.class, () -> RewriteProgram.compile("{a}-{a}", "{a}"));
+        assertThrows(IllegalArgumentException.class, () -> RewriteProgram.compile("{a}", "{b}"));
+        assertThrows(IllegalArgumentException.class, () -> RewriteProgram.compile("{}", "x"));
+        assertThrows(IllegalArgumentException.class, () -> RewriteProgram.compile("{a", "x"));
+    }
+
+    @Test
+    void pixiv() {
+        assertSameAsOffsetCode(parser::pixivIllustrationsOrIllustratorIdParser,
+                offset::pixivIllustrationsOrIllustratorIdParser,
+                "123456789_p0", "98765432_p12");
+    }
+
+    @Test
+    void x() {
+        assertSameAsOffsetCode(parser::twitterParser, offset::twitterParser,
+                "httpsx.comkotohikostatus1845123456789012345photo1",
+                "httpsx.comkotohikostatus1845123456789012345photo4",
+                "httpstwitter.comsome_userstatus1234567890photo2",
+                "httpsx.comkotohikostatus1845123456789012345");
+    }
+
+    @Test
+    void yande() {
+        assertSameAsOffsetCode(parser::yandeParser, offset::yandeParser, "httpsyande.repostshow1234567");
+    }
+
+    @Test
+    void miyoushe() {
+        assertSameAsOffsetCode(parser::miyousheParser, offset::miyousheParser,
+                "httpswww.miyoushe.comysarticle12345678",
+                "httpswww.miyoushe.combh3article23456789",
+                "httpswww.miyoushe.comsrarticle34567890");
+    }
+
+    @Test
+    void danbooru() {
+        assertSameAsOffsetCode(parser::danbooruParser, offset::danbooruParser, "httpsdanbooru.donmai.usposts7654321");
+    }
+
+    @Test
+    void bilibili() {
+        assertSameAsOffsetCode(parser::bilibiliIllustrationsParser, offset::bilibiliIllustrationsParser,
+                "httpswww.bilibili.comopus912345678901234567",
+                "httpswww.bilibili.comopus912345678901234567spm_id_from333.999.0.0",
+                "httpst.bilibili.com912345678901234567",
+                "httpst.bilibili.com912345678901234567spm_id_from333.999.0.0");
+    }
+
+    @Test
+    void bilibiliVideo() {
+        assertSameAsOffsetCode(parser::bilibiliVideosParser, offset::bilibiliVideosParser,
+                "httpswww.bilibili.comvideoBV1xx411c7mD");
+    }
+
+    @Test
+    void baiduNetDisk() {
+        assertSameAsOffsetCode(parser::baiduNetDiskParser, offset::baiduNetDiskParser, "1AbCdEfGhIjKlMn");
+    }
+
+    @Test
+    void niconico() {
+        assertSameAsOffsetCode(parser::nicoVideoParser, offset::nicoVideoParser, "im11223344");
+    }
+
+    @Test
+    void alphaCoders() {
+        assertSameAsOffsetCode(parser::alphacodersParser, offset::alphacodersParser,
+                "httpswall.alphacoders.combig.phpi=1311234");
+    }
+
+    @Test
+    void youtube() {
+        assertSameAsOffsetCode(parser::youtubeParser, offset::youtubeParser,
+                "httpswww.youtube.comwatchv=dQw4w9WgXcQ",
+                "httpswww.youtube.comshortsabcDEF12345",
+                "httpsyoutu.bedQw4w9WgXcQ");
+    }
+
+    @Test
+    void wallpaperCave() {
+        assertSameAsOffsetCode(parser::wallpaperCaveParser, offset::wallpaperCaveParser, "wp4471392");
+    }
+
+    @Test
+    void deviantArt() {
+        assertSameAsOffsetCode(parser::deviantartParser, offset::deviantartParser,
+                "httpswww.deviantart.comsevenicsartMona-Lisa-123456789");
+    }
+
+    @Test
+    void facebook() {
+        assertSameAsOffsetCode(parser::facebookParser, offset::facebookParser,
+                "httpswww.facebook.comphotofbid=123456789&set=a.987654321");
+    }
+
+    private static void assertSameAsOffsetCode(UnaryOperator<String> rules, UnaryOperator<String> offsets,
+                                               String... names) {
+        for (String name : names) {
+            var expected = offsets.apply(name);
+            assertFalse(expected.isEmpty(), name);
+            assertEquals(expected, rules.apply(name), name);
+        }
+    }
+
+    /**
+     * The per-site parsers as they were before the rewrite rules, inserting separators at fixed offsets.
+     */
+    private static final class OffsetParser {
+
+        String pixivIllustrationsOrIllustratorIdParser(String str) {
+            return String.format("https://www.pixiv.net/artworks/%s", str.substring(0, str.indexOf('_')));
+        }
+
+        String twitterParser(String str) {
+            var sb = new StringBuilder(str);
+            if (str.contains("httpstwitter.com")) {
+                sb.replace(0, 16, "https://x.com/");
+            } else if (str.contains("httpsx.com")) {
+                sb.replace(0, 10, "https://x.com/");
+            }
+            sb.insert(sb.indexOf("status"), "/");
+            sb.insert(sb.indexOf("status") + 6, "/");
+            if (str.endsWith("photo1")) {
+                return sb.substring(0, sb.indexOf("photo1"));
+            } else if (str.endsWith("photo2")) {
+                return sb.substring(0, sb.indexOf("photo2"));
+            } else if (str.endsWith("photo3")) {
+                return sb.substring(0, sb.indexOf("photo3"));
+            } else if (str.endsWith("photo4")) {
+                return sb.substring(0, sb.indexOf("photo4"));
+            } else {
+                return sb.toString();
+            }
+        }
+
+        String yandeParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(16, "/");
+            sb.insert(21, "/");
+            sb.insert(26, "/");
+            return String.valueOf(sb);
+        }
+
+        String miyousheParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(24, "/");
+            if (str.contains("ys")) {
+                sb.insert(sb.indexOf("ys") + 2, "/");
+            } else if (str.contains("bh3")) {
+                sb.insert(sb.indexOf("bh3") + 3, "/");
+            } else if (str.contains("sr")) {
+                sb.insert(sb.indexOf("sr") + 2, "/");
+            }
+            sb.insert(sb.indexOf("article") + 7, "/");
+            return sb.toString();
+        }
+
+        String danbooruParser(String str) {
+            var sb = new StringBuilder(str);
+            return sb.replace(0, 28, "https://danbooru.donmai.us/posts/").toString();
+        }
+
+        String bilibiliIllustrationsParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            if (str.contains("opus")) {
+                sb.insert(24, "/");
+                sb.insert(sb.indexOf("opus") + 4, "/");
+            } else if (str.contains("t.bilibili")) {
+                sb.insert(22, "/");
+            }
+            if (str.contains("spm_id_from")) {
+                sb.delete(sb.indexOf("spm_id_from"), sb.length());
+            }
+            return sb.toString();
+        }
+
+        String bilibiliVideosParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(sb.indexOf("video"), "/");
+            sb.insert(sb.indexOf("video") + 5, "/");
+            return sb.toString();
+        }
+
+        String baiduNetDiskParser(String str) {
+            return "pan.baidu.com/s/" + str;
+        }
+
+        String nicoVideoParser(String str) {
+            return "https://seiga.nicovideo.jp/seiga/" + str;
+        }
+
+        String alphacodersParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(sb.indexOf("com") + 3, "/");
+            sb.insert(sb.indexOf("i="), "?");
+            return sb.toString();
+        }
+
+        String youtubeParser(String str) {
+            var sb = new StringBuilder(str);
+            if (str.contains("httpswww.youtube.comwatch")) {
+                sb.replace(0, 27, "https://www.youtube.com/watch?v=");
+            } else if (str.contains("httpsyoutu.be")) {
+                sb.replace(0, 13, "https://youtu.be/");
+            } else if (str.contains("httpswww.youtube.comshorts")) {
+                sb.replace(0, 26, "https://www.youtube.com/shorts/");
+            }
+            return sb.toString();
+        }
+
+        String wallpaperCaveParser(String str) {
+            return "https://wallpapercave.com/w/" + str;
+        }
+
+        String deviantartParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(sb.indexOf("com") + 3, "/");
+            sb.insert(sb.indexOf("sevenics") + 8, "/");
+            sb.insert(sb.lastIndexOf("art") + 3, "/");
+            return sb.toString();
+        }
+
+        String facebookParser(String str) {
+            var sb = new StringBuilder(str);
+            sb.insert(5, "://");
+            sb.insert(sb.indexOf("com") + 3, "/");
+            sb.insert(sb.indexOf("photo") + 5, "/");
+            sb.insert(sb.indexOf("photo") + 6, "?");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.jacob.obio.ifp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the winner of {@link SiteKeyMatcher} when keys overlap, against a brute-force search.
+ *
+ * @author Kotohiko
+ * @since 09:17 Oct 18, 2026
+ */
+class SiteKeyMatcherTest {
+
+    private static SiteRule rule(String key, int priority) {
+        return new SiteRule(key, key, priority, name -> name);
+    }
+
+    @Test
+    void noKeyGivesNull() {
+        var matcher = SiteKeyMatcher.compile(List.of(rule("httpsx", 20), rule("deviantart", 10)));
+        assertNull(matcher.match("12345678_p0"));
+        assertNull(matcher.match(""));
+    }
+
+    @Test
+    void emptyKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SiteKeyMatcher.compile(List.of(rule("", 1))));
+    }
+
+    @Test
+    void longestKeyWinsAmongOverlappingKeys() {
+        // "she", "he" and "hers" all occur in "ushers" and overlap each other
+        var matcher = SiteKeyMatcher.compile(List.of(rule("he", 0), rule("she", 0), rule("his", 0),
+                rule("hers", 0)));
+        assertEquals("hers", matcher.match("ushers").key());
+        assertEquals("she", matcher.match("ushe").key());
+        assertEquals("his", matcher.match("ahis").key());
+        // "his" and "she" are equally long, "she" is registered first
+        assertEquals("she", matcher.match("ahishe").key());
+    }
+
+    @Test
+    void keyInsideALongerPartialKeyIsFoundThroughTheFailureLink() {
+        // Reading "abcx" walks down "abcd" and has to fall back to "bc" once "x" does not continue it
+        var matcher = SiteKeyMatcher.compile(List.of(rule("abcd", 0), rule("bc", 0)));
+        assertEquals("bc", matcher.match("abcx").key());
+        assertEquals("abcd", matcher.match("xabcd").key());
+    }
+
+    @Test
+    void priorityWinsOverLength() {
+        var matcher = SiteKeyMatcher.compile(List.of(rule("deviantart", 10), rule("httpsx", 20)));
+        assertEquals("httpsx", matcher.match("httpsx.comdeviantartstatus1").key());
+    }
+
+    @Test
+    void firstRegisteredWinsATie() {
+        var matcher = SiteKeyMatcher.compile(List.of(rule("bilibili", 15), rule("miyoushe", 15)));
+        assertEquals("bilibili", matcher.match("miyoushebilibili").key());
+        assertEquals("bilibili", matcher.match("bilibilimiyoushe").key());
+    }
+
+    @Test
+    void sameKeyTwiceKeepsTheBetterRule() {
+        var first = rule("opus", 10);
+        var second = rule("opus", 15);
+        var matcher = SiteKeyMatcher.compile(List.of(first, second));
+        assertSame(second, matcher.match("bilibili.comopus1"));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomOverlappingKeys() {
+        var random = new Random(42);
+        for (var round = 0; round < 200; ++round) {
+            List<SiteRule> rules = new ArrayList<>();
+            for (var i = 0; i < 1 + random.nextInt(8); ++i) {
+                rules.add(rule(randomText(random, 1 + random.nextInt(4)), random.nextInt(3)));
+            }
+            var matcher = SiteKeyMatcher.compile(rules);
+            for (var i = 0; i < 50; ++i) {
+                var name = randomText(random, random.nextInt(16));
+                assertSame(bruteForce(rules, name), matcher.match(name), rules + " in " + name);
+            }
+        }
+    }
+
+    /**
+     * Short texts over a two-letter alphabet, so that keys overlap and share prefixes and suffixes a lot.
+     */
+    private static String randomText(Random random, int length) {
+        var sb = new StringBuilder(length);
+        for (var i = 0; i < length; ++i) {
+            sb.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return sb.toString();
+    }
+
+    private static SiteRule bruteForce(List<SiteRule> rules, String name) {
+        SiteRule winner = null;
+        for (SiteRule rule : rules) {
+            if (!name.contains(rule.key())) {
+                continue;
+            }
+            if (winner == null || rule.priority() > winner.priority()
+                    || rule.priority() == winner.priority() && rule.key().length() > winner.key().length()) {
+                winner = rule;
+            }
+        }
+        return winner;
+    }
+}
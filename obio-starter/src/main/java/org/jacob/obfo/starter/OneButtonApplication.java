@@ -2,6 +2,7 @@ package org.jacob.obfo.starter;
 
 import org.jacob.obfo.core.controller.ReadAndMoveController;
 import org.jacob.obfo.core.monitor.MonitorStarter;
+import org.jacob.obfo.core.service.journal.JournalService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,12 +26,13 @@ public final class OneButtonApplication {
     /**
      * The entry point of the application.
      * <p>
-     * This method starts the monitor, logs the successful start,
-     * and invokes the main functionality of the read and move controller.
+     * This method first recovers the move batches a crash has interrupted, then starts the monitor,
+     * logs the successful start, and invokes the main functionality of the read and move controller.
      *
      * @param args Command line arguments, not used in this context.
      */
     public static void main(String[] args) {
+        JournalService.getInstance().recover();
         var addFileMonitor = MonitorStarter.monitorStarter();
         logger.info("{} has started successfully.", addFileMonitor);
         new ReadAndMoveController().cmdHandler();